@@ -0,0 +1,198 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+
+import io.wcm.devops.conga.generator.spi.context.PluginContextOptions;
+import io.wcm.devops.conga.generator.spi.context.ValueProviderGlobalContext;
+import io.wcm.devops.conga.generator.util.PluginManagerImpl;
+
+/**
+ * Builds synthetic configurations and CONGA definitions used by the benchmarks.
+ */
+final class BenchmarkFixtures {
+
+  static final String ROLE_NAME_PREFIX = "role";
+  static final String SUPER_ROLE_NAME = "superRole";
+  static final String ENVIRONMENT_NAME = "benchmark";
+  static final String TEMPLATE_DIR = "benchmark";
+  static final String JSON_TEMPLATE = "config.json.hbs";
+  static final String CONF_TEMPLATE = "config.conf.hbs";
+
+  private static final String JSON_TEMPLATE_CONTENT = "{\n"
+      + "  \"host\": \"{{host}}\",\n"
+      + "  \"port\": {{port}},\n"
+      + "  \"url\": \"{{url}}\",\n"
+      + "  \"items\": [{{#each items}}\"{{this}}\"{{#unless @last}}, {{/unless}}{{/each}}]\n"
+      + "}\n";
+
+  private static final String CONF_TEMPLATE_CONTENT = "# {{node}}\n"
+      + "host={{host}}\n"
+      + "port={{port}}\n"
+      + "url={{url}}\n"
+      + "{{#each settings}}\n"
+      + "{{@key}}={{this}}\n"
+      + "{{/each}}\n";
+
+  private BenchmarkFixtures() {
+    // static methods only
+  }
+
+  /**
+   * @return Value provider context with default plugin manager
+   */
+  static ValueProviderGlobalContext valueProviderGlobalContext() {
+    return new ValueProviderGlobalContext()
+        .pluginContextOptions(pluginContextOptions());
+  }
+
+  /**
+   * @return Plugin context options with default plugin manager
+   */
+  static PluginContextOptions pluginContextOptions() {
+    return new PluginContextOptions()
+        .pluginManager(new PluginManagerImpl());
+  }
+
+  /**
+   * Builds a flat config map with the given number of entries. Each group of 4 entries contains a literal value,
+   * a value referencing it, a value with multiple references and a JEXL expression.
+   * @param size Number of entries
+   * @return Config map
+   */
+  static Map<String, Object> variableConfig(int size) {
+    Map<String, Object> config = new HashMap<>();
+    for (int i = 0; i < size / 4; i++) {
+      config.put("host" + i, "host" + i + ".example.com");
+      config.put("port" + i, 8000 + i);
+      config.put("url" + i, "http://${host" + i + "}:${port" + i + "}/path");
+      config.put("maxPort" + i, "${port" + i + " + 100}");
+    }
+    return config;
+  }
+
+  /**
+   * Builds a nested config map.
+   * @param breadth Number of entries per level
+   * @param depth Number of nested levels
+   * @param valuePrefix Prefix for values
+   * @return Config map
+   */
+  static Map<String, Object> nestedConfig(int breadth, int depth, String valuePrefix) {
+    Map<String, Object> config = new HashMap<>();
+    for (int i = 0; i < breadth; i++) {
+      if (depth > 1) {
+        config.put("map" + i, nestedConfig(breadth, depth - 1, valuePrefix));
+      }
+      config.put("value" + i, valuePrefix + i);
+      List<Object> list = new ArrayList<>();
+      for (int j = 0; j < breadth; j++) {
+        list.add(valuePrefix + j);
+      }
+      config.put("list" + i, list);
+    }
+    return config;
+  }
+
+  /**
+   * Builds a config map using shortcut keys with dots.
+   * @param size Number of entries
+   * @return Config map
+   */
+  static Map<String, Object> shortcutConfig(int size) {
+    Map<String, Object> config = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      config.put("group" + (i % 10) + ".sub" + (i % 7) + ".key" + i, "value" + i);
+    }
+    return config;
+  }
+
+  /**
+   * Writes role, template and environment definitions for a synthetic environment.
+   * @param baseDir Base directory
+   * @param roleCount Number of roles (all inheriting from one super role)
+   * @param nodeCount Number of nodes (each node is assigned to one of the roles)
+   * @throws IOException I/O exception
+   */
+  static void writeDefinitions(File baseDir, int roleCount, int nodeCount) throws IOException {
+    File templateDir = new File(baseDir, "templates/" + TEMPLATE_DIR);
+    write(new File(templateDir, JSON_TEMPLATE), JSON_TEMPLATE_CONTENT);
+    write(new File(templateDir, CONF_TEMPLATE), CONF_TEMPLATE_CONTENT);
+
+    File roleDir = new File(baseDir, "roles");
+    write(new File(roleDir, SUPER_ROLE_NAME + ".yaml"), "templateDir: " + TEMPLATE_DIR + "\n"
+        + "files:\n"
+        + "- file: super.conf\n"
+        + "  dir: conf\n"
+        + "  template: " + CONF_TEMPLATE + "\n"
+        + "config:\n"
+        + "  port: 8080\n"
+        + "  items: [a, b, c, d]\n"
+        + "  settings:\n"
+        + "    timeout: 30\n"
+        + "    retries: 3\n"
+        + "    url: ${url}\n");
+    for (int i = 0; i < roleCount; i++) {
+      write(new File(roleDir, ROLE_NAME_PREFIX + i + ".yaml"), "inherits:\n"
+          + "- role: " + SUPER_ROLE_NAME + "\n"
+          + "templateDir: " + TEMPLATE_DIR + "\n"
+          + "files:\n"
+          + "- file: " + ROLE_NAME_PREFIX + i + ".json\n"
+          + "  dir: json\n"
+          + "  template: " + JSON_TEMPLATE + "\n"
+          + "  validators:\n"
+          + "  - json\n"
+          + "- file: " + ROLE_NAME_PREFIX + i + ".conf\n"
+          + "  dir: conf\n"
+          + "  template: " + CONF_TEMPLATE + "\n"
+          + "config:\n"
+          + "  host: " + ROLE_NAME_PREFIX + i + ".example.com\n"
+          + "  url: http://${host}:${port}/" + ROLE_NAME_PREFIX + i + "\n");
+    }
+
+    StringBuilder environment = new StringBuilder();
+    environment.append("nodes:\n");
+    for (int i = 0; i < nodeCount; i++) {
+      environment.append("- node: node").append(i).append("\n")
+          .append("  roles:\n")
+          .append("  - role: ").append(ROLE_NAME_PREFIX).append(i % roleCount).append("\n")
+          .append("  config:\n")
+          .append("    port: ").append(8000 + i).append("\n");
+    }
+    environment.append("config:\n")
+        .append("  settings:\n")
+        .append("    environment: ").append(ENVIRONMENT_NAME).append("\n");
+    write(new File(baseDir, "environments/" + ENVIRONMENT_NAME + ".yaml"), environment.toString());
+  }
+
+  private static void write(File file, String content) throws IOException {
+    FileUtils.write(file, content, StandardCharsets.UTF_8);
+  }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.helpers.NOPLogger;
+
+import io.wcm.devops.conga.generator.Generator;
+import io.wcm.devops.conga.generator.GeneratorOptions;
+import io.wcm.devops.conga.generator.util.PluginManagerImpl;
+
+/**
+ * Benchmarks a full {@link Generator#generate(String...)} run over a generated environment with many nodes.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeneratorBenchmark {
+
+  private static final int ROLE_COUNT = 6;
+
+  @Param({ "500" })
+  public int nodeCount;
+
+  @Param({ "1", "4" })
+  public int nodeParallelism;
+
+  private File baseDir;
+  private Generator generator;
+
+  @Setup
+  public void setUp() throws IOException {
+    baseDir = Files.createTempDirectory("conga-benchmark").toFile();
+    BenchmarkFixtures.writeDefinitions(baseDir, ROLE_COUNT, nodeCount);
+
+    GeneratorOptions options = new GeneratorOptions()
+        .baseDir(baseDir)
+        .roleDir(new File(baseDir, "roles"))
+        .templateDir(new File(baseDir, "templates"))
+        .environmentDir(new File(baseDir, "environments"))
+        .destDir(new File(baseDir, "target"))
+        .deleteBeforeGenerate(true)
+        .nodeParallelism(nodeParallelism)
+        .pluginManager(new PluginManagerImpl())
+        .logger(NOPLogger.NOP_LOGGER);
+    generator = new Generator(options);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(baseDir);
+  }
+
+  @Benchmark
+  public void generate() {
+    generator.generate(BenchmarkFixtures.ENVIRONMENT_NAME);
+  }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.NullWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.jknack.handlebars.Template;
+import com.google.common.collect.ImmutableList;
+
+import io.wcm.devops.conga.generator.handlebars.HandlebarsManager;
+import io.wcm.devops.conga.generator.plugins.handlebars.escaping.JsonEscapingStrategy;
+import io.wcm.devops.conga.generator.plugins.handlebars.escaping.NoneEscapingStrategy;
+import io.wcm.devops.conga.resource.ResourceLoader;
+
+/**
+ * Benchmarks compiling and applying handlebars templates via {@link HandlebarsManager}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HandlebarsManagerBenchmark {
+
+  private static final String CHARSET = "UTF-8";
+
+  private File baseDir;
+  private HandlebarsManager handlebarsManager;
+  private Template jsonTemplate;
+  private Template confTemplate;
+  private Map<String, Object> config;
+
+  @Setup
+  public void setUp() throws IOException {
+    baseDir = Files.createTempDirectory("conga-benchmark").toFile();
+    BenchmarkFixtures.writeDefinitions(baseDir, 1, 1);
+
+    ResourceLoader resourceLoader = new ResourceLoader();
+    handlebarsManager = new HandlebarsManager(ImmutableList.of(
+        resourceLoader.getResourceCollection(ResourceLoader.FILE_PREFIX + new File(baseDir, "templates").getPath())),
+        BenchmarkFixtures.pluginContextOptions());
+
+    jsonTemplate = compile(JsonEscapingStrategy.NAME, BenchmarkFixtures.JSON_TEMPLATE);
+    confTemplate = compile(NoneEscapingStrategy.NAME, BenchmarkFixtures.CONF_TEMPLATE);
+
+    config = new HashMap<>();
+    config.put("node", "node1");
+    config.put("host", "host1.example.com");
+    config.put("port", 8080);
+    config.put("url", "http://host1.example.com:8080/\"quoted\"");
+    config.put("items", ImmutableList.of("a", "b", "c", "d"));
+    config.put("settings", BenchmarkFixtures.nestedConfig(20, 1, "setting"));
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(baseDir);
+  }
+
+  private Template compile(String escapingStrategy, String template) throws IOException {
+    return handlebarsManager.get(escapingStrategy, CHARSET).compile(BenchmarkFixtures.TEMPLATE_DIR + "/" + template);
+  }
+
+  @Benchmark
+  public Template compileTemplate() throws IOException {
+    return compile(JsonEscapingStrategy.NAME, BenchmarkFixtures.JSON_TEMPLATE);
+  }
+
+  @Benchmark
+  public void applyJsonTemplate() throws IOException {
+    jsonTemplate.apply(config, new NullWriter());
+  }
+
+  @Benchmark
+  public void applyConfTemplate() throws IOException {
+    confTemplate.apply(config, new NullWriter());
+  }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.wcm.devops.conga.model.util.MapExpander;
+
+/**
+ * Benchmarks expanding shortcut keys in config maps with {@link MapExpander}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapExpanderBenchmark {
+
+  @Param({ "100", "1000" })
+  public int size;
+
+  private Map<String, Object> shortcutConfig;
+  private Map<String, Object> expandedConfig;
+
+  @Setup
+  public void setUp() {
+    shortcutConfig = BenchmarkFixtures.shortcutConfig(size);
+    expandedConfig = BenchmarkFixtures.nestedConfig(5, 3, "v");
+  }
+
+  @Benchmark
+  public Map<String, Object> expandShortcuts() {
+    return MapExpander.expand(shortcutConfig);
+  }
+
+  @Benchmark
+  public Map<String, Object> expandWithoutShortcuts() {
+    return MapExpander.expand(expandedConfig);
+  }
+
+}
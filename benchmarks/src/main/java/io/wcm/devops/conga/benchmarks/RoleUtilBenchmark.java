@@ -0,0 +1,99 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableList;
+
+import io.wcm.devops.conga.generator.util.RoleUtil;
+import io.wcm.devops.conga.model.role.Role;
+import io.wcm.devops.conga.model.role.RoleFile;
+import io.wcm.devops.conga.model.role.RoleInherit;
+
+/**
+ * Benchmarks resolving role inheritance chains with {@link RoleUtil}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoleUtilBenchmark {
+
+  private static final int FILES_PER_ROLE = 10;
+
+  @Param({ "1", "5" })
+  public int inheritanceDepth;
+
+  private Map<String, Role> roles;
+  private String roleName;
+
+  @Setup
+  public void setUp() {
+    roles = new HashMap<>();
+    String superRoleName = null;
+    for (int level = 0; level < inheritanceDepth; level++) {
+      String name = "role" + level;
+      Role role = new Role();
+      if (superRoleName != null) {
+        RoleInherit inherit = new RoleInherit();
+        inherit.setRole(superRoleName);
+        role.setInherits(ImmutableList.of(inherit));
+      }
+      List<RoleFile> files = new ArrayList<>();
+      for (int i = 0; i < FILES_PER_ROLE; i++) {
+        RoleFile file = new RoleFile();
+        // every second file is overwritten by the sub role
+        file.setFile("file" + (i % 2 == 0 ? i : level * FILES_PER_ROLE + i) + ".conf");
+        file.setTemplate("template" + i + ".conf.hbs");
+        files.add(file);
+      }
+      role.setFiles(files);
+      role.setConfig(BenchmarkFixtures.nestedConfig(5, 3, name));
+      roles.put(name, role);
+      superRoleName = name;
+    }
+    roleName = superRoleName;
+  }
+
+  @Benchmark
+  public Map<String, Role> resolveRole() {
+    return RoleUtil.resolveRole(roleName, "benchmark", roles);
+  }
+
+}
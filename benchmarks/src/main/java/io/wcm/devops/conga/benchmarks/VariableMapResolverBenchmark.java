@@ -0,0 +1,75 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.wcm.devops.conga.generator.util.VariableMapResolver;
+
+/**
+ * Benchmarks resolving large synthetic config maps with {@link VariableMapResolver}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VariableMapResolverBenchmark {
+
+  @Param({ "100", "1000", "10000" })
+  public int size;
+
+  private VariableMapResolver resolver;
+  private Map<String, Object> config;
+  private Map<String, Object> nestedConfig;
+
+  @Setup
+  public void setUp() {
+    resolver = new VariableMapResolver(BenchmarkFixtures.valueProviderGlobalContext());
+    config = BenchmarkFixtures.variableConfig(size);
+    nestedConfig = BenchmarkFixtures.nestedConfig(5, 3, "${host0}-");
+    nestedConfig.putAll(config);
+  }
+
+  @Benchmark
+  public Map<String, Object> resolveFlat() {
+    return resolver.resolve(config);
+  }
+
+  @Benchmark
+  public Map<String, Object> resolveNested() {
+    return resolver.resolve(nestedConfig);
+  }
+
+}
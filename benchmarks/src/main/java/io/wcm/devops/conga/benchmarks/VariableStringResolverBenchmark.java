@@ -0,0 +1,83 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.wcm.devops.conga.generator.util.VariableStringResolver;
+
+/**
+ * Benchmarks resolving single strings with {@link VariableStringResolver}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VariableStringResolverBenchmark {
+
+  private VariableStringResolver resolver;
+  private Map<String, Object> variables;
+
+  @Setup
+  public void setUp() {
+    resolver = new VariableStringResolver(BenchmarkFixtures.valueProviderGlobalContext());
+    variables = BenchmarkFixtures.variableConfig(400);
+  }
+
+  @Benchmark
+  public Object literal() {
+    return resolver.resolve("just a literal string without any variables", variables);
+  }
+
+  @Benchmark
+  public Object singleVariable() {
+    return resolver.resolve("${host1}", variables);
+  }
+
+  @Benchmark
+  public Object nestedVariables() {
+    return resolver.resolve("The URL is ${url1} and ${url2}", variables);
+  }
+
+  @Benchmark
+  public Object expression() {
+    return resolver.resolve("${port1 > 8000 ? 'high' : 'low'}", variables);
+  }
+
+  @Benchmark
+  public Object escaped() {
+    return resolver.resolve("\\${host1} and ${host2}", variables);
+  }
+
+}
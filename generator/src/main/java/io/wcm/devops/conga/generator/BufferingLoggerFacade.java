@@ -0,0 +1,206 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.helpers.MarkerIgnoringBase;
+
+/**
+ * Logger wrapper that buffers all log messages and writes them to the delegate logger on {@link #flush()}.
+ * Used to keep the log output of environments generated in parallel grouped together.
+ */
+class BufferingLoggerFacade extends MarkerIgnoringBase {
+
+  private static final long serialVersionUID = 1L;
+
+  private final transient Logger delegate;
+  private final transient Queue<Consumer<Logger>> buffer = new ConcurrentLinkedQueue<>();
+
+  BufferingLoggerFacade(Logger delegate) {
+    this.delegate = delegate;
+    this.name = delegate.getName();
+  }
+
+  /**
+   * Writes all buffered log messages to the delegate logger and clears the buffer.
+   */
+  public void flush() {
+    Consumer<Logger> entry = buffer.poll();
+    while (entry != null) {
+      entry.accept(delegate);
+      entry = buffer.poll();
+    }
+  }
+
+  @Override
+  public boolean isTraceEnabled() {
+    return this.delegate.isTraceEnabled();
+  }
+
+  @Override
+  public void trace(String msg) {
+    buffer.add(log -> log.trace(msg));
+  }
+
+  @Override
+  public void trace(String format, Object arg) {
+    buffer.add(log -> log.trace(format, arg));
+  }
+
+  @Override
+  public void trace(String format, Object arg1, Object arg2) {
+    buffer.add(log -> log.trace(format, arg1, arg2));
+  }
+
+  @Override
+  public void trace(String format, Object... arguments) {
+    buffer.add(log -> log.trace(format, arguments));
+  }
+
+  @Override
+  public void trace(String msg, Throwable t) {
+    buffer.add(log -> log.trace(msg, t));
+  }
+
+  @Override
+  public boolean isDebugEnabled() {
+    return this.delegate.isDebugEnabled();
+  }
+
+  @Override
+  public void debug(String msg) {
+    buffer.add(log -> log.debug(msg));
+  }
+
+  @Override
+  public void debug(String format, Object arg) {
+    buffer.add(log -> log.debug(format, arg));
+  }
+
+  @Override
+  public void debug(String format, Object arg1, Object arg2) {
+    buffer.add(log -> log.debug(format, arg1, arg2));
+  }
+
+  @Override
+  public void debug(String format, Object... arguments) {
+    buffer.add(log -> log.debug(format, arguments));
+  }
+
+  @Override
+  public void debug(String msg, Throwable t) {
+    buffer.add(log -> log.debug(msg, t));
+  }
+
+  @Override
+  public boolean isInfoEnabled() {
+    return this.delegate.isInfoEnabled();
+  }
+
+  @Override
+  public void info(String msg) {
+    buffer.add(log -> log.info(msg));
+  }
+
+  @Override
+  public void info(String format, Object arg) {
+    buffer.add(log -> log.info(format, arg));
+  }
+
+  @Override
+  public void info(String format, Object arg1, Object arg2) {
+    buffer.add(log -> log.info(format, arg1, arg2));
+  }
+
+  @Override
+  public void info(String format, Object... arguments) {
+    buffer.add(log -> log.info(format, arguments));
+  }
+
+  @Override
+  public void info(String msg, Throwable t) {
+    buffer.add(log -> log.info(msg, t));
+  }
+
+  @Override
+  public boolean isWarnEnabled() {
+    return this.delegate.isWarnEnabled();
+  }
+
+  @Override
+  public void warn(String msg) {
+    buffer.add(log -> log.warn(msg));
+  }
+
+  @Override
+  public void warn(String format, Object arg) {
+    buffer.add(log -> log.warn(format, arg));
+  }
+
+  @Override
+  public void warn(String format, Object arg1, Object arg2) {
+    buffer.add(log -> log.warn(format, arg1, arg2));
+  }
+
+  @Override
+  public void warn(String format, Object... arguments) {
+    buffer.add(log -> log.warn(format, arguments));
+  }
+
+  @Override
+  public void warn(String msg, Throwable t) {
+    buffer.add(log -> log.warn(msg, t));
+  }
+
+  @Override
+  public boolean isErrorEnabled() {
+    return this.delegate.isErrorEnabled();
+  }
+
+  @Override
+  public void error(String msg) {
+    buffer.add(log -> log.error(msg));
+  }
+
+  @Override
+  public void error(String format, Object arg) {
+    buffer.add(log -> log.error(format, arg));
+  }
+
+  @Override
+  public void error(String format, Object arg1, Object arg2) {
+    buffer.add(log -> log.error(format, arg1, arg2));
+  }
+
+  @Override
+  public void error(String format, Object... arguments) {
+    buffer.add(log -> log.error(format, arguments));
+  }
+
+  @Override
+  public void error(String msg, Throwable t) {
+    buffer.add(log -> log.error(msg, t));
+  }
+
+}
@@ -33,14 +33,22 @@ import static io.wcm.devops.conga.generator.ContextProperties.TENANTS_BY_ROLE;
 import static io.wcm.devops.conga.generator.ContextProperties.TENANT_ROLES;
 import static io.wcm.devops.conga.generator.ContextProperties.VERSION;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import com.rits.cloning.Cloner;
 
 import io.wcm.devops.conga.generator.util.VariableObjectTreeResolver;
 import io.wcm.devops.conga.generator.util.VariableStringResolver;
@@ -48,7 +56,9 @@ import io.wcm.devops.conga.model.environment.Environment;
 import io.wcm.devops.conga.model.environment.Node;
 import io.wcm.devops.conga.model.environment.NodeRole;
 import io.wcm.devops.conga.model.environment.Tenant;
+import io.wcm.devops.conga.model.shared.AbstractModel;
 import io.wcm.devops.conga.model.util.MapMerger;
+import io.wcm.devops.conga.model.util.ResolvedModelList;
 
 /**
  * Builds context variables
@@ -93,68 +103,130 @@ public final class ContextPropertiesBuilder {
     }
     map.put(ENVIRONMENT, environmentName);
 
-    // clone environment before resolving variables to make sure they are resolved only for this context, not for file generation
-    Environment clonedEnvironemnt = Cloner.standard().deepClone(environment);
-
-    // resolve all variables at any level in environment
-    variableObjectTreeResolver.resolve(clonedEnvironemnt);
+    // nodes and tenants are copied and their variables resolved on first access - only for this context,
+    // not for file generation. The lists by role are views on the same resolved nodes and tenants.
+    Supplier<Map<String, Object>> environmentConfig = Suppliers.memoize(
+        () -> resolveEnvironmentConfig(environment, variableObjectTreeResolver));
 
     // list of nodes
-    map.put(NODES, clonedEnvironemnt.getNodes());
-    Map<String, List<Node>> nodesByRole = new HashMap<>();
-    Map<String, Map<String, List<Node>>> nodesByRoleVariant = new HashMap<>();
-    for (Node node : clonedEnvironemnt.getNodes()) {
+    List<Node> nodes = lazyList(environment.getNodes(), node -> resolveNode(node, variableObjectTreeResolver));
+    map.put(NODES, nodes);
+    Map<String, List<Integer>> nodesByRole = new HashMap<>();
+    Map<String, Map<String, List<Integer>>> nodesByRoleVariant = new HashMap<>();
+    for (int i = 0; i < environment.getNodes().size(); i++) {
+      Node node = environment.getNodes().get(i);
       for (NodeRole nodeRole : node.getRoles()) {
-        List<Node> nodes = nodesByRole.get(nodeRole.getRole());
-        if (nodes == null) {
-          nodes = new ArrayList<>();
-          nodesByRole.put(nodeRole.getRole(), nodes);
-        }
-        nodes.add(node);
+        nodesByRole.computeIfAbsent(nodeRole.getRole(), key -> new ArrayList<>()).add(i);
 
         List<String> variants = nodeRole.getAggregatedVariants();
         for (String variant : variants) {
-          Map<String, List<Node>> nodesByVariant = nodesByRoleVariant.get(nodeRole.getRole());
-          if (nodesByVariant == null) {
-            nodesByVariant = new HashMap<>();
-            nodesByRoleVariant.put(nodeRole.getRole(), nodesByVariant);
-          }
-          List<Node> variantNodes = nodesByVariant.get(variant);
-          if (variantNodes == null) {
-            variantNodes = new ArrayList<>();
-            nodesByVariant.put(variant, variantNodes);
-          }
-          variantNodes.add(node);
+          nodesByRoleVariant.computeIfAbsent(nodeRole.getRole(), key -> new HashMap<>())
+              .computeIfAbsent(variant, key -> new ArrayList<>()).add(i);
         }
       }
     }
-    map.put(NODES_BY_ROLE, nodesByRole);
-    map.put(NODES_BY_ROLE_VARIANT, nodesByRoleVariant);
+    map.put(NODES_BY_ROLE, lazyViews(nodesByRole, nodes));
+    Map<String, Map<String, List<Node>>> nodesByRoleVariantViews = new HashMap<>();
+    nodesByRoleVariant.forEach((role, nodesByVariant) -> nodesByRoleVariantViews.put(role, lazyViews(nodesByVariant, nodes)));
+    map.put(NODES_BY_ROLE_VARIANT, nodesByRoleVariantViews);
 
     // list of tenants
-    map.put(TENANTS, clonedEnvironemnt.getTenants());
-    Map<String, List<Tenant>> tenantsByRole = new HashMap<>();
-    for (Tenant tenant : clonedEnvironemnt.getTenants()) {
-
-      // resolve placeholders in tentant name
-      Map<String, Object> tenantConfig = MapMerger.merge(clonedEnvironemnt.getConfig(), tenant.getConfig());
-      String tenantName = variableStringResolver.resolveString(tenant.getTenant(), tenantConfig);
-      tenant.setTenant(tenantName);
-
-      for (String tenantRoleName : tenant.getRoles()) {
-        List<Tenant> tenants = tenantsByRole.get(tenantRoleName);
-        if (tenants == null) {
-          tenants = new ArrayList<>();
-          tenantsByRole.put(tenantRoleName, tenants);
-        }
-        tenants.add(tenant);
+    List<Tenant> tenants = lazyList(environment.getTenants(),
+        tenant -> resolveTenant(tenant, environmentConfig.get(), variableObjectTreeResolver, variableStringResolver));
+    map.put(TENANTS, tenants);
+    Map<String, List<Integer>> tenantsByRole = new HashMap<>();
+    for (int i = 0; i < environment.getTenants().size(); i++) {
+      for (String tenantRoleName : environment.getTenants().get(i).getRoles()) {
+        tenantsByRole.computeIfAbsent(tenantRoleName, key -> new ArrayList<>()).add(i);
       }
     }
-    map.put(TENANTS_BY_ROLE, tenantsByRole);
+    map.put(TENANTS_BY_ROLE, lazyViews(tenantsByRole, tenants));
 
     return map;
   }
 
+  /**
+   * Resolve variables in environment config.
+   * @param environment Environment
+   * @param variableObjectTreeResolver Variable object tree resolver
+   * @return Resolved environment config
+   */
+  private static Map<String, Object> resolveEnvironmentConfig(Environment environment,
+      VariableObjectTreeResolver variableObjectTreeResolver) {
+    Environment clonedEnvironment = AbstractModel.shallowCopy(environment);
+    clonedEnvironment.setNodes(ImmutableList.of());
+    clonedEnvironment.setRoleConfig(ImmutableList.of());
+    clonedEnvironment.setTenants(ImmutableList.of());
+    variableObjectTreeResolver.resolve(clonedEnvironment);
+    return clonedEnvironment.getConfig();
+  }
+
+  /**
+   * Copies the node and its node roles, and resolves all variables in the copy.
+   * The config maps are not copied, they are replaced when resolving the variables.
+   * @param node Node
+   * @param variableObjectTreeResolver Variable object tree resolver
+   * @return Resolved node copy
+   */
+  private static Node resolveNode(Node node, VariableObjectTreeResolver variableObjectTreeResolver) {
+    Node clonedNode = AbstractModel.shallowCopy(node);
+    clonedNode.setRoles(node.getRoles().stream()
+        .map(AbstractModel::shallowCopy)
+        .collect(Collectors.toList()));
+    variableObjectTreeResolver.resolve(clonedNode);
+    return clonedNode;
+  }
+
+  /**
+   * Copies the tenant, resolves all variables in the copy and placeholders in the tenant name.
+   * @param tenant Tenant
+   * @param environmentConfig Resolved environment config
+   * @param variableObjectTreeResolver Variable object tree resolver
+   * @param variableStringResolver Variable string resolver
+   * @return Resolved tenant copy
+   */
+  private static Tenant resolveTenant(Tenant tenant, Map<String, Object> environmentConfig,
+      VariableObjectTreeResolver variableObjectTreeResolver, VariableStringResolver variableStringResolver) {
+    Tenant clonedTenant = AbstractModel.shallowCopy(tenant);
+    variableObjectTreeResolver.resolve(clonedTenant);
+
+    // resolve placeholders in tentant name
+    Map<String, Object> tenantConfig = MapMerger.merge(environmentConfig, clonedTenant.getConfig());
+    clonedTenant.setTenant(variableStringResolver.resolveString(clonedTenant.getTenant(), tenantConfig));
+    return clonedTenant;
+  }
+
+  /**
+   * Creates a list that resolves each item on first access. If multiple threads resolve the same item
+   * concurrently, all of them get the item resolved first.
+   * @param items Unresolved items
+   * @param resolver Resolves an item
+   * @return Lazy list with resolved items
+   */
+  private static <T> List<T> lazyList(List<T> items, UnaryOperator<T> resolver) {
+    AtomicReferenceArray<T> resolvedItems = new AtomicReferenceArray<>(items.size());
+    return new LazyModelList<>(items.size(), index -> {
+      T item = resolvedItems.get(index);
+      if (item == null) {
+        resolvedItems.compareAndSet(index, null, resolver.apply(items.get(index)));
+        item = resolvedItems.get(index);
+      }
+      return item;
+    });
+  }
+
+  /**
+   * Creates views on the given list for each group of indexes.
+   * @param indexesByKey List indexes by key
+   * @param list Lazy list
+   * @return Lists by key
+   */
+  private static <T> Map<String, List<T>> lazyViews(Map<String, List<Integer>> indexesByKey, List<T> list) {
+    Map<String, List<T>> views = new HashMap<>();
+    indexesByKey.forEach((key, indexes) -> views.put(key, new LazyModelList<>(indexes.size(), index -> list.get(indexes.get(index)))));
+    return views;
+  }
+
   /**
    * Build context variables specific for a node and role/variant.
    * @param node Node
@@ -208,4 +280,33 @@ public final class ContextPropertiesBuilder {
     return EMPTY_CONTEXT_VARIABLES;
   }
 
+
+  /**
+   * Read-only list with items provided by a function, used for nodes and tenants resolved on first access.
+   */
+  private static final class LazyModelList<T> extends AbstractList<T> implements ResolvedModelList<T>, RandomAccess {
+
+    private final int size;
+    private final IntFunction<T> itemProvider;
+
+    LazyModelList(int size, IntFunction<T> itemProvider) {
+      this.size = size;
+      this.itemProvider = itemProvider;
+    }
+
+    @Override
+    public T get(int index) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+      }
+      return itemProvider.apply(index);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+  }
+
 }
@@ -21,13 +21,24 @@ package io.wcm.devops.conga.generator;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.security.CodeSource;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -39,11 +50,17 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
 import io.wcm.devops.conga.generator.export.NodeModelExport;
+import io.wcm.devops.conga.generator.handlebars.HandlebarsCache;
 import io.wcm.devops.conga.generator.handlebars.HandlebarsManager;
-import io.wcm.devops.conga.generator.plugins.handlebars.escaping.NoneEscapingStrategy;
 import io.wcm.devops.conga.generator.plugins.multiply.NoneMultiply;
+import io.wcm.devops.conga.generator.spi.FileHeaderPlugin;
 import io.wcm.devops.conga.generator.spi.MultiplyPlugin;
+import io.wcm.devops.conga.generator.spi.Plugin;
+import io.wcm.devops.conga.generator.spi.PostProcessorPlugin;
+import io.wcm.devops.conga.generator.spi.UrlFilePlugin;
 import io.wcm.devops.conga.generator.spi.ValidationException;
+import io.wcm.devops.conga.generator.spi.ValidatorPlugin;
+import io.wcm.devops.conga.generator.spi.ValueProviderPlugin;
 import io.wcm.devops.conga.generator.spi.context.MultiplyContext;
 import io.wcm.devops.conga.generator.spi.context.PluginContextOptions;
 import io.wcm.devops.conga.generator.spi.context.UrlFilePluginContext;
@@ -51,10 +68,14 @@ import io.wcm.devops.conga.generator.spi.context.ValueProviderGlobalContext;
 import io.wcm.devops.conga.generator.spi.export.context.ExportNodeRoleData;
 import io.wcm.devops.conga.generator.spi.export.context.GeneratedFileContext;
 import io.wcm.devops.conga.generator.spi.handlebars.EscapingStrategyPlugin;
+import io.wcm.devops.conga.generator.spi.handlebars.HelperPlugin;
 import io.wcm.devops.conga.generator.spi.handlebars.context.EscapingStrategyContext;
+import io.wcm.devops.conga.generator.util.ClassLoaderRegistry;
 import io.wcm.devops.conga.generator.util.EnvironmentExpander;
+import io.wcm.devops.conga.generator.util.ExecutorUtil;
 import io.wcm.devops.conga.generator.util.FileUtil;
 import io.wcm.devops.conga.generator.util.RoleUtil;
+import io.wcm.devops.conga.generator.util.TenantContextCache;
 import io.wcm.devops.conga.generator.util.VariableMapResolver;
 import io.wcm.devops.conga.generator.util.VariableObjectTreeResolver;
 import io.wcm.devops.conga.generator.util.VariableStringResolver;
@@ -74,6 +95,10 @@ import io.wcm.devops.conga.resource.ResourceLoader;
  */
 class EnvironmentGenerator {
 
+  private static final List<Class<? extends Plugin>> FINGERPRINT_PLUGIN_CLASSES = ImmutableList.of(
+      FileHeaderPlugin.class, ValidatorPlugin.class, PostProcessorPlugin.class, MultiplyPlugin.class,
+      UrlFilePlugin.class, ValueProviderPlugin.class, EscapingStrategyPlugin.class, HelperPlugin.class);
+
   private final GeneratorOptions options;
   private final String environmentName;
   private final Environment environment;
@@ -83,22 +108,28 @@ class EnvironmentGenerator {
   private final UrlFileManager urlFileManager;
   private final MultiplyPlugin defaultMultiplyPlugin;
   private final Logger log;
+  private final ClassLoaderRegistry classLoaderRegistry;
+  private final ClassLoader resourceClassLoader;
   private final VariableStringResolver variableStringResolver;
   private final VariableMapResolver variableMapResolver;
   private final VariableObjectTreeResolver variableObjectTreeResolver;
   private final Collection<String> dependencyVersions;
 
   private final Map<String, Role> roles;
+  private final Map<String, Map<String, Role>> resolvedRoles = new ConcurrentHashMap<>();
+  private final Map<RoleFile, FilePluginPlan> pluginPlans = new ConcurrentHashMap<>();
   private final Map<String, Object> environmentContextProperties;
-  private final Set<String> generatedFilePaths = new HashSet<>();
+  private final FileFingerprintCache fileFingerprintCache;
+  private final String environmentFingerprint;
 
   EnvironmentGenerator(String environmentName, Environment environment, File destDir,
-      GeneratorOptions options) {
+      GeneratorOptions options, ClassLoaderRegistry classLoaderRegistry, Logger log) {
     this.options = options;
     this.environmentName = environmentName;
     this.environment = EnvironmentExpander.expandNodes(environment, environmentName);
     this.destDir = destDir;
-    this.log = options.getLogger();
+    this.log = log;
+    this.classLoaderRegistry = classLoaderRegistry;
 
     this.pluginContextOptions = new PluginContextOptions()
         .pluginManager(options.getPluginManager())
@@ -116,102 +147,459 @@ class EnvironmentGenerator {
 
     // build resource loaded based on combined dependency lists of environment and container
     List<URL> combindedClasspathUrls = ResourceLoaderUtil.getEnvironmentClasspathUrls(environment.getDependencies(), this.variableStringResolver, options);
-    ClassLoader resourceClassLoader = ResourceLoaderUtil.buildClassLoader(combindedClasspathUrls);
-    ResourceLoader resourceLoader = new ResourceLoader(resourceClassLoader);
-
-    // prepare template and role directories
-    List<ResourceCollection> templateDirs = ImmutableList.of(
-        resourceLoader.getResourceCollection(ResourceLoader.FILE_PREFIX + options.getTemplateDir()),
-        resourceLoader.getResourceCollection(ResourceLoader.CLASSPATH_PREFIX + GeneratorOptions.CLASSPATH_TEMPLATES_DIR));
-    List<ResourceCollection> roleDirs = ImmutableList.of(
-        resourceLoader.getResourceCollection(ResourceLoader.FILE_PREFIX + options.getRoleDir()),
-        resourceLoader.getResourceCollection(ResourceLoader.CLASSPATH_PREFIX + GeneratorOptions.CLASSPATH_ROLES_DIR));
-
-    this.roles = ResourceLoaderUtil.readModels(roleDirs, new RoleReader());
-
-    UrlFilePluginContext urlFilePluginContext = new UrlFilePluginContext()
-        .pluginContextOptions(pluginContextOptions)
-        .baseDir(options.getBaseDir())
-        .resourceClassLoader(resourceClassLoader)
-        .environment(environment);
-    this.urlFileManager = new UrlFileManager(options.getPluginManager(), urlFilePluginContext);
-
-    this.handlebarsManager = new HandlebarsManager(templateDirs, this.pluginContextOptions);
-
-    this.defaultMultiplyPlugin = options.getPluginManager().get(NoneMultiply.NAME, MultiplyPlugin.class);
-    this.environmentContextProperties = ImmutableMap.copyOf(
-        ContextPropertiesBuilder.buildEnvironmentContextVariables(environmentName, this.environment, options.getVersion(),
-            variableObjectTreeResolver, variableStringResolver));
-
-    this.dependencyVersions = options.getDependencyVersionBuilder() != null ? options.getDependencyVersionBuilder().apply(environment) : ImmutableList.of();
+    // environments with identical dependencies share the same class loader
+    this.resourceClassLoader = classLoaderRegistry.acquire(combindedClasspathUrls);
+    try {
+      ResourceLoader resourceLoader = new ResourceLoader(resourceClassLoader);
+
+      // prepare template and role directories
+      List<ResourceCollection> templateDirs = ImmutableList.of(
+          resourceLoader.getResourceCollection(ResourceLoader.FILE_PREFIX + options.getTemplateDir()),
+          resourceLoader.getResourceCollection(ResourceLoader.CLASSPATH_PREFIX + GeneratorOptions.CLASSPATH_TEMPLATES_DIR));
+      List<ResourceCollection> roleDirs = ImmutableList.of(
+          resourceLoader.getResourceCollection(ResourceLoader.FILE_PREFIX + options.getRoleDir()),
+          resourceLoader.getResourceCollection(ResourceLoader.CLASSPATH_PREFIX + GeneratorOptions.CLASSPATH_ROLES_DIR));
+
+      this.roles = ResourceLoaderUtil.readModels(roleDirs, new RoleReader(), options);
+
+      UrlFilePluginContext urlFilePluginContext = new UrlFilePluginContext()
+          .pluginContextOptions(pluginContextOptions)
+          .baseDir(options.getBaseDir())
+          .resourceClassLoader(resourceClassLoader)
+          .environment(environment);
+      this.urlFileManager = new UrlFileManager(options.getPluginManager(), urlFilePluginContext);
+
+      // handlebars instances and compiled templates are shared with other environments using the same class loader
+      HandlebarsCache handlebarsCache = classLoaderRegistry.getShared(resourceClassLoader, HandlebarsCache.class, HandlebarsCache::new);
+      this.handlebarsManager = new HandlebarsManager(templateDirs, handlebarsCache, this.pluginContextOptions);
+
+      this.defaultMultiplyPlugin = options.getPluginManager().get(NoneMultiply.NAME, MultiplyPlugin.class);
+      this.environmentContextProperties = ImmutableMap.copyOf(
+          ContextPropertiesBuilder.buildEnvironmentContextVariables(environmentName, this.environment, options.getVersion(),
+              variableObjectTreeResolver, variableStringResolver));
+
+      this.dependencyVersions = options.getDependencyVersionBuilder() != null ? options.getDependencyVersionBuilder().apply(environment) : ImmutableList.of();
+
+      // prepare incremental generation
+      this.environmentFingerprint = options.getIncrementalCacheDir() != null ? buildEnvironmentFingerprint(templateDirs) : null;
+      if (this.environmentFingerprint != null) {
+        this.fileFingerprintCache = new FileFingerprintCache(options.getIncrementalCacheDir(), environmentName, destDir);
+      }
+      else {
+        this.fileFingerprintCache = null;
+      }
+    }
+    catch (RuntimeException ex) {
+      classLoaderRegistry.release(this.resourceClassLoader);
+      throw ex;
+    }
+  }
+
+  /**
+   * Build fingerprint of all inputs that are shared by all files of the environment: Version, dependency versions,
+   * plugin code, environment context variables and all templates (a template may include other templates as partials).
+   * The plugin code is fingerprinted by path, size and last modification date of the plugin JAR file - or of the
+   * plugin class file if the plugin is not packaged in a JAR file.
+   * @param templateDirs Template directories
+   * @return Fingerprint or null if the code of a plugin could not be located - incremental generation is disabled then
+   */
+  private String buildEnvironmentFingerprint(List<ResourceCollection> templateDirs) {
+    List<List<Object>> pluginFiles = new ArrayList<>();
+    for (Class<? extends Plugin> pluginClass : FINGERPRINT_PLUGIN_CLASSES) {
+      for (Plugin plugin : options.getPluginManager().getAll(pluginClass)) {
+        File pluginFile = getPluginFile(plugin.getClass());
+        if (pluginFile == null) {
+          log.warn("Incremental generation disabled for environment {}: Unable to locate code of plugin {}",
+              environmentName, plugin.getClass().getName());
+          return null;
+        }
+        pluginFiles.add(ImmutableList.of(plugin.getClass().getName(), FileUtil.getCanonicalPath(pluginFile),
+            pluginFile.length(), pluginFile.lastModified()));
+      }
+    }
+    try {
+      return new FingerprintBuilder()
+          .put("version", options.getVersion())
+          .put("dependencyVersions", dependencyVersions)
+          .put("plugins", pluginFiles)
+          .put("environmentContext", environmentContextProperties)
+          .putResources("templates", templateDirs)
+          .build();
+    }
+    catch (IOException ex) {
+      throw new GeneratorException("Unable to build fingerprint for templates of environment " + environmentName, ex);
+    }
+  }
+
+  /**
+   * @param pluginClass Plugin class
+   * @return JAR file or class file containing the plugin class, or null if it is not located in the file system
+   */
+  private static File getPluginFile(Class<?> pluginClass) {
+    CodeSource codeSource = pluginClass.getProtectionDomain().getCodeSource();
+    if (codeSource == null || codeSource.getLocation() == null
+        || !StringUtils.equals(codeSource.getLocation().getProtocol(), "file")) {
+      return null;
+    }
+    File location;
+    try {
+      location = new File(codeSource.getLocation().toURI());
+    }
+    catch (URISyntaxException | IllegalArgumentException ex) {
+      return null;
+    }
+    if (location.isDirectory()) {
+      location = new File(location, pluginClass.getName().replace('.', '/') + ".class");
+    }
+    return location.isFile() ? location : null;
   }
 
   public void generate() {
     log.info("");
     log.info("===== Environment '{}' =====", environmentName);
 
-    for (Node node : environment.getNodes()) {
-      generateNode(node);
+    try {
+      int nodeParallelism = Math.min(options.getNodeParallelism(), environment.getNodes().size());
+      precompileTemplates(nodeParallelism);
+      generateNodes(nodeParallelism);
+
+      if (fileFingerprintCache != null) {
+        fileFingerprintCache.removeStaleFiles(log);
+        fileFingerprintCache.save();
+      }
+    }
+    finally {
+      classLoaderRegistry.release(resourceClassLoader);
     }
 
     log.info("");
   }
 
-  private void generateNode(Node node) {
+  /**
+   * Generates the nodes in two phases: First the configs of all files of all nodes are resolved, then the files
+   * copied from an URL are fetched for all nodes at once, and then the files of all nodes are generated.
+   * If the node parallelism is greater than 1 the nodes are prepared and generated on a work-stealing pool
+   * with this parallelism - idle threads take over pending nodes, so nodes with many files do not delay the others.
+   * The log output of each node is buffered and written in node order once all nodes are finished, followed by
+   * the file name clash check for this node - so log output and clash warnings are the same as in sequential mode.
+   * In sequential mode the generation stops at the first node that fails.
+   * @param nodeParallelism Number of threads
+   */
+  private void generateNodes(int nodeParallelism) {
+    List<NodeGeneration> nodeGenerations = new ArrayList<>();
+    for (Node node : environment.getNodes()) {
+      nodeGenerations.add(new NodeGeneration(node, new BufferingLoggerFacade(log)));
+    }
+
+    ExecutorService pool = nodeParallelism > 1 ? ExecutorUtil.newWorkStealingPool(nodeParallelism, "conga-node-%d") : null;
+    try {
+      forEachNode(pool, nodeGenerations, this::prepareNode);
+      try {
+        prefetchUrlFiles(nodeGenerations);
+      }
+      catch (RuntimeException ex) {
+        nodeGenerations.forEach(nodeGeneration -> nodeGeneration.log.flush());
+        throw ex;
+      }
+      forEachNode(pool, nodeGenerations, this::generateNode);
+    }
+    finally {
+      if (pool != null) {
+        pool.shutdownNow();
+      }
+    }
+
+    Set<String> generatedFilePaths = new HashSet<>();
+    RuntimeException failure = null;
+    for (NodeGeneration nodeGeneration : nodeGenerations) {
+      nodeGeneration.log.flush();
+      if (nodeGeneration.failure != null) {
+        if (failure == null) {
+          failure = nodeGeneration.failure;
+        }
+        else {
+          failure.addSuppressed(nodeGeneration.failure);
+        }
+      }
+      else if (nodeGeneration.generatedFiles != null) {
+        checkFileClashes(nodeGeneration.generatedFiles, generatedFilePaths);
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Applies the given action to all nodes that did not fail so far, and records the failures.
+   * @param pool Thread pool, or null to apply the action sequentially - stopping at the first failing node
+   * @param nodeGenerations Nodes
+   * @param action Action
+   */
+  private void forEachNode(ExecutorService pool, List<NodeGeneration> nodeGenerations, Consumer<NodeGeneration> action) {
+    if (pool == null) {
+      for (NodeGeneration nodeGeneration : nodeGenerations) {
+        if (nodeGeneration.failure != null) {
+          return;
+        }
+        try {
+          action.accept(nodeGeneration);
+        }
+        catch (RuntimeException ex) {
+          nodeGeneration.failure = ex;
+          return;
+        }
+      }
+      return;
+    }
+
+    Map<NodeGeneration, Future<?>> futures = new LinkedHashMap<>();
+    for (NodeGeneration nodeGeneration : nodeGenerations) {
+      if (nodeGeneration.failure == null) {
+        futures.put(nodeGeneration, pool.submit(() -> action.accept(nodeGeneration)));
+      }
+    }
+    for (Map.Entry<NodeGeneration, Future<?>> entry : futures.entrySet()) {
+      try {
+        entry.getValue().get();
+      }
+      catch (ExecutionException ex) {
+        entry.getKey().failure = ex.getCause() instanceof RuntimeException
+            ? (RuntimeException)ex.getCause()
+            : new GeneratorException(ex.getCause().getMessage(), ex.getCause());
+      }
+      catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new GeneratorException("Generation of environment '" + environmentName + "' was interrupted.", ex);
+      }
+    }
+  }
+
+  /**
+   * Fetches the files copied from an URL of all nodes concurrently - so network and repository latency do not add up.
+   * Failures of all URLs are reported at once.
+   * @param nodeGenerations Nodes
+   */
+  private void prefetchUrlFiles(List<NodeGeneration> nodeGenerations) {
+    Set<String> urls = new LinkedHashSet<>();
+    for (NodeGeneration nodeGeneration : nodeGenerations) {
+      urls.addAll(nodeGeneration.urls);
+    }
+    if (!urls.isEmpty()) {
+      urlFileManager.prefetch(urls, options.getUrlFileParallelism());
+    }
+  }
+
+  /**
+   * Compiles all templates referenced by the roles of all nodes before the nodes are generated - in parallel
+   * if nodes are generated in parallel. The node generation picks them up from the template cache.
+   * Errors resolving roles are ignored here - they are reported when the affected node is generated.
+   * @param parallelism Number of threads to compile the templates with
+   */
+  private void precompileTemplates(int parallelism) {
+    Map<String, Supplier<Template>> compileTasks = new LinkedHashMap<>();
+    for (Node node : environment.getNodes()) {
+      for (NodeRole nodeRole : node.getRoles()) {
+        Map<String, Role> nodeResolvedRoles;
+        try {
+          nodeResolvedRoles = resolveRole(nodeRole.getRole(), node);
+        }
+        /*CHECKSTYLE:OFF*/ catch (Exception ex) { /*CHECKSTYLE:ON*/
+          continue;
+        }
+        List<String> variants = nodeRole.getAggregatedVariants();
+        for (Role role : nodeResolvedRoles.values()) {
+          for (RoleFile roleFile : role.getFiles()) {
+            String templateFile = FileUtil.getTemplatePath(role, roleFile);
+            if (StringUtils.isEmpty(templateFile) || !RoleUtil.matchesRoleFile(roleFile, variants)) {
+              continue;
+            }
+            // get handlebars instance in calling thread, only compile the template in the pool
+            String escapingStrategy = getPluginPlan(roleFile).getEscapingStrategy();
+            String charset = roleFile.getCharset();
+            Handlebars handlebars = handlebarsManager.get(escapingStrategy, charset);
+            compileTasks.putIfAbsent(escapingStrategy + "|" + charset + "|" + templateFile,
+                () -> compileTemplate(handlebars, templateFile, nodeRole, roleFile));
+          }
+        }
+      }
+    }
+
+    if (parallelism <= 1 || compileTasks.size() <= 1) {
+      compileTasks.values().forEach(Supplier::get);
+      return;
+    }
+
+    ExecutorService pool = ExecutorUtil.newFixedThreadPool(Math.min(parallelism, compileTasks.size()), "conga-template-%d");
+    try {
+      List<Future<Template>> futures = new ArrayList<>();
+      for (Supplier<Template> compileTask : compileTasks.values()) {
+        futures.add(pool.submit(compileTask::get));
+      }
+      for (Future<Template> future : futures) {
+        try {
+          future.get();
+        }
+        catch (ExecutionException ex) {
+          // report first failure in template order, as in sequential mode
+          if (ex.getCause() instanceof RuntimeException) {
+            throw (RuntimeException)ex.getCause();
+          }
+          throw new GeneratorException(ex.getCause().getMessage(), ex.getCause());
+        }
+        catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new GeneratorException("Generation of environment '" + environmentName + "' was interrupted.", ex);
+        }
+      }
+    }
+    finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private void checkFileClashes(List<GeneratedFileContext> generatedFiles, Set<String> generatedFilePaths) {
+    generatedFiles.forEach(generatedFileContext -> {
+      String path = generatedFileContext.getFileContext().getCanonicalPath();
+      if (generatedFilePaths.contains(path)) {
+        log.warn("File was generated already, check for file name clashes: " + path);
+      }
+      else {
+        generatedFilePaths.add(path);
+      }
+    });
+  }
+
+  /**
+   * Resolves the configs of all files of the node, and collects the URLs of files copied from an URL.
+   * @param nodeGeneration Node
+   */
+  private void prepareNode(NodeGeneration nodeGeneration) {
+    Node node = nodeGeneration.node;
     if (StringUtils.isEmpty(node.getNode())) {
       throw new GeneratorException("Missing node name in " + environmentName + ".");
     }
 
-    log.info("");
-    log.info("----- Node '{}' -----", node.getNode());
+    nodeGeneration.log.info("");
+    nodeGeneration.log.info("----- Node '{}' -----", node.getNode());
+
+    // plugins log to the node's logger
+    nodeGeneration.pluginContextOptions = new PluginContextOptions()
+        .pluginContextOptions(this.pluginContextOptions)
+        .logger(nodeGeneration.log);
 
-    File nodeDir = FileUtil.ensureDirExistsAutocreate(new File(destDir, node.getNode()));
-    NodeModelExport exportModelGenerator = new NodeModelExport(nodeDir, node, environment, options.getModelExport(), options.getPluginManager(),
-        variableStringResolver, variableMapResolver);
+    nodeGeneration.nodeDir = FileUtil.ensureDirExistsAutocreate(new File(destDir, node.getNode()));
+    nodeGeneration.exportModelGenerator = new NodeModelExport(nodeGeneration.nodeDir, node, environment, options.getModelExport(),
+        options.getPluginManager(), variableStringResolver, variableMapResolver);
 
     for (NodeRole nodeRole : node.getRoles()) {
       // get role and resolve all inheritance relations
-      Map<String, Role> resolvedRoles = RoleUtil.resolveRole(nodeRole.getRole(), environmentName + "/" + node.getNode(), roles);
-      for (Map.Entry<String, Role> resolvedRole : resolvedRoles.entrySet()) {
+      Map<String, Role> nodeResolvedRoles = resolveRole(nodeRole.getRole(), node);
+      for (Map.Entry<String, Role> resolvedRole : nodeResolvedRoles.entrySet()) {
         String roleName = resolvedRole.getKey();
         Role role = resolvedRole.getValue();
 
-        // merge default values to config
         List<String> variants = nodeRole.getAggregatedVariants();
-        Map<String, Object> mergedConfig = nodeRole.getConfig();
-        if (variants.isEmpty()) {
-          mergedConfig = MapMerger.merge(mergedConfig, role.getConfig());
-        }
-        else {
-          for (String variant : variants) {
-            RoleVariant roleVariant = getRoleVariant(role, variant, roleName, node);
-            mergedConfig = MapMerger.merge(mergedConfig, roleVariant.getConfig());
-          }
-        }
-
-        // additionally set context variables
-        mergedConfig.putAll(environmentContextProperties);
-        mergedConfig.putAll(ContextPropertiesBuilder.buildCurrentContextVariables(node, nodeRole));
+        Map<String, Object> mergedConfig = buildMergedConfig(node, nodeRole, roleName, role, variants);
+        TenantContextCache tenantContextCache = new TenantContextCache(mergedConfig, variableStringResolver, variableMapResolver);
 
         // collect role and tenant information for export model
-        ExportNodeRoleData exportNodeRoleData = exportModelGenerator.addRole(roleName, variants, mergedConfig);
+        ExportNodeRoleData exportNodeRoleData = nodeGeneration.exportModelGenerator.addRole(roleName, variants, tenantContextCache);
 
-        // generate files
-        List<GeneratedFileContext> allFiles = new ArrayList<>();
+        NodeRoleFiles nodeRoleFiles = new NodeRoleFiles(nodeRole, roleName, role, variants, exportNodeRoleData);
         for (RoleFile roleFile : role.getFiles()) {
           // generate file if no variant is required, or at least one of the given variants is defined for the node/role
           if (RoleUtil.matchesRoleFile(roleFile, variants)) {
-            Template template = getHandlebarsTemplate(role, roleFile, nodeRole);
-            multiplyFiles(role, roleFile, mergedConfig, nodeDir, template,
-                roleName, variants, roleFile.getTemplate(), allFiles);
+            List<Map<String, Object>> resolvedConfigs = getMultipliedConfigs(role, roleFile, tenantContextCache,
+                nodeGeneration.pluginContextOptions);
+            nodeRoleFiles.roleFiles.add(new RoleFileConfigs(roleFile, resolvedConfigs));
+            if (StringUtils.isNotEmpty(roleFile.getUrl())) {
+              for (Map<String, Object> resolvedConfig : resolvedConfigs) {
+                String url = variableStringResolver.resolveString(roleFile.getUrl(), resolvedConfig);
+                if (StringUtils.isNotBlank(url)) {
+                  nodeGeneration.urls.add(url);
+                }
+              }
+            }
           }
         }
-        exportNodeRoleData.files(allFiles);
+        nodeGeneration.nodeRoleFiles.add(nodeRoleFiles);
+      }
+    }
+  }
+
+  /**
+   * Generates the files of a node prepared via {@link #prepareNode(NodeGeneration)}.
+   * @param nodeGeneration Node
+   */
+  private void generateNode(NodeGeneration nodeGeneration) {
+    List<GeneratedFileContext> nodeFiles = new ArrayList<>();
+    for (NodeRoleFiles nodeRoleFiles : nodeGeneration.nodeRoleFiles) {
+      List<GeneratedFileContext> allFiles = new ArrayList<>();
+      for (RoleFileConfigs roleFileConfigs : nodeRoleFiles.roleFiles) {
+        RoleFile roleFile = roleFileConfigs.roleFile;
+        Template template = getHandlebarsTemplate(nodeRoleFiles.role, roleFile, nodeRoleFiles.nodeRole);
+        multiplyFiles(roleFile, roleFileConfigs.resolvedConfigs, nodeGeneration.nodeDir, template,
+            nodeRoleFiles.roleName, nodeRoleFiles.variants, roleFile.getTemplate(), allFiles, nodeGeneration.pluginContextOptions);
       }
+      nodeRoleFiles.exportNodeRoleData.files(allFiles);
+      nodeFiles.addAll(allFiles);
     }
 
     // save export model
-    exportModelGenerator.generate();
+    nodeGeneration.exportModelGenerator.generate();
+
+    nodeGeneration.generatedFiles = nodeFiles;
+  }
+
+  /**
+   * Merge default values of role and variants to node config, and set context variables.
+   * @param node Node
+   * @param nodeRole Node role
+   * @param roleName Role name
+   * @param role Role
+   * @param variants Variants of the node role
+   * @return Merged config
+   */
+  private Map<String, Object> buildMergedConfig(Node node, NodeRole nodeRole, String roleName, Role role, List<String> variants) {
+    // merge default values to config
+    Map<String, Object> mergedConfig = nodeRole.getConfig();
+    if (variants.isEmpty()) {
+      mergedConfig = MapMerger.merge(mergedConfig, role.getConfig());
+    }
+    else {
+      for (String variant : variants) {
+        RoleVariant roleVariant = getRoleVariant(role, variant, roleName, node);
+        mergedConfig = MapMerger.merge(mergedConfig, roleVariant.getConfig());
+      }
+    }
+
+    // additionally set context variables
+    mergedConfig.putAll(environmentContextProperties);
+    mergedConfig.putAll(ContextPropertiesBuilder.buildCurrentContextVariables(node, nodeRole));
+    return mergedConfig;
+  }
+
+  /**
+   * Get role and resolve all inheritance relations.
+   * The result depends only on the role name, so it is resolved only once per environment and shared by all nodes.
+   * @param roleName Role name
+   * @param node Node referencing the role
+   * @return Resolved role(s) - read-only
+   */
+  private Map<String, Role> resolveRole(String roleName, Node node) {
+    Map<String, Role> result = resolvedRoles.get(roleName);
+    if (result == null) {
+      result = RoleUtil.resolveRole(roleName, environmentName + "/" + node.getNode(), roles);
+      // shared by all node generation threads
+      result.values().forEach(Role::makeReadOnly);
+      result = Collections.unmodifiableMap(result);
+      Map<String, Role> existingResult = resolvedRoles.putIfAbsent(roleName, result);
+      if (existingResult != null) {
+        result = existingResult;
+      }
+    }
+    return result;
   }
 
   private RoleVariant getRoleVariant(Role role, String variant, String roleName, Node node) {
@@ -234,8 +622,12 @@ class EnvironmentGenerator {
         return null;
       }
     }
+    Handlebars handlebars = handlebarsManager.get(getPluginPlan(roleFile).getEscapingStrategy(), roleFile.getCharset());
+    return compileTemplate(handlebars, templateFile, nodeRole, roleFile);
+  }
+
+  private static Template compileTemplate(Handlebars handlebars, String templateFile, NodeRole nodeRole, RoleFile roleFile) {
     try {
-      Handlebars handlebars = handlebarsManager.get(getEscapingStrategy(roleFile), roleFile.getCharset());
       return handlebars.compile(templateFile);
     }
     catch (IOException ex) {
@@ -244,48 +636,63 @@ class EnvironmentGenerator {
   }
 
   /**
-   * Get escaping strategy for file. If one is explicitly defined in role definition use this.
-   * Otherwise get the best-matching by file extension.
+   * Get plugin execution plan for role file. It is built only once per role file and environment.
    * @param roleFile Role file
-   * @return Escaping Strategy (never null)
+   * @return Plugin execution plan
    */
-  private String getEscapingStrategy(RoleFile roleFile) {
-    if (StringUtils.isNotEmpty(roleFile.getEscapingStrategy())) {
-      return roleFile.getEscapingStrategy();
+  private FilePluginPlan getPluginPlan(RoleFile roleFile) {
+    return pluginPlans.computeIfAbsent(roleFile, item -> new FilePluginPlan(item, options.getPluginManager(),
+        new EscapingStrategyContext().pluginContextOptions(this.pluginContextOptions)));
+  }
+
+  private void multiplyFiles(RoleFile roleFile, List<Map<String, Object>> resolvedConfigs, File nodeDir, Template template,
+      String roleName, List<String> roleVariantNames, String templateName, List<GeneratedFileContext> generatedFiles,
+      PluginContextOptions nodePluginContextOptions) {
+    for (Map<String, Object> resolvedConfig : resolvedConfigs) {
+      // replace placeholders with context variables
+      String dir = variableStringResolver.resolveString(roleFile.getDir(), resolvedConfig);
+      String file = variableStringResolver.resolveString(roleFile.getFile(), resolvedConfig);
+      String url = variableStringResolver.resolveString(roleFile.getUrl(), resolvedConfig);
+
+      generatedFiles.addAll(generateFile(roleFile, dir, file, url,
+          resolvedConfig, nodeDir, template, roleName, roleVariantNames, templateName, nodePluginContextOptions));
     }
-    String fileExtension = FilenameUtils.getExtension(roleFile.getFile());
-    EscapingStrategyContext context = new EscapingStrategyContext()
-        .pluginContextOptions(this.pluginContextOptions);
-    return options.getPluginManager().getAll(EscapingStrategyPlugin.class).stream()
-        .filter(plugin -> !StringUtils.equals(plugin.getName(), NoneEscapingStrategy.NAME))
-        .filter(plugin -> plugin.accepts(fileExtension, context))
-        .findFirst().orElse(options.getPluginManager().get(NoneEscapingStrategy.NAME, EscapingStrategyPlugin.class))
-        .getName();
   }
 
-  private void multiplyFiles(Role role, RoleFile roleFile, Map<String, Object> config, File nodeDir, Template template,
-      String roleName, List<String> roleVariantNames, String templateName, List<GeneratedFileContext> generatedFiles) {
+  /**
+   * Applies the multiply plugin of the role file. The variables of each multiplied config are resolved on first access.
+   * Configs of files that are skipped because of the role file condition are left out.
+   * @param role Role
+   * @param roleFile Role file
+   * @param tenantContextCache Tenant context cache with merged config of the node role
+   * @param nodePluginContextOptions Plugin context options of the node
+   * @return Resolved configs, one for each file to generate
+   */
+  private List<Map<String, Object>> getMultipliedConfigs(Role role, RoleFile roleFile, TenantContextCache tenantContextCache,
+      PluginContextOptions nodePluginContextOptions) {
     MultiplyPlugin multiplyPlugin = defaultMultiplyPlugin;
     if (StringUtils.isNotEmpty(roleFile.getMultiply())) {
       multiplyPlugin = options.getPluginManager().get(roleFile.getMultiply(), MultiplyPlugin.class);
     }
 
     MultiplyContext multiplyContext = new MultiplyContext()
-        .pluginContextOptions(this.pluginContextOptions)
+        .pluginContextOptions(nodePluginContextOptions)
         .role(role)
         .roleFile(roleFile)
         .environment(environment)
-        .config(config)
+        .config(tenantContextCache.getConfig())
         .variableStringResolver(variableStringResolver)
-        .variableMapResolver(variableMapResolver);
+        .variableMapResolver(variableMapResolver)
+        .tenantContextCache(tenantContextCache);
 
     List<Map<String, Object>> muliplyConfigs = multiplyPlugin.multiply(multiplyContext);
+    List<Map<String, Object>> resolvedConfigs = new ArrayList<>();
     int index = 0;
     for (Map<String, Object> muliplyConfig : muliplyConfigs) {
 
-      // resolve variables
-      Map<String, Object> resolvedConfig = variableMapResolver.resolve(muliplyConfig, false);
-      resolvedConfig.put(ContextProperties.MULTIPLY_INDEX, index);
+      // resolve variables on first access - configs of node role and tenants are shared by all files
+      Map<String, Object> resolvedConfig = tenantContextCache.resolve(muliplyConfig)
+          .with(ContextProperties.MULTIPLY_INDEX, index);
 
       // skip file if condition does not evaluate to a non-empty string or is "false"
       boolean skip = false;
@@ -295,22 +702,16 @@ class EnvironmentGenerator {
       }
 
       if (!skip) {
-        // replace placeholders with context variables
-        String dir = variableStringResolver.resolveString(roleFile.getDir(), resolvedConfig);
-        String file = variableStringResolver.resolveString(roleFile.getFile(), resolvedConfig);
-        String url = variableStringResolver.resolveString(roleFile.getUrl(), resolvedConfig);
-
-        generatedFiles.addAll(generateFile(roleFile, dir, file, url,
-            resolvedConfig, nodeDir, template, roleName, roleVariantNames, templateName));
-
+        resolvedConfigs.add(resolvedConfig);
         index++;
       }
     }
+    return resolvedConfigs;
   }
 
   private Collection<GeneratedFileContext> generateFile(RoleFile roleFile, String dir, String fileName, String url,
       Map<String, Object> config, File nodeDir, Template template,
-      String roleName, List<String> roleVariantNames, String templateName) {
+      String roleName, List<String> roleVariantNames, String templateName, PluginContextOptions nodePluginContextOptions) {
 
     String generatedFileName = fileName;
     if (StringUtils.isBlank(generatedFileName) && StringUtils.isNotBlank(url)) {
@@ -323,28 +724,33 @@ class EnvironmentGenerator {
     }
 
     File file = new File(nodeDir, dir != null ? FilenameUtils.concat(dir, generatedFileName) : generatedFileName);
-    if (file.exists()) {
-      file.delete();
-    }
 
     FileGenerator fileGenerator = new FileGenerator(options, environmentName,
         roleName, roleVariantNames, templateName,
         nodeDir, file, url, roleFile, config, template,
-        variableMapResolver, urlFileManager, pluginContextOptions, dependencyVersions);
+        variableMapResolver, urlFileManager, nodePluginContextOptions, dependencyVersions, getPluginPlan(roleFile));
     try {
-      Collection<GeneratedFileContext> generatedFiles = fileGenerator.generate();
-
-      // check for path duplicates
-      generatedFiles.forEach(generatedFileContext -> {
-        String path = generatedFileContext.getFileContext().getCanonicalPath();
-        if (generatedFilePaths.contains(path)) {
-          log.warn("File was generated already, check for file name clashes: " + path);
-        }
-        else {
-          generatedFilePaths.add(path);
+      // skip file if all inputs are unchanged since last generation
+      String fingerprint = null;
+      if (fileFingerprintCache != null) {
+        fingerprint = fileGenerator.buildInputFingerprint(environmentFingerprint, environmentContextProperties.keySet());
+        Collection<GeneratedFileContext> unchangedFiles = fileFingerprintCache.getUnchanged(file, fingerprint);
+        if (unchangedFiles != null) {
+          nodePluginContextOptions.getLogger().info("Unchanged file {}",
+              StringUtils.substring(FileUtil.getCanonicalPath(file), FileUtil.getCanonicalPath(nodeDir).length() + 1));
+          return unchangedFiles;
         }
-      });
+      }
+
+      if (file.exists()) {
+        file.delete();
+      }
+      // apply templates with the helper and escaping strategy plugin contexts of this environment
+      Collection<GeneratedFileContext> generatedFiles = handlebarsManager.call(fileGenerator::generate);
 
+      if (fileFingerprintCache != null) {
+        fileFingerprintCache.put(file, fingerprint, generatedFiles);
+      }
       return generatedFiles;
     }
     catch (ValidationException ex) {
@@ -355,4 +761,63 @@ class EnvironmentGenerator {
     }
   }
 
+  /**
+   * Node with the resolved configs of all files to generate for it, and the generation result.
+   */
+  private static final class NodeGeneration {
+
+    private final Node node;
+    private final BufferingLoggerFacade log;
+    private PluginContextOptions pluginContextOptions;
+    private File nodeDir;
+    private NodeModelExport exportModelGenerator;
+    private final List<NodeRoleFiles> nodeRoleFiles = new ArrayList<>();
+    private final Set<String> urls = new LinkedHashSet<>();
+    private List<GeneratedFileContext> generatedFiles;
+    private RuntimeException failure;
+
+    NodeGeneration(Node node, BufferingLoggerFacade log) {
+      this.node = node;
+      this.log = log;
+    }
+
+  }
+
+  /**
+   * Role of a node with the resolved configs of all files to generate for it.
+   */
+  private static final class NodeRoleFiles {
+
+    private final NodeRole nodeRole;
+    private final String roleName;
+    private final Role role;
+    private final List<String> variants;
+    private final ExportNodeRoleData exportNodeRoleData;
+    private final List<RoleFileConfigs> roleFiles = new ArrayList<>();
+
+    NodeRoleFiles(NodeRole nodeRole, String roleName, Role role, List<String> variants, ExportNodeRoleData exportNodeRoleData) {
+      this.nodeRole = nodeRole;
+      this.roleName = roleName;
+      this.role = role;
+      this.variants = variants;
+      this.exportNodeRoleData = exportNodeRoleData;
+    }
+
+  }
+
+  /**
+   * Role file with the resolved configs of all files to generate for it.
+   */
+  private static final class RoleFileConfigs {
+
+    private final RoleFile roleFile;
+    private final List<Map<String, Object>> resolvedConfigs;
+
+    RoleFileConfigs(RoleFile roleFile, List<Map<String, Object>> resolvedConfigs) {
+      this.roleFile = roleFile;
+      this.resolvedConfigs = resolvedConfigs;
+    }
+
+  }
+
 }
@@ -0,0 +1,221 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import io.wcm.devops.conga.generator.spi.context.FileContext;
+import io.wcm.devops.conga.generator.spi.export.context.GeneratedFileContext;
+import io.wcm.devops.conga.generator.util.FileUtil;
+
+/**
+ * Stores the input fingerprint of each file generated for an environment, and the files that where
+ * generated from it (including files created by post processors). Used for incremental generation:
+ * Files with unchanged fingerprint are not generated again, and files from the previous run that
+ * are not generated anymore are removed.
+ * <p>
+ * The state is stored as JSON file per environment in the cache directory. It is removed when
+ * generation starts and only written again when the environment was generated successfully.
+ * </p>
+ */
+final class FileFingerprintCache {
+
+  private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+  private static final Type STATE_TYPE = new TypeToken<Map<String, FileEntry>>() { }.getType();
+
+  private final File stateFile;
+  private final Path environmentDir;
+  private final Map<String, FileEntry> previousEntries;
+  private final Map<String, FileEntry> currentEntries = new ConcurrentHashMap<>();
+
+  /**
+   * @param cacheDir Directory to store fingerprint state files
+   * @param environmentName Environment name
+   * @param environmentDir Target directory of environment
+   */
+  FileFingerprintCache(File cacheDir, String environmentName, File environmentDir) {
+    this.stateFile = new File(FileUtil.ensureDirExistsAutocreate(cacheDir), environmentName + ".json");
+    this.environmentDir = new File(FileUtil.getCanonicalPath(environmentDir)).toPath();
+    this.previousEntries = readState(stateFile);
+    if (stateFile.exists() && !stateFile.delete()) {
+      throw new GeneratorException("Unable to delete fingerprint file: " + FileUtil.getCanonicalPath(stateFile));
+    }
+  }
+
+  private static Map<String, FileEntry> readState(File file) {
+    if (!file.exists()) {
+      return new HashMap<>();
+    }
+    try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+      Map<String, FileEntry> state = GSON.fromJson(reader, STATE_TYPE);
+      return state != null ? state : new HashMap<>();
+    }
+    catch (IOException | JsonParseException ex) {
+      // ignore invalid state - all files are generated again
+      return new HashMap<>();
+    }
+  }
+
+  /**
+   * Checks if the given file was generated with the same input fingerprint before, and all files
+   * generated from it still exist.
+   * @param file File to generate
+   * @param fingerprint Input fingerprint
+   * @return Files generated in previous run, or null if the file has to be generated
+   */
+  public Collection<GeneratedFileContext> getUnchanged(File file, String fingerprint) {
+    String key = getRelativePath(file);
+    FileEntry entry = previousEntries.get(key);
+    if (entry == null || !StringUtils.equals(entry.fingerprint, fingerprint) || entry.outputs == null) {
+      return null;
+    }
+    List<GeneratedFileContext> generatedFiles = new ArrayList<>();
+    for (OutputFile output : entry.outputs) {
+      File outputFile = environmentDir.resolve(output.path).toFile();
+      if (!outputFile.exists()) {
+        return null;
+      }
+      FileContext fileContext = new FileContext()
+          .file(outputFile)
+          .charset(output.charset)
+          .modelOptions(output.modelOptions != null ? output.modelOptions : new HashMap<>());
+      if (output.targetDir != null) {
+        fileContext.targetDir(environmentDir.resolve(output.targetDir).toFile());
+      }
+      GeneratedFileContext generatedFileContext = new GeneratedFileContext().fileContext(fileContext);
+      if (output.postProcessors != null) {
+        output.postProcessors.forEach(generatedFileContext::postProcessor);
+      }
+      generatedFiles.add(generatedFileContext);
+    }
+    currentEntries.put(key, entry);
+    return generatedFiles;
+  }
+
+  /**
+   * Stores fingerprint for generated file.
+   * @param file Generated file
+   * @param fingerprint Input fingerprint
+   * @param generatedFiles Files that where generated from it
+   */
+  public void put(File file, String fingerprint, Collection<GeneratedFileContext> generatedFiles) {
+    FileEntry entry = new FileEntry();
+    entry.fingerprint = fingerprint;
+    entry.outputs = new ArrayList<>();
+    for (GeneratedFileContext generatedFileContext : generatedFiles) {
+      FileContext fileContext = generatedFileContext.getFileContext();
+      OutputFile output = new OutputFile();
+      output.path = getRelativePath(fileContext.getFile());
+      output.charset = fileContext.getCharset();
+      output.modelOptions = fileContext.getModelOptions();
+      if (fileContext.getTargetDir() != null) {
+        output.targetDir = getRelativePath(fileContext.getTargetDir());
+      }
+      output.postProcessors = new ArrayList<>(generatedFileContext.getPostProcessors());
+      entry.outputs.add(output);
+    }
+    currentEntries.put(getRelativePath(file), entry);
+  }
+
+  /**
+   * Removes all files that where generated in the previous run, but not in the current run.
+   * @param log Logger
+   */
+  public void removeStaleFiles(Logger log) {
+    Set<String> currentPaths = new HashSet<>();
+    currentEntries.values().forEach(entry -> entry.outputs.forEach(output -> currentPaths.add(output.path)));
+    previousEntries.values().stream()
+        .filter(entry -> entry.outputs != null)
+        .flatMap(entry -> entry.outputs.stream())
+        .map(output -> output.path)
+        .filter(path -> !currentPaths.contains(path))
+        .distinct()
+        .sorted()
+        .forEach(path -> {
+          File file = environmentDir.resolve(path).toFile();
+          if (file.exists()) {
+            log.info("Remove stale file {}", path);
+            file.delete();
+          }
+        });
+  }
+
+  /**
+   * Writes fingerprint state of current run.
+   */
+  public void save() {
+    try (Writer writer = Files.newBufferedWriter(stateFile.toPath(), StandardCharsets.UTF_8)) {
+      GSON.toJson(new TreeMap<>(currentEntries), STATE_TYPE, writer);
+    }
+    catch (IOException ex) {
+      throw new GeneratorException("Unable to write fingerprint file: " + FileUtil.getCanonicalPath(stateFile), ex);
+    }
+  }
+
+  private String getRelativePath(File file) {
+    Path path = new File(FileUtil.getCanonicalPath(file)).toPath();
+    return FilenameUtils.separatorsToUnix(environmentDir.relativize(path).toString());
+  }
+
+  /**
+   * Fingerprint state of a file generated from a role file definition.
+   */
+  private static final class FileEntry {
+    private String fingerprint;
+    private List<OutputFile> outputs;
+  }
+
+  /**
+   * A file that was generated directly or by post processors.
+   */
+  private static final class OutputFile {
+    private String path;
+    private String charset;
+    private String targetDir;
+    private Map<String, Object> modelOptions;
+    private List<String> postProcessors;
+  }
+
+}
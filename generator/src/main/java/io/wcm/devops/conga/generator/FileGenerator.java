@@ -19,34 +19,35 @@
  */
 package io.wcm.devops.conga.generator;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Stream;
+import java.util.stream.Collectors;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 
 import com.github.jknack.handlebars.Template;
 import com.google.common.collect.ImmutableList;
 
-import io.wcm.devops.conga.generator.plugins.fileheader.NoneFileHeader;
-import io.wcm.devops.conga.generator.plugins.validator.NoneValidator;
 import io.wcm.devops.conga.generator.spi.FileHeaderPlugin;
-import io.wcm.devops.conga.generator.spi.FilePlugin;
-import io.wcm.devops.conga.generator.spi.ImplicitApplyOptions;
 import io.wcm.devops.conga.generator.spi.PostProcessorPlugin;
 import io.wcm.devops.conga.generator.spi.ValidatorPlugin;
 import io.wcm.devops.conga.generator.spi.context.FileContext;
@@ -55,8 +56,10 @@ import io.wcm.devops.conga.generator.spi.context.PluginContextOptions;
 import io.wcm.devops.conga.generator.spi.context.PostProcessorContext;
 import io.wcm.devops.conga.generator.spi.context.ValidatorContext;
 import io.wcm.devops.conga.generator.spi.export.context.GeneratedFileContext;
+import io.wcm.devops.conga.generator.spi.handlebars.context.EscapingStrategyContext;
 import io.wcm.devops.conga.generator.util.FileUtil;
-import io.wcm.devops.conga.generator.util.LineEndingConverter;
+import io.wcm.devops.conga.generator.util.LazyVariableMap;
+import io.wcm.devops.conga.generator.util.LineEndingConvertingWriter;
 import io.wcm.devops.conga.generator.util.PluginManager;
 import io.wcm.devops.conga.generator.util.VariableMapResolver;
 import io.wcm.devops.conga.model.role.RoleFile;
@@ -78,7 +81,10 @@ class FileGenerator {
   private final Map<String, Object> config;
   private final Template template;
   private final PluginManager pluginManager;
+  private final PluginContextOptions pluginContextOptions;
+  private FilePluginPlan plan;
   private final UrlFileManager urlFileManager;
+  private final boolean urlFileHardLinks;
   private final Logger log;
   private final FileContext fileContext;
   private final FileHeaderContext fileHeaderContext;
@@ -94,6 +100,15 @@ class FileGenerator {
       File nodeDir, File file, String url, RoleFile roleFile, Map<String, Object> config, Template template,
       VariableMapResolver variableMapResolver, UrlFileManager urlFileManager, PluginContextOptions pluginContextOptions,
       Collection<String> dependencyVersions) {
+    this(options, environmentName, roleName, roleVariantNames, templateName, nodeDir, file, url, roleFile, config, template,
+        variableMapResolver, urlFileManager, pluginContextOptions, dependencyVersions, null);
+  }
+
+  FileGenerator(GeneratorOptions options, String environmentName,
+      String roleName, List<String> roleVariantNames, String templateName,
+      File nodeDir, File file, String url, RoleFile roleFile, Map<String, Object> config, Template template,
+      VariableMapResolver variableMapResolver, UrlFileManager urlFileManager, PluginContextOptions pluginContextOptions,
+      Collection<String> dependencyVersions, FilePluginPlan plan) {
     //CHECKSTYLE:ON
     this.environmentName = environmentName;
     this.roleName = roleName;
@@ -105,8 +120,11 @@ class FileGenerator {
     this.roleFile = roleFile;
     this.template = template;
     this.pluginManager = options.getPluginManager();
+    this.pluginContextOptions = pluginContextOptions;
+    this.plan = plan;
     this.urlFileManager = urlFileManager;
-    this.log = options.getLogger();
+    this.urlFileHardLinks = options.isUrlFileHardLinks();
+    this.log = pluginContextOptions.getLogger();
     this.fileContext = new FileContext()
         .file(file)
         .charset(roleFile.getCharset())
@@ -124,15 +142,33 @@ class FileGenerator {
         .pluginContextOptions(pluginContextOptionsForPlugin)
         .commentLines(buildFileHeaderCommentLines(options.getVersion(), dependencyVersions));
 
+    this.config = variableMapResolver.deescape(config);
+
+    // plugin options are resolved on first access - most files have no validator or post processor applied
     this.validatorContext = new ValidatorContext()
         .pluginContextOptions(pluginContextOptionsForPlugin)
-        .options(variableMapResolver.resolve(MapMerger.merge(roleFile.getValidatorOptions(), config)));
+        .optionsSupplier(() -> resolvePluginOptions(roleFile.getValidatorOptions(), config, variableMapResolver));
 
     this.postProcessorContext = new PostProcessorContext()
         .pluginContextOptions(pluginContextOptionsForPlugin)
-        .options(variableMapResolver.resolve(MapMerger.merge(roleFile.getPostProcessorOptions(), config)));
+        .optionsSupplier(() -> resolvePluginOptions(roleFile.getPostProcessorOptions(), config, variableMapResolver));
+  }
 
-    this.config = variableMapResolver.deescape(config);
+  /**
+   * Merge plugin options from role file with the file's config and resolve them.
+   * If the role file defines no plugin options, the de-escaped config of the file is shared instead - it is
+   * returned read-only and not copied, so values that are not accessed by the plugin are not resolved.
+   * @param pluginOptions Plugin options from role file
+   * @param resolvedConfig Resolved file config
+   * @param variableMapResolver Variable map resolver
+   * @return Resolved plugin options (read-only)
+   */
+  private Map<String, Object> resolvePluginOptions(Map<String, Object> pluginOptions, Map<String, Object> resolvedConfig,
+      VariableMapResolver variableMapResolver) {
+    if (pluginOptions == null || pluginOptions.isEmpty()) {
+      return Collections.unmodifiableMap(this.config);
+    }
+    return Collections.unmodifiableMap(variableMapResolver.resolve(MapMerger.merge(pluginOptions, resolvedConfig)));
   }
 
   /**
@@ -207,12 +243,54 @@ class FileGenerator {
     return formattedLines;
   }
 
+  /**
+   * Build fingerprint of all inputs of the file, used for incremental generation.
+   * The values of the environment context variables are part of the environment fingerprint and not included
+   * again. The plugin options are derived from the role file and the config, so they are not resolved here.
+   * The config is fingerprinted before resolving variables, so building the fingerprint does not resolve the config
+   * values - unless they reference value providers, whose values are only known after resolving.
+   * @param environmentFingerprint Fingerprint of the inputs shared by all files of the environment
+   * @param environmentContextKeys Keys of the environment context variables in the config
+   * @return Fingerprint
+   * @throws IOException I/O exception
+   */
+  public String buildInputFingerprint(String environmentFingerprint, Set<String> environmentContextKeys) throws IOException {
+    Map<String, Object> fingerprintConfig = config;
+    if (config instanceof LazyVariableMap && !((LazyVariableMap)config).hasValueProviderReference()) {
+      fingerprintConfig = ((LazyVariableMap)config).getUnresolvedConfig();
+    }
+    Map<String, Object> fileConfig = new HashMap<>();
+    for (Map.Entry<String, Object> entry : fingerprintConfig.entrySet()) {
+      if (!environmentContextKeys.contains(entry.getKey())) {
+        fileConfig.put(entry.getKey(), entry.getValue());
+      }
+    }
+    FingerprintBuilder fingerprint = new FingerprintBuilder()
+        .put("environment", environmentFingerprint)
+        .put("roleFile", roleFile)
+        .put("config", fileConfig)
+        .put("fileHeader", fileHeaderContext.getCommentLines());
+    if (template != null) {
+      fingerprint.put("template", template.text());
+    }
+    else if (StringUtils.isNotBlank(url)) {
+      fingerprint.put("url", url);
+      fingerprint.put("urlContent", urlFileManager.getFingerprint(url));
+    }
+    return fingerprint.build();
+  }
+
   /**
    * Generate file(s).
    * @return List of files that where generated directly or indirectly (by post processors).
    * @throws IOException
    */
   public Collection<GeneratedFileContext> generate() throws IOException {
+    if (plan == null) {
+      // no plan shared for the role file given - build one just for this file
+      plan = new FilePluginPlan(roleFile, pluginManager, new EscapingStrategyContext().pluginContextOptions(pluginContextOptions));
+    }
+
     File dir = file.getParentFile();
     if (!dir.exists()) {
       dir.mkdirs();
@@ -222,12 +300,23 @@ class FileGenerator {
     if (template != null) {
       log.info("Generate file {}", getFilenameForLog(fileContext));
 
-      // generate with template
-      generateWithTemplate();
-
-      // add file header, validate and post-process generated file
-      applyFileHeader(fileContext, roleFile.getFileHeader());
-      applyValidation(fileContext, roleFile.getValidators());
+      // generate with template - keep content in memory only if plugins are applied to it,
+      // and all plugins that may be applied support content kept in memory
+      boolean keepContentInMemory = plan.isContentInMemorySupported()
+          && (plan.getFileHeaders(fileContext, fileHeaderContext).findAny().isPresent()
+          || plan.getValidators(fileContext, validatorContext).findAny().isPresent()
+          || (plan.isPostProcessorContentInMemorySupported()
+          && plan.getPostProcessors(fileContext, postProcessorContext).findAny().isPresent()));
+      generateWithTemplate(keepContentInMemory);
+
+      // add file header and validate generated file
+      applyFileHeader(fileContext);
+      applyValidation(fileContext);
+
+      // write file content to disk before post-processing unless all post processors support content kept in memory
+      if (!plan.isPostProcessorContentInMemorySupported()) {
+        fileContext.flush();
+      }
       postProcessedFiles = applyPostProcessor(fileContext);
 
     }
@@ -235,86 +324,88 @@ class FileGenerator {
       log.info("Copy file {} from {}", getFilenameForLog(fileContext), url);
 
       // generate by downloading/copying from URL, and post-process downloaded file
-      generateFromUrlFile();
+      boolean linked = generateFromUrlFile();
+      if (linked && plan.getPostProcessors(fileContext, postProcessorContext).findAny().isPresent()) {
+        // never post-process a hard link in place - this would modify the linked source file as well
+        FileUtil.copyReplacing(file, file.toPath());
+      }
       postProcessedFiles = applyPostProcessor(fileContext);
     }
     else {
       throw new IOException("No template and nor URL defined for file: " + FileUtil.getFileInfo(roleName, roleFile));
     }
 
+    // write file contents a post processor may have kept in memory
+    for (GeneratedFileContext postProcessedFile : postProcessedFiles) {
+      postProcessedFile.getFileContext().flush();
+    }
+
     return postProcessedFiles;
   }
 
   /**
    * Generate file with handlebars template.
    * Use unix file endings by default.
+   * The output is streamed to the file, converting the line endings on the fly.
+   * @param keepContentInMemory Stream the output to the file content kept in memory instead, which is written to disk
+   *          after file header and validation are applied.
    */
-  private void generateWithTemplate() throws IOException {
-    try (FileOutputStream fos = new FileOutputStream(file);
-        Writer fileWriter = new OutputStreamWriter(fos, roleFile.getCharset())) {
-      StringWriter stringWriter = new StringWriter();
-      template.apply(config, stringWriter);
-      fileWriter.write(normalizeLineEndings(stringWriter.toString()));
-      fileWriter.flush();
+  private void generateWithTemplate(boolean keepContentInMemory) throws IOException {
+    if (keepContentInMemory) {
+      ByteArrayOutputStream bos = new ByteArrayOutputStream();
+      applyTemplate(bos);
+      fileContext.contentInMemory(bos.toByteArray());
     }
-  }
-
-  /**
-   * Generate file by downloading/copying from URL
-   */
-  private void generateFromUrlFile() throws IOException {
-    try (FileOutputStream fos = new FileOutputStream(file);
-        InputStream is = urlFileManager.getFile(url)) {
-      IOUtils.copy(is, fos);
-      fos.flush();
+    else {
+      FileUtil.writeReplacing(file, this::applyTemplate);
     }
   }
 
-  private String normalizeLineEndings(String value) {
-    // convert/normalize all line endings to unix style
-    String normalizedLineEndings = LineEndingConverter.normalizeToUnix(value);
-    // and then to the line-ending style as requested in the tempalte definition
-    return LineEndingConverter.convertTo(normalizedLineEndings, roleFile.getLineEndings());
+  private void applyTemplate(OutputStream os) throws IOException {
+    try (Writer fileWriter = new LineEndingConvertingWriter(
+        new BufferedWriter(new OutputStreamWriter(os, roleFile.getCharset())), roleFile.getLineEndings())) {
+      template.apply(config, fileWriter);
+    }
   }
 
   /**
-   * Collect all file plugins that are either configured explicitely, or apply implicitely, or should always apply.
-   * @param pluginClass File plugin class
-   * @param fileItem File item
-   * @param contextObject File plugin context object
-   * @param pluginNames List of configured plugin names
-   * @return List of plugins that should apply
-   * @param <T> Plugin context object type.
-   * @param <R> Return type of the plugin apply method.
-   * @param <P> Plugin class
+   * Generate file by downloading/copying from URL.
+   * If the file is available in the local filesystem it is copied without streaming it through the JVM heap,
+   * or linked if hard links are enabled.
+   * The target file is always replaced, never overwritten in place - it may be a hard link created by a previous run.
+   * @return true if the file was created as hard link
    */
-  private <T, R, P extends FilePlugin<T, R>> Stream<P> collectFilePlugins(Class<P> pluginClass, FileContext fileItem, T contextObject,
-      List<String> pluginNames) {
-    Stream<P> plugins;
-    if (pluginNames.isEmpty()) {
-      // auto-detect matching plugins if none are defined
-      plugins = pluginManager.getAll(pluginClass).stream()
-          .filter(plugin -> plugin.accepts(fileItem, contextObject))
-          .filter(plugin -> plugin.implicitApply(fileItem, contextObject) == ImplicitApplyOptions.WHEN_UNCONFIGURED);
+  private boolean generateFromUrlFile() throws IOException {
+    Path localFile = urlFileManager.getLocalFile(url);
+    if (localFile != null) {
+      if (urlFileHardLinks && linkLocalFile(localFile)) {
+        return true;
+      }
+      FileUtil.copyReplacing(file, localFile);
+      return false;
     }
-    else {
-      // otherwise apply selected plugins
-      plugins = pluginNames.stream()
-          .map(name -> pluginManager.get(name, pluginClass));
+    try (InputStream is = urlFileManager.getFile(url)) {
+      FileUtil.copyReplacing(file, is);
     }
-    // add plugins that should always apply
-    return Stream.concat(plugins, pluginManager.getAll(pluginClass).stream()
-          .filter(plugin -> plugin.accepts(fileItem, contextObject))
-          .filter(plugin -> plugin.implicitApply(fileItem, contextObject) == ImplicitApplyOptions.ALWAYS));
+    return false;
   }
 
-  private void applyFileHeader(FileContext fileItem, String pluginName) {
-    List<String> pluginNames = new ArrayList<>();
-    if (!StringUtils.isEmpty(pluginName)) {
-      pluginNames.add(pluginName);
+  private boolean linkLocalFile(Path localFile) {
+    try {
+      Path target = file.toPath();
+      Files.deleteIfExists(target);
+      Files.createLink(target, localFile);
+      return true;
     }
-    collectFilePlugins(FileHeaderPlugin.class, fileItem, fileHeaderContext, pluginNames)
-        .filter(plugin -> !StringUtils.equals(plugin.getName(), NoneFileHeader.NAME))
+    catch (IOException | UnsupportedOperationException ex) {
+      // e.g. source and target are located on different file systems
+      log.debug("  Unable to create hard link to {}, copy file instead: {}", localFile, ex.getMessage());
+      return false;
+    }
+  }
+
+  private void applyFileHeader(FileContext fileItem) {
+    plan.getFileHeaders(fileItem, fileHeaderContext)
         .forEach(plugin -> applyFileHeader(fileItem, plugin));
   }
 
@@ -323,9 +414,8 @@ class FileGenerator {
     plugin.apply(fileItem, fileHeaderContext);
   }
 
-  private void applyValidation(FileContext fileItem, List<String> pluginNames) {
-    collectFilePlugins(ValidatorPlugin.class, fileItem, validatorContext, pluginNames)
-        .filter(plugin -> !StringUtils.equals(plugin.getName(), NoneValidator.NAME))
+  private void applyValidation(FileContext fileItem) {
+    plan.getValidators(fileItem, validatorContext)
         .forEach(plugin -> applyValidation(fileItem, plugin));
   }
 
@@ -342,12 +432,9 @@ class FileGenerator {
     // start with original file
     consolidatedFiles.put(fileContext.getCanonicalPath(), new GeneratedFileContext().fileContext(fileContext));
 
-    // collect postprocessor plugins
-    Stream<PostProcessorPlugin> postProcessors = collectFilePlugins(PostProcessorPlugin.class, fileItem, postProcessorContext,
-        roleFile.getPostProcessors());
-
     // process all processors. if multiple processors each processor processed the files of the previous one.
-    postProcessors.forEach(plugin -> applyPostProcessor(consolidatedFiles, plugin));
+    plan.getPostProcessors(fileItem, postProcessorContext)
+        .forEach(plugin -> applyPostProcessor(consolidatedFiles, plugin));
 
     return consolidatedFiles.values();
   }
@@ -355,58 +442,63 @@ class FileGenerator {
   private void applyPostProcessor(Map<String, GeneratedFileContext> consolidatedFiles, PostProcessorPlugin plugin) {
 
     // process all files from given map
-    ImmutableList.copyOf(consolidatedFiles.values()).stream()
-        // do not apply post processor twice
-        .filter(fileItem -> !fileItem.getPostProcessors().contains(plugin.getName()))
-        .filter(fileItem -> plugin.accepts(fileItem.getFileContext(), postProcessorContext))
-        .forEach(fileItem -> {
-          List<FileContext> processedFiles = applyPostProcessor(fileItem.getFileContext(), plugin);
-          fileItem.postProcessor(plugin.getName());
-          processedFiles.forEach(item -> {
-            GeneratedFileContext generatedFileContext = consolidatedFiles.get(item.getCanonicalPath());
-            if (generatedFileContext == null) {
-              generatedFileContext = new GeneratedFileContext().fileContext(item);
-              consolidatedFiles.put(item.getCanonicalPath(), generatedFileContext);
-            }
-            generatedFileContext.postProcessor(plugin.getName());
-          });
-      });
-
-    // remove items that do no longer exist
-    ImmutableList.copyOf(consolidatedFiles.values()).forEach(fileItem -> {
-      if (!fileItem.getFileContext().getFile().exists()) {
-        consolidatedFiles.remove(fileItem.getFileContext().getCanonicalPath());
+    boolean applied = false;
+    for (GeneratedFileContext fileItem : ImmutableList.copyOf(consolidatedFiles.values())) {
+      flushIfContentInMemoryUnsupported(fileItem.getFileContext(), plan.isPostProcessorContentInMemorySupported());
+      // do not apply post processor twice
+      if (!fileItem.getPostProcessors().contains(plugin.getName())
+          && plugin.accepts(fileItem.getFileContext(), postProcessorContext)) {
+        applyPostProcessor(consolidatedFiles, fileItem, plugin);
+        applied = true;
       }
-    });
+    }
+    if (applied) {
+      removeDeletedFiles(consolidatedFiles);
+    }
 
     // apply post processor configured as implicit ALWAYS
-    consolidatedFiles.values().forEach(fileItem -> {
-      pluginManager.getAll(PostProcessorPlugin.class).stream()
-          .filter(implicitPlugin -> implicitPlugin.accepts(fileItem.getFileContext(), postProcessorContext))
-          .filter(implicitPlugin -> implicitPlugin.implicitApply(fileItem.getFileContext(), postProcessorContext) == ImplicitApplyOptions.ALWAYS)
-          // do not apply post processor twice
-          .filter(implicitPlugin -> !fileItem.getPostProcessors().contains(implicitPlugin.getName()))
-          .forEach(implicitPlugin -> {
-            List<FileContext> processedFiles = applyPostProcessor(fileItem.getFileContext(), implicitPlugin);
-            fileItem.postProcessor(implicitPlugin.getName());
-            processedFiles.forEach(item -> {
-              GeneratedFileContext generatedFileContext = consolidatedFiles.get(item.getCanonicalPath());
-              if (generatedFileContext == null) {
-                generatedFileContext = new GeneratedFileContext().fileContext(item);
-                consolidatedFiles.put(item.getCanonicalPath(), generatedFileContext);
-              }
-              generatedFileContext.postProcessor(implicitPlugin.getName());
-            });
-          });
-    });
+    applied = false;
+    for (GeneratedFileContext fileItem : ImmutableList.copyOf(consolidatedFiles.values())) {
+      flushIfContentInMemoryUnsupported(fileItem.getFileContext(), plan.isPostProcessorContentInMemorySupported());
+      List<PostProcessorPlugin> implicitPlugins = plan.getAlwaysPostProcessors(fileItem.getFileContext(), postProcessorContext)
+          .collect(Collectors.toList());
+      for (PostProcessorPlugin implicitPlugin : implicitPlugins) {
+        // do not apply post processor twice
+        if (!fileItem.getPostProcessors().contains(implicitPlugin.getName())) {
+          applyPostProcessor(consolidatedFiles, fileItem, implicitPlugin);
+          applied = true;
+        }
+      }
+    }
+    if (applied) {
+      removeDeletedFiles(consolidatedFiles);
+    }
+
+  }
 
-    // remove items that do no longer exist
-    ImmutableList.copyOf(consolidatedFiles.values()).forEach(fileItem -> {
-      if (!fileItem.getFileContext().getFile().exists()) {
-        consolidatedFiles.remove(fileItem.getFileContext().getCanonicalPath());
+  private void applyPostProcessor(Map<String, GeneratedFileContext> consolidatedFiles, GeneratedFileContext fileItem,
+      PostProcessorPlugin plugin) {
+    List<FileContext> processedFiles = applyPostProcessor(fileItem.getFileContext(), plugin);
+    fileItem.postProcessor(plugin.getName());
+    if (processedFiles == null) {
+      return;
+    }
+    processedFiles.forEach(item -> {
+      GeneratedFileContext generatedFileContext = consolidatedFiles.get(item.getCanonicalPath());
+      if (generatedFileContext == null) {
+        generatedFileContext = new GeneratedFileContext().fileContext(item);
+        consolidatedFiles.put(item.getCanonicalPath(), generatedFileContext);
       }
+      generatedFileContext.postProcessor(plugin.getName());
     });
+  }
 
+  /**
+   * Remove items that do no longer exist - post processors may have removed them.
+   * @param consolidatedFiles Consolidated files
+   */
+  private void removeDeletedFiles(Map<String, GeneratedFileContext> consolidatedFiles) {
+    consolidatedFiles.values().removeIf(fileItem -> !fileItem.getFileContext().exists());
   }
 
   private List<FileContext> applyPostProcessor(FileContext fileItem, PostProcessorPlugin plugin) {
@@ -417,14 +509,34 @@ class FileGenerator {
     if (processedFiles != null) {
       // add file header, validate files
       processedFiles.forEach(processedFile -> {
-            applyFileHeader(processedFile, (String)null);
-            applyValidation(processedFile, ImmutableList.of());
+        flushIfContentInMemoryUnsupported(processedFile, plan.isContentInMemorySupported());
+        plan.getImplicitFileHeaders(processedFile, fileHeaderContext)
+            .forEach(fileHeaderPlugin -> applyFileHeader(processedFile, fileHeaderPlugin));
+        plan.getImplicitValidators(processedFile, validatorContext)
+            .forEach(validatorPlugin -> applyValidation(processedFile, validatorPlugin));
       });
     }
 
     return processedFiles;
   }
 
+  /**
+   * Writes the file content kept in memory to disk before plugins are called that do not support it.
+   * @param fileItem File
+   * @param contentInMemorySupported Whether all plugins that may be called next support content kept in memory
+   */
+  private void flushIfContentInMemoryUnsupported(FileContext fileItem, boolean contentInMemorySupported) {
+    if (contentInMemorySupported) {
+      return;
+    }
+    try {
+      fileItem.flush();
+    }
+    catch (IOException ex) {
+      throw new GeneratorException("Unable to write file: " + getFilenameForLog(fileItem), ex);
+    }
+  }
+
   private String getFilenameForLog(FileContext fileItem) {
     return StringUtils.substring(fileItem.getCanonicalPath(), FileUtil.getCanonicalPath(nodeDir).length() + 1);
   }
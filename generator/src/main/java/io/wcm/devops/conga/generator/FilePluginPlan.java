@@ -0,0 +1,247 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import com.google.common.collect.ImmutableList;
+
+import io.wcm.devops.conga.generator.plugins.fileheader.NoneFileHeader;
+import io.wcm.devops.conga.generator.plugins.handlebars.escaping.NoneEscapingStrategy;
+import io.wcm.devops.conga.generator.plugins.validator.NoneValidator;
+import io.wcm.devops.conga.generator.spi.ContentInMemoryAware;
+import io.wcm.devops.conga.generator.spi.FileHeaderPlugin;
+import io.wcm.devops.conga.generator.spi.FilePlugin;
+import io.wcm.devops.conga.generator.spi.ImplicitApplyOptions;
+import io.wcm.devops.conga.generator.spi.PostProcessorPlugin;
+import io.wcm.devops.conga.generator.spi.ValidatorPlugin;
+import io.wcm.devops.conga.generator.spi.context.FileContext;
+import io.wcm.devops.conga.generator.spi.context.FileHeaderContext;
+import io.wcm.devops.conga.generator.spi.context.PostProcessorContext;
+import io.wcm.devops.conga.generator.spi.context.ValidatorContext;
+import io.wcm.devops.conga.generator.spi.handlebars.EscapingStrategyPlugin;
+import io.wcm.devops.conga.generator.spi.handlebars.context.EscapingStrategyContext;
+import io.wcm.devops.conga.generator.util.PluginManager;
+import io.wcm.devops.conga.model.role.RoleFile;
+
+/**
+ * Execution plan of the plugins for the files generated from a role file.
+ * The escaping strategy and the plugins configured in the role file are looked up only once per role file.
+ * Plugins that are applied implicitly are narrowed down to the candidates that may apply implicitly at all -
+ * they are still checked per file, as their decision may depend on the file.
+ */
+final class FilePluginPlan {
+
+  private final RoleFile roleFile;
+  private final PluginManager pluginManager;
+  private final EscapingStrategyContext escapingStrategyContext;
+  private volatile String escapingStrategy;
+  private final Selection<FileHeaderContext, FileHeaderPlugin> fileHeaders;
+  private final Selection<FileHeaderContext, FileHeaderPlugin> implicitFileHeaders;
+  private final Selection<ValidatorContext, ValidatorPlugin> validators;
+  private final Selection<ValidatorContext, ValidatorPlugin> implicitValidators;
+  private final Selection<PostProcessorContext, PostProcessorPlugin> postProcessors;
+
+  /**
+   * @param roleFile Role file
+   * @param pluginManager Plugin manager
+   * @param escapingStrategyContext Escaping strategy context
+   */
+  FilePluginPlan(RoleFile roleFile, PluginManager pluginManager, EscapingStrategyContext escapingStrategyContext) {
+    this.roleFile = roleFile;
+    this.pluginManager = pluginManager;
+    this.escapingStrategyContext = escapingStrategyContext;
+
+    List<String> fileHeaderNames = StringUtils.isEmpty(roleFile.getFileHeader())
+        ? ImmutableList.of()
+        : ImmutableList.of(roleFile.getFileHeader());
+    this.fileHeaders = new Selection<>(pluginManager, FileHeaderPlugin.class, fileHeaderNames, NoneFileHeader.NAME);
+    this.implicitFileHeaders = new Selection<>(pluginManager, FileHeaderPlugin.class, ImmutableList.of(), NoneFileHeader.NAME);
+    this.validators = new Selection<>(pluginManager, ValidatorPlugin.class, roleFile.getValidators(), NoneValidator.NAME);
+    this.implicitValidators = new Selection<>(pluginManager, ValidatorPlugin.class, ImmutableList.of(), NoneValidator.NAME);
+    this.postProcessors = new Selection<>(pluginManager, PostProcessorPlugin.class, roleFile.getPostProcessors(), null);
+  }
+
+  /**
+   * Get escaping strategy for file. If one is explicitly defined in role definition use this.
+   * Otherwise get the best-matching by file extension.
+   * @return Escaping Strategy (never null)
+   */
+  private String detectEscapingStrategy() {
+    if (StringUtils.isNotEmpty(roleFile.getEscapingStrategy())) {
+      return roleFile.getEscapingStrategy();
+    }
+    String fileExtension = FilenameUtils.getExtension(roleFile.getFile());
+    return pluginManager.getAll(EscapingStrategyPlugin.class).stream()
+        .filter(plugin -> !StringUtils.equals(plugin.getName(), NoneEscapingStrategy.NAME))
+        .filter(plugin -> plugin.accepts(fileExtension, escapingStrategyContext))
+        .findFirst().orElse(pluginManager.get(NoneEscapingStrategy.NAME, EscapingStrategyPlugin.class))
+        .getName();
+  }
+
+  /**
+   * @return Escaping strategy plugin name. It is detected on first access.
+   */
+  public String getEscapingStrategy() {
+    if (escapingStrategy == null) {
+      escapingStrategy = detectEscapingStrategy();
+    }
+    return escapingStrategy;
+  }
+
+  /**
+   * @param file File generated from the role file
+   * @param context Context
+   * @return File header plugins to apply
+   */
+  public Stream<FileHeaderPlugin> getFileHeaders(FileContext file, FileHeaderContext context) {
+    return fileHeaders.select(file, context);
+  }
+
+  /**
+   * @param file File generated by a post processor
+   * @param context Context
+   * @return File header plugins to apply
+   */
+  public Stream<FileHeaderPlugin> getImplicitFileHeaders(FileContext file, FileHeaderContext context) {
+    return implicitFileHeaders.select(file, context);
+  }
+
+  /**
+   * @param file File generated from the role file
+   * @param context Context
+   * @return Validator plugins to apply
+   */
+  public Stream<ValidatorPlugin> getValidators(FileContext file, ValidatorContext context) {
+    return validators.select(file, context);
+  }
+
+  /**
+   * @param file File generated by a post processor
+   * @param context Context
+   * @return Validator plugins to apply
+   */
+  public Stream<ValidatorPlugin> getImplicitValidators(FileContext file, ValidatorContext context) {
+    return implicitValidators.select(file, context);
+  }
+
+  /**
+   * @param file File generated from the role file
+   * @param context Context
+   * @return Post processor plugins to apply, in order
+   */
+  public Stream<PostProcessorPlugin> getPostProcessors(FileContext file, PostProcessorContext context) {
+    return postProcessors.select(file, context);
+  }
+
+  /**
+   * @param file File generated from the role file or by a post processor
+   * @param context Context
+   * @return Post processor plugins that are configured to always apply
+   */
+  public Stream<PostProcessorPlugin> getAlwaysPostProcessors(FileContext file, PostProcessorContext context) {
+    return postProcessors.selectAlways(file, context);
+  }
+
+  /**
+   * @return true if all file header and validator plugins that may be applied to the files generated from the role
+   *         file are {@link ContentInMemoryAware}, so the file content may be kept in memory while they are applied.
+   */
+  public boolean isContentInMemorySupported() {
+    return fileHeaders.isContentInMemoryAware() && validators.isContentInMemoryAware();
+  }
+
+  /**
+   * @return true if all post processor plugins that may be applied to the files generated from the role file
+   *         are {@link ContentInMemoryAware}, so the file content may be kept in memory while they are applied.
+   */
+  public boolean isPostProcessorContentInMemorySupported() {
+    return postProcessors.isContentInMemoryAware();
+  }
+
+  /**
+   * Selection of file plugins of one type: either the plugins configured explicitly,
+   * or auto-detected plugins that apply when unconfigured. Plugins that should always apply are added in both cases.
+   * @param <T> Plugin context object type.
+   * @param <P> Plugin class
+   */
+  private static final class Selection<T, P extends FilePlugin<T, ?>> {
+
+    private final List<P> configured;
+    private final List<P> candidates;
+    private final boolean contentInMemoryAware;
+
+    /**
+     * @param pluginManager Plugin manager
+     * @param pluginClass Plugin class
+     * @param pluginNames Plugin names configured in the role file
+     * @param nonePluginName Name of the plugin that disables this plugin type, or null
+     */
+    Selection(PluginManager pluginManager, Class<P> pluginClass, List<String> pluginNames, String nonePluginName) {
+      if (pluginNames.isEmpty()) {
+        this.configured = null;
+      }
+      else {
+        this.configured = ImmutableList.copyOf(pluginNames.stream()
+            .map(name -> pluginManager.get(name, pluginClass))
+            .filter(plugin -> !StringUtils.equals(plugin.getName(), nonePluginName))
+            .collect(Collectors.toList()));
+      }
+      this.candidates = ImmutableList.copyOf(pluginManager.getAll(pluginClass).stream()
+          .filter(plugin -> !StringUtils.equals(plugin.getName(), nonePluginName))
+          .collect(Collectors.toList()));
+      this.contentInMemoryAware = (configured == null || configured.stream().allMatch(ContentInMemoryAware.class::isInstance))
+          && candidates.stream().allMatch(ContentInMemoryAware.class::isInstance);
+    }
+
+    Stream<P> select(FileContext file, T context) {
+      Stream<P> plugins;
+      if (configured == null) {
+        // auto-detect matching plugins if none are defined
+        plugins = candidates.stream()
+            .filter(plugin -> plugin.accepts(file, context))
+            .filter(plugin -> plugin.implicitApply(file, context) == ImplicitApplyOptions.WHEN_UNCONFIGURED);
+      }
+      else {
+        // otherwise apply selected plugins
+        plugins = configured.stream();
+      }
+      // add plugins that should always apply
+      return Stream.concat(plugins, selectAlways(file, context));
+    }
+
+    Stream<P> selectAlways(FileContext file, T context) {
+      return candidates.stream()
+          .filter(plugin -> plugin.accepts(file, context))
+          .filter(plugin -> plugin.implicitApply(file, context) == ImplicitApplyOptions.ALWAYS);
+    }
+
+    boolean isContentInMemoryAware() {
+      return contentInMemoryAware;
+    }
+
+  }
+
+}
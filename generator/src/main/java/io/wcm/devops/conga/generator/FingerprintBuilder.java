@@ -0,0 +1,188 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.common.hash.Funnels;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import io.wcm.devops.conga.resource.Resource;
+import io.wcm.devops.conga.resource.ResourceCollection;
+
+/**
+ * Builds a SHA-256 fingerprint of generator inputs. Maps are hashed in key order and all other objects
+ * by their JSON representation, so the fingerprint does not depend on map iteration order.
+ */
+final class FingerprintBuilder {
+
+  private static final Gson GSON = new Gson();
+
+  private final Hasher hasher = Hashing.sha256().newHasher();
+
+  /**
+   * Add named value to fingerprint.
+   * @param name Name
+   * @param value Value (may be a map, collection, array, simple value or bean)
+   * @return this
+   */
+  public FingerprintBuilder put(String name, Object value) {
+    putString(name);
+    putObject(value);
+    return this;
+  }
+
+  /**
+   * Add content of stream to fingerprint. The stream is closed afterwards.
+   * @param name Name
+   * @param is Input stream
+   * @return this
+   * @throws IOException I/O exception
+   */
+  public FingerprintBuilder putStream(String name, InputStream is) throws IOException {
+    putString(name);
+    try (InputStream stream = is) {
+      ByteStreams.copy(stream, Funnels.asOutputStream(hasher));
+    }
+    return this;
+  }
+
+  /**
+   * Add paths and contents of all resources in the given collections (recursively) to fingerprint.
+   * @param name Name
+   * @param resourceCollections Resource collections
+   * @return this
+   * @throws IOException I/O exception
+   */
+  public FingerprintBuilder putResources(String name, Collection<ResourceCollection> resourceCollections) throws IOException {
+    putString(name);
+    for (ResourceCollection resourceCollection : resourceCollections) {
+      putResourceCollection(resourceCollection);
+    }
+    return this;
+  }
+
+  /**
+   * @return Hex-encoded fingerprint
+   */
+  public String build() {
+    return hasher.hash().toString();
+  }
+
+  private void putResourceCollection(ResourceCollection resourceCollection) throws IOException {
+    for (Resource resource : resourceCollection.getResources()) {
+      putStream(resource.getPath(), resource.getInputStream());
+    }
+    for (ResourceCollection child : resourceCollection.getResourceCollections()) {
+      putResourceCollection(child);
+    }
+  }
+
+  private void putString(String value) {
+    hasher.putInt(value.length());
+    hasher.putString(value, StandardCharsets.UTF_8);
+  }
+
+  private void putObject(Object value) {
+    if (value == null) {
+      hasher.putChar('n');
+    }
+    else if (value instanceof Map) {
+      Map<String, Object> sortedMap = new TreeMap<>();
+      ((Map<?, ?>)value).forEach((key, item) -> sortedMap.put(String.valueOf(key), item));
+      hasher.putChar('m').putInt(sortedMap.size());
+      sortedMap.forEach((key, item) -> {
+        putString(key);
+        putObject(item);
+      });
+    }
+    else if (value instanceof Collection) {
+      Collection<?> collection = (Collection<?>)value;
+      hasher.putChar('l').putInt(collection.size());
+      collection.forEach(this::putObject);
+    }
+    else if (value instanceof Object[]) {
+      putObject(Arrays.asList((Object[])value));
+    }
+    else if (value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+        || value instanceof Character || value instanceof Enum) {
+      hasher.putChar('s');
+      putString(value.getClass().getName());
+      putString(value.toString());
+    }
+    else {
+      putBean(value);
+    }
+  }
+
+  private void putBean(Object value) {
+    JsonElement json;
+    try {
+      json = GSON.toJsonTree(value);
+    }
+    /*CHECKSTYLE:OFF*/ catch (RuntimeException ex) { /*CHECKSTYLE:ON*/
+      // not serializable - fall back to string representation, which may lead to unnecessary regeneration but never to stale files
+      hasher.putChar('o');
+      putString(value.getClass().getName());
+      putString(String.valueOf(value));
+      return;
+    }
+    putJson(json);
+  }
+
+  private void putJson(JsonElement json) {
+    if (json == null || json.isJsonNull()) {
+      hasher.putChar('n');
+    }
+    else if (json.isJsonObject()) {
+      Map<String, JsonElement> sortedMap = new TreeMap<>();
+      for (Map.Entry<String, JsonElement> entry : ((JsonObject)json).entrySet()) {
+        sortedMap.put(entry.getKey(), entry.getValue());
+      }
+      hasher.putChar('m').putInt(sortedMap.size());
+      sortedMap.forEach((key, item) -> {
+        putString(key);
+        putJson(item);
+      });
+    }
+    else if (json.isJsonArray()) {
+      JsonArray array = (JsonArray)json;
+      hasher.putChar('l').putInt(array.size());
+      array.forEach(this::putJson);
+    }
+    else {
+      hasher.putChar('s');
+      putString(json.getAsString());
+    }
+  }
+
+}
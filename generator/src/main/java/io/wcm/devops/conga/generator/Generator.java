@@ -21,14 +21,23 @@ package io.wcm.devops.conga.generator;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URLClassLoader;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
 
 import com.google.common.collect.ImmutableList;
 
+import io.wcm.devops.conga.generator.util.ClassLoaderRegistry;
+import io.wcm.devops.conga.generator.util.ExecutorUtil;
 import io.wcm.devops.conga.generator.util.FileUtil;
 import io.wcm.devops.conga.model.environment.Environment;
 import io.wcm.devops.conga.model.reader.EnvironmentReader;
@@ -51,12 +60,17 @@ public final class Generator {
     this.options = options;
     this.destDir = FileUtil.ensureDirExistsAutocreate(options.getDestDir());
 
-    ClassLoader resourceClassLoader = ResourceLoaderUtil.buildClassLoader(options.getContainerClasspathUrls());
-    ResourceLoader resourceLoader = new ResourceLoader(resourceClassLoader);
-    List<ResourceCollection> environmentDirs = ImmutableList.of(
-        resourceLoader.getResourceCollection(ResourceLoader.FILE_PREFIX + options.getEnvironmentDir()),
-        resourceLoader.getResourceCollection(ResourceLoader.CLASSPATH_PREFIX + GeneratorOptions.CLASSPATH_ENVIRONMENTS_DIR));
-    this.environments = ResourceLoaderUtil.readModels(environmentDirs, new EnvironmentReader());
+    // the class loader is only required for reading the environment definitions
+    try (URLClassLoader resourceClassLoader = ResourceLoaderUtil.buildClassLoader(options.getContainerClasspathUrls())) {
+      ResourceLoader resourceLoader = new ResourceLoader(resourceClassLoader);
+      List<ResourceCollection> environmentDirs = ImmutableList.of(
+          resourceLoader.getResourceCollection(ResourceLoader.FILE_PREFIX + options.getEnvironmentDir()),
+          resourceLoader.getResourceCollection(ResourceLoader.CLASSPATH_PREFIX + GeneratorOptions.CLASSPATH_ENVIRONMENTS_DIR));
+      this.environments = ResourceLoaderUtil.readModels(environmentDirs, new EnvironmentReader(), options);
+    }
+    catch (IOException ex) {
+      throw new GeneratorException("Unable to close class loader.", ex);
+    }
   }
 
   /**
@@ -64,7 +78,7 @@ public final class Generator {
    * @param environmentNames Environments to generate. If none specified all environments are generated.
    */
   public void generate(String... environmentNames) {
-    Map<String, Environment> selectedEnvironments = new HashMap<>();
+    Map<String, Environment> selectedEnvironments = new LinkedHashMap<>();
     if (environmentNames == null || environmentNames.length == 0) {
       selectedEnvironments.putAll(environments);
     }
@@ -77,24 +91,118 @@ public final class Generator {
       }
     }
 
-    for (Map.Entry<String, Environment> entry : selectedEnvironments.entrySet()) {
-      File environmentDestDir = new File(destDir, entry.getKey());
-      // remove existing directory and it's content if it exists alreday
-      if (options.isDeleteBeforeGenerate() && environmentDestDir.exists()) {
+    if (options.isDeleteBeforeGenerate() && options.getIncrementalCacheDir() != null) {
+      options.getLogger().info("Incremental generation: Environment folders are not deleted before generation, "
+          + "only files that are no longer generated are removed.");
+    }
+
+    // class loaders are shared between environments with identical dependencies and closed when all are generated
+    try (ClassLoaderRegistry classLoaderRegistry = new ClassLoaderRegistry()) {
+      int parallelism = Math.min(options.getParallelism(), selectedEnvironments.size());
+      if (parallelism > 1) {
+        generateParallel(selectedEnvironments, parallelism, classLoaderRegistry);
+      }
+      else {
+        for (Map.Entry<String, Environment> entry : selectedEnvironments.entrySet()) {
+          generateEnvironment(entry.getKey(), entry.getValue(), classLoaderRegistry, options.getLogger());
+        }
+      }
+    }
+  }
+
+  /**
+   * Generates the environments with a bounded thread pool. The log output of each environment is buffered
+   * and written in one block when the environment is finished. All environments are generated even if some
+   * of them fail, the failures are reported together afterwards.
+   * @param selectedEnvironments Environments to generate
+   * @param parallelism Number of threads
+   * @param classLoaderRegistry Class loader registry
+   */
+  private void generateParallel(Map<String, Environment> selectedEnvironments, int parallelism,
+      ClassLoaderRegistry classLoaderRegistry) {
+    ExecutorService executor = ExecutorUtil.newFixedThreadPool(parallelism, "conga-environment-%d");
+    try {
+      Map<String, Future<?>> futures = new LinkedHashMap<>();
+      Map<String, BufferingLoggerFacade> loggers = new HashMap<>();
+      for (Map.Entry<String, Environment> entry : selectedEnvironments.entrySet()) {
+        BufferingLoggerFacade environmentLog = new BufferingLoggerFacade(options.getLogger());
+        loggers.put(entry.getKey(), environmentLog);
+        futures.put(entry.getKey(), executor.submit(() -> generateEnvironment(entry.getKey(), entry.getValue(), classLoaderRegistry, environmentLog)));
+      }
+
+      Map<String, Throwable> failures = new LinkedHashMap<>();
+      for (Map.Entry<String, Future<?>> entry : futures.entrySet()) {
         try {
-          FileUtils.deleteDirectory(environmentDestDir);
+          entry.getValue().get();
+        }
+        catch (ExecutionException ex) {
+          failures.put(entry.getKey(), ex.getCause());
         }
-        catch (IOException ex) {
-          throw new GeneratorException("Unable to delete existing target directory: " + FileUtil.getCanonicalPath(environmentDestDir));
+        catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new GeneratorException("Generation was interrupted.", ex);
+        }
+        finally {
+          loggers.get(entry.getKey()).flush();
         }
       }
-      if (!environmentDestDir.exists()) {
-        environmentDestDir.mkdir();
+
+      handleFailures(failures);
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void generateEnvironment(String environmentName, Environment environment,
+      ClassLoaderRegistry classLoaderRegistry, Logger log) {
+    File environmentDestDir = new File(destDir, environmentName);
+    // remove existing directory and it's content if it exists alreday
+    // in incremental mode only stale files are removed after generation
+    if (options.isDeleteBeforeGenerate() && options.getIncrementalCacheDir() == null && environmentDestDir.exists()) {
+      try {
+        FileUtils.deleteDirectory(environmentDestDir);
+      }
+      catch (IOException ex) {
+        throw new GeneratorException("Unable to delete existing target directory: " + FileUtil.getCanonicalPath(environmentDestDir));
+      }
+    }
+    if (!environmentDestDir.exists()) {
+      environmentDestDir.mkdir();
+    }
+
+    EnvironmentGenerator environmentGenerator = new EnvironmentGenerator(environmentName, environment, environmentDestDir, options,
+        classLoaderRegistry, log);
+    environmentGenerator.generate();
+  }
+
+  private static void handleFailures(Map<String, Throwable> failures) {
+    if (failures.isEmpty()) {
+      return;
+    }
+
+    // single failure: rethrow as-is
+    if (failures.size() == 1) {
+      Throwable failure = failures.values().iterator().next();
+      if (failure instanceof RuntimeException) {
+        throw (RuntimeException)failure;
+      }
+      if (failure instanceof Error) {
+        throw (Error)failure;
       }
+    }
 
-      EnvironmentGenerator environmentGenerator = new EnvironmentGenerator(entry.getKey(), entry.getValue(), environmentDestDir, options);
-      environmentGenerator.generate();
+    StringBuilder message = new StringBuilder()
+        .append("Generation failed for ").append(failures.size()).append(" environment(s):");
+    for (Map.Entry<String, Throwable> entry : failures.entrySet()) {
+      message.append("\n  ").append(entry.getKey()).append(": ").append(entry.getValue().getMessage());
+    }
+    Iterator<Throwable> causes = failures.values().iterator();
+    GeneratorException ex = new GeneratorException(message.toString(), causes.next());
+    while (causes.hasNext()) {
+      ex.addSuppressed(causes.next());
     }
+    throw ex;
   }
 
 }
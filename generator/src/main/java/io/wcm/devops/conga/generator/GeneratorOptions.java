@@ -66,6 +66,13 @@ public final class GeneratorOptions {
   private File environmentDir;
   private File destDir;
   private boolean deleteBeforeGenerate;
+  private File incrementalCacheDir;
+  private int parallelism = 1;
+  private int nodeParallelism = 1;
+  private int urlFileParallelism = 4;
+  private boolean urlFileHardLinks;
+  private File modelCacheDir;
+  private int modelParallelism = 4;
   private String version;
   private ModelExport modelExport;
   private Map<String, Map<String, Object>> valueProviderConfig;
@@ -177,6 +184,135 @@ public final class GeneratorOptions {
     return this;
   }
 
+  /**
+   * Directory to store input fingerprints of generated files for incremental generation.
+   * If set, files are only generated when their inputs (template, resolved configuration, role file definition,
+   * plugin versions, URL file contents) have changed since the last run, and files that are no longer
+   * generated are removed. In this mode {@link #isDeleteBeforeGenerate()} is ignored.
+   * If not set (default), all files are always generated.
+   * @return Directory or null
+   */
+  public File getIncrementalCacheDir() {
+    return this.incrementalCacheDir;
+  }
+
+  /**
+   * @param value Directory to store input fingerprints of generated files for incremental generation.
+   * @return this
+   */
+  public GeneratorOptions incrementalCacheDir(File value) {
+    this.incrementalCacheDir = value;
+    return this;
+  }
+
+  /**
+   * Maximum number of environments that are generated in parallel (default: 1).
+   * The log output of each environment is written in one block after the environment is finished.
+   * @return Parallelism
+   */
+  public int getParallelism() {
+    return this.parallelism;
+  }
+
+  /**
+   * @param value Maximum number of environments that are generated in parallel.
+   * @return this
+   */
+  public GeneratorOptions parallelism(int value) {
+    this.parallelism = value;
+    return this;
+  }
+
+  /**
+   * Maximum number of nodes of an environment that are generated in parallel (default: 1).
+   * The log output of each node is written in one block after the node is finished.
+   * @return Node parallelism
+   */
+  public int getNodeParallelism() {
+    return this.nodeParallelism;
+  }
+
+  /**
+   * @param value Maximum number of nodes of an environment that are generated in parallel.
+   * @return this
+   */
+  public GeneratorOptions nodeParallelism(int value) {
+    this.nodeParallelism = value;
+    return this;
+  }
+
+  /**
+   * Maximum number of files referenced by URL that are fetched in parallel before generating the nodes of an environment (default: 4).
+   * @return URL file parallelism
+   */
+  public int getUrlFileParallelism() {
+    return this.urlFileParallelism;
+  }
+
+  /**
+   * @param value Maximum number of files referenced by URL that are fetched in parallel.
+   * @return this
+   */
+  public GeneratorOptions urlFileParallelism(int value) {
+    this.urlFileParallelism = value;
+    return this;
+  }
+
+  /**
+   * Create hard links to files referenced by URL instead of copying them, if they are available in the local filesystem
+   * (default: false). Falls back to copying if creating a link is not possible.
+   * Only use this if no post processor modifies these files in place, as this would modify the linked source file as well.
+   * @return Use hard links for URL files
+   */
+  public boolean isUrlFileHardLinks() {
+    return this.urlFileHardLinks;
+  }
+
+  /**
+   * @param value Create hard links to files referenced by URL instead of copying them.
+   * @return this
+   */
+  public GeneratorOptions urlFileHardLinks(boolean value) {
+    this.urlFileHardLinks = value;
+    return this;
+  }
+
+  /**
+   * Directory to store binary snapshots of parsed role and environment definitions.
+   * If set, definition files whose content has not changed since a previous run are loaded from the snapshot
+   * without parsing the YAML file. If not set (default), all definition files are parsed.
+   * @return Directory or null
+   */
+  public File getModelCacheDir() {
+    return this.modelCacheDir;
+  }
+
+  /**
+   * @param value Directory to store binary snapshots of parsed role and environment definitions.
+   * @return this
+   */
+  public GeneratorOptions modelCacheDir(File value) {
+    this.modelCacheDir = value;
+    return this;
+  }
+
+  /**
+   * Maximum number of role or environment definition files that are read in parallel (default: 4).
+   * @return Model parallelism
+   */
+  public int getModelParallelism() {
+    return this.modelParallelism;
+  }
+
+  /**
+   * @param value Maximum number of role or environment definition files that are read in parallel.
+   * @return this
+   */
+  public GeneratorOptions modelParallelism(int value) {
+    this.modelParallelism = value;
+    return this;
+  }
+
   /**
    * The main version of the environment definition.
    * @return Version
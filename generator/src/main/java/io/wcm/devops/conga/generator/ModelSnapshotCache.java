@@ -0,0 +1,172 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+
+import io.wcm.devops.conga.generator.util.FileUtil;
+import io.wcm.devops.conga.model.reader.ModelReader;
+import io.wcm.devops.conga.model.shared.AbstractModel;
+import io.wcm.devops.conga.resource.Resource;
+
+/**
+ * Stores binary snapshots of parsed models on disk, keyed by SHA-256 hash of snapshot format version,
+ * reader type, model version and file content.
+ * Unchanged model files are loaded from the snapshot without YAML parsing. Snapshots that cannot be read
+ * (e.g. written by another version of the model classes) are ignored and replaced.
+ */
+final class ModelSnapshotCache {
+
+  /**
+   * Version of the snapshot format. Has to be incremented on incompatible changes of the model classes
+   * that are not covered by their serialVersionUID, e.g. changed semantics of fields.
+   */
+  static final int SNAPSHOT_FORMAT_VERSION = 1;
+
+  private static final String SNAPSHOT_EXTENSION = ".snapshot";
+  private static final String CLASS_PREFIX_JAVA = "java.";
+  private static final String CLASS_PREFIX_MODEL = "io.wcm.devops.conga.model.";
+
+  private final File cacheDir;
+
+  /**
+   * @param cacheDir Cache directory
+   */
+  ModelSnapshotCache(File cacheDir) {
+    this.cacheDir = FileUtil.ensureDirExistsAutocreate(cacheDir);
+  }
+
+  /**
+   * Read model from snapshot, or parse it with the given reader and store the snapshot.
+   * @param file Model file
+   * @param reader Model reader
+   * @return Model
+   * @param <T> Model type
+   * @throws IOException I/O exception
+   */
+  public <T> T read(Resource file, ModelReader<T> reader) throws IOException {
+    byte[] content;
+    try (InputStream is = file.getInputStream()) {
+      content = ByteStreams.toByteArray(is);
+    }
+    File snapshotFile = new File(cacheDir, getKey(reader, content) + SNAPSHOT_EXTENSION);
+
+    T model = readSnapshot(snapshotFile);
+    if (model == null) {
+      model = reader.read(new ByteArrayInputStream(content));
+      writeSnapshot(snapshotFile, model);
+    }
+    return model;
+  }
+
+  private static String getKey(ModelReader<?> reader, byte[] content) {
+    return Hashing.sha256().newHasher()
+        .putInt(SNAPSHOT_FORMAT_VERSION)
+        .putString(reader.getClass().getName(), StandardCharsets.UTF_8)
+        .putString(StringUtils.defaultString(AbstractModel.class.getPackage().getImplementationVersion()), StandardCharsets.UTF_8)
+        .putBytes(content)
+        .hash().toString();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T readSnapshot(File snapshotFile) {
+    if (!snapshotFile.exists()) {
+      return null;
+    }
+    try (ObjectInputStream is = new ModelObjectInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+      return (T)is.readObject();
+    }
+    /*CHECKSTYLE:OFF*/ catch (Exception ex) { /*CHECKSTYLE:ON*/
+      // outdated or corrupt snapshot - parse model again
+      snapshotFile.delete();
+      return null;
+    }
+  }
+
+  private static void writeSnapshot(File snapshotFile, Object model) throws IOException {
+    if (model == null) {
+      return;
+    }
+    File tempFile = File.createTempFile(snapshotFile.getName(), ".tmp", snapshotFile.getParentFile());
+    try {
+      try (OutputStream os = new BufferedOutputStream(new FileOutputStream(tempFile));
+          ObjectOutputStream oos = new ObjectOutputStream(os)) {
+        oos.writeObject(model);
+      }
+      Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    catch (NotSerializableException ex) {
+      // model contains values that cannot be serialized - do not cache it
+    }
+    finally {
+      Files.deleteIfExists(tempFile.toPath());
+    }
+  }
+
+  /**
+   * Restricts deserialization to model and JDK classes.
+   */
+  private static final class ModelObjectInputStream extends ObjectInputStream {
+
+    ModelObjectInputStream(InputStream is) throws IOException {
+      super(is);
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+      String className = desc.getName();
+      if (StringUtils.startsWith(className, "[")) {
+        // check component type of arrays, arrays of primitives are always allowed
+        className = StringUtils.stripStart(className, "[");
+        if (!StringUtils.startsWith(className, "L")) {
+          return super.resolveClass(desc);
+        }
+        className = StringUtils.removeEnd(className.substring(1), ";");
+      }
+      if (!StringUtils.startsWith(className, CLASS_PREFIX_JAVA) && !StringUtils.startsWith(className, CLASS_PREFIX_MODEL)) {
+        throw new InvalidClassException(desc.getName(), "Class not allowed in model snapshot.");
+      }
+      return super.resolveClass(desc);
+    }
+
+  }
+
+}
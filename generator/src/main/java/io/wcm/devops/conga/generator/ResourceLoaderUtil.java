@@ -26,6 +26,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.FilenameUtils;
 
@@ -34,6 +37,7 @@ import com.google.common.collect.ImmutableMap;
 import io.wcm.devops.conga.generator.spi.context.PluginContextOptions;
 import io.wcm.devops.conga.generator.spi.context.UrlFilePluginContext;
 import io.wcm.devops.conga.generator.util.ConfigInheritanceResolver;
+import io.wcm.devops.conga.generator.util.ExecutorUtil;
 import io.wcm.devops.conga.generator.util.VariableStringResolver;
 import io.wcm.devops.conga.model.reader.ModelReader;
 import io.wcm.devops.conga.resource.Resource;
@@ -53,7 +57,7 @@ final class ResourceLoaderUtil {
    * @param classpathUrls Classpath urls
    * @return Resource loader
    */
-  public static ClassLoader buildClassLoader(List<URL> classpathUrls) {
+  public static URLClassLoader buildClassLoader(List<URL> classpathUrls) {
     return new URLClassLoader(classpathUrls.toArray(new URL[classpathUrls.size()]));
   }
 
@@ -90,29 +94,92 @@ final class ResourceLoaderUtil {
   }
 
   /**
-   * Read model files.
+   * Read model files. Files are parsed in parallel if configured, and loaded from the model snapshot cache
+   * if it is configured and the file content is unchanged.
    * @param dirs Directories
    * @param reader Model reader
+   * @param options Generator options
    * @return Parsed models
    * @param <T> Model type
    */
-  public static <T> Map<String, T> readModels(List<ResourceCollection> dirs, ModelReader<T> reader) {
-    Map<String, T> models = new HashMap<>();
+  public static <T> Map<String, T> readModels(List<ResourceCollection> dirs, ModelReader<T> reader, GeneratorOptions options) {
+    List<Resource> files = new ArrayList<>();
     for (ResourceCollection dir : dirs) {
       for (Resource file : dir.getResources()) {
         if (reader.accepts(file)) {
-          try {
-            T model = reader.read(file);
-            ConfigInheritanceResolver.resolve(model);
-            models.put(FilenameUtils.getBaseName(file.getName()), model);
-          }
-          /*CHECKSTYLE:OFF*/ catch (Exception ex) { /*CHECKSTYLE:ON*/
-            throw new GeneratorException("Unable to read definition: " + file.getCanonicalPath(), ex);
-          }
+          files.add(file);
         }
       }
     }
+
+    ModelSnapshotCache modelSnapshotCache = options.getModelCacheDir() != null ? new ModelSnapshotCache(options.getModelCacheDir()) : null;
+    List<T> parsedModels;
+    int parallelism = Math.min(options.getModelParallelism(), files.size());
+    if (parallelism > 1) {
+      parsedModels = readModelsParallel(files, reader, modelSnapshotCache, parallelism);
+    }
+    else {
+      parsedModels = new ArrayList<>();
+      for (Resource file : files) {
+        parsedModels.add(readModel(file, reader, modelSnapshotCache));
+      }
+    }
+
+    // put models in order of files - model files with same name in later directories win
+    Map<String, T> models = new HashMap<>();
+    for (int i = 0; i < files.size(); i++) {
+      models.put(FilenameUtils.getBaseName(files.get(i).getName()), parsedModels.get(i));
+    }
     return ImmutableMap.copyOf(models);
   }
 
+  private static <T> List<T> readModelsParallel(List<Resource> files, ModelReader<T> reader,
+      ModelSnapshotCache modelSnapshotCache, int parallelism) {
+    ExecutorService pool = ExecutorUtil.newFixedThreadPool(parallelism, "conga-definition-%d");
+    try {
+      List<Future<T>> futures = new ArrayList<>();
+      for (Resource file : files) {
+        futures.add(pool.submit(() -> readModel(file, reader, modelSnapshotCache)));
+      }
+      List<T> parsedModels = new ArrayList<>();
+      for (Future<T> future : futures) {
+        try {
+          parsedModels.add(future.get());
+        }
+        catch (ExecutionException ex) {
+          // report first failure in file order, as in sequential mode
+          if (ex.getCause() instanceof RuntimeException) {
+            throw (RuntimeException)ex.getCause();
+          }
+          throw new GeneratorException("Unable to read definitions.", ex.getCause());
+        }
+        catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new GeneratorException("Reading definitions was interrupted.", ex);
+        }
+      }
+      return parsedModels;
+    }
+    finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private static <T> T readModel(Resource file, ModelReader<T> reader, ModelSnapshotCache modelSnapshotCache) {
+    try {
+      T model;
+      if (modelSnapshotCache != null) {
+        model = modelSnapshotCache.read(file, reader);
+      }
+      else {
+        model = reader.read(file);
+      }
+      ConfigInheritanceResolver.resolve(model);
+      return model;
+    }
+    /*CHECKSTYLE:OFF*/ catch (Exception ex) { /*CHECKSTYLE:ON*/
+      throw new GeneratorException("Unable to read definition: " + file.getCanonicalPath(), ex);
+    }
+  }
+
 }
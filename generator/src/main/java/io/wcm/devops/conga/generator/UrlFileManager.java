@@ -19,10 +19,22 @@
  */
 package io.wcm.devops.conga.generator;
 
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
@@ -30,6 +42,8 @@ import org.apache.commons.lang3.StringUtils;
 import io.wcm.devops.conga.generator.plugins.urlfile.FilesystemUrlFilePlugin;
 import io.wcm.devops.conga.generator.spi.UrlFilePlugin;
 import io.wcm.devops.conga.generator.spi.context.UrlFilePluginContext;
+import io.wcm.devops.conga.generator.util.ExecutorUtil;
+import io.wcm.devops.conga.generator.util.FileUtil;
 import io.wcm.devops.conga.generator.util.PluginManager;
 
 /**
@@ -40,6 +54,8 @@ public final class UrlFileManager {
   private final List<UrlFilePlugin> urlFilePlugins;
   private final UrlFilePlugin defaultUrlFilePlugin;
   private final UrlFilePluginContext context;
+  private final Map<String, File> localFiles = new ConcurrentHashMap<>();
+  private final Map<String, String> fingerprints = new ConcurrentHashMap<>();
 
   private static final Pattern URL_WITH_PREFIX = Pattern.compile("^[a-zA-Z]+:.*$");
 
@@ -86,9 +102,137 @@ public final class UrlFileManager {
    * @throws IOException I/O exception
    */
   public InputStream getFile(String url) throws IOException {
+    File localFile = localFiles.get(url);
+    if (localFile != null && localFile.exists()) {
+      return new BufferedInputStream(new FileInputStream(localFile));
+    }
     return handleFile(url, plugin -> plugin.getFile(url, context));
   }
 
+  /**
+   * Get path of file in the local filesystem, if it is available there.
+   * @param url URL string
+   * @return Path to local file, or null if the file is not available in the local filesystem
+   * @throws IOException I/O exception
+   */
+  public Path getLocalFile(String url) throws IOException {
+    File localFile = localFiles.get(url);
+    if (localFile != null && localFile.exists()) {
+      return localFile.toPath();
+    }
+    return handleFile(url, plugin -> plugin.getLocalFile(url, context));
+  }
+
+  /**
+   * Get fingerprint of the file referenced by the URL, e.g. to detect changes for incremental generation.
+   * Files available in the local filesystem (e.g. Maven artifacts or cached downloads) are identified by their path,
+   * size and modification time, all other files by a hash of their content. The fingerprint of an URL is built only once.
+   * @param url URL string
+   * @return Fingerprint
+   * @throws IOException I/O exception
+   */
+  public String getFingerprint(String url) throws IOException {
+    String fingerprint = fingerprints.get(url);
+    if (fingerprint == null) {
+      fingerprint = buildFingerprint(url);
+      fingerprints.put(url, fingerprint);
+    }
+    return fingerprint;
+  }
+
+  private String buildFingerprint(String url) throws IOException {
+    Path localFile = getLocalFile(url);
+    if (localFile != null) {
+      File file = localFile.toFile();
+      return new FingerprintBuilder()
+          .put("path", FileUtil.getCanonicalPath(file))
+          .put("size", file.length())
+          .put("lastModified", file.lastModified())
+          .build();
+    }
+    return new FingerprintBuilder()
+        .putStream("content", getFile(url))
+        .build();
+  }
+
+  /**
+   * Fetches the given URLs concurrently. URLs that are resolved to a file in the local filesystem
+   * (e.g. Maven artifacts or cached downloads) are afterwards read directly from this file by {@link #getFile(String)}.
+   * @param urls URL strings
+   * @param parallelism Maximum number of URLs that are fetched concurrently
+   * @throws GeneratorException If fetching one or more URLs failed - with the failures of all URLs
+   */
+  public void prefetch(Collection<String> urls, int parallelism) {
+    List<String> fetchedUrls = new ArrayList<>();
+    for (String url : urls) {
+      if (!localFiles.containsKey(url)) {
+        fetchedUrls.add(url);
+      }
+    }
+    if (fetchedUrls.isEmpty()) {
+      return;
+    }
+    ExecutorService pool = ExecutorUtil.newFixedThreadPool(Math.max(1, Math.min(parallelism, fetchedUrls.size())), "conga-urlfile-%d");
+    try {
+      List<Future<File>> futures = new ArrayList<>();
+      for (String url : fetchedUrls) {
+        futures.add(pool.submit(() -> fetchLocalFile(url)));
+      }
+
+      List<String> failures = new ArrayList<>();
+      List<Throwable> failureCauses = new ArrayList<>();
+      for (int i = 0; i < futures.size(); i++) {
+        String url = fetchedUrls.get(i);
+        try {
+          File localFile = futures.get(i).get();
+          if (localFile != null) {
+            localFiles.put(url, localFile);
+          }
+        }
+        catch (ExecutionException ex) {
+          failures.add(url + ": " + ex.getCause().getMessage());
+          failureCauses.add(ex.getCause());
+        }
+        catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new GeneratorException("Fetching files from URLs was interrupted.", ex);
+        }
+      }
+      if (!failures.isEmpty()) {
+        GeneratorException failure = new GeneratorException("Unable to fetch " + failures.size() + " file(s) from URL:\n"
+            + StringUtils.join(failures, "\n"), failureCauses.get(0));
+        failureCauses.stream().skip(1).forEach(failure::addSuppressed);
+        throw failure;
+      }
+    }
+    finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Fetches the URL via its URL file plugin.
+   * @param url URL string
+   * @return Local file or null if the URL does not point to the local filesystem
+   * @throws IOException I/O exception
+   */
+  private File fetchLocalFile(String url) throws IOException {
+    Path localFile = handleFile(url, plugin -> plugin.getLocalFile(url, context));
+    if (localFile != null) {
+      return localFile.toFile();
+    }
+    URL fileUrl = getFileUrl(url);
+    if (fileUrl == null || !StringUtils.equals(fileUrl.getProtocol(), "file")) {
+      return null;
+    }
+    try {
+      return new File(fileUrl.toURI());
+    }
+    catch (URISyntaxException | IllegalArgumentException ex) {
+      return null;
+    }
+  }
+
   /**
    * Get URL to to binary file.
    * @param url URL string
@@ -24,20 +24,17 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
-import com.rits.cloning.Cloner;
-
-import io.wcm.devops.conga.generator.ContextProperties;
 import io.wcm.devops.conga.generator.spi.export.NodeModelExportPlugin;
 import io.wcm.devops.conga.generator.spi.export.context.ExportNodeRoleData;
 import io.wcm.devops.conga.generator.spi.export.context.ExportNodeRoleTenantData;
 import io.wcm.devops.conga.generator.spi.export.context.NodeModelExportContext;
 import io.wcm.devops.conga.generator.util.PluginManager;
+import io.wcm.devops.conga.generator.util.TenantContextCache;
 import io.wcm.devops.conga.generator.util.VariableMapResolver;
 import io.wcm.devops.conga.generator.util.VariableStringResolver;
 import io.wcm.devops.conga.model.environment.Environment;
 import io.wcm.devops.conga.model.environment.Node;
 import io.wcm.devops.conga.model.environment.Tenant;
-import io.wcm.devops.conga.model.util.MapMerger;
 
 /**
  * Managers model exports via the model export plugins.
@@ -89,31 +86,21 @@ public final class NodeModelExport {
    * Add role information
    * @param role Role name
    * @param roleVariants Role variant name
-   * @param config Merged configuration (unresolved)
+   * @param tenantContextCache Tenant context cache with merged configuration (unresolved) of the node role
    * @return Node role data
    */
-  public ExportNodeRoleData addRole(String role, List<String> roleVariants, Map<String, Object> config) {
+  public ExportNodeRoleData addRole(String role, List<String> roleVariants, TenantContextCache tenantContextCache) {
     if (!isActive()) {
       return new ExportNodeRoleData();
     }
 
-    // clone config to make sure it is not tampered by the plugin
-    Map<String, Object> clonedConfig = Cloner.standard().deepClone(config);
-
     // resolve variables in configuration, and remove context properties
-    Map<String, Object> resolvedNodeConfig = variableMapResolver.resolve(clonedConfig, false);
+    Map<String, Object> resolvedNodeConfig = tenantContextCache.resolve(tenantContextCache.getConfig());
 
-    // generate tenants and tenant config
+    // generate tenants and tenant config - resolved tenant configs are shared with the files multiplied by tenant
     List<ExportNodeRoleTenantData> tenantData = new ArrayList<>();
     for (Tenant tenant : environment.getTenants()) {
-      Map<String, Object> tenantConfig = MapMerger.merge(tenant.getConfig(), clonedConfig);
-
-      // set tenant-specific context variables
-      tenantConfig.put(ContextProperties.TENANT, variableStringResolver.resolve(tenant.getTenant(), tenantConfig));
-      tenantConfig.put(ContextProperties.TENANT_ROLES, tenant.getRoles());
-
-      // resolve variables in configuration
-      Map<String, Object> resolvedTenantConfig = variableMapResolver.resolve(tenantConfig, false);
+      Map<String, Object> resolvedTenantConfig = tenantContextCache.getResolvedConfig(tenant);
 
       tenantData.add(new ExportNodeRoleTenantData()
           .tenant(tenant.getTenant())
@@ -121,7 +108,6 @@ public final class NodeModelExport {
           .config(resolvedTenantConfig));
     }
 
-
     ExportNodeRoleData item = new ExportNodeRoleData()
         .role(role)
         .roleVariant(roleVariants)
@@ -22,6 +22,8 @@ package io.wcm.devops.conga.generator.handlebars;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.github.jknack.handlebars.io.AbstractTemplateLoader;
 import com.github.jknack.handlebars.io.TemplateSource;
@@ -36,6 +38,7 @@ public class CharsetAwareTemplateLoader extends AbstractTemplateLoader {
 
   private final List<ResourceCollection> templateDirs;
   private final String charset;
+  private final Map<String, Resource> resources = new ConcurrentHashMap<>();
 
   /**
    * @param templateDirs Template base directories
@@ -48,37 +51,45 @@ public class CharsetAwareTemplateLoader extends AbstractTemplateLoader {
 
   @Override
   public TemplateSource sourceAt(String location) throws IOException {
-    Resource firstFile = null;
-    for (ResourceCollection templateDir : templateDirs) {
-      Resource file = templateDir.getResource(location);
-      if (firstFile == null) {
-        firstFile = file;
-      }
-      if (file.exists()) {
-        return new CharsetAwareTemplateSource(file, charset, location);
-      }
+    Resource file = getResource(location);
+    if (file != null && file.exists()) {
+      return new CharsetAwareTemplateSource(file, charset, location);
     }
     throw new FileNotFoundException("Template file not found: "
-        + (firstFile != null ? firstFile.getCanonicalPath() : location));
+        + (file != null ? file.getCanonicalPath() : location));
   }
 
   @Override
   public String resolve(String uri) {
-    Resource firstResource = null;
+    Resource file = getResource(uri);
+    if (file != null) {
+      return file.getCanonicalPath();
+    }
+    return null;
+  }
+
+  /**
+   * Looks up the template file in the template directories. The result is cached per location
+   * to avoid probing all template directories again for each template lookup.
+   * @param location Template location
+   * @return First existing template file, or the file from first template directory if none exists
+   */
+  private Resource getResource(String location) {
+    return resources.computeIfAbsent(location, this::lookupResource);
+  }
+
+  private Resource lookupResource(String location) {
+    Resource firstFile = null;
     for (ResourceCollection templateDir : templateDirs) {
-      Resource file = templateDir.getResource(uri);
-      if (firstResource == null) {
-        firstResource = file;
-      }
+      Resource file = templateDir.getResource(location);
       if (file.exists()) {
-        return file.getCanonicalPath();
+        return file;
+      }
+      if (firstFile == null) {
+        firstFile = file;
       }
     }
-    if (firstResource != null) {
-      return firstResource.getCanonicalPath();
-    }
-    return null;
+    return firstFile;
   }
 
-
 }
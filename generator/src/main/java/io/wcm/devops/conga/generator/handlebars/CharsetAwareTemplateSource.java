@@ -21,8 +21,10 @@ package io.wcm.devops.conga.generator.handlebars;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Objects;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
 
 import com.github.jknack.handlebars.io.AbstractTemplateSource;
 
@@ -36,11 +38,15 @@ class CharsetAwareTemplateSource extends AbstractTemplateSource {
   private final Resource file;
   private final String charset;
   private final String location;
+  private final long lastModified;
 
   CharsetAwareTemplateSource(Resource file, String charset, String location) {
     this.file = file;
     this.charset = charset;
     this.location = location;
+    // the template cache compares the modification time of the cached and a new template source
+    // to detect modified template files - so the modification time is captured when the source is resolved
+    this.lastModified = file.getLastModified();
   }
 
   @Override
@@ -57,7 +63,29 @@ class CharsetAwareTemplateSource extends AbstractTemplateSource {
 
   @Override
   public long lastModified() {
-    return file.getLastModified();
+    return lastModified;
+  }
+
+  /**
+   * Template sources are used as key in the template cache - so they are identified by the resolved
+   * template file and the charset instead of only the location.
+   */
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof CharsetAwareTemplateSource)) {
+      return false;
+    }
+    CharsetAwareTemplateSource other = (CharsetAwareTemplateSource)obj;
+    return StringUtils.equals(file.getCanonicalPath(), other.file.getCanonicalPath())
+        && StringUtils.equals(charset, other.charset);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(file.getCanonicalPath(), charset);
   }
 
 }
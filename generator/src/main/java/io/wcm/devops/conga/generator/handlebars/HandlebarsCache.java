@@ -0,0 +1,84 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator.handlebars;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import com.github.jknack.handlebars.Handlebars;
+
+import io.wcm.devops.conga.generator.util.PluginManager;
+import io.wcm.devops.conga.resource.ResourceCollection;
+
+/**
+ * Handlebars instances and their compiled templates shared by all handlebars managers with the same template
+ * directories and plugin manager. A cache is bound to the class loader the template directories are resolved from,
+ * and is dropped together with it (see
+ * {@link io.wcm.devops.conga.generator.util.ClassLoaderRegistry#getShared(ClassLoader, Class, Supplier)}).
+ */
+public final class HandlebarsCache {
+
+  private final Map<Key, Handlebars> handlebarsInstances = new ConcurrentHashMap<>();
+
+  Handlebars get(List<ResourceCollection> templateDirs, PluginManager pluginManager, HandlebarsKey handlebarsKey,
+      Supplier<Handlebars> factory) {
+    return handlebarsInstances.computeIfAbsent(new Key(templateDirs, pluginManager, handlebarsKey), key -> factory.get());
+  }
+
+  /**
+   * Identifies handlebars instances that can be shared between handlebars managers.
+   */
+  private static final class Key {
+
+    private final List<String> templateDirPaths;
+    private final PluginManager pluginManager;
+    private final HandlebarsKey handlebarsKey;
+
+    Key(List<ResourceCollection> templateDirs, PluginManager pluginManager, HandlebarsKey handlebarsKey) {
+      this.templateDirPaths = templateDirs.stream()
+          .map(ResourceCollection::getCanonicalPath)
+          .collect(Collectors.toList());
+      this.pluginManager = pluginManager;
+      this.handlebarsKey = handlebarsKey;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(templateDirPaths, System.identityHashCode(pluginManager), handlebarsKey);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key)obj;
+      return templateDirPaths.equals(other.templateDirPaths)
+          && pluginManager == other.pluginManager
+          && handlebarsKey.equals(other.handlebarsKey);
+    }
+
+  }
+
+}
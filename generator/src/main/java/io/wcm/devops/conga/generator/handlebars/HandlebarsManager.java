@@ -21,18 +21,17 @@ package io.wcm.devops.conga.generator.handlebars;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.github.jknack.handlebars.EscapingStrategy;
 import com.github.jknack.handlebars.Handlebars;
 import com.github.jknack.handlebars.Helper;
 import com.github.jknack.handlebars.Options;
+import com.github.jknack.handlebars.cache.ConcurrentMapTemplateCache;
 import com.github.jknack.handlebars.io.TemplateLoader;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 
-import io.wcm.devops.conga.generator.GeneratorException;
 import io.wcm.devops.conga.generator.spi.context.PluginContextOptions;
 import io.wcm.devops.conga.generator.spi.handlebars.EscapingStrategyPlugin;
 import io.wcm.devops.conga.generator.spi.handlebars.HelperPlugin;
@@ -43,49 +42,48 @@ import io.wcm.devops.conga.resource.ResourceCollection;
 
 /**
  * Manages charset-aware handlebars instances.
+ * Each handlebars instance keeps a concurrent cache of the templates compiled with it, so each template is parsed
+ * only once per escaping strategy and charset. A cached template is compiled again when the modification time
+ * of its source file has changed.
+ * <p>
+ * If a {@link HandlebarsCache} is given, the handlebars instances and their compiled templates are shared
+ * by all handlebars managers using this cache with the same template directories and plugin manager. Helper
+ * and escaping strategy plugins then get the plugin contexts of the manager bound via {@link #call(Callable)} while
+ * the template is applied.
+ * </p>
  */
 public class HandlebarsManager {
 
+  private static final ThreadLocal<HandlebarsManager> BOUND_MANAGER = new ThreadLocal<>();
+
   private final List<ResourceCollection> templateDirs;
+  private final HandlebarsCache handlebarsCache;
   private final PluginManager pluginManager;
   private final EscapingStrategyContext escapingStrategyContext;
   private final HelperContext helperContext;
 
-  private final LoadingCache<HandlebarsKey, Handlebars> handlebarsCache =
-      CacheBuilder.newBuilder().build(new CacheLoader<HandlebarsKey, Handlebars>() {
-        @SuppressWarnings("unchecked")
-        @Override
-        public Handlebars load(HandlebarsKey options) throws Exception {
-
-          // setup handlebars
-          TemplateLoader templateLoader = new CharsetAwareTemplateLoader(templateDirs, options.getCharset());
-          EscapingStrategyPlugin escapingStrategy = pluginManager.get(options.getEscapingStrategy(), EscapingStrategyPlugin.class);
-          Handlebars handlebars = new Handlebars(templateLoader).with(new EscapingStrategy() {
-            @Override
-            public CharSequence escape(CharSequence value) {
-              return escapingStrategy.escape(value, escapingStrategyContext);
-            }
-          });
-
-          // register helper plugins
-          pluginManager.getAll(HelperPlugin.class)
-              .forEach(plugin -> handlebars.registerHelper(plugin.getName(), new Helper<Object>() {
-                @Override
-                public Object apply(Object context, Options helperOptions) throws IOException {
-                  return plugin.apply(context, helperOptions, helperContext);
-                }
-              }));
-
-          return handlebars;
-        }
-      });
+  private final Map<HandlebarsKey, Handlebars> handlebarsInstances = new ConcurrentHashMap<>();
 
   /**
+   * Creates a handlebars manager with its own handlebars instances.
    * @param templateDirs Template base directories
    * @param pluginContextOptions Plugin context options
    */
   public HandlebarsManager(List<ResourceCollection> templateDirs, PluginContextOptions pluginContextOptions) {
+    this(templateDirs, null, pluginContextOptions);
+  }
+
+  /**
+   * Creates a handlebars manager which shares its handlebars instances and compiled templates with all
+   * other handlebars managers using the same cache with the same template directories and plugin manager.
+   * @param templateDirs Template base directories
+   * @param handlebarsCache Cache shared with the other handlebars managers (null = do not share handlebars instances)
+   * @param pluginContextOptions Plugin context options
+   */
+  public HandlebarsManager(List<ResourceCollection> templateDirs, HandlebarsCache handlebarsCache,
+      PluginContextOptions pluginContextOptions) {
     this.templateDirs = templateDirs;
+    this.handlebarsCache = handlebarsCache;
     this.pluginManager = pluginContextOptions.getPluginManager();
     this.escapingStrategyContext = new EscapingStrategyContext().pluginContextOptions(pluginContextOptions);
     this.helperContext = new HelperContext().pluginContextOptions(pluginContextOptions);
@@ -98,13 +96,75 @@ public class HandlebarsManager {
    * @return Handlebars instance
    */
   public Handlebars get(String escapingStrategy, String charset) {
-    HandlebarsKey key = new HandlebarsKey(escapingStrategy, charset);
+    return handlebarsInstances.computeIfAbsent(new HandlebarsKey(escapingStrategy, charset), this::getOrCreateHandlebars);
+  }
+
+  private Handlebars getOrCreateHandlebars(HandlebarsKey key) {
+    if (handlebarsCache == null) {
+      return createHandlebars(key);
+    }
+    return handlebarsCache.get(templateDirs, pluginManager, key, () -> createHandlebars(key));
+  }
+
+  /**
+   * Calls the given action with the helper and escaping strategy plugin contexts of this manager bound
+   * to the current thread. Templates applied by the action use these plugin contexts, even if they where
+   * compiled with a handlebars instance shared with another manager.
+   * @param action Action that applies templates
+   * @param <T> Result type
+   * @return Result of the action
+   * @throws Exception Exception thrown by the action
+   */
+  public <T> T call(Callable<T> action) throws Exception {
+    HandlebarsManager previousManager = BOUND_MANAGER.get();
+    BOUND_MANAGER.set(this);
     try {
-      return handlebarsCache.get(key);
+      return action.call();
+    }
+    finally {
+      if (previousManager != null) {
+        BOUND_MANAGER.set(previousManager);
+      }
+      else {
+        BOUND_MANAGER.remove();
+      }
     }
-    catch (ExecutionException ex) {
-      throw new GeneratorException("Unable to get handlebars instance for " + key.toString(), ex);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Handlebars createHandlebars(HandlebarsKey options) {
+
+    // setup handlebars - the template cache compiles a template again when the modification time of its source changes
+    TemplateLoader templateLoader = new CharsetAwareTemplateLoader(templateDirs, options.getCharset());
+    EscapingStrategyPlugin escapingStrategy = pluginManager.get(options.getEscapingStrategy(), EscapingStrategyPlugin.class);
+    Handlebars handlebars = new Handlebars(templateLoader).with(new EscapingStrategy() {
+      @Override
+      public CharSequence escape(CharSequence value) {
+        return escapingStrategy.escape(value, getBoundManager().escapingStrategyContext);
+      }
+    }).with(new ConcurrentMapTemplateCache().setReload(true));
+
+    // register helper plugins
+    pluginManager.getAll(HelperPlugin.class)
+        .forEach(plugin -> handlebars.registerHelper(plugin.getName(), new Helper<Object>() {
+          @Override
+          public Object apply(Object context, Options helperOptions) throws IOException {
+            return plugin.apply(context, helperOptions, getBoundManager().helperContext);
+          }
+        }));
+
+    return handlebars;
+  }
+
+  /**
+   * @return Manager bound to the current thread, or this manager if none is bound
+   */
+  private HandlebarsManager getBoundManager() {
+    HandlebarsManager boundManager = BOUND_MANAGER.get();
+    if (boundManager != null) {
+      return boundManager;
     }
+    return this;
   }
 
 }
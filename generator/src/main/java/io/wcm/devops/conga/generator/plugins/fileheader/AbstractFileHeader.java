@@ -24,12 +24,12 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import com.google.common.collect.ImmutableList;
 
 import io.wcm.devops.conga.generator.GeneratorException;
+import io.wcm.devops.conga.generator.spi.ContentInMemoryAware;
 import io.wcm.devops.conga.generator.spi.FileHeaderPlugin;
 import io.wcm.devops.conga.generator.spi.context.FileContext;
 import io.wcm.devops.conga.generator.spi.context.FileHeaderContext;
@@ -37,13 +37,13 @@ import io.wcm.devops.conga.generator.spi.context.FileHeaderContext;
 /**
  * Generic file header plugin implementation.
  */
-public abstract class AbstractFileHeader implements FileHeaderPlugin {
+public abstract class AbstractFileHeader implements FileHeaderPlugin, ContentInMemoryAware {
 
   @Override
   public final Void apply(FileContext file, FileHeaderContext context) {
     String lineBreak = StringUtils.defaultString(getLineBreak());
     try {
-      String content = FileUtils.readFileToString(file.getFile(), file.getCharset());
+      String content = file.getContentAsString();
 
       List<String> sanitizedCommentLines;
       if (context.getCommentLines() == null) {
@@ -66,8 +66,7 @@ public abstract class AbstractFileHeader implements FileHeaderPlugin {
           + StringUtils.defaultString(getBlockSuffix())
           + StringUtils.substring(content, insertPosition);
 
-      file.getFile().delete();
-      FileUtils.write(file.getFile(), content, file.getCharset());
+      file.content(content);
     }
     catch (IOException ex) {
       throw new GeneratorException("Unable to add file header to " + file.getCanonicalPath(), ex);
@@ -111,7 +110,7 @@ public abstract class AbstractFileHeader implements FileHeaderPlugin {
   protected final FileHeaderContext extractFileHeaderBetweenBlockStartEnd(FileContext file) {
     try {
       if (StringUtils.isNotEmpty(getCommentBlockStart()) && StringUtils.isNotEmpty(getCommentBlockEnd())) {
-        String content = FileUtils.readFileToString(file.getFile(), file.getCharset());
+        String content = file.getContentAsString();
         int insertPosition = getInsertPosition(content);
         int posBlockStart = content.indexOf(getCommentBlockStart());
         int posBlockEnd = content.indexOf(getCommentBlockEnd());
@@ -136,7 +135,7 @@ public abstract class AbstractFileHeader implements FileHeaderPlugin {
   protected final FileHeaderContext extractFileHeaderWithLinePrefixes(FileContext file) {
     try {
       if (StringUtils.isNotEmpty(getLineBreak()) && StringUtils.isNotEmpty(getCommentLinePrefix())) {
-        String content = FileUtils.readFileToString(file.getFile(), file.getCharset());
+        String content = file.getContentAsString();
         int insertPosition = getInsertPosition(content);
         content = content.substring(insertPosition);
 
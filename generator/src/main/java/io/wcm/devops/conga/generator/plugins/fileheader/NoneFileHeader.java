@@ -19,6 +19,7 @@
  */
 package io.wcm.devops.conga.generator.plugins.fileheader;
 
+import io.wcm.devops.conga.generator.spi.ContentInMemoryAware;
 import io.wcm.devops.conga.generator.spi.FileHeaderPlugin;
 import io.wcm.devops.conga.generator.spi.ImplicitApplyOptions;
 import io.wcm.devops.conga.generator.spi.context.FileContext;
@@ -27,7 +28,7 @@ import io.wcm.devops.conga.generator.spi.context.FileHeaderContext;
 /**
  * Adds no file header.
  */
-public final class NoneFileHeader implements FileHeaderPlugin {
+public final class NoneFileHeader implements FileHeaderPlugin, ContentInMemoryAware {
 
   /**
    * Plugin name
@@ -19,7 +19,10 @@
  */
 package io.wcm.devops.conga.generator.plugins.fileheader;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 import javax.xml.parsers.DocumentBuilder;
@@ -41,6 +44,7 @@ import org.xml.sax.SAXException;
 import com.google.common.collect.ImmutableList;
 
 import io.wcm.devops.conga.generator.GeneratorException;
+import io.wcm.devops.conga.generator.spi.ContentInMemoryAware;
 import io.wcm.devops.conga.generator.spi.FileHeaderPlugin;
 import io.wcm.devops.conga.generator.spi.context.FileContext;
 import io.wcm.devops.conga.generator.spi.context.FileHeaderContext;
@@ -49,10 +53,7 @@ import io.wcm.devops.conga.generator.util.FileUtil;
 /**
  * Adds file headers to XML files.
  */
-public final class XmlFileHeader implements FileHeaderPlugin {
-
-  private final DocumentBuilder documentBuilder;
-  private final Transformer transformer;
+public final class XmlFileHeader implements FileHeaderPlugin, ContentInMemoryAware {
 
   /**
    * Plugin name
@@ -61,18 +62,27 @@ public final class XmlFileHeader implements FileHeaderPlugin {
 
   private static final String FILE_EXTENSION = "xml";
 
-  /**
-   * Constructor.
-   */
-  public XmlFileHeader() {
+  // document builders and transformers are not thread-safe - plugin instances are shared between concurrently generated environments
+  private final ThreadLocal<DocumentBuilder> documentBuilder = ThreadLocal.withInitial(XmlFileHeader::createDocumentBuilder);
+  private final ThreadLocal<Transformer> transformer = ThreadLocal.withInitial(XmlFileHeader::createTransformer);
+
+  private static DocumentBuilder createDocumentBuilder() {
     try {
       DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-      documentBuilder = documentBuilderFactory.newDocumentBuilder();
+      return documentBuilderFactory.newDocumentBuilder();
+    }
+    catch (ParserConfigurationException ex) {
+      throw new GeneratorException("Unable to initialize file header plugin.", ex);
+    }
+  }
+
+  private static Transformer createTransformer() {
+    try {
       TransformerFactory transformerFactory = TransformerFactory.newInstance();
-      transformer = transformerFactory.newTransformer();
+      return transformerFactory.newTransformer();
     }
-    catch (ParserConfigurationException | TransformerConfigurationException ex) {
-      throw new GeneratorException("Unable to initialize validator.", ex);
+    catch (TransformerConfigurationException ex) {
+      throw new GeneratorException("Unable to initialize file header plugin.", ex);
     }
   }
 
@@ -89,17 +99,18 @@ public final class XmlFileHeader implements FileHeaderPlugin {
   @Override
   public Void apply(FileContext file, FileHeaderContext context) {
     try {
-      Document doc = documentBuilder.parse(file.getFile());
+      Document doc = parse(file);
 
       // build XML comment and add it at first position
       Comment comment = doc.createComment("\n" + StringUtils.join(context.getCommentLines(), "\n") + "\n");
       doc.insertBefore(comment, doc.getChildNodes().item(0));
 
-      // write file
-      file.getFile().delete();
+      // write file content
       DOMSource source = new DOMSource(doc);
-      StreamResult result = new StreamResult(file.getFile());
-      transformer.transform(source, result);
+      ByteArrayOutputStream bos = new ByteArrayOutputStream();
+      StreamResult result = new StreamResult(bos);
+      transformer.get().transform(source, result);
+      file.content(bos.toByteArray());
     }
     catch (SAXException | IOException | TransformerException ex) {
       throw new GeneratorException("Unable to add file header to " + file.getCanonicalPath(), ex);
@@ -110,7 +121,7 @@ public final class XmlFileHeader implements FileHeaderPlugin {
   @Override
   public FileHeaderContext extract(FileContext file) {
     try {
-      Document doc = documentBuilder.parse(file.getFile());
+      Document doc = parse(file);
       if (doc.getChildNodes().getLength() > 0) {
         Node firstNode = doc.getChildNodes().item(0);
         if (firstNode instanceof Comment) {
@@ -126,4 +137,10 @@ public final class XmlFileHeader implements FileHeaderPlugin {
     return null;
   }
 
+  private Document parse(FileContext file) throws SAXException, IOException {
+    try (InputStream is = file.getContentAsStream()) {
+      return documentBuilder.get().parse(is, new File(file.getCanonicalPath()).toURI().toString());
+    }
+  }
+
 }
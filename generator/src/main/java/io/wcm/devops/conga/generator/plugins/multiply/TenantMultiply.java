@@ -25,12 +25,11 @@ import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
 
-import io.wcm.devops.conga.generator.ContextProperties;
 import io.wcm.devops.conga.generator.GeneratorException;
 import io.wcm.devops.conga.generator.spi.MultiplyPlugin;
 import io.wcm.devops.conga.generator.spi.context.MultiplyContext;
+import io.wcm.devops.conga.generator.util.TenantContextCache;
 import io.wcm.devops.conga.model.environment.Tenant;
-import io.wcm.devops.conga.model.util.MapMerger;
 
 /**
  * Multiplies a file for each tenant with a matching tenant role.
@@ -53,18 +52,18 @@ public final class TenantMultiply implements MultiplyPlugin {
   public List<Map<String, Object>> multiply(MultiplyContext context) {
     List<Map<String, Object>> contexts = new ArrayList<>();
 
+    // tenant configs are shared with other role files of the same node role, if a cache is provided
+    TenantContextCache tenantContextCache = context.getTenantContextCache();
+    if (tenantContextCache == null) {
+      tenantContextCache = new TenantContextCache(context.getConfig(), context.getVariableStringResolver(), context.getVariableMapResolver());
+    }
+
     for (Tenant tenant : context.getEnvironment().getTenants()) {
       if (StringUtils.isEmpty(tenant.getTenant())) {
         throw new GeneratorException("Tenant without tenant name detected.");
       }
       if (acceptTenant(tenant, context.getRoleFile().getMultiplyOptions())) {
-        Map<String, Object> mergedConfig = MapMerger.merge(tenant.getConfig(), context.getConfig());
-
-        // set tenant-specific context variables
-        mergedConfig.put(ContextProperties.TENANT, context.getVariableStringResolver().resolve(tenant.getTenant(), mergedConfig));
-        mergedConfig.put(ContextProperties.TENANT_ROLES, tenant.getRoles());
-
-        contexts.add(mergedConfig);
+        contexts.add(tenantContextCache.getConfig(tenant));
       }
     }
 
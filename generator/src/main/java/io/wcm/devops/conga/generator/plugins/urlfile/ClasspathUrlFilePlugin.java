@@ -23,7 +23,10 @@ import java.io.BufferedInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -83,6 +86,21 @@ public class ClasspathUrlFilePlugin implements UrlFilePlugin {
     return result;
   }
 
+  @Override
+  public Path getLocalFile(String url, UrlFilePluginContext context) throws IOException {
+    URL fileUrl = getFileUrl(url, context);
+    if (!StringUtils.equals(fileUrl.getProtocol(), "file")) {
+      // e.g. resource inside a JAR file
+      return null;
+    }
+    try {
+      return Paths.get(fileUrl.toURI());
+    }
+    catch (URISyntaxException ex) {
+      throw new IOException("Invalid file URL: " + fileUrl, ex);
+    }
+  }
+
   private static String getClasspathRef(String url) {
     String classpathRef = StringUtils.substringAfter(url, PREFIX);
     if (StringUtils.startsWith(classpathRef, "/")) {
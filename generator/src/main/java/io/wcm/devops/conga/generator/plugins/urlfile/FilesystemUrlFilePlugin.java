@@ -26,6 +26,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.Path;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -79,6 +80,15 @@ public class FilesystemUrlFilePlugin implements UrlFilePlugin {
     return file.toURI().toURL();
   }
 
+  @Override
+  public Path getLocalFile(String url, UrlFilePluginContext context) throws IOException {
+    File file = getFileInternal(url, context);
+    if (!file.exists()) {
+      throw new FileNotFoundException("File does not exist: " + FileUtil.getCanonicalPath(file));
+    }
+    return file.toPath();
+  }
+
   @Override
   public void deleteFile(String url, UrlFilePluginContext context) throws IOException {
     File file = getFileInternal(url, context);
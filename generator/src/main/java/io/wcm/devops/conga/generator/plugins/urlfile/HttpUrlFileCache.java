@@ -0,0 +1,369 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator.plugins.urlfile;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Persistent cache for files downloaded via HTTP.
+ * <p>
+ * The file contents are stored content-addressed by their SHA-256 hash, so the same content downloaded from different
+ * URLs is stored only once. For each URL an index entry stores the content hash and the ETag and Last-Modified headers
+ * of the response. Cached files are revalidated with a conditional request (If-None-Match/If-Modified-Since) only once
+ * per cache instance - so a file referenced by many nodes is requested only once per generation run.
+ * </p>
+ * <p>
+ * The content hash of a cached file is verified the first time it is used by a cache instance, corrupted or tampered
+ * files are downloaded again.
+ * </p>
+ * <p>
+ * If the total size of the cached contents exceeds the size limit, the least recently used contents are removed.
+ * Contents that were already handed out by this cache instance are never removed, because they may still be read.
+ * </p>
+ */
+final class HttpUrlFileCache {
+
+  private static final String CONTENT_DIR = "content";
+  private static final String INDEX_DIR = "index";
+  private static final String PROPERTY_URL = "url";
+  private static final String PROPERTY_CONTENT_HASH = "contentHash";
+  private static final String PROPERTY_ETAG = "etag";
+  private static final String PROPERTY_LAST_MODIFIED = "lastModified";
+  private static final Pattern CONTENT_HASH_PATTERN = Pattern.compile("^[0-9a-f]{64}$");
+
+  private final File contentDir;
+  private final File indexDir;
+  private final long maxSize;
+  private final int connectTimeout;
+  private final int readTimeout;
+
+  private final Map<String, Object> urlLocks = new ConcurrentHashMap<>();
+  private final Set<String> validatedUrls = ConcurrentHashMap.newKeySet();
+  private final Set<String> verifiedContentHashes = ConcurrentHashMap.newKeySet();
+  private final Object evictionLock = new Object();
+
+  /**
+   * @param cacheDir Cache directory
+   * @param maxSize Maximum size of all cached contents in bytes
+   * @param connectTimeout Connect timeout in milliseconds
+   * @param readTimeout Read timeout in milliseconds
+   */
+  HttpUrlFileCache(File cacheDir, long maxSize, int connectTimeout, int readTimeout) {
+    this.contentDir = new File(cacheDir, CONTENT_DIR);
+    this.indexDir = new File(cacheDir, INDEX_DIR);
+    this.maxSize = maxSize;
+    this.connectTimeout = connectTimeout;
+    this.readTimeout = readTimeout;
+  }
+
+  /**
+   * Get file from cache, downloading or revalidating it if required.
+   * @param url HTTP or HTTPS URL
+   * @return Input stream of the cached file
+   * @throws IOException I/O exception
+   */
+  public InputStream getFile(String url) throws IOException {
+    return new BufferedInputStream(new FileInputStream(getCachedFile(url)));
+  }
+
+  /**
+   * Get file from cache, downloading or revalidating it if required.
+   * @param url HTTP or HTTPS URL
+   * @return Cached file
+   * @throws IOException I/O exception
+   */
+  public File getCachedFile(String url) throws IOException {
+    synchronized (urlLocks.computeIfAbsent(url, key -> new Object())) {
+      File indexFile = getIndexFile(url);
+      Properties index = readIndex(indexFile);
+      File contentFile = null;
+      if (index != null && StringUtils.equals(url, index.getProperty(PROPERTY_URL))) {
+        contentFile = getVerifiedContentFile(index.getProperty(PROPERTY_CONTENT_HASH));
+      }
+
+      // use cached file without revalidation if it was already validated
+      if (contentFile != null && validatedUrls.contains(url)) {
+        return touch(contentFile);
+      }
+
+      HttpURLConnection connection = openConnection(url, connectTimeout, readTimeout);
+      try {
+        if (contentFile != null) {
+          String etag = index.getProperty(PROPERTY_ETAG);
+          if (StringUtils.isNotEmpty(etag)) {
+            connection.setRequestProperty("If-None-Match", etag);
+          }
+          String lastModified = index.getProperty(PROPERTY_LAST_MODIFIED);
+          if (StringUtils.isNotEmpty(lastModified)) {
+            connection.setRequestProperty("If-Modified-Since", lastModified);
+          }
+        }
+
+        int responseCode = connection.getResponseCode();
+        if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED && contentFile != null) {
+          // consume (empty) response body to allow reusing the connection
+          IOUtils.closeQuietly(connection.getInputStream());
+          validatedUrls.add(url);
+          return touch(contentFile);
+        }
+        if (responseCode != HttpURLConnection.HTTP_OK) {
+          IOUtils.closeQuietly(connection.getErrorStream());
+          throw new IOException("Unable to download " + url + ": HTTP " + responseCode + " " + connection.getResponseMessage());
+        }
+
+        String contentHash = download(connection);
+        Properties newIndex = new Properties();
+        newIndex.setProperty(PROPERTY_URL, url);
+        newIndex.setProperty(PROPERTY_CONTENT_HASH, contentHash);
+        String etag = connection.getHeaderField("ETag");
+        if (etag != null) {
+          newIndex.setProperty(PROPERTY_ETAG, etag);
+        }
+        String lastModified = connection.getHeaderField("Last-Modified");
+        if (lastModified != null) {
+          newIndex.setProperty(PROPERTY_LAST_MODIFIED, lastModified);
+        }
+        writeIndex(indexFile, newIndex);
+        validatedUrls.add(url);
+
+        evict();
+        return getContentFile(contentHash);
+      }
+      catch (IOException ex) {
+        // drop the connection instead of returning it to the keep-alive pool in an undefined state
+        connection.disconnect();
+        throw ex;
+      }
+    }
+  }
+
+  /**
+   * Downloads a file without caching it.
+   * @param url HTTP or HTTPS URL
+   * @param connectTimeout Connect timeout in milliseconds
+   * @param readTimeout Read timeout in milliseconds
+   * @return Input stream of the response body
+   * @throws IOException I/O exception
+   */
+  static InputStream openStream(String url, int connectTimeout, int readTimeout) throws IOException {
+    HttpURLConnection connection = openConnection(url, connectTimeout, readTimeout);
+    int responseCode = connection.getResponseCode();
+    if (responseCode != HttpURLConnection.HTTP_OK) {
+      IOUtils.closeQuietly(connection.getErrorStream());
+      connection.disconnect();
+      throw new IOException("Unable to download " + url + ": HTTP " + responseCode + " " + connection.getResponseMessage());
+    }
+    return new BufferedInputStream(connection.getInputStream());
+  }
+
+  private static HttpURLConnection openConnection(String url, int connectTimeout, int readTimeout) throws IOException {
+    URLConnection connection = new URL(url).openConnection();
+    if (!(connection instanceof HttpURLConnection)) {
+      throw new IOException("Not a HTTP URL: " + url);
+    }
+    connection.setConnectTimeout(connectTimeout);
+    connection.setReadTimeout(readTimeout);
+    return (HttpURLConnection)connection;
+  }
+
+  /**
+   * Gets the cached content file for the given hash. The content is verified against the hash the first time it is
+   * used by this cache instance, a file with mismatching content is removed.
+   * @param contentHash Content hash
+   * @return Content file or null if it does not exist or is corrupt
+   */
+  private File getVerifiedContentFile(String contentHash) throws IOException {
+    if (contentHash == null || !CONTENT_HASH_PATTERN.matcher(contentHash).matches()) {
+      return null;
+    }
+    File contentFile = getContentFile(contentHash);
+    if (verifiedContentHashes.contains(contentHash)) {
+      return contentFile;
+    }
+    String actualHash;
+    try (InputStream is = new FileInputStream(contentFile)) {
+      actualHash = hash(is);
+    }
+    catch (FileNotFoundException ex) {
+      return null;
+    }
+    synchronized (evictionLock) {
+      if (!StringUtils.equals(contentHash, actualHash)) {
+        Files.deleteIfExists(contentFile.toPath());
+        return null;
+      }
+      if (!contentFile.exists()) {
+        // removed by concurrent eviction
+        return null;
+      }
+      // mark as in use - it is protected from eviction from now on
+      verifiedContentHashes.add(contentHash);
+      return contentFile;
+    }
+  }
+
+  private static String hash(InputStream is) throws IOException {
+    try (HashingInputStream his = new HashingInputStream(Hashing.sha256(), is)) {
+      ByteStreams.copy(his, ByteStreams.nullOutputStream());
+      return his.hash().toString();
+    }
+  }
+
+  /**
+   * Downloads the response body to the content directory.
+   * @param connection Connection
+   * @return Hash of content
+   */
+  private String download(HttpURLConnection connection) throws IOException {
+    contentDir.mkdirs();
+    File tempFile = File.createTempFile("download", ".tmp", contentDir);
+    try {
+      String contentHash;
+      try (HashingInputStream is = new HashingInputStream(Hashing.sha256(), connection.getInputStream());
+          OutputStream os = new FileOutputStream(tempFile)) {
+        IOUtils.copy(is, os);
+        contentHash = is.hash().toString();
+      }
+      synchronized (evictionLock) {
+        // always replace an existing content file - it may be corrupt, and readers keep their open file
+        move(tempFile, getContentFile(contentHash));
+        verifiedContentHashes.add(contentHash);
+      }
+      return contentHash;
+    }
+    finally {
+      Files.deleteIfExists(tempFile.toPath());
+    }
+  }
+
+  /**
+   * Removes least recently used contents until the total size is below the size limit.
+   * Contents handed out by this cache instance are never removed.
+   */
+  private void evict() {
+    synchronized (evictionLock) {
+      File[] files = contentDir.listFiles(file -> file.isFile() && !StringUtils.endsWith(file.getName(), ".tmp"));
+      if (files == null) {
+        return;
+      }
+      long totalSize = Arrays.stream(files).mapToLong(File::length).sum();
+      if (totalSize <= maxSize) {
+        return;
+      }
+      List<File> lruFiles = new ArrayList<>(Arrays.asList(files));
+      lruFiles.sort(Comparator.comparingLong(File::lastModified));
+      for (File file : lruFiles) {
+        if (totalSize <= maxSize) {
+          break;
+        }
+        if (verifiedContentHashes.contains(file.getName())) {
+          continue;
+        }
+        long size = file.length();
+        if (file.delete()) {
+          totalSize -= size;
+        }
+      }
+    }
+  }
+
+  private File getContentFile(String contentHash) {
+    return new File(contentDir, contentHash);
+  }
+
+  private File getIndexFile(String url) {
+    return new File(indexDir, Hashing.sha256().hashString(url, StandardCharsets.UTF_8).toString() + ".properties");
+  }
+
+  private static Properties readIndex(File indexFile) throws IOException {
+    if (!indexFile.exists()) {
+      return null;
+    }
+    Properties index = new Properties();
+    try (InputStream is = new FileInputStream(indexFile)) {
+      index.load(is);
+    }
+    return index;
+  }
+
+  private void writeIndex(File indexFile, Properties index) throws IOException {
+    indexDir.mkdirs();
+    File tempFile = File.createTempFile("index", ".tmp", indexDir);
+    try {
+      try (OutputStream os = new FileOutputStream(tempFile)) {
+        index.store(os, null);
+      }
+      move(tempFile, indexFile);
+    }
+    finally {
+      Files.deleteIfExists(tempFile.toPath());
+    }
+  }
+
+  private static void move(File source, File target) throws IOException {
+    try {
+      Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+    catch (AtomicMoveNotSupportedException ex) {
+      Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Marks the file as recently used.
+   * @param file File
+   * @return File
+   */
+  private static File touch(File file) {
+    file.setLastModified(System.currentTimeMillis());
+    return file;
+  }
+
+}
@@ -19,18 +19,34 @@
  */
 package io.wcm.devops.conga.generator.plugins.urlfile;
 
-import java.io.BufferedInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.StringUtils;
 
 import io.wcm.devops.conga.generator.spi.UrlFilePlugin;
 import io.wcm.devops.conga.generator.spi.context.UrlFilePluginContext;
+import io.wcm.devops.conga.generator.util.FileUtil;
 
 /**
  * Download files from HTTP or HTTPS URL.
+ * <p>
+ * Downloaded files are kept in a persistent cache and revalidated once per generation run.
+ * The download and the cache can be configured with the generic plugin configuration of this plugin:
+ * </p>
+ * <ul>
+ * <li><code>cache</code>: Set to false to download the files on each access without caching them (default: true)</li>
+ * <li><code>cacheDir</code>: Cache directory (default: <code>.conga/http-cache</code> in the user home directory)</li>
+ * <li><code>cacheMaxSize</code>: Maximum size of the cached files in bytes (default: 1 GB)</li>
+ * <li><code>connectTimeout</code>: Connect timeout in milliseconds (default: 30 seconds)</li>
+ * <li><code>readTimeout</code>: Read timeout in milliseconds (default: 60 seconds)</li>
+ * </ul>
  */
 public class HttpUrlFilePlugin implements UrlFilePlugin {
 
@@ -39,6 +55,37 @@ public class HttpUrlFilePlugin implements UrlFilePlugin {
    */
   public static final String NAME = "http";
 
+  /**
+   * Generic plugin configuration parameter to enable or disable the cache.
+   */
+  public static final String PARAM_CACHE = "cache";
+
+  /**
+   * Generic plugin configuration parameter for the cache directory.
+   */
+  public static final String PARAM_CACHE_DIR = "cacheDir";
+
+  /**
+   * Generic plugin configuration parameter for the maximum size of the cache in bytes.
+   */
+  public static final String PARAM_CACHE_MAX_SIZE = "cacheMaxSize";
+
+  /**
+   * Generic plugin configuration parameter for the connect timeout in milliseconds.
+   */
+  public static final String PARAM_CONNECT_TIMEOUT = "connectTimeout";
+
+  /**
+   * Generic plugin configuration parameter for the read timeout in milliseconds.
+   */
+  public static final String PARAM_READ_TIMEOUT = "readTimeout";
+
+  private static final long DEFAULT_CACHE_MAX_SIZE = 1024L * 1024L * 1024L;
+  private static final int DEFAULT_CONNECT_TIMEOUT = 30 * 1000;
+  private static final int DEFAULT_READ_TIMEOUT = 60 * 1000;
+
+  private final Map<String, HttpUrlFileCache> caches = new ConcurrentHashMap<>();
+
   @Override
   public String getName() {
     return NAME;
@@ -57,8 +104,14 @@ public class HttpUrlFilePlugin implements UrlFilePlugin {
 
   @Override
   public InputStream getFile(String url, UrlFilePluginContext context) throws IOException {
-    URL result = new URL(url);
-    return new BufferedInputStream(result.openStream());
+    Map<String, Object> config = getConfig(context);
+    HttpUrlFileCache cache = getCache(config);
+    if (cache == null) {
+      return HttpUrlFileCache.openStream(url,
+          getInt(config, PARAM_CONNECT_TIMEOUT, DEFAULT_CONNECT_TIMEOUT),
+          getInt(config, PARAM_READ_TIMEOUT, DEFAULT_READ_TIMEOUT));
+    }
+    return cache.getFile(url);
   }
 
   @Override
@@ -66,4 +119,58 @@ public class HttpUrlFilePlugin implements UrlFilePlugin {
     return new URL(url);
   }
 
+  @Override
+  public Path getLocalFile(String url, UrlFilePluginContext context) throws IOException {
+    HttpUrlFileCache cache = getCache(getConfig(context));
+    if (cache == null) {
+      return null;
+    }
+    return cache.getCachedFile(url).toPath();
+  }
+
+  private static Map<String, Object> getConfig(UrlFilePluginContext context) {
+    Map<String, Map<String, Object>> genericPluginConfig = context.getGenericPluginConfig();
+    Map<String, Object> config = genericPluginConfig != null ? genericPluginConfig.get(NAME) : null;
+    return config != null ? config : Collections.emptyMap();
+  }
+
+  /**
+   * @param config Plugin configuration
+   * @return Cache or null if caching is disabled
+   */
+  private HttpUrlFileCache getCache(Map<String, Object> config) {
+    Object cacheValue = config.get(PARAM_CACHE);
+    if (cacheValue != null && !Boolean.parseBoolean(cacheValue.toString())) {
+      return null;
+    }
+
+    File cacheDir = new File(System.getProperty("user.home"), ".conga/http-cache");
+    Object cacheDirValue = config.get(PARAM_CACHE_DIR);
+    if (cacheDirValue != null && StringUtils.isNotBlank(cacheDirValue.toString())) {
+      cacheDir = new File(cacheDirValue.toString());
+    }
+    long cacheMaxSize = getLong(config, PARAM_CACHE_MAX_SIZE, DEFAULT_CACHE_MAX_SIZE);
+    int connectTimeout = getInt(config, PARAM_CONNECT_TIMEOUT, DEFAULT_CONNECT_TIMEOUT);
+    int readTimeout = getInt(config, PARAM_READ_TIMEOUT, DEFAULT_READ_TIMEOUT);
+
+    File dir = cacheDir;
+    return caches.computeIfAbsent(FileUtil.getCanonicalPath(cacheDir) + "|" + cacheMaxSize + "|" + connectTimeout + "|" + readTimeout,
+        key -> new HttpUrlFileCache(dir, cacheMaxSize, connectTimeout, readTimeout));
+  }
+
+  private static long getLong(Map<String, Object> config, String param, long defaultValue) {
+    Object value = config.get(param);
+    if (value instanceof Number) {
+      return ((Number)value).longValue();
+    }
+    else if (value != null) {
+      return Long.parseLong(value.toString());
+    }
+    return defaultValue;
+  }
+
+  private static int getInt(Map<String, Object> config, String param, int defaultValue) {
+    return (int)getLong(config, param, defaultValue);
+  }
+
 }
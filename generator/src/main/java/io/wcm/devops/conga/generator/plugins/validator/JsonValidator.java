@@ -19,18 +19,18 @@
  */
 package io.wcm.devops.conga.generator.plugins.validator;
 
-import java.io.BufferedInputStream;
-import java.io.FileInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 
-import com.google.gson.JsonIOException;
-import com.google.gson.JsonParser;
-import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
 
+import io.wcm.devops.conga.generator.spi.ContentInMemoryAware;
 import io.wcm.devops.conga.generator.spi.ValidationException;
 import io.wcm.devops.conga.generator.spi.ValidatorPlugin;
 import io.wcm.devops.conga.generator.spi.context.FileContext;
@@ -39,10 +39,10 @@ import io.wcm.devops.conga.generator.util.FileUtil;
 
 /**
  * Validates JSON syntax.
+ * The file is scanned token by token with a streaming JSON reader, no element tree is built.
+ * Like the JSON parser it is lenient, e.g. comments are allowed.
  */
-public final class JsonValidator implements ValidatorPlugin {
-
-  private final JsonParser jsonParser;
+public final class JsonValidator implements ValidatorPlugin, ContentInMemoryAware {
 
   /**
    * Plugin name
@@ -51,13 +51,6 @@ public final class JsonValidator implements ValidatorPlugin {
 
   private static final String FILE_EXTENSION = "json";
 
-  /**
-   * Constructor.
-   */
-  public JsonValidator() {
-    jsonParser = new JsonParser();
-  }
-
   @Override
   public String getName() {
     return NAME;
@@ -70,14 +63,76 @@ public final class JsonValidator implements ValidatorPlugin {
 
   @Override
   public Void apply(FileContext file, ValidatorContext context) throws ValidationException {
-    try (InputStream is = new BufferedInputStream(new FileInputStream(file.getFile()));
-        Reader reader = new InputStreamReader(is, StandardCharsets.UTF_8)) {
-      jsonParser.parse(reader);
+    try (InputStream is = file.getContentAsStream();
+        Reader reader = new InputStreamReader(is, StandardCharsets.UTF_8);
+        JsonReader jsonReader = new JsonReader(reader)) {
+      jsonReader.setLenient(true);
+      scan(jsonReader);
     }
-    catch (IOException | JsonIOException | JsonSyntaxException ex) {
+    catch (IOException | IllegalStateException ex) {
       throw new ValidationException("JSON file is not valid: " + ex.getMessage(), ex);
     }
     return null;
   }
 
+  /**
+   * Reads all tokens of a single JSON value. Like with the JSON parser an empty document
+   * (or a document containing only whitespaces and comments) is accepted as well.
+   * @param jsonReader JSON reader
+   * @throws IOException when the JSON syntax is invalid
+   */
+  private static void scan(JsonReader jsonReader) throws IOException {
+    try {
+      jsonReader.peek();
+    }
+    catch (EOFException ex) {
+      // end of input before the first token
+      return;
+    }
+
+    int depth = 0;
+    do {
+      switch (jsonReader.peek()) {
+        case BEGIN_ARRAY:
+          jsonReader.beginArray();
+          depth++;
+          break;
+        case END_ARRAY:
+          jsonReader.endArray();
+          depth--;
+          break;
+        case BEGIN_OBJECT:
+          jsonReader.beginObject();
+          depth++;
+          break;
+        case END_OBJECT:
+          jsonReader.endObject();
+          depth--;
+          break;
+        case NAME:
+          jsonReader.nextName();
+          break;
+        case STRING:
+        case NUMBER:
+          jsonReader.nextString();
+          break;
+        case BOOLEAN:
+          jsonReader.nextBoolean();
+          break;
+        case NULL:
+          jsonReader.nextNull();
+          break;
+        case END_DOCUMENT:
+          return;
+        default:
+          throw new MalformedJsonException("Unexpected token: " + jsonReader.peek());
+      }
+    }
+    while (depth > 0);
+
+    if (jsonReader.peek() != JsonToken.END_DOCUMENT) {
+      throw new MalformedJsonException("Did not consume the entire document.");
+    }
+  }
+
 }
@@ -19,6 +19,7 @@
  */
 package io.wcm.devops.conga.generator.plugins.validator;
 
+import io.wcm.devops.conga.generator.spi.ContentInMemoryAware;
 import io.wcm.devops.conga.generator.spi.ImplicitApplyOptions;
 import io.wcm.devops.conga.generator.spi.ValidationException;
 import io.wcm.devops.conga.generator.spi.ValidatorPlugin;
@@ -28,7 +29,7 @@ import io.wcm.devops.conga.generator.spi.context.ValidatorContext;
 /**
  * Does no validation.
  */
-public final class NoneValidator implements ValidatorPlugin {
+public final class NoneValidator implements ValidatorPlugin, ContentInMemoryAware {
 
   /**
    * Plugin name
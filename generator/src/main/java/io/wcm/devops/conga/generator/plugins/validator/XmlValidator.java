@@ -19,15 +19,20 @@
  */
 package io.wcm.devops.conga.generator.plugins.validator;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
 
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 
 import io.wcm.devops.conga.generator.GeneratorException;
+import io.wcm.devops.conga.generator.spi.ContentInMemoryAware;
 import io.wcm.devops.conga.generator.spi.ValidationException;
 import io.wcm.devops.conga.generator.spi.ValidatorPlugin;
 import io.wcm.devops.conga.generator.spi.context.FileContext;
@@ -36,10 +41,9 @@ import io.wcm.devops.conga.generator.util.FileUtil;
 
 /**
  * Validates XML syntax.
+ * The file is parsed with a streaming SAX parser, no document tree is built.
  */
-public final class XmlValidator implements ValidatorPlugin {
-
-  private final DocumentBuilder documentBuilder;
+public final class XmlValidator implements ValidatorPlugin, ContentInMemoryAware {
 
   /**
    * Plugin name
@@ -48,15 +52,18 @@ public final class XmlValidator implements ValidatorPlugin {
 
   private static final String FILE_EXTENSION = "xml";
 
-  /**
-   * Constructor.
-   */
-  public XmlValidator() {
+  // SAX parsers are not thread-safe - plugin instances are shared between concurrently generated environments
+  private final ThreadLocal<SAXParser> saxParser = ThreadLocal.withInitial(XmlValidator::createSaxParser);
+
+  // handler only reports errors, all other events are ignored
+  private static final DefaultHandler WELL_FORMEDNESS_HANDLER = new DefaultHandler();
+
+  private static SAXParser createSaxParser() {
     try {
-      DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-      documentBuilder = factory.newDocumentBuilder();
+      SAXParserFactory factory = SAXParserFactory.newInstance();
+      return factory.newSAXParser();
     }
-    catch (ParserConfigurationException ex) {
+    catch (ParserConfigurationException | SAXException ex) {
       throw new GeneratorException("Unable to initialize validator.", ex);
     }
   }
@@ -73,12 +80,18 @@ public final class XmlValidator implements ValidatorPlugin {
 
   @Override
   public Void apply(FileContext file, ValidatorContext context) throws ValidationException {
-    try {
-      documentBuilder.parse(file.getFile());
+    SAXParser parser = saxParser.get();
+    try (InputStream is = file.getContentAsStream()) {
+      InputSource inputSource = new InputSource(is);
+      inputSource.setSystemId(new File(file.getCanonicalPath()).toURI().toString());
+      parser.parse(inputSource, WELL_FORMEDNESS_HANDLER);
     }
     catch (SAXException | IOException ex) {
       throw new ValidationException("XML file is not valid: " + ex.getMessage(), ex);
     }
+    finally {
+      parser.reset();
+    }
     return null;
   }
 
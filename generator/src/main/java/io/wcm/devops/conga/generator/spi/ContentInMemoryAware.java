@@ -0,0 +1,38 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator.spi;
+
+import io.wcm.devops.conga.generator.spi.context.FileContext;
+
+/**
+ * Marker interface for file plugins that access the file content only via the content methods of
+ * {@link FileContext} (e.g. {@link FileContext#getContentAsStream()} and {@link FileContext#content(String)}),
+ * both in <code>accepts</code> and <code>apply</code>. Such plugins may use the file name and path,
+ * but never read or write the file returned by {@link FileContext#getFile()}.
+ * <p>
+ * The generated file content is kept in memory while it is processed only if all plugins that may be applied
+ * to the file implement this interface. Otherwise the file is written to disk before the plugin is called.
+ * </p>
+ */
+public interface ContentInMemoryAware {
+
+  // marker interface
+
+}
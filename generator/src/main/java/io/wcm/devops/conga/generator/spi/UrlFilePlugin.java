@@ -22,6 +22,7 @@ package io.wcm.devops.conga.generator.spi;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.Path;
 import java.util.List;
 
 import com.google.common.collect.ImmutableList;
@@ -70,6 +71,18 @@ public interface UrlFilePlugin extends Plugin {
     throw new IOException("File URLs not supported for " + getClass().getName());
   }
 
+  /**
+   * Get path of external file in the local filesystem, if it is available there. This allows to copy or link
+   * the file without streaming its binary data.
+   * @param url URL string (including prefix)
+   * @param context Context objects
+   * @return Path to local file, or null if the file is not available in the local filesystem
+   * @throws IOException If the access to the file failed
+   */
+  default Path getLocalFile(String url, UrlFilePluginContext context) throws IOException {
+    return null;
+  }
+
   /**
    * Get URLs of transitive dependencies of external file. This usually applies only to Maven artifacts.
    * The returned list includes the URL of the artifact itself, and all it's transitive dependencies.
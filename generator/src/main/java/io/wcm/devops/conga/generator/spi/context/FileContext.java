@@ -19,11 +19,19 @@
  */
 package io.wcm.devops.conga.generator.spi.context;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.apache.commons.io.Charsets;
+import org.apache.commons.io.FileUtils;
+
 import io.wcm.devops.conga.generator.util.FileUtil;
 
 /**
@@ -36,9 +44,13 @@ public final class FileContext {
   private String charset;
   private Map<String, Object> modelOptions = new HashMap<>();
   private File targetDir;
+  private byte[] content;
 
   /**
-   * @return File
+   * @return File. If the file content is currently kept in memory (see {@link #contentInMemory(byte[])}), the file
+   *         does not reflect the current content until {@link #flush()} is called. The content is only kept in memory
+   *         while plugins are applied that implement {@link io.wcm.devops.conga.generator.spi.ContentInMemoryAware},
+   *         other plugins can always read the file.
    */
   public File getFile() {
     return file;
@@ -118,6 +130,111 @@ public final class FileContext {
     return this;
   }
 
+  /**
+   * Get file content. If the file content is kept in memory it is returned directly, otherwise it is read from the file.
+   * @return File content
+   * @throws IOException I/O exception
+   */
+  public byte[] getContent() throws IOException {
+    if (content != null) {
+      return content;
+    }
+    return FileUtils.readFileToByteArray(file);
+  }
+
+  /**
+   * Get file content as string using the file's charset.
+   * @return File content
+   * @throws IOException I/O exception
+   */
+  public String getContentAsString() throws IOException {
+    return new String(getContent(), Charsets.toCharset(charset));
+  }
+
+  /**
+   * Get input stream to read the file content, either from memory or from the file.
+   * @return Input stream - has to be closed by the caller
+   * @throws IOException I/O exception
+   */
+  public InputStream getContentAsStream() throws IOException {
+    if (content != null) {
+      return new ByteArrayInputStream(content);
+    }
+    return new BufferedInputStream(new FileInputStream(file));
+  }
+
+  /**
+   * Sets the file content. If the file content is currently kept in memory, it is replaced in memory.
+   * Otherwise the file is replaced with the new content.
+   * @param value File content
+   * @return this
+   * @throws IOException I/O exception
+   */
+  public FileContext content(byte[] value) throws IOException {
+    if (content != null) {
+      content = value;
+    }
+    else {
+      FileUtil.writeReplacing(file, value);
+    }
+    return this;
+  }
+
+  /**
+   * Sets the file content using the file's charset. If the file content is currently kept in memory, it is replaced
+   * in memory. Otherwise the file is replaced with the new content.
+   * @param value File content
+   * @return this
+   * @throws IOException I/O exception
+   */
+  public FileContext content(String value) throws IOException {
+    return content(value.getBytes(Charsets.toCharset(charset)));
+  }
+
+  /**
+   * Sets the file content and keeps it in memory until {@link #flush()} is called.
+   * @param value File content
+   * @return this
+   */
+  public FileContext contentInMemory(byte[] value) {
+    content = value;
+    return this;
+  }
+
+  /**
+   * Sets the file content using the file's charset and keeps it in memory until {@link #flush()} is called.
+   * @param value File content
+   * @return this
+   */
+  public FileContext contentInMemory(String value) {
+    return contentInMemory(value.getBytes(Charsets.toCharset(charset)));
+  }
+
+  /**
+   * @return true if the file content is currently kept in memory and not written to the file yet.
+   */
+  public boolean isContentInMemory() {
+    return content != null;
+  }
+
+  /**
+   * @return true if the file content is kept in memory or the file exists. The file content is not written to the file.
+   */
+  public boolean exists() {
+    return content != null || file.exists();
+  }
+
+  /**
+   * Writes the file content kept in memory to the file. An existing file is replaced, not overwritten in place.
+   * @throws IOException I/O exception
+   */
+  public void flush() throws IOException {
+    if (content != null) {
+      FileUtil.writeReplacing(file, content);
+      content = null;
+    }
+  }
+
   @Override
   public String toString() {
     return canonicalPath;
@@ -21,6 +21,7 @@ package io.wcm.devops.conga.generator.spi.context;
 
 import java.util.Map;
 
+import io.wcm.devops.conga.generator.util.TenantContextCache;
 import io.wcm.devops.conga.generator.util.VariableMapResolver;
 import io.wcm.devops.conga.generator.util.VariableStringResolver;
 import io.wcm.devops.conga.model.environment.Environment;
@@ -38,6 +39,7 @@ public final class MultiplyContext extends AbstractPluginContext<MultiplyContext
   private Map<String, Object> config;
   private VariableStringResolver variableStringResolver;
   private VariableMapResolver variableMapResolver;
+  private TenantContextCache tenantContextCache;
 
   /**
    * @return Role
@@ -135,4 +137,20 @@ public final class MultiplyContext extends AbstractPluginContext<MultiplyContext
     return this;
   }
 
+  /**
+   * @return Tenant context cache of the node role - may be null
+   */
+  public TenantContextCache getTenantContextCache() {
+    return this.tenantContextCache;
+  }
+
+  /**
+   * @param value Tenant context cache of the node role, built from the same config
+   * @return this
+   */
+  public MultiplyContext tenantContextCache(TenantContextCache value) {
+    this.tenantContextCache = value;
+    return this;
+  }
+
 }
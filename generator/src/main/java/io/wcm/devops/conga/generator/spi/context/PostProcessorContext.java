@@ -20,6 +20,7 @@
 package io.wcm.devops.conga.generator.spi.context;
 
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Context for {@link io.wcm.devops.conga.generator.spi.PostProcessorPlugin}.
@@ -27,11 +28,16 @@ import java.util.Map;
 public final class PostProcessorContext extends AbstractPluginContext<PostProcessorContext> {
 
   private Map<String, Object> options;
+  private Supplier<Map<String, Object>> optionsSupplier;
 
   /**
-   * @return Post processor options
+   * @return Post processor options. The map may be shared with other files and is read-only.
    */
   public Map<String, Object> getOptions() {
+    if (optionsSupplier != null) {
+      options = optionsSupplier.get();
+      optionsSupplier = null;
+    }
     return options;
   }
 
@@ -41,6 +47,17 @@ public final class PostProcessorContext extends AbstractPluginContext<PostProces
    */
   public PostProcessorContext options(Map<String, Object> value) {
     options = value;
+    optionsSupplier = null;
+    return this;
+  }
+
+  /**
+   * @param value Supplier for post processor options - called once on first access
+   * @return this
+   */
+  public PostProcessorContext optionsSupplier(Supplier<Map<String, Object>> value) {
+    options = null;
+    optionsSupplier = value;
     return this;
   }
 
@@ -28,7 +28,7 @@ import java.util.Map;
  */
 public final class ValueProviderGlobalContext extends AbstractPluginContext<ValueProviderGlobalContext> {
 
-  private Map<String, Object> globalValueProviderCache = new HashMap<>();
+  private final Map<String, Object> globalValueProviderCache = Collections.synchronizedMap(new HashMap<>());
 
   /**
    * Parameter name in value provider configuration to specify the value provider plugin name.
@@ -63,6 +63,7 @@ public final class ValueProviderGlobalContext extends AbstractPluginContext<Valu
 
   /**
    * Get global cache map used by all value provider plugin implementations.
+   * The map is synchronized because nodes of an environment may be generated in parallel.
    * @return Global cache map
    */
   public Map<String, Object> getGlobalValueProviderCache() {
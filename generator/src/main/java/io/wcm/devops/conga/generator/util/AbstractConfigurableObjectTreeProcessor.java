@@ -19,14 +19,21 @@
  */
 package io.wcm.devops.conga.generator.util;
 
-import java.lang.reflect.InvocationTargetException;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.List;
 import java.util.Map;
 
-import org.apache.commons.beanutils.BeanUtils;
-import org.apache.commons.beanutils.PropertyUtils;
 import org.apache.commons.lang3.StringUtils;
 
+import com.google.common.collect.ImmutableList;
+
 import io.wcm.devops.conga.model.shared.Configurable;
 
 /**
@@ -35,6 +42,18 @@ import io.wcm.devops.conga.model.shared.Configurable;
  */
 abstract class AbstractConfigurableObjectTreeProcessor<T> {
 
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+  /**
+   * Getters of all bean properties per class - looked up only once per class.
+   */
+  private static final ClassValue<List<MethodHandle>> PROPERTY_GETTERS = new ClassValue<List<MethodHandle>>() {
+    @Override
+    protected List<MethodHandle> computeValue(Class<?> type) {
+      return getPropertyGetters(type);
+    }
+  };
+
   /**
    * Iterator over object tree an visit all {@link Configurable} instances. Payload
    * can be inherited from down the hierarchy levels.
@@ -67,21 +86,56 @@ abstract class AbstractConfigurableObjectTreeProcessor<T> {
   }
 
   private void resolveNestedObjects(Object object, ConfigurableProcessor<T> processor, T parentPayload) {
-    if (object == null || object.getClass().isEnum()) {
+    if (object == null || isLeafType(object.getClass())) {
       return;
     }
-    try {
-      Map<String, String> description = BeanUtils.describe(object);
-      for (String propertyName : description.keySet()) {
-        Object propertyValue = PropertyUtils.getProperty(object, propertyName);
-        if (!StringUtils.equals(propertyName, "class")) {
-          process(propertyValue, processor, parentPayload);
-        }
+    for (MethodHandle getter : PROPERTY_GETTERS.get(object.getClass())) {
+      Object propertyValue;
+      try {
+        propertyValue = getter.invokeExact(object);
+      }
+      /*CHECKSTYLE:OFF*/ catch (Throwable ex) { /*CHECKSTYLE:ON*/
+        throw new RuntimeException("Unable to get bean properties from '" + object.getClass().getName() + "'.", ex);
       }
+      process(propertyValue, processor, parentPayload);
+    }
+  }
+
+  /**
+   * Enums, arrays and JDK types like strings or numbers contain no {@link Configurable} instances.
+   * Maps and lists are handled separately.
+   */
+  private static boolean isLeafType(Class<?> type) {
+    return type.isEnum() || type.isArray() || type.isPrimitive() || StringUtils.startsWith(type.getName(), "java.");
+  }
+
+  /**
+   * Get method handles for all readable bean properties of the given class.
+   * Properties without public getter are skipped.
+   */
+  private static List<MethodHandle> getPropertyGetters(Class<?> type) {
+    PropertyDescriptor[] descriptors;
+    try {
+      descriptors = Introspector.getBeanInfo(type, Object.class).getPropertyDescriptors();
+    }
+    catch (IntrospectionException ex) {
+      throw new RuntimeException("Unable to get bean properties from '" + type.getName() + "'.", ex);
     }
-    catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException ex) {
-      throw new RuntimeException("Unable to get bean properties from '" + object.getClass().getName() + "'.", ex);
+    MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+    ImmutableList.Builder<MethodHandle> getters = ImmutableList.builder();
+    for (PropertyDescriptor descriptor : descriptors) {
+      Method readMethod = descriptor.getReadMethod();
+      if (readMethod == null || !Modifier.isPublic(readMethod.getDeclaringClass().getModifiers())) {
+        continue;
+      }
+      try {
+        getters.add(lookup.unreflect(readMethod).asType(GETTER_TYPE));
+      }
+      catch (IllegalAccessException ex) {
+        // skip property without accessible getter
+      }
     }
+    return getters.build();
   }
 
 }
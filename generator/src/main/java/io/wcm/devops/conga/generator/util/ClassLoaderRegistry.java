@@ -0,0 +1,186 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import io.wcm.devops.conga.generator.GeneratorException;
+
+/**
+ * Shares {@link URLClassLoader} instances between all users that request the same list of classpath URLs, e.g.
+ * environments with identical dependencies. Each class loader is reference-counted: It stays open for reuse when
+ * it is no longer referenced, and is closed when the registry is closed. Class loaders that are still referenced
+ * at this time are closed when their last reference is released.
+ * <p>
+ * Objects derived from a class loader (e.g. caches of resources loaded from it) can be shared along with it via
+ * {@link #getShared(ClassLoader, Class, Supplier)}. They are dropped when the class loader is closed.
+ * </p>
+ */
+public final class ClassLoaderRegistry implements Closeable {
+
+  private final Map<List<String>, Entry> entries = new LinkedHashMap<>();
+  private final Map<ClassLoader, Entry> entriesByClassLoader = new IdentityHashMap<>();
+  private boolean closed;
+
+  /**
+   * Get a class loader for the given classpath URLs. Each call has to be paired with a call to
+   * {@link #release(ClassLoader)}.
+   * @param classpathUrls Classpath URLs
+   * @return Class loader
+   */
+  public synchronized URLClassLoader acquire(List<URL> classpathUrls) {
+    if (closed) {
+      throw new IllegalStateException("Class loader registry is already closed.");
+    }
+    List<String> key = toKey(classpathUrls);
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      entry = new Entry(key, new URLClassLoader(classpathUrls.toArray(new URL[classpathUrls.size()])));
+      entries.put(key, entry);
+      entriesByClassLoader.put(entry.classLoader, entry);
+    }
+    entry.refCount++;
+    return entry.classLoader;
+  }
+
+  /**
+   * Release a class loader acquired via {@link #acquire(List)}.
+   * @param classLoader Class loader
+   */
+  public synchronized void release(ClassLoader classLoader) {
+    Entry entry = entriesByClassLoader.get(classLoader);
+    if (entry == null) {
+      throw new IllegalArgumentException("Class loader was not acquired from this registry: " + classLoader);
+    }
+    if (entry.refCount == 0) {
+      throw new IllegalStateException("Class loader was already released: " + classLoader);
+    }
+    entry.refCount--;
+    if (entry.refCount == 0 && closed) {
+      remove(entry);
+      closeClassLoader(entry.classLoader);
+    }
+  }
+
+  /**
+   * Get an object shared by all users of the given class loader. It is created on first access, and dropped when
+   * the class loader is closed.
+   * @param classLoader Class loader acquired via {@link #acquire(List)} and not released yet
+   * @param type Type of the shared object, identifies the shared object
+   * @param factory Creates the shared object on first access
+   * @param <T> Type of the shared object
+   * @return Shared object
+   */
+  public synchronized <T> T getShared(ClassLoader classLoader, Class<T> type, Supplier<T> factory) {
+    Entry entry = entriesByClassLoader.get(classLoader);
+    if (entry == null || entry.refCount == 0) {
+      throw new IllegalArgumentException("Class loader is not acquired from this registry: " + classLoader);
+    }
+    return type.cast(entry.shared.computeIfAbsent(type, key -> factory.get()));
+  }
+
+  /**
+   * Closes all class loaders that are no longer referenced. The remaining class loaders are closed
+   * when they are released.
+   */
+  @Override
+  public synchronized void close() {
+    closed = true;
+    List<Entry> unreferencedEntries = new ArrayList<>();
+    for (Entry entry : entries.values()) {
+      if (entry.refCount == 0) {
+        unreferencedEntries.add(entry);
+      }
+    }
+    GeneratorException failure = null;
+    for (Entry entry : unreferencedEntries) {
+      remove(entry);
+      try {
+        closeClassLoader(entry.classLoader);
+      }
+      catch (GeneratorException ex) {
+        if (failure == null) {
+          failure = ex;
+        }
+        else {
+          failure.addSuppressed(ex);
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * @return Number of class loaders that are currently open
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  private void remove(Entry entry) {
+    entries.remove(entry.key);
+    entriesByClassLoader.remove(entry.classLoader);
+  }
+
+  private static void closeClassLoader(URLClassLoader classLoader) {
+    try {
+      classLoader.close();
+    }
+    catch (IOException ex) {
+      throw new GeneratorException("Unable to close class loader: " + classLoader, ex);
+    }
+  }
+
+  private static List<String> toKey(List<URL> classpathUrls) {
+    // do not use URL as key - URL.equals may resolve host names
+    List<String> key = new ArrayList<>(classpathUrls.size());
+    for (URL url : classpathUrls) {
+      key.add(url.toExternalForm());
+    }
+    return key;
+  }
+
+  private static final class Entry {
+
+    private final List<String> key;
+    private final URLClassLoader classLoader;
+    private final Map<Class<?>, Object> shared = new HashMap<>();
+    private int refCount;
+
+    Entry(List<String> key, URLClassLoader classLoader) {
+      this.key = key;
+      this.classLoader = classLoader;
+    }
+
+  }
+
+}
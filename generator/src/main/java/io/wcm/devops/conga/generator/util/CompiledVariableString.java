@@ -0,0 +1,346 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * A string with variable expressions compiled to a list of tokens. The string is parsed only once,
+ * compiled strings are cached.
+ * Token types: {@link Literal}, {@link Escaped}, {@link Variable}, {@link ProviderVariable} and {@link JexlExpression}.
+ */
+final class CompiledVariableString {
+
+  /*
+   * variable pattern examples:
+   * ${var1}
+   * \${var1}
+   * ${var1:defaultValue}
+   * ${provider::var1}
+   * ${provider::Var1:defaultValue}
+   */
+  private static final String NAME_PATTERN_STRING = "[^\\}\\{\\$\\:()'\"/\\#,;\\+\\*@!\\^\\s]";
+  private static final String NAME_PATTERN_STRING_NOT_EMPTY = NAME_PATTERN_STRING + "+";
+  private static final String NAME_PATTERN_STRING_OR_EMPTY = NAME_PATTERN_STRING + "*";
+  private static final String EXPRESSION_STRING = "[^\\}\\{]+";
+
+  private static final int EXPRESSION_POS_DOLLAR_SIGN = 1;
+  private static final int EXPRESSION_POS_EXPRESSION = 2;
+
+  private static final int VARIABLE_POS_VALUE_PROVIDER_NAME = 2;
+  private static final int VARIABLE_POS_VARIABLE = 3;
+  private static final int VARIABLE_POS_DEFAULT_VALUE = 5;
+
+  private static final String EXPRESSION_PATTERN_STRING = "(\\\\?\\$)"
+      + "\\{(" + EXPRESSION_STRING + ")\\}";
+  private static final Pattern EXPRESSION_PATTERN = Pattern.compile(EXPRESSION_PATTERN_STRING);
+
+  private static final Pattern VARIABLE_PATTERN = Pattern.compile("((" + NAME_PATTERN_STRING_NOT_EMPTY + ")\\:\\:)?"
+      + "(" + NAME_PATTERN_STRING_NOT_EMPTY + ")"
+      + "(\\:(" + NAME_PATTERN_STRING_OR_EMPTY + "))?");
+
+  private static final int CACHE_SIZE = 10000;
+
+  private static final LoadingCache<String, CompiledVariableString> CACHE = CacheBuilder.newBuilder()
+      .maximumSize(CACHE_SIZE)
+      .build(new CacheLoader<String, CompiledVariableString>() {
+        @Override
+        public CompiledVariableString load(String value) {
+          return new CompiledVariableString(value);
+        }
+      });
+
+  private static final CompiledVariableString EMPTY = new CompiledVariableString("", ImmutableList.of());
+
+  private final String value;
+  private final List<Token> tokens;
+  private final boolean singleExpression;
+  private final boolean hasExpressions;
+  private final boolean hasResolvableExpressions;
+
+  private CompiledVariableString(String value) {
+    this.value = value;
+
+    List<Token> parsedTokens = new ArrayList<>();
+    Matcher matcher = EXPRESSION_PATTERN.matcher(value);
+    int pos = 0;
+    while (matcher.find()) {
+      if (matcher.start() > pos) {
+        parsedTokens.add(new Literal(value.substring(pos, matcher.start())));
+      }
+      parsedTokens.add(parseExpression(matcher));
+      pos = matcher.end();
+    }
+    if (pos < value.length()) {
+      parsedTokens.add(new Literal(value.substring(pos)));
+    }
+
+    this.tokens = ImmutableList.copyOf(parsedTokens);
+    this.singleExpression = tokens.size() == 1 && !(tokens.get(0) instanceof Literal);
+    this.hasExpressions = tokens.stream().anyMatch(token -> !(token instanceof Literal));
+    this.hasResolvableExpressions = tokens.stream().anyMatch(token -> !(token instanceof Literal) && !(token instanceof Escaped));
+  }
+
+  private CompiledVariableString(String value, List<Token> tokens) {
+    this.value = value;
+    this.tokens = tokens;
+    this.singleExpression = false;
+    this.hasExpressions = false;
+    this.hasResolvableExpressions = false;
+  }
+
+  private static Token parseExpression(Matcher matcher) {
+    String source = matcher.group(0);
+    String expression = matcher.group(EXPRESSION_POS_EXPRESSION);
+    if (StringUtils.equals(matcher.group(EXPRESSION_POS_DOLLAR_SIGN), "\\$")) {
+      return new Escaped(source, expression);
+    }
+    Matcher variableMatcher = VARIABLE_PATTERN.matcher(expression);
+    if (variableMatcher.matches()) {
+      String valueProviderName = variableMatcher.group(VARIABLE_POS_VALUE_PROVIDER_NAME);
+      String variable = variableMatcher.group(VARIABLE_POS_VARIABLE);
+      String defaultValueString = variableMatcher.group(VARIABLE_POS_DEFAULT_VALUE);
+      if (StringUtils.isNotEmpty(valueProviderName)) {
+        return new ProviderVariable(source, expression, valueProviderName, variable, defaultValueString);
+      }
+      return new Variable(source, expression, variable, defaultValueString);
+    }
+    return new JexlExpression(source, expression);
+  }
+
+  /**
+   * Get compiled variable string from cache, or compile it.
+   * @param value String with variable expressions
+   * @return Compiled variable string
+   */
+  public static CompiledVariableString compile(String value) {
+    // fast path for strings without any expression
+    if (StringUtils.isEmpty(value)) {
+      return EMPTY;
+    }
+    if (!StringUtils.contains(value, "${")) {
+      return new CompiledVariableString(value, ImmutableList.of(new Literal(value)));
+    }
+    return CACHE.getUnchecked(value);
+  }
+
+  /**
+   * @return Original string
+   */
+  public String getValue() {
+    return this.value;
+  }
+
+  /**
+   * @return Tokens
+   */
+  public List<Token> getTokens() {
+    return this.tokens;
+  }
+
+  /**
+   * @return true if the string consists of exactly one (non-literal) expression
+   */
+  public boolean isSingleExpression() {
+    return this.singleExpression;
+  }
+
+  /**
+   * @return true if the string contains any expression (including escaped ones)
+   */
+  public boolean hasExpressions() {
+    return this.hasExpressions;
+  }
+
+  /**
+   * @return true if the string contains any expression that is not escaped
+   */
+  public boolean hasResolvableExpressions() {
+    return this.hasResolvableExpressions;
+  }
+
+  /**
+   * @return true if the string contains a reference to a variable from a value provider
+   */
+  public boolean hasValueProviderReference() {
+    return tokens.stream().anyMatch(token -> token instanceof ProviderVariable);
+  }
+
+  /**
+   * @return String with all escaped expressions de-escaped.
+   */
+  public String deescape() {
+    if (!hasExpressions) {
+      return value;
+    }
+    StringBuilder sb = new StringBuilder(value.length());
+    for (Token token : tokens) {
+      if (token instanceof Literal) {
+        sb.append(token.getSource());
+      }
+      else {
+        sb.append("${").append(((Expression)token).getExpression()).append('}');
+      }
+    }
+    return sb.toString();
+  }
+
+
+  /**
+   * Token of a compiled variable string.
+   */
+  abstract static class Token {
+
+    private final String source;
+
+    Token(String source) {
+      this.source = source;
+    }
+
+    /**
+     * @return Token source as in the original string
+     */
+    public String getSource() {
+      return this.source;
+    }
+
+  }
+
+  /**
+   * Literal text.
+   */
+  static final class Literal extends Token {
+
+    Literal(String source) {
+      super(source);
+    }
+
+  }
+
+  /**
+   * Any expression in <code>${...}</code>.
+   */
+  abstract static class Expression extends Token {
+
+    private final String expression;
+
+    Expression(String source, String expression) {
+      super(source);
+      this.expression = expression;
+    }
+
+    /**
+     * @return Expression string without the surrounding <code>${</code> and <code>}</code>
+     */
+    public String getExpression() {
+      return this.expression;
+    }
+
+  }
+
+  /**
+   * Escaped expression: <code>\${...}</code>
+   */
+  static final class Escaped extends Expression {
+
+    Escaped(String source, String expression) {
+      super(source, expression);
+    }
+
+  }
+
+  /**
+   * Variable reference: <code>${var}</code> or <code>${var:defaultValue}</code>
+   */
+  static class Variable extends Expression {
+
+    private final String variable;
+    private final String defaultValueString;
+
+    Variable(String source, String expression, String variable, String defaultValueString) {
+      super(source, expression);
+      this.variable = variable;
+      this.defaultValueString = defaultValueString;
+    }
+
+    /**
+     * @return Value provider name or null
+     */
+    public String getValueProviderName() {
+      return null;
+    }
+
+    /**
+     * @return Variable name
+     */
+    public String getVariable() {
+      return this.variable;
+    }
+
+    /**
+     * @return Default value or null
+     */
+    public String getDefaultValueString() {
+      return this.defaultValueString;
+    }
+
+  }
+
+  /**
+   * Variable reference to value provider: <code>${provider::var}</code> or <code>${provider::var:defaultValue}</code>
+   */
+  static final class ProviderVariable extends Variable {
+
+    private final String valueProviderName;
+
+    ProviderVariable(String source, String expression, String valueProviderName, String variable, String defaultValueString) {
+      super(source, expression, variable, defaultValueString);
+      this.valueProviderName = valueProviderName;
+    }
+
+    @Override
+    public String getValueProviderName() {
+      return this.valueProviderName;
+    }
+
+  }
+
+  /**
+   * JEXL expression: <code>${...}</code> with any content that is not a variable reference.
+   */
+  static final class JexlExpression extends Expression {
+
+    JexlExpression(String source, String expression) {
+      super(source, expression);
+    }
+
+  }
+
+}
@@ -27,11 +27,11 @@ import java.util.stream.Stream;
 import org.apache.commons.lang3.StringUtils;
 
 import com.google.common.collect.ImmutableList;
-import com.rits.cloning.Cloner;
 
 import io.wcm.devops.conga.generator.GeneratorException;
 import io.wcm.devops.conga.model.environment.Environment;
 import io.wcm.devops.conga.model.environment.Node;
+import io.wcm.devops.conga.model.shared.AbstractModel;
 
 /**
  * Expands configuration nodes in environment.
@@ -50,7 +50,7 @@ public final class EnvironmentExpander {
    * @return Environment that contains only nodes with single node names
    */
   public static Environment expandNodes(Environment environment, String environmentName) {
-    Environment clonedEnvironemnt = Cloner.standard().deepClone(environment);
+    Environment clonedEnvironemnt = AbstractModel.shallowCopy(environment);
 
     clonedEnvironemnt.setNodes(environment.getNodes().stream()
         .flatMap(node -> getSingleNodes(node, environmentName))
@@ -76,7 +76,7 @@ public final class EnvironmentExpander {
     }
     else if (hasNodes) {
       for (String nodeName : node.getNodes()) {
-        Node clonedNode = Cloner.standard().deepClone(node);
+        Node clonedNode = AbstractModel.shallowCopy(node);
         clonedNode.setNode(nodeName);
         clonedNode.setNodes(ImmutableList.of());
         nodes.add(clonedNode);
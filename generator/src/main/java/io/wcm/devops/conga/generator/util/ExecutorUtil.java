@@ -0,0 +1,83 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Helper methods for thread pools used by the generator.
+ */
+public final class ExecutorUtil {
+
+  private ExecutorUtil() {
+    // static methods only
+  }
+
+  /**
+   * Creates a thread pool with a fixed number of daemon threads. All threads use the context class loader of the
+   * calling thread - plugins and resources are looked up via the context class loader, which is e.g. not set
+   * for threads of a fork join pool.
+   * @param parallelism Number of threads
+   * @param nameFormat Name format for the threads, e.g. "conga-node-%d"
+   * @return Executor service - has to be shut down by the caller
+   */
+  public static ExecutorService newFixedThreadPool(int parallelism, String nameFormat) {
+    ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+    ThreadFactory threadFactory = new ThreadFactoryBuilder()
+        .setNameFormat(nameFormat)
+        .setDaemon(true)
+        .setThreadFactory(runnable -> {
+          Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+          thread.setContextClassLoader(contextClassLoader);
+          return thread;
+        })
+        .build();
+    return Executors.newFixedThreadPool(parallelism, threadFactory);
+  }
+
+  /**
+   * Creates a work-stealing thread pool (like {@link Executors#newWorkStealingPool(int)}) with the given parallelism.
+   * In contrast to the common fork join pool all threads use the context class loader of the calling thread.
+   * The threads are daemon threads.
+   * @param parallelism Targeted parallelism level
+   * @param nameFormat Name format for the threads, e.g. "conga-node-%d"
+   * @return Executor service - has to be shut down by the caller
+   */
+  public static ExecutorService newWorkStealingPool(int parallelism, String nameFormat) {
+    ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+    AtomicInteger threadCount = new AtomicInteger();
+    ForkJoinWorkerThreadFactory threadFactory = pool -> {
+      ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+      thread.setName(String.format(nameFormat, threadCount.getAndIncrement()));
+      thread.setContextClassLoader(contextClassLoader);
+      return thread;
+    };
+    return new ForkJoinPool(parallelism, threadFactory, null, true);
+  }
+
+}
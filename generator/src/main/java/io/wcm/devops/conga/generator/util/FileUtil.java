@@ -21,8 +21,18 @@ package io.wcm.devops.conga.generator.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
 
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import io.wcm.devops.conga.generator.spi.context.FileContext;
@@ -91,6 +101,109 @@ public final class FileUtil {
     return dir;
   }
 
+  /**
+   * Writes the given content to the file. The content is written to a temporary file in the same directory
+   * which replaces the file afterwards, so a file that is a hard link to another file is never modified in place.
+   * @param file Target file
+   * @param content File content
+   * @throws IOException I/O exception
+   */
+  public static void writeReplacing(File file, byte[] content) throws IOException {
+    replace(file, tempFile -> Files.write(tempFile, content, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE));
+  }
+
+  /**
+   * Writes content to the file using the given writer. The content is written to a temporary file in the same
+   * directory which replaces the file afterwards, so a file that is a hard link to another file is never modified in
+   * place.
+   * @param file Target file
+   * @param writer Writes the content to the given output stream
+   * @throws IOException I/O exception
+   */
+  public static void writeReplacing(File file, ContentWriter writer) throws IOException {
+    replace(file, tempFile -> {
+      try (OutputStream os = Files.newOutputStream(tempFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+        writer.write(os);
+      }
+    });
+  }
+
+  /**
+   * Copies the content of the given input stream to the file. The content is written to a temporary file in the same
+   * directory which replaces the file afterwards, so a file that is a hard link to another file is never modified in
+   * place.
+   * @param file Target file
+   * @param is Input stream
+   * @throws IOException I/O exception
+   */
+  public static void copyReplacing(File file, InputStream is) throws IOException {
+    replace(file, tempFile -> {
+      try (OutputStream os = Files.newOutputStream(tempFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+        IOUtils.copy(is, os);
+      }
+    });
+  }
+
+  /**
+   * Copies the source file to the file without streaming it through the JVM heap. The content is written to a
+   * temporary file in the same directory which replaces the file afterwards, so a file that is a hard link to
+   * another file (e.g. the source file itself) is never modified in place.
+   * @param file Target file
+   * @param sourceFile Source file
+   * @throws IOException I/O exception
+   */
+  public static void copyReplacing(File file, Path sourceFile) throws IOException {
+    replace(file, tempFile -> {
+      try (FileChannel source = FileChannel.open(sourceFile, StandardOpenOption.READ);
+          FileChannel target = FileChannel.open(tempFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+        long size = source.size();
+        long position = 0;
+        while (position < size) {
+          position += source.transferTo(position, size - position, target);
+        }
+      }
+    });
+  }
+
+  private static void replace(File file, TempFileWriter writer) throws IOException {
+    Path target = file.toPath().toAbsolutePath();
+    Path dir = target.getParent();
+    Files.createDirectories(dir);
+    // the temporary file is created by the writer with default file permissions
+    Path tempFile = dir.resolve("." + file.getName() + "." + UUID.randomUUID() + ".tmp");
+    try {
+      writer.write(tempFile);
+      try {
+        Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      }
+      catch (AtomicMoveNotSupportedException ex) {
+        Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+    finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  @FunctionalInterface
+  private interface TempFileWriter {
+    void write(Path tempFile) throws IOException;
+  }
+
+  /**
+   * Writes file content to an output stream.
+   */
+  @FunctionalInterface
+  public interface ContentWriter {
+
+    /**
+     * @param os Output stream
+     * @throws IOException I/O exception
+     */
+    void write(OutputStream os) throws IOException;
+
+  }
+
   /**
    * Checks file extension
    * @param fileExtension File extension of file to check
@@ -118,7 +231,8 @@ public final class FileUtil {
    * @return true if file extension matches
    */
   public static boolean matchesExtension(FileContext fileContext, String extension) {
-    return matchesExtension(fileContext.getFile(), extension);
+    // use canonical path to not force writing file content kept in memory
+    return matchesExtension(FilenameUtils.getExtension(fileContext.getCanonicalPath()), extension);
   }
 
   /**
@@ -19,14 +19,19 @@
  */
 package io.wcm.devops.conga.generator.util;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.apache.commons.jexl3.JexlBuilder;
 import org.apache.commons.jexl3.JexlContext;
 import org.apache.commons.jexl3.JexlEngine;
 import org.apache.commons.jexl3.JexlException;
 import org.apache.commons.jexl3.JexlExpression;
+import org.apache.commons.jexl3.JexlScript;
 import org.apache.commons.jexl3.MapContext;
+import org.apache.commons.lang3.StringUtils;
 
 import io.wcm.devops.conga.generator.GeneratorException;
 
@@ -53,4 +58,22 @@ final class JexlResolver {
     }
   }
 
+  /**
+   * Get all variables referenced by the given expression. Nested property access is returned as dotted variable name.
+   * @param expressionString Expression
+   * @return Variable names (empty if expression is invalid)
+   */
+  public Set<String> getVariables(String expressionString) {
+    try {
+      JexlScript script = jexl.createScript(expressionString);
+      return script.getVariables().stream()
+          .map(parts -> StringUtils.join(parts, "."))
+          .collect(Collectors.toSet());
+    }
+    catch (JexlException ex) {
+      // error is reported when the expression is evaluated
+      return Collections.emptySet();
+    }
+  }
+
 }
@@ -0,0 +1,249 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator.util;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Config map that resolves variable placeholders of its values on first access, and memoizes them.
+ * Only the values accessed e.g. by templates, conditions or file names are resolved - iterating over the map
+ * resolves all values. References to unknown variables are reported when the map is created.
+ * Instances are created via {@link VariableMapResolver#resolveLazy(Map)}.
+ * The map is read-only, and not thread-safe.
+ */
+public final class LazyVariableMap extends AbstractMap<String, Object> {
+
+  private final Resolution resolution;
+  private final Map<String, Object> additionalValues;
+  private final boolean deescapeVariables;
+
+  /**
+   * @param config Config map with values with variable placeholders
+   * @param variableMapResolver Variable map resolver
+   */
+  LazyVariableMap(Map<String, Object> config, VariableMapResolver variableMapResolver) {
+    this(new Resolution(config, variableMapResolver), ImmutableMap.of(), false);
+  }
+
+  private LazyVariableMap(Resolution resolution, Map<String, Object> additionalValues, boolean deescapeVariables) {
+    this.resolution = resolution;
+    this.additionalValues = additionalValues;
+    this.deescapeVariables = deescapeVariables;
+  }
+
+  /**
+   * Returns a view on this map with an additional (already resolved) value. The values resolved so far are shared.
+   * @param key Key
+   * @param value Value
+   * @return Map with additional value
+   */
+  public LazyVariableMap with(String key, Object value) {
+    Map<String, Object> values = new HashMap<>(additionalValues);
+    values.put(key, value);
+    return new LazyVariableMap(resolution, values, deescapeVariables);
+  }
+
+  /**
+   * @return View on this map with all escaped variables de-escaped on first access
+   */
+  LazyVariableMap deescaped() {
+    if (deescapeVariables) {
+      return this;
+    }
+    return new LazyVariableMap(resolution, additionalValues, true);
+  }
+
+  /**
+   * Get the config map before resolving variables, including the additional values. Getting it does not resolve
+   * any value. The map is a read-only view.
+   * @return Config map with values with variable placeholders
+   */
+  public Map<String, Object> getUnresolvedConfig() {
+    if (additionalValues.isEmpty()) {
+      return Collections.unmodifiableMap(resolution.config);
+    }
+    Map<String, Object> values = new HashMap<>(resolution.config);
+    values.putAll(additionalValues);
+    return Collections.unmodifiableMap(values);
+  }
+
+  /**
+   * Checks if any value of the config map before resolving variables references a variable from a value provider.
+   * The values of such variables depend on the value providers, not only on the config map.
+   * @return true if a value provider reference was found
+   */
+  public boolean hasValueProviderReference() {
+    if (resolution.hasValueProviderReference == null) {
+      resolution.hasValueProviderReference = hasValueProviderReference(resolution.config);
+    }
+    return resolution.hasValueProviderReference;
+  }
+
+  private static boolean hasValueProviderReference(Object value) {
+    if (value instanceof String) {
+      return VariableStringResolver.hasValueProviderReference((String)value);
+    }
+    if (value instanceof Map) {
+      return ((Map<?, ?>)value).values().stream().anyMatch(LazyVariableMap::hasValueProviderReference);
+    }
+    if (value instanceof List) {
+      return ((List<?>)value).stream().anyMatch(LazyVariableMap::hasValueProviderReference);
+    }
+    return false;
+  }
+
+  @Override
+  public int size() {
+    int size = resolution.resolvedConfig.size();
+    for (String key : additionalValues.keySet()) {
+      if (!resolution.containsKey(key)) {
+        size++;
+      }
+    }
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return additionalValues.containsKey(key) || resolution.containsKey(key);
+  }
+
+  /**
+   * The keys are the same before and after resolving, so getting the key set does not resolve any value.
+   */
+  @Override
+  public Set<String> keySet() {
+    Set<String> keys = new HashSet<>(resolution.resolvedConfig.keySet());
+    keys.addAll(additionalValues.keySet());
+    return Collections.unmodifiableSet(keys);
+  }
+
+  @Override
+  public Object get(Object key) {
+    if (additionalValues.containsKey(key)) {
+      return getAdditionalValue(additionalValues.get(key));
+    }
+    return resolution.get(key, deescapeVariables);
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    Map<String, Object> values = new HashMap<>(resolution.getAll(deescapeVariables));
+    additionalValues.forEach((key, value) -> values.put(key, getAdditionalValue(value)));
+    return Collections.unmodifiableMap(values).entrySet();
+  }
+
+  private Object getAdditionalValue(Object value) {
+    if (deescapeVariables) {
+      return resolution.variableMapResolver.deescapeValue(value);
+    }
+    return value;
+  }
+
+
+  /**
+   * Resolution state shared by all views on the same config map.
+   */
+  private static final class Resolution {
+
+    private final Map<String, Object> config;
+    private final VariableMapResolver variableMapResolver;
+    private VariableMapDependencyGraph dependencyGraph;
+    private Map<String, Object> resolvedConfig;
+    private final Set<Object> resolvedKeys = new HashSet<>();
+    private final Map<Object, Object> deescapedValues = new HashMap<>();
+    private Map<String, Object> deescapedConfig;
+    private Boolean hasValueProviderReference;
+
+    Resolution(Map<String, Object> config, VariableMapResolver variableMapResolver) {
+      this.config = config;
+      this.variableMapResolver = variableMapResolver;
+      this.dependencyGraph = variableMapResolver.buildDependencyGraph(config);
+      if (dependencyGraph == null) {
+        // map has to be resolved as a whole
+        resolvedConfig = variableMapResolver.resolve(config, false);
+      }
+      else {
+        // keys are the same before and after resolving
+        resolvedConfig = config;
+        if (!dependencyGraph.hasVariables()) {
+          dependencyGraph = null;
+        }
+        else {
+          // report unknown variables even if the values referencing them are never accessed
+          dependencyGraph.validateReferences();
+        }
+      }
+    }
+
+    boolean containsKey(Object key) {
+      return resolvedConfig.containsKey(key);
+    }
+
+    Object get(Object key, boolean deescapeVariables) {
+      if (dependencyGraph != null && key instanceof String && !resolvedKeys.contains(key)) {
+        resolvedConfig = variableMapResolver.resolve(dependencyGraph, (String)key);
+        resolvedKeys.add(key);
+        if (dependencyGraph.hasContainerValuesResolved()) {
+          // maps or lists inserted as variable values may contain further variables - resolve the whole map
+          resolveAll();
+        }
+      }
+      if (!deescapeVariables) {
+        return resolvedConfig.get(key);
+      }
+      if (deescapedConfig != null) {
+        return deescapedConfig.get(key);
+      }
+      if (!deescapedValues.containsKey(key)) {
+        deescapedValues.put(key, variableMapResolver.deescapeValue(resolvedConfig.get(key)));
+      }
+      return deescapedValues.get(key);
+    }
+
+    Map<String, Object> getAll(boolean deescapeVariables) {
+      resolveAll();
+      if (!deescapeVariables) {
+        return resolvedConfig;
+      }
+      if (deescapedConfig == null) {
+        deescapedConfig = variableMapResolver.deescape(resolvedConfig);
+      }
+      return deescapedConfig;
+    }
+
+    private void resolveAll() {
+      if (dependencyGraph != null) {
+        resolvedConfig = variableMapResolver.resolve(dependencyGraph);
+        dependencyGraph = null;
+      }
+    }
+
+  }
+
+}
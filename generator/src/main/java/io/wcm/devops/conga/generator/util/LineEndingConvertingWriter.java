@@ -0,0 +1,112 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator.util;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import io.wcm.devops.conga.model.shared.LineEndings;
+
+/**
+ * Writer that normalizes all line endings that may be Windows, MacOS or Unix-style and converts them to the
+ * given line ending style while streaming the content to the underlying writer.
+ * Produces the same result as {@link LineEndingConverter#normalizeToUnix(String)} followed by
+ * {@link LineEndingConverter#convertTo(String, LineEndings)}, without holding the whole content in memory.
+ */
+public final class LineEndingConvertingWriter extends FilterWriter {
+
+  private static final char CR = '\r';
+  private static final char LF = '\n';
+
+  private final String lineEnding;
+  private boolean pendingCarriageReturn;
+
+  /**
+   * @param out Writer to write the converted content to
+   * @param lineEndings Line ending style. If null unix-style line endings are used.
+   */
+  public LineEndingConvertingWriter(Writer out, LineEndings lineEndings) {
+    super(out);
+    this.lineEnding = (lineEndings != null ? lineEndings : LineEndings.unix).getLineEnding();
+  }
+
+  @Override
+  public void write(int c) throws IOException {
+    if (pendingCarriageReturn) {
+      pendingCarriageReturn = false;
+      out.write(lineEnding);
+      if (c == LF) {
+        return;
+      }
+    }
+    if (c == CR) {
+      pendingCarriageReturn = true;
+    }
+    else if (c == LF) {
+      out.write(lineEnding);
+    }
+    else {
+      out.write(c);
+    }
+  }
+
+  @Override
+  public void write(char[] cbuf, int off, int len) throws IOException {
+    int start = off;
+    int end = off + len;
+    for (int i = off; i < end; i++) {
+      char c = cbuf[i];
+      if (c == CR || c == LF || pendingCarriageReturn) {
+        // write unchanged characters at once
+        out.write(cbuf, start, i - start);
+        write(c);
+        start = i + 1;
+      }
+    }
+    out.write(cbuf, start, end - start);
+  }
+
+  @Override
+  public void write(String str, int off, int len) throws IOException {
+    int start = off;
+    int end = off + len;
+    for (int i = off; i < end; i++) {
+      char c = str.charAt(i);
+      if (c == CR || c == LF || pendingCarriageReturn) {
+        // write unchanged characters at once
+        out.write(str, start, i - start);
+        write(c);
+        start = i + 1;
+      }
+    }
+    out.write(str, start, end - start);
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (pendingCarriageReturn) {
+      pendingCarriageReturn = false;
+      out.write(lineEnding);
+    }
+    super.close();
+  }
+
+}
@@ -55,6 +55,14 @@ public final class PluginManagerImpl implements PluginManager {
         }
       });
 
+  private final LoadingCache<Class<Plugin>, List<Plugin>> pluginListCache =
+      CacheBuilder.newBuilder().build(new CacheLoader<Class<Plugin>, List<Plugin>>() {
+        @Override
+        public List<Plugin> load(Class<Plugin> pluginClass) throws Exception {
+          return ImmutableList.copyOf(pluginCache.get(pluginClass).values());
+        }
+      });
+
   /**
    * Get plugin instance.
    * @param name Plugin name
@@ -89,7 +97,7 @@ public final class PluginManagerImpl implements PluginManager {
   @SuppressWarnings("unchecked")
   public <T extends Plugin> List<T> getAll(Class<T> pluginClass) throws GeneratorException {
     try {
-      return (List<T>)ImmutableList.copyOf(pluginCache.get((Class<Plugin>)pluginClass).values());
+      return (List<T>)pluginListCache.get((Class<Plugin>)pluginClass);
     }
     catch (ExecutionException ex) {
       throw new GeneratorException("Untable to build plugin cache for " + pluginClass.getName(), ex);
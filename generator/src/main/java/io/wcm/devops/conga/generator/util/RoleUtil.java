@@ -25,11 +25,11 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 
 import com.google.common.collect.ImmutableList;
-import com.rits.cloning.Cloner;
 
 import io.wcm.devops.conga.generator.GeneratorException;
 import io.wcm.devops.conga.model.role.Role;
@@ -37,6 +37,7 @@ import io.wcm.devops.conga.model.role.RoleFile;
 import io.wcm.devops.conga.model.role.RoleFile.RoleFileVariantMetadata;
 import io.wcm.devops.conga.model.role.RoleInherit;
 import io.wcm.devops.conga.model.role.RoleVariant;
+import io.wcm.devops.conga.model.shared.AbstractModel;
 import io.wcm.devops.conga.model.util.MapMerger;
 
 /**
@@ -105,8 +106,12 @@ public final class RoleUtil {
       throw new GeneratorException("Role '" + roleName + "' "
           + "referenced in " + context + " does not exist.");
     }
-    // clone role object because it may be changed when resolving inheritance
-    return Cloner.standard().deepClone(role);
+    // copy role object and variants because their properties may be changed when resolving inheritance
+    Role clonedRole = AbstractModel.shallowCopy(role);
+    clonedRole.setVariants(role.getVariants().stream()
+        .map(AbstractModel::shallowCopy)
+        .collect(Collectors.toList()));
+    return clonedRole;
   }
 
   private static void validateRole(String roleName, Role role, String superRoleName, Role superRole) {
@@ -151,7 +156,7 @@ public final class RoleUtil {
       if (!found) {
         // if super role does not have the variant from the sub role, add it to super role as well
         List<RoleVariant> mergedVariants = new ArrayList<>(superRole.getVariants());
-        mergedVariants.add(Cloner.standard().deepClone(variant));
+        mergedVariants.add(AbstractModel.shallowCopy(variant));
         superRole.setVariants(mergedVariants);
       }
     }
@@ -0,0 +1,112 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator.util;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import io.wcm.devops.conga.generator.ContextProperties;
+import io.wcm.devops.conga.model.environment.Tenant;
+import io.wcm.devops.conga.model.util.MapMerger;
+
+/**
+ * Memoizes the tenant configurations of a node role, and their resolved variants.
+ * The tenant configuration depends only on the merged configuration of the node role and the tenant - so it is
+ * built and resolved only once and shared by all role files multiplied by tenant and the model export.
+ * The returned maps are shared and must not be modified.
+ * Instances are not thread-safe, they are used only while generating a single node role.
+ */
+public final class TenantContextCache {
+
+  private final Map<String, Object> config;
+  private final VariableStringResolver variableStringResolver;
+  private final VariableMapResolver variableMapResolver;
+
+  private final Map<Tenant, Map<String, Object>> tenantConfigs = new IdentityHashMap<>();
+  private final Map<Map<String, Object>, LazyVariableMap> resolvedConfigs = new IdentityHashMap<>();
+  private final Set<Map<String, Object>> cacheableConfigs = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  /**
+   * @param config Merged configuration of the node role (unresolved)
+   * @param variableStringResolver Variable string resolver
+   * @param variableMapResolver Variable map resolver
+   */
+  public TenantContextCache(Map<String, Object> config, VariableStringResolver variableStringResolver,
+      VariableMapResolver variableMapResolver) {
+    this.config = config;
+    this.variableStringResolver = variableStringResolver;
+    this.variableMapResolver = variableMapResolver;
+    this.cacheableConfigs.add(config);
+  }
+
+  /**
+   * @return Merged configuration of the node role (unresolved)
+   */
+  public Map<String, Object> getConfig() {
+    return config;
+  }
+
+  /**
+   * Get tenant configuration merged with the node role configuration, including the tenant-specific
+   * context variables.
+   * @param tenant Tenant
+   * @return Tenant configuration (unresolved)
+   */
+  public Map<String, Object> getConfig(Tenant tenant) {
+    Map<String, Object> tenantConfig = tenantConfigs.get(tenant);
+    if (tenantConfig == null) {
+      Map<String, Object> mergedConfig = MapMerger.merge(tenant.getConfig(), config);
+
+      // set tenant-specific context variables
+      mergedConfig.put(ContextProperties.TENANT, variableStringResolver.resolve(tenant.getTenant(), mergedConfig));
+      mergedConfig.put(ContextProperties.TENANT_ROLES, tenant.getRoles());
+
+      tenantConfig = Collections.unmodifiableMap(mergedConfig);
+      tenantConfigs.put(tenant, tenantConfig);
+      cacheableConfigs.add(tenantConfig);
+    }
+    return tenantConfig;
+  }
+
+  /**
+   * Get tenant configuration with all variables resolved.
+   * @param tenant Tenant
+   * @return Resolved tenant configuration - values are resolved on first access
+   */
+  public LazyVariableMap getResolvedConfig(Tenant tenant) {
+    return resolve(getConfig(tenant));
+  }
+
+  /**
+   * Resolves variables in the given configuration without de-escaping them. The node role configuration and the
+   * tenant configurations returned by this cache are resolved only once, all other configurations on each call.
+   * @param configToResolve Configuration
+   * @return Resolved configuration - values are resolved on first access
+   */
+  public LazyVariableMap resolve(Map<String, Object> configToResolve) {
+    if (!cacheableConfigs.contains(configToResolve)) {
+      return variableMapResolver.resolveLazy(configToResolve);
+    }
+    return resolvedConfigs.computeIfAbsent(configToResolve, variableMapResolver::resolveLazy);
+  }
+
+}
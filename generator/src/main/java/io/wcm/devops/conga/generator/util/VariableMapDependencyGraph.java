@@ -0,0 +1,470 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator.util;
+
+import static io.wcm.devops.conga.generator.util.VariableMapResolver.ITEM_INDEX_VARIABLE;
+import static io.wcm.devops.conga.generator.util.VariableMapResolver.ITEM_VARIABLE;
+import static io.wcm.devops.conga.generator.util.VariableMapResolver.LIST_VARIABLE_ITERATE;
+import static io.wcm.devops.conga.model.util.UnmodifiableUtil.unmodifiable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+
+import io.wcm.devops.conga.model.util.MapExpander;
+import io.wcm.devops.conga.model.util.ResolvedModelList;
+
+/**
+ * Resolves all variables in a config map in dependency order: For each value with variable expressions the
+ * referenced values within the same map are collected, and each value is resolved exactly once after the values
+ * it depends on. Only the maps and lists containing values with variable expressions are copied.
+ * <p>
+ * The copied maps and lists receive the resolved values. Each of them is wrapped in an unmodifiable view only once
+ * all values below it are resolved - it is never modified after it was wrapped and handed out.
+ * </p>
+ */
+final class VariableMapDependencyGraph {
+
+  private final VariableStringResolver variableStringResolver;
+  private final MapNode root;
+  private final List<Slot> slots = new ArrayList<>();
+  private boolean containerValuesResolved;
+
+  /**
+   * @param config Config map
+   * @param variableStringResolver Variable string resolver
+   */
+  VariableMapDependencyGraph(Map<String, Object> config, VariableStringResolver variableStringResolver) {
+    this.variableStringResolver = variableStringResolver;
+    this.root = buildMap(config, null, null);
+  }
+
+  /**
+   * @return true if the config map contains any values with variable expressions
+   */
+  public boolean hasVariables() {
+    return !slots.isEmpty();
+  }
+
+  /**
+   * @return true if a value consisting of a single variable expression was resolved to a map or list.
+   *         In this case the map or list may contain further variable expressions from outside this config map.
+   */
+  public boolean hasContainerValuesResolved() {
+    return containerValuesResolved;
+  }
+
+  /**
+   * Validates that all variables referenced without a default value exist in the config map, without resolving any
+   * value. Values inserted from maps or lists from outside the config map are not validated.
+   * @throws IllegalArgumentException if a referenced variable does not exist
+   */
+  public void validateReferences() {
+    for (Slot slot : slots) {
+      Set<String> variables = new LinkedHashSet<>();
+      collectRequiredVariables(slot.value, variables);
+      for (String variable : variables) {
+        if (!isItemVariable(variable) && !exists(root, variable)) {
+          throw new IllegalArgumentException("Unable to resolve variable: ${" + variable + "} (referenced by " + slot.name + ")");
+        }
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void collectRequiredVariables(Object value, Set<String> variables) {
+    if (value instanceof Map) {
+      ((Map<String, Object>)value).values().forEach(item -> collectRequiredVariables(item, variables));
+    }
+    else if (value instanceof List && !(value instanceof ResolvedModelList)) {
+      ((List<Object>)value).forEach(item -> collectRequiredVariables(item, variables));
+    }
+    else if (value instanceof String) {
+      variables.addAll(variableStringResolver.getRequiredVariables((String)value));
+    }
+  }
+
+  /**
+   * Checks if a variable exists - with same lookup rules as {@link io.wcm.devops.conga.model.util.MapExpander#getDeep}.
+   */
+  @SuppressWarnings("unchecked")
+  private static boolean exists(MapNode node, String key) {
+    if (node.map.get(key) != null) {
+      return true;
+    }
+    if (StringUtils.contains(key, ".")) {
+      String keyPart = StringUtils.substringBefore(key, ".");
+      String keySuffix = StringUtils.substringAfter(key, ".");
+      Node child = node.children.get(keyPart);
+      if (child instanceof MapNode) {
+        return exists((MapNode)child, keySuffix);
+      }
+      if (child instanceof Slot) {
+        // value may resolve to a map
+        return true;
+      }
+      Object value = node.map.get(keyPart);
+      if (value instanceof Map) {
+        return MapExpander.getDeep((Map<String, Object>)value, keySuffix) != null;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Resolve all values in dependency order.
+   * @param iterateResolver Resolves a map with {@link VariableMapResolver#LIST_VARIABLE_ITERATE} property
+   *          to a list using the given variables.
+   * @return Resolved config map
+   * @throws IllegalArgumentException if a cyclic dependency is detected
+   */
+  public Map<String, Object> resolve(BiFunction<Map<String, Object>, Map<String, Object>, Object> iterateResolver) {
+    List<Slot> path = new ArrayList<>();
+    for (Slot slot : slots) {
+      resolve(slot, path, iterateResolver);
+    }
+    root.children.values().forEach(Node::seal);
+    return root.map;
+  }
+
+  /**
+   * Resolve only the values below the given top-level key, and all values they depend on.
+   * @param key Top-level key
+   * @param iterateResolver Resolves a map with {@link VariableMapResolver#LIST_VARIABLE_ITERATE} property
+   *          to a list using the given variables.
+   * @return Config map, with the values below the given key resolved
+   * @throws IllegalArgumentException if a cyclic dependency is detected
+   */
+  public Map<String, Object> resolve(String key, BiFunction<Map<String, Object>, Map<String, Object>, Object> iterateResolver) {
+    Node node = root.children.get(key);
+    if (node != null) {
+      List<Slot> keySlots = new ArrayList<>();
+      node.collectSlots(keySlots);
+      List<Slot> path = new ArrayList<>();
+      for (Slot slot : keySlots) {
+        resolve(slot, path, iterateResolver);
+      }
+      node.seal();
+    }
+    return root.map;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void resolve(Slot slot, List<Slot> path, BiFunction<Map<String, Object>, Map<String, Object>, Object> iterateResolver) {
+    if (slot.state == SlotState.RESOLVED) {
+      return;
+    }
+    if (slot.state == SlotState.VISITING) {
+      List<String> chain = path.subList(path.indexOf(slot), path.size()).stream()
+          .map(item -> item.name)
+          .collect(Collectors.toList());
+      chain.add(slot.name);
+      throw new IllegalArgumentException("Cyclic dependencies in config map detected: " + StringUtils.join(chain, " -> "));
+    }
+
+    // resolve all values this value depends on first
+    slot.state = SlotState.VISITING;
+    path.add(slot);
+    for (Node dependency : getDependencies(slot)) {
+      List<Slot> dependencySlots = new ArrayList<>();
+      dependency.collectSlots(dependencySlots);
+      for (Slot dependencySlot : dependencySlots) {
+        resolve(dependencySlot, path, iterateResolver);
+      }
+      // referenced maps and lists may be inserted into the resolved value
+      dependency.seal();
+    }
+    path.remove(path.size() - 1);
+
+    Object resolvedValue;
+    if (slot.value instanceof String) {
+      resolvedValue = variableStringResolver.resolve((String)slot.value, root.map, false);
+      if (resolvedValue instanceof Map || (resolvedValue instanceof List && !(resolvedValue instanceof ResolvedModelList))) {
+        containerValuesResolved = true;
+      }
+    }
+    else {
+      resolvedValue = iterateResolver.apply((Map<String, Object>)slot.value, root.map);
+    }
+    slot.setter.accept(unmodifiable(resolvedValue));
+    slot.state = SlotState.RESOLVED;
+  }
+
+  private Set<Node> getDependencies(Slot slot) {
+    Set<Node> dependencies = new LinkedHashSet<>();
+    for (String reference : slot.references) {
+      Node node = findNode(root, reference);
+      if (node != null) {
+        dependencies.add(node);
+      }
+    }
+    return dependencies;
+  }
+
+  /**
+   * Find node referenced by variable name - with same lookup rules as {@link io.wcm.devops.conga.model.util.MapExpander#getDeep}.
+   */
+  private static Node findNode(MapNode node, String key) {
+    if (node.map.containsKey(key)) {
+      return node.children.get(key);
+    }
+    if (StringUtils.contains(key, ".")) {
+      Node child = node.children.get(StringUtils.substringBefore(key, "."));
+      if (child instanceof MapNode) {
+        return findNode((MapNode)child, StringUtils.substringAfter(key, "."));
+      }
+      if (child instanceof Slot) {
+        // value may resolve to a map
+        return child;
+      }
+    }
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Node build(Object value, String name, Consumer<Object> setter) {
+    if (value instanceof Map) {
+      Map<String, Object> map = (Map<String, Object>)value;
+      if (map.containsKey(LIST_VARIABLE_ITERATE)) {
+        Set<String> references = new LinkedHashSet<>();
+        collectIterateReferences(map, references);
+        return addSlot(name, value, setter, references);
+      }
+      return buildMap(map, name, setter);
+    }
+    else if (value instanceof List && !(value instanceof ResolvedModelList)) {
+      return buildList((List<Object>)value, name, setter);
+    }
+    else if (value instanceof String) {
+      String stringValue = (String)value;
+      if (CompiledVariableString.compile(stringValue).hasResolvableExpressions()) {
+        return addSlot(name, value, setter, variableStringResolver.getReferencedVariables(stringValue));
+      }
+    }
+    return null;
+  }
+
+  private MapNode buildMap(Map<String, Object> map, String name, Consumer<Object> setter) {
+    MapNode node = new MapNode(new HashMap<>(map), setter);
+    for (Map.Entry<String, Object> entry : map.entrySet()) {
+      String key = entry.getKey();
+      String childName = name != null ? name + "." + key : key;
+      Node child = build(entry.getValue(), childName, resolvedValue -> node.map.put(key, resolvedValue));
+      if (child != null) {
+        node.children.put(key, child);
+        child.getCopy().ifPresent(copy -> node.map.put(key, copy));
+      }
+    }
+    // keep map without variables as is
+    if (node.children.isEmpty() && name != null) {
+      return null;
+    }
+    return node;
+  }
+
+  private ListNode buildList(List<Object> list, String name, Consumer<Object> setter) {
+    ListNode node = new ListNode(new ArrayList<>(list), setter);
+    boolean hasChildren = false;
+    for (int i = 0; i < list.size(); i++) {
+      int index = i;
+      Node child = build(list.get(i), name + "[" + i + "]", resolvedValue -> node.list.set(index, resolvedValue));
+      node.children.add(child);
+      if (child != null) {
+        hasChildren = true;
+        child.getCopy().ifPresent(copy -> node.list.set(index, copy));
+      }
+    }
+    // keep list without variables as is
+    if (!hasChildren) {
+      return null;
+    }
+    return node;
+  }
+
+  private Slot addSlot(String name, Object value, Consumer<Object> setter, Collection<String> references) {
+    Slot slot = new Slot(name, value, setter, references);
+    slots.add(slot);
+    return slot;
+  }
+
+  /**
+   * Collect references from all values inside an iterate map, except the item variables.
+   */
+  @SuppressWarnings("unchecked")
+  private void collectIterateReferences(Object value, Set<String> references) {
+    if (value instanceof Map) {
+      ((Map<String, Object>)value).values().forEach(item -> collectIterateReferences(item, references));
+    }
+    else if (value instanceof List) {
+      ((List<Object>)value).forEach(item -> collectIterateReferences(item, references));
+    }
+    else if (value instanceof String) {
+      variableStringResolver.getReferencedVariables((String)value).stream()
+          .filter(reference -> !isItemVariable(reference))
+          .forEach(references::add);
+    }
+  }
+
+  private static boolean isItemVariable(String reference) {
+    return StringUtils.equals(reference, ITEM_VARIABLE) || StringUtils.startsWith(reference, ITEM_VARIABLE + ".")
+        || StringUtils.equals(reference, ITEM_INDEX_VARIABLE);
+  }
+
+
+  private enum SlotState {
+    NEW,
+    VISITING,
+    RESOLVED
+  }
+
+  /**
+   * Node in the config tree that contains values with variable expressions.
+   */
+  private interface Node {
+
+    /**
+     * Collect all values with variable expressions in this node and below.
+     * @param result Result set
+     */
+    void collectSlots(Collection<Slot> result);
+
+    /**
+     * @return Copy of map or list the node represents, which receives the resolved values.
+     */
+    default Optional<Object> getCopy() {
+      return Optional.empty();
+    }
+
+    /**
+     * Replaces the copy of the map or list the node represents in its parent by an unmodifiable view.
+     * Must only be called when all values with variable expressions in this node and below are resolved.
+     */
+    default void seal() {
+      // nothing to seal
+    }
+
+  }
+
+  private static final class MapNode implements Node {
+
+    private final Map<String, Object> map;
+    private final Consumer<Object> setter;
+    private final Map<String, Node> children = new HashMap<>();
+    private boolean sealed;
+
+    MapNode(Map<String, Object> map, Consumer<Object> setter) {
+      this.map = map;
+      this.setter = setter;
+    }
+
+    @Override
+    public void collectSlots(Collection<Slot> result) {
+      children.values().forEach(child -> child.collectSlots(result));
+    }
+
+    @Override
+    public Optional<Object> getCopy() {
+      return Optional.of(map);
+    }
+
+    @Override
+    public void seal() {
+      if (!sealed) {
+        children.values().forEach(Node::seal);
+        sealed = true;
+        setter.accept(unmodifiable(map));
+      }
+    }
+
+  }
+
+  private static final class ListNode implements Node {
+
+    private final List<Object> list;
+    private final Consumer<Object> setter;
+    private final List<Node> children = new ArrayList<>();
+    private boolean sealed;
+
+    ListNode(List<Object> list, Consumer<Object> setter) {
+      this.list = list;
+      this.setter = setter;
+    }
+
+    @Override
+    public void collectSlots(Collection<Slot> result) {
+      children.stream()
+          .filter(child -> child != null)
+          .forEach(child -> child.collectSlots(result));
+    }
+
+    @Override
+    public Optional<Object> getCopy() {
+      return Optional.of(list);
+    }
+
+    @Override
+    public void seal() {
+      if (!sealed) {
+        children.stream()
+            .filter(child -> child != null)
+            .forEach(Node::seal);
+        sealed = true;
+        setter.accept(unmodifiable(list));
+      }
+    }
+
+  }
+
+  /**
+   * A single value with variable expressions, or a map with {@link VariableMapResolver#LIST_VARIABLE_ITERATE} property.
+   */
+  private static final class Slot implements Node {
+
+    private final String name;
+    private final Object value;
+    private final Consumer<Object> setter;
+    private final Collection<String> references;
+    private SlotState state = SlotState.NEW;
+
+    Slot(String name, Object value, Consumer<Object> setter, Collection<String> references) {
+      this.name = name;
+      this.value = value;
+      this.setter = setter;
+      this.references = references;
+    }
+
+    @Override
+    public void collectSlots(Collection<Slot> result) {
+      result.add(this);
+    }
+
+  }
+
+}
@@ -19,19 +19,17 @@
  */
 package io.wcm.devops.conga.generator.util;
 
-import static io.wcm.devops.conga.generator.util.VariableStringResolver.SINGLE_EXPRESSION_PATTERN;
+import static io.wcm.devops.conga.model.util.UnmodifiableUtil.unmodifiable;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
 
 import com.google.common.collect.ImmutableList;
-import com.rits.cloning.Cloner;
 
 import io.wcm.devops.conga.generator.spi.context.ValueProviderGlobalContext;
+import io.wcm.devops.conga.model.util.ResolvedModelList;
 
 /**
  * Resolve variables in a map referencing other entries from the same map.
@@ -87,19 +85,98 @@ public final class VariableMapResolver {
    * @throws IllegalArgumentException when a variable name could not be resolved.
    */
   public Map<String, Object> resolve(Map<String, Object> config, boolean deescapeVariables) {
-    return resolve(config, deescapeVariables, 0);
+    Map<String, Object> resolvedConfig = config;
+
+    if (config.containsKey(LIST_VARIABLE_ITERATE)) {
+      resolvedConfig = resolveIterative(config, 0);
+    }
+    else {
+      // resolve each value exactly once in the order of their dependencies
+      VariableMapDependencyGraph dependencyGraph = new VariableMapDependencyGraph(config, variableStringResolver);
+      if (dependencyGraph.hasVariables()) {
+        resolvedConfig = resolve(dependencyGraph);
+      }
+    }
+
+    if (deescapeVariables) {
+      return deescapeMap(resolvedConfig);
+    }
+    else {
+      return resolvedConfig;
+    }
+  }
+
+  /**
+   * Replace variable placeholders in values of a map with syntax ${key} with values from the map itself.
+   * In contrast to {@link #resolve(Map, boolean)} each value is resolved only when it is accessed the first time,
+   * together with the values it depends on. Escaped variables are not de-escaped.
+   * @param config Config map with values with variable placeholders
+   * @return Map that resolves variable placeholders on first access
+   * @throws IllegalArgumentException when a referenced variable does not exist, or a variable name could not be
+   *           resolved on access.
+   */
+  public LazyVariableMap resolveLazy(Map<String, Object> config) {
+    return new LazyVariableMap(config, this);
   }
 
   /**
    * De-escapes all escaped variables in all string values in the given map.
+   * For maps returned by {@link #resolveLazy(Map)} the values are de-escaped on first access.
    * @param config Config map with values that my contain escaped variable references (starting with \$)
    * @return Map with de-escaped variable references.
    */
   public Map<String, Object> deescape(Map<String, Object> config) {
+    if (config instanceof LazyVariableMap) {
+      return ((LazyVariableMap)config).deescaped();
+    }
     return deescapeMap(config);
   }
 
-  private Map<String, Object> resolve(Map<String, Object> config, boolean deescapeVariables, int iterationCount) {
+  /**
+   * @param config Config map
+   * @return Dependency graph of values with variable expressions, or null if the map has to be resolved as a whole
+   */
+  VariableMapDependencyGraph buildDependencyGraph(Map<String, Object> config) {
+    if (config.containsKey(LIST_VARIABLE_ITERATE)) {
+      return null;
+    }
+    return new VariableMapDependencyGraph(config, variableStringResolver);
+  }
+
+  /**
+   * Resolve the values below the given top-level key of the dependency graph.
+   * @param dependencyGraph Dependency graph
+   * @param key Top-level key
+   * @return Config map with values of the given key resolved
+   */
+  Map<String, Object> resolve(VariableMapDependencyGraph dependencyGraph, String key) {
+    return dependencyGraph.resolve(key, this::replaceIterate);
+  }
+
+  /**
+   * Resolve all remaining values of the dependency graph.
+   * @param dependencyGraph Dependency graph
+   * @return Resolved config map
+   */
+  Map<String, Object> resolve(VariableMapDependencyGraph dependencyGraph) {
+    Map<String, Object> resolvedConfig = dependencyGraph.resolve(this::replaceIterate);
+    if (dependencyGraph.hasContainerValuesResolved()) {
+      // maps or lists inserted as variable values may contain further variables to be resolved
+      resolvedConfig = resolveIterative(resolvedConfig, 0);
+    }
+    return resolvedConfig;
+  }
+
+  /**
+   * De-escapes all escaped variables in the given value.
+   * @param value Value
+   * @return De-escaped value
+   */
+  Object deescapeValue(Object value) {
+    return deescapeAny(value);
+  }
+
+  private Map<String, Object> resolveIterative(Map<String, Object> config, int iterationCount) {
     if (iterationCount >= REPLACEMENT_MAX_ITERATIONS) {
       throw new IllegalArgumentException("Cyclic dependencies in config map detected: " + config);
     }
@@ -109,15 +186,10 @@ public final class VariableMapResolver {
 
     if (replacedAny) {
       // try again until all nested references are resolved
-      return resolve(mapCopy, deescapeVariables, iterationCount + 1);
+      return resolveIterative(mapCopy, iterationCount + 1);
     }
     else {
-      if (deescapeVariables) {
-        return deescapeMap(config);
-      }
-      else {
-        return config;
-      }
+      return config;
     }
   }
 
@@ -126,7 +198,7 @@ public final class VariableMapResolver {
     if (value instanceof String) {
       return replaceObject((String)value, variables);
     }
-    else if (value instanceof List) {
+    else if (value instanceof List && !(value instanceof ResolvedModelList)) {
       return replaceList((List<Object>)value, variables);
     }
     else if (value instanceof Map) {
@@ -160,7 +232,7 @@ public final class VariableMapResolver {
       Object item = listCopy.get(i);
       Object replacedValue = replaceAny(item, variables);
       if (item != replacedValue) {
-        listCopy.set(i, replacedValue);
+        listCopy.set(i, unmodifiable(replacedValue));
         replacedAny = true;
       }
     }
@@ -178,7 +250,7 @@ public final class VariableMapResolver {
     for (Map.Entry<String, Object> entry : mapCopy.entrySet()) {
       Object replacedValue = replaceAny(entry.getValue(), variables);
       if (entry.getValue() != replacedValue) {
-        entry.setValue(replacedValue);
+        entry.setValue(unmodifiable(replacedValue));
         replacedAny = true;
       }
     }
@@ -195,11 +267,11 @@ public final class VariableMapResolver {
   private List<Object> replaceIterate(Map<String, Object> map, Map<String, Object> variables) {
     Object listObject = map.get(LIST_VARIABLE_ITERATE);
     if (listObject instanceof String) {
-      Matcher matcher = SINGLE_EXPRESSION_PATTERN.matcher((String)listObject);
-      if (matcher.matches()) {
-        listObject = variableStringResolver.resolve((String)listObject, variables);
+      String listExpression = (String)listObject;
+      if (CompiledVariableString.compile(listExpression).isSingleExpression()) {
+        listObject = variableStringResolver.resolve(listExpression, variables);
         if (listObject == null) {
-          throw new IllegalArgumentException("Unable to resolve variable: " + matcher.group(0));
+          throw new IllegalArgumentException("Unable to resolve variable: " + listExpression);
         }
       }
     }
@@ -207,7 +279,7 @@ public final class VariableMapResolver {
       // allow to iterate over single values as well
       listObject = ImmutableList.of(listObject);
     }
-    Map<String, Object> variablesClone = new LinkedHashMap<>(Cloner.standard().deepClone(variables));
+    Map<String, Object> variablesClone = new HashMap<>(variables);
     List<Object> result = new ArrayList<>();
     int count = 0;
     for (Object item : (List<Object>)listObject) {
@@ -223,7 +295,7 @@ public final class VariableMapResolver {
     if (value instanceof String) {
       return deescapeString((String)value);
     }
-    else if (value instanceof List) {
+    else if (value instanceof List && !(value instanceof ResolvedModelList)) {
       return deescapeList((List<Object>)value);
     }
     else if (value instanceof Map) {
@@ -244,7 +316,7 @@ public final class VariableMapResolver {
       Object item = listCopy.get(i);
       Object deescapedValue = deescapeAny(item);
       if (item != deescapedValue) {
-        listCopy.set(i, deescapedValue);
+        listCopy.set(i, unmodifiable(deescapedValue));
       }
     }
     return listCopy;
@@ -255,7 +327,7 @@ public final class VariableMapResolver {
     for (Map.Entry<String, Object> entry : mapCopy.entrySet()) {
       Object deescapedValue = deescapeAny(entry.getValue());
       if (entry.getValue() != deescapedValue) {
-        entry.setValue(deescapedValue);
+        entry.setValue(unmodifiable(deescapedValue));
       }
     }
     return mapCopy;
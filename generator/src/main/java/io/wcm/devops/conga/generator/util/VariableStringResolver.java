@@ -19,49 +19,25 @@
  */
 package io.wcm.devops.conga.generator.util;
 
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import org.apache.commons.lang3.StringUtils;
+import java.util.Set;
 
 import io.wcm.devops.conga.generator.spi.context.ValueProviderGlobalContext;
+import io.wcm.devops.conga.generator.util.CompiledVariableString.Escaped;
+import io.wcm.devops.conga.generator.util.CompiledVariableString.JexlExpression;
+import io.wcm.devops.conga.generator.util.CompiledVariableString.Literal;
+import io.wcm.devops.conga.generator.util.CompiledVariableString.Token;
+import io.wcm.devops.conga.generator.util.CompiledVariableString.Variable;
 
 /**
  * Resolve variables in a string referencing entries from a map.
  */
 public final class VariableStringResolver {
 
-  /*
-   * variable pattern examples:
-   * ${var1}
-   * \${var1}
-   * ${var1:defaultValue}
-   * ${provider::var1}
-   * ${provider::Var1:defaultValue}
-   */
-  private static final String NAME_PATTERN_STRING = "[^\\}\\{\\$\\:()'\"/\\#,;\\+\\*@!\\^\\s]";
-  private static final String NAME_PATTERN_STRING_NOT_EMPTY = NAME_PATTERN_STRING + "+";
-  private static final String NAME_PATTERN_STRING_OR_EMPTY = NAME_PATTERN_STRING + "*";
-  private static final String EXPRESSION_STRING = "[^\\}\\{]+";
-
-  private static final int EXPRESSION_POS_DOLLAR_SIGN = 1;
-  private static final int EXPRESSION_POS_EXPRESSION = 2;
-
-  private static final int VARIABLE_POS_VALUE_PROVIDER_NAME = 2;
-  private static final int VARIABLE_POS_VARIABLE = 3;
-  private static final int VARIABLE_POS_DEFAULT_VALUE = 5;
-
-  private static final String EXPRESSION_PATTERN = "(\\\\?\\$)"
-      + "\\{(" + EXPRESSION_STRING + ")\\}";
-  static final Pattern SINGLE_EXPRESSION_PATTERN = Pattern.compile("^" + EXPRESSION_PATTERN + "$");
-  private static final Pattern MULTI_EXPRESSION_PATTERN = Pattern.compile(EXPRESSION_PATTERN);
   private static final int REPLACEMENT_MAX_ITERATIONS = 20;
 
-  private static final Pattern VARIABLE_PATTERN = Pattern.compile("((" + NAME_PATTERN_STRING_NOT_EMPTY + ")\\:\\:)?"
-      + "(" + NAME_PATTERN_STRING_NOT_EMPTY + ")"
-      + "(\\:(" + NAME_PATTERN_STRING_OR_EMPTY + "))?");
-
   private final VariableResolver variableResolver;
   private final JexlResolver jexlResolver;
 
@@ -143,8 +119,7 @@ public final class VariableStringResolver {
    * @return String with de-escaped variable references.
    */
   public String deescape(String value) {
-    return MULTI_EXPRESSION_PATTERN.matcher(value).replaceAll("\\$\\{"
-        + "$" + EXPRESSION_POS_EXPRESSION + "\\}");
+    return CompiledVariableString.compile(value).deescape();
   }
 
   private Object resolve(String value, Map<String, Object> variables, int iterationCount) {
@@ -152,117 +127,67 @@ public final class VariableStringResolver {
       throw new IllegalArgumentException("Cyclic dependencies in variable string detected: " + value);
     }
 
+    CompiledVariableString compiled = CompiledVariableString.compile(value);
+    if (!compiled.hasExpressions()) {
+      return value;
+    }
+
     // check if variable string contains only single variable - in this case resolve and return value without necessarily converting it to a string
-    Matcher matcherSingle = SINGLE_EXPRESSION_PATTERN.matcher(value);
-    if (matcherSingle.matches()) {
-      return resolveSingle(matcherSingle, variables, iterationCount);
+    if (compiled.isSingleExpression()) {
+      return resolveSingle(compiled.getTokens().get(0), variables, iterationCount);
     }
     else {
-      Matcher matcherMulti = MULTI_EXPRESSION_PATTERN.matcher(value);
-      return resolveMulti(matcherMulti, variables, iterationCount);
+      return resolveMulti(compiled.getTokens(), variables, iterationCount);
     }
   }
 
-  private Object resolveSingle(Matcher matcher, Map<String, Object> variables, int iterationCount) {
-    boolean escapedVariable = StringUtils.equals(matcher.group(EXPRESSION_POS_DOLLAR_SIGN), "\\$");
-    String expression = matcher.group(EXPRESSION_POS_EXPRESSION);
+  private Object resolveSingle(Token token, Map<String, Object> variables, int iterationCount) {
 
     // keep escaped variables intact
-    if (escapedVariable) {
-      return matcher.group(0);
+    if (token instanceof Escaped) {
+      return token.getSource();
     }
 
-    else {
-      Matcher variableMatcher = VARIABLE_PATTERN.matcher(expression);
-
-      // resolve variable
-      if (variableMatcher.matches()) {
-        String valueProviderName = variableMatcher.group(VARIABLE_POS_VALUE_PROVIDER_NAME);
-        String variable = variableMatcher.group(VARIABLE_POS_VARIABLE);
-        String defaultValueString = variableMatcher.group(VARIABLE_POS_DEFAULT_VALUE);
-
-        Object valueObject = variableResolver.resolve(valueProviderName, variable, defaultValueString, variables);
-        if (valueObject != null) {
-          if (valueObject instanceof String) {
-            // try again until all nested references are resolved
-            return resolve((String)valueObject, variables, iterationCount + 1);
-          }
-          else {
-            return valueObject;
-          }
-        }
-        else {
-          throw new IllegalArgumentException("Unable to resolve variable: " + matcher.group(0));
-        }
+    Object valueObject = resolveExpression(token, variables);
+    if (valueObject != null) {
+      if (valueObject instanceof String) {
+        // try again until all nested references are resolved
+        return resolve((String)valueObject, variables, iterationCount + 1);
       }
-
-      // resolve JEXL expression
       else {
-        Object valueObject = jexlResolver.resolve(expression, variables);
-        if (valueObject != null) {
-          if (valueObject instanceof String) {
-            // try again until all nested references are resolved
-            return resolve((String)valueObject, variables, iterationCount + 1);
-          }
-          else {
-            return valueObject;
-          }
-        }
-        else {
-          throw new IllegalArgumentException("Unable to resolve expression: " + matcher.group(0));
-        }
+        return valueObject;
       }
     }
+    else if (token instanceof Variable) {
+      throw new IllegalArgumentException("Unable to resolve variable: " + token.getSource());
+    }
+    else {
+      throw new IllegalArgumentException("Unable to resolve expression: " + token.getSource());
+    }
   }
 
-  private Object resolveMulti(Matcher matcher, Map<String, Object> variables, int iterationCount) {
-    StringBuffer sb = new StringBuffer();
+  private Object resolveMulti(List<Token> tokens, Map<String, Object> variables, int iterationCount) {
+    StringBuilder sb = new StringBuilder();
     boolean replacedAny = false;
-    while (matcher.find()) {
-      boolean escapedVariable = StringUtils.equals(matcher.group(EXPRESSION_POS_DOLLAR_SIGN), "\\$");
-      String expression = matcher.group(EXPRESSION_POS_EXPRESSION);
+    for (Token token : tokens) {
 
-      // keep escaped variables intact
-      if (escapedVariable) {
-        matcher.appendReplacement(sb, Matcher.quoteReplacement(matcher.group(0)));
+      // keep literals and escaped variables intact
+      if (token instanceof Literal || token instanceof Escaped) {
+        sb.append(token.getSource());
       }
 
       else {
-        Matcher variableMatcher = VARIABLE_PATTERN.matcher(expression);
-
-        // resolve variable
-        if (variableMatcher.matches()) {
-          String valueProviderName = variableMatcher.group(VARIABLE_POS_VALUE_PROVIDER_NAME);
-          String variable = variableMatcher.group(VARIABLE_POS_VARIABLE);
-          String defaultValueString = variableMatcher.group(VARIABLE_POS_DEFAULT_VALUE);
-
-          Object valueObject = variableResolver.resolve(valueProviderName, variable, defaultValueString, variables);
-          if (valueObject != null) {
-            String variableValue = ValueUtil.valueToString(valueObject);
-            matcher.appendReplacement(sb, Matcher.quoteReplacement(variableValue.toString()));
-            replacedAny = true;
-          }
-          else {
-            throw new IllegalArgumentException("Unable to resolve variable: " + matcher.group(0));
-          }
+        Object valueObject = resolveExpression(token, variables);
+        if (valueObject != null) {
+          sb.append(ValueUtil.valueToString(valueObject));
+          replacedAny = true;
         }
-
-        // resolve JEXL expression
         else {
-          Object valueObject = jexlResolver.resolve(expression, variables);
-          if (valueObject != null) {
-            String variableValue = ValueUtil.valueToString(valueObject);
-            matcher.appendReplacement(sb, Matcher.quoteReplacement(variableValue.toString()));
-            replacedAny = true;
-          }
-          else {
-            throw new IllegalArgumentException("Unable to resolve variable: " + matcher.group(0));
-          }
+          throw new IllegalArgumentException("Unable to resolve variable: " + token.getSource());
         }
       }
 
     }
-    matcher.appendTail(sb);
     if (replacedAny) {
       // try again until all nested references are resolved
       return resolve(sb.toString(), variables, iterationCount + 1);
@@ -272,24 +197,69 @@ public final class VariableStringResolver {
     }
   }
 
+  /**
+   * Resolve variable or JEXL expression.
+   * @param token Variable or JEXL expression token
+   * @param variables Variables
+   * @return Resolved value or null
+   */
+  private Object resolveExpression(Token token, Map<String, Object> variables) {
+    if (token instanceof Variable) {
+      Variable variable = (Variable)token;
+      return variableResolver.resolve(variable.getValueProviderName(), variable.getVariable(), variable.getDefaultValueString(), variables);
+    }
+    else {
+      return jexlResolver.resolve(((JexlExpression)token).getExpression(), variables);
+    }
+  }
+
+  /**
+   * Get names of all variables from the variable map that are referenced by the given string,
+   * either directly or in JEXL expressions. Escaped expressions and value provider references are ignored.
+   * @param value Value with variable placeholders
+   * @return Variable names
+   */
+  Set<String> getReferencedVariables(String value) {
+    Set<String> variables = new LinkedHashSet<>();
+    for (Token token : CompiledVariableString.compile(value).getTokens()) {
+      if (token instanceof Variable) {
+        if (((Variable)token).getValueProviderName() == null) {
+          variables.add(((Variable)token).getVariable());
+        }
+      }
+      else if (token instanceof JexlExpression) {
+        variables.addAll(jexlResolver.getVariables(((JexlExpression)token).getExpression()));
+      }
+    }
+    return variables;
+  }
+
+  /**
+   * Get names of all variables from the variable map that are referenced by the given string without a default value.
+   * Escaped expressions, JEXL expressions and value provider references are ignored.
+   * @param value Value with variable placeholders
+   * @return Variable names
+   */
+  Set<String> getRequiredVariables(String value) {
+    Set<String> variables = new LinkedHashSet<>();
+    for (Token token : CompiledVariableString.compile(value).getTokens()) {
+      if (token instanceof Variable) {
+        Variable variable = (Variable)token;
+        if (variable.getValueProviderName() == null && variable.getDefaultValueString() == null) {
+          variables.add(variable.getVariable());
+        }
+      }
+    }
+    return variables;
+  }
+
   /**
    * Checks if the given string contains any reference to a variable from a value provider.
    * @param value Value string
    * @return true if a value provider reference was found.
    */
   public static boolean hasValueProviderReference(String value) {
-    Matcher matcher = MULTI_EXPRESSION_PATTERN.matcher(value);
-    while (matcher.find()) {
-      String expression = matcher.group(EXPRESSION_POS_EXPRESSION);
-      Matcher variableMatcher = VARIABLE_PATTERN.matcher(expression);
-      if (variableMatcher.matches()) {
-        String valueProviderName = variableMatcher.group(VARIABLE_POS_VALUE_PROVIDER_NAME);
-        if (StringUtils.isNotEmpty(valueProviderName)) {
-          return true;
-        }
-      }
-    }
-    return false;
+    return CompiledVariableString.compile(value).hasValueProviderReference();
   }
 
 }
@@ -0,0 +1,275 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator;
+
+import static io.wcm.devops.conga.generator.ContextProperties.NODES;
+import static io.wcm.devops.conga.generator.ContextProperties.NODES_BY_ROLE;
+import static io.wcm.devops.conga.generator.ContextProperties.NODES_BY_ROLE_VARIANT;
+import static io.wcm.devops.conga.generator.ContextProperties.TENANTS;
+import static io.wcm.devops.conga.generator.ContextProperties.TENANTS_BY_ROLE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import io.wcm.devops.conga.generator.spi.context.PluginContextOptions;
+import io.wcm.devops.conga.generator.spi.context.ValueProviderGlobalContext;
+import io.wcm.devops.conga.generator.util.PluginManagerImpl;
+import io.wcm.devops.conga.generator.util.VariableObjectTreeResolver;
+import io.wcm.devops.conga.generator.util.VariableStringResolver;
+import io.wcm.devops.conga.model.environment.Environment;
+import io.wcm.devops.conga.model.environment.Node;
+import io.wcm.devops.conga.model.environment.NodeRole;
+import io.wcm.devops.conga.model.environment.Tenant;
+import io.wcm.devops.conga.model.util.MapMerger;
+import io.wcm.devops.conga.model.util.ResolvedModelList;
+
+public class ContextPropertiesBuilderTest {
+
+  private VariableObjectTreeResolver variableObjectTreeResolver;
+  private VariableStringResolver variableStringResolver;
+  private Environment environment;
+
+  @Before
+  public void setUp() {
+    PluginContextOptions pluginContextOptions = new PluginContextOptions()
+        .pluginManager(new PluginManagerImpl());
+    ValueProviderGlobalContext context = new ValueProviderGlobalContext()
+        .pluginContextOptions(pluginContextOptions);
+    variableObjectTreeResolver = new VariableObjectTreeResolver(context);
+    variableStringResolver = new VariableStringResolver(context);
+
+    environment = new Environment();
+    environment.setConfig(ImmutableMap.of("tenantPrefix", "tenant"));
+    environment.setNodes(ImmutableList.of(
+        node("node1", ImmutableMap.of("var1", "v1", "key1", "${var1}"), nodeRole("role1", "variant1")),
+        node("node2", ImmutableMap.of("var1", "v2", "key1", "${var1}"), nodeRole("role1", "variant2"), nodeRole("role2", null))));
+    environment.setTenants(ImmutableList.of(
+        tenant("${tenantPrefix}1", "tenantRole1"),
+        tenant("${tenantPrefix}2", "tenantRole1", "tenantRole2")));
+  }
+
+  @Test
+  public void testNodes() {
+    Map<String, Object> underTest = buildEnvironmentContextVariables();
+
+    List<Node> nodes = getList(underTest, NODES);
+    assertEquals(2, nodes.size());
+    assertEquals("node1", nodes.get(0).getNode());
+    assertEquals("v1", nodes.get(0).getConfig().get("key1"));
+    assertEquals("node2", nodes.get(1).getNode());
+    assertEquals("v2", nodes.get(1).getConfig().get("key1"));
+
+    // resolved copies, original nodes are unchanged
+    assertNotSame(environment.getNodes().get(0), nodes.get(0));
+    assertEquals("${var1}", environment.getNodes().get(0).getConfig().get("key1"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNodesResolvedOnAccess() {
+    environment.setNodes(ImmutableList.of(
+        node("node1", ImmutableMap.of("key1", "value1")),
+        node("node2", ImmutableMap.of("key1", "${unknown}"))));
+    Map<String, Object> underTest = buildEnvironmentContextVariables();
+
+    // invalid node is only resolved when accessed
+    List<Node> nodes = getList(underTest, NODES);
+    assertEquals(2, nodes.size());
+    assertEquals("value1", nodes.get(0).getConfig().get("key1"));
+    nodes.get(1);
+  }
+
+  @Test
+  public void testNodesMemoized() {
+    Map<String, Object> underTest = buildEnvironmentContextVariables();
+
+    List<Node> nodes = getList(underTest, NODES);
+    assertSame(nodes.get(0), nodes.get(0));
+    assertSame(nodes.get(1), nodes.get(1));
+  }
+
+  @Test
+  public void testNodesByRole() {
+    Map<String, Object> underTest = buildEnvironmentContextVariables();
+
+    List<Node> nodes = getList(underTest, NODES);
+    Map<String, List<Node>> nodesByRole = getMap(underTest, NODES_BY_ROLE);
+    assertEquals(ImmutableList.of(nodes.get(0), nodes.get(1)), nodesByRole.get("role1"));
+    assertEquals(ImmutableList.of(nodes.get(1)), nodesByRole.get("role2"));
+
+    // views share the resolved nodes
+    assertSame(nodes.get(1), nodesByRole.get("role2").get(0));
+
+    Map<String, Map<String, List<Node>>> nodesByRoleVariant = getMap(underTest, NODES_BY_ROLE_VARIANT);
+    assertEquals(ImmutableList.of(nodes.get(0)), nodesByRoleVariant.get("role1").get("variant1"));
+    assertEquals(ImmutableList.of(nodes.get(1)), nodesByRoleVariant.get("role1").get("variant2"));
+    assertNull(nodesByRoleVariant.get("role2"));
+  }
+
+  @Test
+  public void testTenants() {
+    Map<String, Object> underTest = buildEnvironmentContextVariables();
+
+    List<Tenant> tenants = getList(underTest, TENANTS);
+    assertEquals(2, tenants.size());
+    assertEquals("tenant1", tenants.get(0).getTenant());
+    assertEquals("tenant2", tenants.get(1).getTenant());
+    assertEquals("${tenantPrefix}1", environment.getTenants().get(0).getTenant());
+
+    Map<String, List<Tenant>> tenantsByRole = getMap(underTest, TENANTS_BY_ROLE);
+    assertEquals(ImmutableList.of(tenants.get(0), tenants.get(1)), tenantsByRole.get("tenantRole1"));
+    assertEquals(ImmutableList.of(tenants.get(1)), tenantsByRole.get("tenantRole2"));
+    assertSame(tenants.get(1), tenantsByRole.get("tenantRole2").get(0));
+  }
+
+  @Test
+  public void testIteration() {
+    Map<String, Object> underTest = buildEnvironmentContextVariables();
+
+    List<String> nodeNames = new ArrayList<>();
+    List<Node> nodes = getList(underTest, NODES);
+    for (Node node : nodes) {
+      nodeNames.add(node.getNode());
+    }
+    assertEquals(ImmutableList.of("node1", "node2"), nodeNames);
+
+    List<String> tenantNames = new ArrayList<>();
+    List<Tenant> tenants = getList(underTest, TENANTS);
+    tenants.forEach(tenant -> tenantNames.add(tenant.getTenant()));
+    assertEquals(ImmutableList.of("tenant1", "tenant2"), tenantNames);
+  }
+
+  @Test
+  public void testEquality() {
+    Map<String, Object> underTest = buildEnvironmentContextVariables();
+
+    List<Node> nodes = getList(underTest, NODES);
+    List<Node> copy = ImmutableList.copyOf(nodes);
+    assertEquals(copy, nodes);
+    assertEquals(nodes, copy);
+    assertEquals(copy.hashCode(), nodes.hashCode());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testReadOnly() {
+    Map<String, Object> underTest = buildEnvironmentContextVariables();
+    getList(underTest, NODES).add(new Node());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testIndexOutOfBounds() {
+    Map<String, Object> underTest = buildEnvironmentContextVariables();
+    getList(underTest, NODES).get(2);
+  }
+
+  @Test
+  public void testResolvedModelList() {
+    Map<String, Object> underTest = buildEnvironmentContextVariables();
+
+    List<Node> nodes = getList(underTest, NODES);
+    assertTrue(nodes instanceof ResolvedModelList);
+    assertTrue(getMap(underTest, NODES_BY_ROLE).get("role1") instanceof ResolvedModelList);
+    assertTrue(getList(underTest, TENANTS) instanceof ResolvedModelList);
+
+    // passed through unchanged when merging config maps
+    Map<String, Object> merged = MapMerger.merge(ImmutableMap.of("key1", "value1"), underTest);
+    assertSame(nodes, merged.get(NODES));
+  }
+
+  @Test
+  public void testConcurrentAccess() throws Exception {
+    Map<String, Object> underTest = buildEnvironmentContextVariables();
+    List<Node> nodes = getList(underTest, NODES);
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<List<Node>>> futures = new ArrayList<>();
+      for (int i = 0; i < 32; i++) {
+        Callable<List<Node>> task = () -> ImmutableList.copyOf(nodes);
+        futures.add(executor.submit(task));
+      }
+      List<Node> expected = futures.get(0).get();
+      for (Future<List<Node>> future : futures) {
+        List<Node> result = future.get();
+        // all threads get the same resolved instances
+        for (int i = 0; i < expected.size(); i++) {
+          assertSame(expected.get(i), result.get(i));
+        }
+      }
+      assertSame(expected.get(0), nodes.get(0));
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private Map<String, Object> buildEnvironmentContextVariables() {
+    return ContextPropertiesBuilder.buildEnvironmentContextVariables("env1", environment, "1.0",
+        variableObjectTreeResolver, variableStringResolver);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> List<T> getList(Map<String, Object> map, String key) {
+    return (List<T>)map.get(key);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> Map<String, T> getMap(Map<String, Object> map, String key) {
+    return (Map<String, T>)map.get(key);
+  }
+
+  private static Node node(String name, Map<String, Object> config, NodeRole... roles) {
+    Node node = new Node();
+    node.setNode(name);
+    node.setConfig(config);
+    node.setRoles(ImmutableList.copyOf(roles));
+    return node;
+  }
+
+  private static NodeRole nodeRole(String role, String variant) {
+    NodeRole nodeRole = new NodeRole();
+    nodeRole.setRole(role);
+    nodeRole.setVariant(variant);
+    return nodeRole;
+  }
+
+  private static Tenant tenant(String name, String... roles) {
+    Tenant tenant = new Tenant();
+    tenant.setTenant(name);
+    tenant.setRoles(ImmutableList.copyOf(roles));
+    return tenant;
+  }
+
+}
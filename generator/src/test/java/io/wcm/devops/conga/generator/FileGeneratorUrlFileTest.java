@@ -0,0 +1,172 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import io.wcm.devops.conga.generator.spi.ImplicitApplyOptions;
+import io.wcm.devops.conga.generator.spi.Plugin;
+import io.wcm.devops.conga.generator.spi.PostProcessorPlugin;
+import io.wcm.devops.conga.generator.spi.context.FileContext;
+import io.wcm.devops.conga.generator.spi.context.PluginContextOptions;
+import io.wcm.devops.conga.generator.spi.context.PostProcessorContext;
+import io.wcm.devops.conga.generator.spi.context.UrlFilePluginContext;
+import io.wcm.devops.conga.generator.spi.context.ValueProviderGlobalContext;
+import io.wcm.devops.conga.generator.util.PluginManager;
+import io.wcm.devops.conga.generator.util.PluginManagerImpl;
+import io.wcm.devops.conga.generator.util.VariableMapResolver;
+import io.wcm.devops.conga.model.role.RoleFile;
+
+public class FileGeneratorUrlFileTest {
+
+  private static final String SOURCE_CONTENT = "source content";
+
+  private File destDir;
+  private File sourceFile;
+  private File file;
+  private List<PostProcessorPlugin> postProcessorPlugins = new ArrayList<>();
+  private PluginManager pluginManager;
+
+  @Before
+  public void setUp() throws IOException {
+    destDir = new File("target/generation-test/" + getClass().getSimpleName());
+    FileUtils.deleteQuietly(destDir);
+    sourceFile = new File(destDir, "source/test.bin");
+    FileUtils.write(sourceFile, SOURCE_CONTENT, StandardCharsets.UTF_8);
+    file = new File(destDir, "node/test.bin");
+
+    // use the built-in URL file plugins, but only the post processors defined by the test
+    PluginManager pluginManagerImpl = new PluginManagerImpl();
+    pluginManager = new PluginManager() {
+      @Override
+      public <T extends Plugin> T get(String name, Class<T> pluginClass) {
+        return pluginManagerImpl.get(name, pluginClass);
+      }
+      @Override
+      @SuppressWarnings("unchecked")
+      public <T extends Plugin> List<T> getAll(Class<T> pluginClass) {
+        if (pluginClass == PostProcessorPlugin.class) {
+          return (List<T>)ImmutableList.copyOf(postProcessorPlugins);
+        }
+        return pluginManagerImpl.getAll(pluginClass);
+      }
+    };
+  }
+
+  @Test
+  public void testHardLinkThenCopy() throws Exception {
+    generate(true);
+    assertTrue(Files.isSameFile(sourceFile.toPath(), file.toPath()));
+
+    // copy run must replace the hard link instead of truncating the shared file
+    generate(false);
+    assertFalse(Files.isSameFile(sourceFile.toPath(), file.toPath()));
+    assertEquals(SOURCE_CONTENT, FileUtils.readFileToString(sourceFile, StandardCharsets.UTF_8));
+    assertEquals(SOURCE_CONTENT, FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testHardLinkWithPostProcessor() throws Exception {
+    postProcessorPlugins.add(new RewritingPostProcessor());
+
+    generate(true);
+    assertFalse(Files.isSameFile(sourceFile.toPath(), file.toPath()));
+    assertEquals(SOURCE_CONTENT, FileUtils.readFileToString(sourceFile, StandardCharsets.UTF_8));
+    assertEquals("processed", FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testCopyThenHardLink() throws Exception {
+    generate(false);
+    assertFalse(Files.isSameFile(sourceFile.toPath(), file.toPath()));
+
+    generate(true);
+    assertTrue(Files.isSameFile(sourceFile.toPath(), file.toPath()));
+    assertEquals(SOURCE_CONTENT, FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+  }
+
+  private void generate(boolean urlFileHardLinks) throws IOException {
+    GeneratorOptions options = new GeneratorOptions()
+        .pluginManager(pluginManager)
+        .urlFileHardLinks(urlFileHardLinks);
+    UrlFileManager urlFileManager = new UrlFileManager(pluginManager, new UrlFilePluginContext());
+    PluginContextOptions pluginContextOptions = new PluginContextOptions()
+        .pluginManager(pluginManager)
+        .urlFileManager(urlFileManager)
+        .logger(options.getLogger());
+    VariableMapResolver variableMapResolver = new VariableMapResolver(
+        new ValueProviderGlobalContext().pluginContextOptions(pluginContextOptions));
+    FileGenerator underTest = new FileGenerator(options, "env1",
+        "role1", ImmutableList.of(), "test.bin",
+        file.getParentFile(), file, "file:" + sourceFile.getAbsolutePath(), new RoleFile(), ImmutableMap.<String, Object>of(), null,
+        variableMapResolver, urlFileManager, pluginContextOptions, ImmutableList.of());
+    underTest.generate();
+  }
+
+  /**
+   * Post processor that rewrites the file in place.
+   */
+  private static class RewritingPostProcessor implements PostProcessorPlugin {
+
+    @Override
+    public String getName() {
+      return "rewrite";
+    }
+
+    @Override
+    public boolean accepts(FileContext file, PostProcessorContext context) {
+      return true;
+    }
+
+    @Override
+    public ImplicitApplyOptions implicitApply(FileContext file, PostProcessorContext context) {
+      return ImplicitApplyOptions.ALWAYS;
+    }
+
+    @Override
+    public List<FileContext> apply(FileContext file, PostProcessorContext context) {
+      try {
+        FileUtils.write(file.getFile(), "processed", StandardCharsets.UTF_8);
+      }
+      catch (IOException ex) {
+        throw new GeneratorException("Unable to rewrite file.", ex);
+      }
+      return null;
+    }
+
+  }
+
+}
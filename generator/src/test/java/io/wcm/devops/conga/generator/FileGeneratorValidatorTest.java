@@ -20,6 +20,8 @@
 package io.wcm.devops.conga.generator;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -28,6 +30,7 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 import java.io.File;
 import java.util.HashMap;
@@ -48,6 +51,7 @@ import com.github.jknack.handlebars.Template;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
+import io.wcm.devops.conga.generator.spi.ContentInMemoryAware;
 import io.wcm.devops.conga.generator.spi.ImplicitApplyOptions;
 import io.wcm.devops.conga.generator.spi.ValidatorPlugin;
 import io.wcm.devops.conga.generator.spi.context.FileContext;
@@ -191,12 +195,62 @@ public class FileGeneratorValidatorTest {
     verify(two, times(1)).apply(any(FileContext.class), any(ValidatorContext.class));
   }
 
+  @Test
+  public void testValidatorNotContentInMemoryAware() throws Exception {
+    file.delete();
+    ValidatorPlugin one = mockValidator("one", "txt", ImplicitApplyOptions.NEVER);
+    when(one.apply(any(FileContext.class), any(ValidatorContext.class))).thenAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        // plugin may read the file directly
+        FileContext input = invocation.getArgument(0);
+        assertFalse(input.isContentInMemory());
+        assertTrue(input.getFile().exists());
+        return null;
+      }
+    });
+    roleFile.setValidators(ImmutableList.of("one"));
+
+    ImmutableList.copyOf(underTest.generate());
+
+    verify(one, times(1)).apply(any(FileContext.class), any(ValidatorContext.class));
+  }
+
+  @Test
+  public void testValidatorContentInMemoryAware() throws Exception {
+    file.delete();
+    ValidatorPlugin one = mockValidator("one", "txt", ImplicitApplyOptions.NEVER, true);
+    when(one.apply(any(FileContext.class), any(ValidatorContext.class))).thenAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        // file is written only after the plugin is applied
+        FileContext input = invocation.getArgument(0);
+        assertTrue(input.isContentInMemory());
+        assertFalse(input.getFile().exists());
+        return null;
+      }
+    });
+    roleFile.setValidators(ImmutableList.of("one"));
+
+    List<GeneratedFileContext> result = ImmutableList.copyOf(underTest.generate());
+
+    assertTrue(result.get(0).getFileContext().getFile().exists());
+    verify(one, times(1)).apply(any(FileContext.class), any(ValidatorContext.class));
+  }
+
   private void assertItem(GeneratedFileContext item, String expectedFileName) {
     assertEquals(expectedFileName, item.getFileContext().getFile().getName());
   }
 
   private ValidatorPlugin mockValidator(String pluginName, String extension, ImplicitApplyOptions implicitApply) {
-    ValidatorPlugin plugin = mock(ValidatorPlugin.class);
+    return mockValidator(pluginName, extension, implicitApply, false);
+  }
+
+  private ValidatorPlugin mockValidator(String pluginName, String extension, ImplicitApplyOptions implicitApply,
+      boolean contentInMemoryAware) {
+    ValidatorPlugin plugin = contentInMemoryAware
+        ? mock(ValidatorPlugin.class, withSettings().extraInterfaces(ContentInMemoryAware.class))
+        : mock(ValidatorPlugin.class);
     when(plugin.getName()).thenReturn(pluginName);
     when(plugin.accepts(any(FileContext.class), any(ValidatorContext.class))).thenAnswer(new Answer<Boolean>() {
       @Override
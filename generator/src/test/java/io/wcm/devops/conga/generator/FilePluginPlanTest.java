@@ -0,0 +1,119 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import io.wcm.devops.conga.generator.plugins.handlebars.escaping.JsonEscapingStrategy;
+import io.wcm.devops.conga.generator.plugins.handlebars.escaping.NoneEscapingStrategy;
+import io.wcm.devops.conga.generator.plugins.handlebars.escaping.XmlEscapingStrategy;
+import io.wcm.devops.conga.generator.plugins.validator.JsonValidator;
+import io.wcm.devops.conga.generator.spi.ValidatorPlugin;
+import io.wcm.devops.conga.generator.spi.context.FileContext;
+import io.wcm.devops.conga.generator.spi.context.PluginContextOptions;
+import io.wcm.devops.conga.generator.spi.context.ValidatorContext;
+import io.wcm.devops.conga.generator.spi.handlebars.context.EscapingStrategyContext;
+import io.wcm.devops.conga.generator.util.PluginManager;
+import io.wcm.devops.conga.generator.util.PluginManagerImpl;
+import io.wcm.devops.conga.model.role.RoleFile;
+
+public class FilePluginPlanTest {
+
+  private PluginManager pluginManager;
+  private EscapingStrategyContext escapingStrategyContext;
+  private ValidatorContext validatorContext;
+  private FileContext jsonFile;
+
+  @Before
+  public void setUp() {
+    pluginManager = new PluginManagerImpl();
+    PluginContextOptions pluginContextOptions = new PluginContextOptions()
+        .pluginManager(pluginManager);
+    escapingStrategyContext = new EscapingStrategyContext().pluginContextOptions(pluginContextOptions);
+    validatorContext = new ValidatorContext().pluginContextOptions(pluginContextOptions);
+    jsonFile = new FileContext().file(new File("target/test.json"));
+  }
+
+  @Test
+  public void testEscapingStrategyByFileExtension() {
+    assertEquals(JsonEscapingStrategy.NAME, newPlan("test.json").getEscapingStrategy());
+    assertEquals(XmlEscapingStrategy.NAME, newPlan("test.xml").getEscapingStrategy());
+    assertEquals(NoneEscapingStrategy.NAME, newPlan("test.txt").getEscapingStrategy());
+  }
+
+  @Test
+  public void testEscapingStrategyConfigured() {
+    RoleFile roleFile = newRoleFile("test.json");
+    roleFile.setEscapingStrategy(XmlEscapingStrategy.NAME);
+    assertEquals(XmlEscapingStrategy.NAME, new FilePluginPlan(roleFile, pluginManager, escapingStrategyContext).getEscapingStrategy());
+  }
+
+  @Test
+  public void testValidatorsAutoDetected() {
+    FilePluginPlan underTest = newPlan("test.json");
+    assertEquals(ImmutableList.of(JsonValidator.NAME), getValidatorNames(underTest.getValidators(jsonFile, validatorContext)
+        .collect(Collectors.toList())));
+  }
+
+  @Test
+  public void testValidatorsDisabled() {
+    RoleFile roleFile = newRoleFile("test.json");
+    roleFile.setValidators(ImmutableList.of("none"));
+    FilePluginPlan underTest = new FilePluginPlan(roleFile, pluginManager, escapingStrategyContext);
+    assertEquals(ImmutableList.of(), getValidatorNames(underTest.getValidators(jsonFile, validatorContext)
+        .collect(Collectors.toList())));
+    assertEquals(ImmutableList.of(JsonValidator.NAME), getValidatorNames(underTest.getImplicitValidators(jsonFile, validatorContext)
+        .collect(Collectors.toList())));
+  }
+
+  @Test
+  public void testContentInMemorySupportedByBuiltInPlugins() {
+    FilePluginPlan underTest = newPlan("test.json");
+    assertTrue(underTest.isContentInMemorySupported());
+    assertTrue(underTest.isPostProcessorContentInMemorySupported());
+  }
+
+  private FilePluginPlan newPlan(String fileName) {
+    return new FilePluginPlan(newRoleFile(fileName), pluginManager, escapingStrategyContext);
+  }
+
+  private static RoleFile newRoleFile(String fileName) {
+    RoleFile roleFile = new RoleFile();
+    roleFile.setFile(fileName);
+    return roleFile;
+  }
+
+  private static List<String> getValidatorNames(List<ValidatorPlugin> validators) {
+    return validators.stream()
+        .map(ValidatorPlugin::getName)
+        .collect(Collectors.toList());
+  }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator;
+
+import static io.wcm.devops.conga.generator.TestUtils.assertContains;
+import static io.wcm.devops.conga.generator.TestUtils.assertFile;
+import static io.wcm.devops.conga.generator.TestUtils.setupGeneratorOptions;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+
+import io.wcm.devops.conga.generator.spi.context.FileContext;
+import io.wcm.devops.conga.generator.spi.export.context.GeneratedFileContext;
+
+public class GeneratorIncrementalTest {
+
+  private File destDir;
+  private File cacheDir;
+
+  @Before
+  public void setUp() throws IOException {
+    destDir = new File("target/generation-test/" + getClass().getSimpleName());
+    cacheDir = new File("target/generation-test/" + getClass().getSimpleName() + "-cache");
+    FileUtils.deleteDirectory(destDir);
+    FileUtils.deleteDirectory(cacheDir);
+  }
+
+  private Generator createGenerator() {
+    return new Generator(setupGeneratorOptions(destDir)
+        .deleteBeforeGenerate(true)
+        .incrementalCacheDir(cacheDir));
+  }
+
+  @Test
+  public void testUnchangedFilesAreSkipped() throws IOException {
+    createGenerator().generate("env1");
+    assertTrue(new File(cacheDir, "env1.json").exists());
+
+    // manipulate generated file - it must not be touched by next run
+    File json1 = assertFile(destDir, "env1/node1/json/test.json");
+    FileUtils.write(json1, "manipulated", StandardCharsets.UTF_8);
+
+    createGenerator().generate("env1");
+    assertEquals("manipulated", FileUtils.readFileToString(json1, StandardCharsets.UTF_8));
+
+    // without fingerprint state all files are generated again
+    new File(cacheDir, "env1.json").delete();
+    createGenerator().generate("env1");
+    assertContains(json1, "JSON file äöüß€ with UTF-8 encoding");
+  }
+
+  @Test
+  public void testDeletedFileIsGeneratedAgain() throws IOException {
+    createGenerator().generate("env1");
+
+    File json1 = assertFile(destDir, "env1/node1/json/test.json");
+    json1.delete();
+
+    createGenerator().generate("env1");
+    assertContains(json1, "JSON file äöüß€ with UTF-8 encoding");
+  }
+
+  @Test
+  public void testRemoveStaleFiles() throws IOException {
+    File environmentDir = new File(destDir, "env1");
+    File file1 = new File(environmentDir, "node1/file1.txt");
+    File file2 = new File(environmentDir, "node1/file2.txt");
+    FileUtils.write(file1, "file1", StandardCharsets.UTF_8);
+    FileUtils.write(file2, "file2", StandardCharsets.UTF_8);
+
+    FileFingerprintCache cache = new FileFingerprintCache(cacheDir, "env1", environmentDir);
+    cache.put(file1, "fingerprint1", ImmutableList.of(new GeneratedFileContext().fileContext(new FileContext().file(file1))));
+    cache.put(file2, "fingerprint2", ImmutableList.of(new GeneratedFileContext().fileContext(new FileContext().file(file2))));
+    cache.save();
+
+    cache = new FileFingerprintCache(cacheDir, "env1", environmentDir);
+    assertEquals(1, cache.getUnchanged(file1, "fingerprint1").size());
+    assertEquals(null, cache.getUnchanged(file2, "fingerprint2-changed"));
+    cache.removeStaleFiles(LoggerFactory.getLogger(getClass()));
+
+    assertTrue(file1.exists());
+    assertFalse(file2.exists());
+  }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator;
+
+import static io.wcm.devops.conga.generator.TestUtils.assertContains;
+import static io.wcm.devops.conga.generator.TestUtils.assertDirectory;
+import static io.wcm.devops.conga.generator.TestUtils.assertFile;
+import static io.wcm.devops.conga.generator.TestUtils.setupGeneratorOptions;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GeneratorParallelTest {
+
+  private Generator underTest;
+  private File destDir;
+
+  @Before
+  public void setUp() throws IOException {
+    destDir = new File("target/generation-test/" + getClass().getSimpleName());
+    FileUtils.deleteDirectory(destDir);
+    underTest = new Generator(setupGeneratorOptions(destDir)
+        .parallelism(2)
+        .nodeParallelism(4));
+  }
+
+  @Test
+  public void testAllEnvironments() {
+    underTest.generate();
+
+    File env1Node1Dir = assertDirectory(destDir, "env1/node1");
+    File text1 = assertFile(env1Node1Dir, "text/test-role1.variant11.env1.node1.txt");
+    assertContains(text1, "globalString: globalFromRole1", StandardCharsets.ISO_8859_1);
+    assertFile(env1Node1Dir, "json/test.json");
+    assertContains(assertFile(destDir, "env1/node2/xml/001_test.tenant2.tenantRole1.env1.xml"),
+        "<variableString>The v1-tenant2${novar}</variableString>");
+    assertFile(destDir, "env1/node3/xml/000_test.tenant1.tenantRole1,tenantRole2.env1.xml");
+    assertContains(assertFile(destDir, "env1/node4/xml/001_test.tenant2.tenantRole1.env1.xml"),
+        "<var4>v4-role1-variant13</var4>");
+
+    File env2Node1Dir = assertDirectory(destDir, "env2/node1");
+    File json2 = assertFile(env2Node1Dir, "json/test.json");
+    assertContains(json2, "\"globalString\": \"globalValueEnv2\"");
+  }
+
+  @Test
+  public void testUnknownEnvironment() {
+    try {
+      underTest.generate("env1", "unknown");
+    }
+    catch (GeneratorException ex) {
+      assertEquals("Environment 'unknown' does not exist.", ex.getMessage());
+      assertFalse(new File(destDir, "env1").exists());
+      return;
+    }
+    throw new AssertionError("GeneratorException expected.");
+  }
+
+}
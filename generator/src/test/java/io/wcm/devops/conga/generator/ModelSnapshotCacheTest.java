@@ -0,0 +1,78 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.wcm.devops.conga.model.reader.RoleReader;
+import io.wcm.devops.conga.model.role.Role;
+import io.wcm.devops.conga.resource.Resource;
+import io.wcm.devops.conga.resource.ResourceLoader;
+
+public class ModelSnapshotCacheTest {
+
+  private File cacheDir;
+  private Resource roleFile;
+  private ModelSnapshotCache underTest;
+
+  @Before
+  public void setUp() throws IOException {
+    cacheDir = new File("target/model-snapshot-cache-test/" + getClass().getSimpleName());
+    FileUtils.deleteDirectory(cacheDir);
+    roleFile = new ResourceLoader().getResource(ResourceLoader.FILE_PREFIX + "src/test/definitions/roles/role1.yaml");
+    underTest = new ModelSnapshotCache(cacheDir);
+  }
+
+  @Test
+  public void testReadFromSnapshot() throws IOException {
+    Role role1 = underTest.read(roleFile, new RoleReader());
+    assertEquals(1, cacheDir.listFiles().length);
+
+    Role role2 = underTest.read(roleFile, new RoleReader());
+    assertNotSame(role1, role2);
+    assertEquals(role1.getTemplateDir(), role2.getTemplateDir());
+    assertEquals(role1.getVariants().size(), role2.getVariants().size());
+    assertEquals(role1.getVariants().get(0).getConfig(), role2.getVariants().get(0).getConfig());
+    assertEquals(role1.getFiles().size(), role2.getFiles().size());
+    assertEquals(1, cacheDir.listFiles().length);
+  }
+
+  @Test
+  public void testCorruptSnapshot() throws IOException {
+    Role role1 = underTest.read(roleFile, new RoleReader());
+    File snapshotFile = cacheDir.listFiles()[0];
+    FileUtils.write(snapshotFile, "invalid", StandardCharsets.UTF_8);
+
+    Role role2 = underTest.read(roleFile, new RoleReader());
+    assertEquals(role1.getTemplateDir(), role2.getTemplateDir());
+    assertTrue(FileUtils.readFileToByteArray(snapshotFile).length > "invalid".length());
+  }
+
+}
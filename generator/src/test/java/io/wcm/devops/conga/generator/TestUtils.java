@@ -45,6 +45,10 @@ public final class TestUtils {
   }
 
   public static Generator setupGenerator(File destDir) {
+    return new Generator(setupGeneratorOptions(destDir));
+  }
+
+  public static GeneratorOptions setupGeneratorOptions(File destDir) {
     GeneratorOptions options = new GeneratorOptions()
         .baseDir(new File("."))
         .roleDir(new File("src/test/definitions/roles"))
@@ -58,7 +62,7 @@ public final class TestUtils {
     modelExport.setNode(ImmutableList.of("yaml"));
     options.modelExport(modelExport);
 
-    return new Generator(options);
+    return options;
   }
 
   public static File assertDirectory(File assertBaseDir, String path) {
@@ -19,18 +19,26 @@
  */
 package io.wcm.devops.conga.generator;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+
 import io.wcm.devops.conga.generator.spi.context.UrlFilePluginContext;
 import io.wcm.devops.conga.generator.util.PluginManagerImpl;
 
@@ -107,4 +115,63 @@ public class UrlFileManagerTest {
     underTest.getFileUrl("other:/x/y/z");
   }
 
+  @Test
+  public void testGetLocalFile_Absolute() throws Exception {
+    File file = new File("src/test/resources/validators/json/noJson.txt");
+    Path path = underTest.getLocalFile("file:" + file.getAbsolutePath());
+    assertEquals(file.getCanonicalFile(), path.toFile().getCanonicalFile());
+  }
+
+  @Test
+  public void testGetLocalFile_Classpath() throws Exception {
+    Path path = underTest.getLocalFile("classpath:/validators/json/noJson.txt");
+    assertNotNull(path);
+    assertEquals("noJson.txt", path.getFileName().toString());
+  }
+
+  @Test(expected = IOException.class)
+  public void testGetLocalFile_Invalid() throws Exception {
+    underTest.getLocalFile("other:/x/y/z");
+  }
+
+  @Test
+  public void testPrefetch() throws Exception {
+    File file = new File("src/test/resources/validators/json/noJson.txt");
+    underTest.prefetch(ImmutableList.of("file:" + file.getAbsolutePath(), "classpath:/validators/json/noJson.txt"), 2);
+    try (InputStream is = underTest.getFile("file:" + file.getAbsolutePath())) {
+      assertTrue(IOUtils.toByteArray(is).length > 0);
+    }
+    try (InputStream is = underTest.getFile("classpath:/validators/json/noJson.txt")) {
+      assertTrue(IOUtils.toByteArray(is).length > 0);
+    }
+  }
+
+  @Test
+  public void testPrefetch_Invalid() throws Exception {
+    try {
+      underTest.prefetch(ImmutableList.of("other:/x/y/z", "classpath:/validators/json/noJson.txt", "other:/a/b/c"), 2);
+      fail("GeneratorException expected");
+    }
+    catch (GeneratorException ex) {
+      assertTrue(ex.getMessage().contains("other:/x/y/z"));
+      assertTrue(ex.getMessage().contains("other:/a/b/c"));
+    }
+  }
+
+  @Test
+  public void testGetFingerprint() throws Exception {
+    File file = new File("target/generation-test/" + getClass().getSimpleName() + "/fingerprint.txt");
+    FileUtils.write(file, "content1", StandardCharsets.UTF_8);
+    String url = "file:" + file.getAbsolutePath();
+
+    String fingerprint = underTest.getFingerprint(url);
+
+    // fingerprint is built only once per URL
+    FileUtils.write(file, "modified content", StandardCharsets.UTF_8);
+    assertEquals(fingerprint, underTest.getFingerprint(url));
+
+    UrlFileManager otherUrlFileManager = new UrlFileManager(new PluginManagerImpl(), new UrlFilePluginContext());
+    assertNotEquals(fingerprint, otherUrlFileManager.getFingerprint(url));
+  }
+
 }
@@ -0,0 +1,161 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator.handlebars;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+
+import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.Template;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import io.wcm.devops.conga.generator.spi.context.PluginContextOptions;
+import io.wcm.devops.conga.generator.spi.handlebars.EscapingStrategyPlugin;
+import io.wcm.devops.conga.generator.spi.handlebars.HelperPlugin;
+import io.wcm.devops.conga.generator.spi.handlebars.context.EscapingStrategyContext;
+import io.wcm.devops.conga.generator.util.PluginManager;
+import io.wcm.devops.conga.resource.ResourceCollection;
+import io.wcm.devops.conga.resource.ResourceLoader;
+
+public class HandlebarsManagerTest {
+
+  private static final String CHARSET = StandardCharsets.UTF_8.name();
+
+  private File templateDir;
+  private List<ResourceCollection> templateDirs;
+  private HandlebarsCache handlebarsCache;
+  private PluginManager pluginManager;
+  private List<Logger> escapingLoggers = new ArrayList<>();
+
+  @Before
+  public void setUp() throws Exception {
+    templateDir = new File("target/generation-test/" + getClass().getSimpleName());
+    FileUtils.deleteQuietly(templateDir);
+    FileUtils.write(new File(templateDir, "test.hbs"), "value: {{value}}", CHARSET);
+    templateDirs = ImmutableList.of(new ResourceLoader().getResourceCollection(ResourceLoader.FILE_PREFIX + templateDir.getPath()));
+    handlebarsCache = new HandlebarsCache();
+
+    // escaping strategy that records the logger of the plugin context it is called with
+    EscapingStrategyPlugin escapingStrategy = new EscapingStrategyPlugin() {
+      @Override
+      public String getName() {
+        return "test";
+      }
+      @Override
+      public boolean accepts(String fileExtension, EscapingStrategyContext pluginContext) {
+        return true;
+      }
+      @Override
+      public CharSequence escape(CharSequence value, EscapingStrategyContext pluginContext) {
+        escapingLoggers.add(pluginContext.getLogger());
+        return value;
+      }
+    };
+    pluginManager = mock(PluginManager.class);
+    when(pluginManager.get(eq("test"), eq(EscapingStrategyPlugin.class))).thenReturn(escapingStrategy);
+    when(pluginManager.getAll(HelperPlugin.class)).thenReturn(ImmutableList.of());
+  }
+
+  @Test
+  public void testCompiledTemplateIsCached() throws Exception {
+    HandlebarsManager underTest = new HandlebarsManager(templateDirs, newPluginContextOptions());
+    Handlebars handlebars = underTest.get("test", CHARSET);
+    assertSame(handlebars, underTest.get("test", CHARSET));
+    assertSame(handlebars.compile("test"), handlebars.compile("test"));
+  }
+
+  @Test
+  public void testCompiledTemplateIsReloadedWhenModified() throws Exception {
+    HandlebarsManager underTest = new HandlebarsManager(templateDirs, newPluginContextOptions());
+    Handlebars handlebars = underTest.get("test", CHARSET);
+    Template template = handlebars.compile("test");
+    assertEquals("value: 1", template.apply(ImmutableMap.of("value", "1")));
+
+    File templateFile = new File(templateDir, "test.hbs");
+    FileUtils.write(templateFile, "modified: {{value}}", CHARSET);
+    templateFile.setLastModified(templateFile.lastModified() + 2000);
+
+    Template modifiedTemplate = handlebars.compile("test");
+    assertNotSame(template, modifiedTemplate);
+    assertEquals("modified: 1", modifiedTemplate.apply(ImmutableMap.of("value", "1")));
+  }
+
+  @Test
+  public void testSharedBetweenManagers() throws Exception {
+    HandlebarsManager manager1 = new HandlebarsManager(templateDirs, handlebarsCache, newPluginContextOptions());
+    HandlebarsManager manager2 = new HandlebarsManager(templateDirs, handlebarsCache, newPluginContextOptions());
+    assertSame(manager1.get("test", CHARSET), manager2.get("test", CHARSET));
+    assertSame(manager1.get("test", CHARSET).compile("test"), manager2.get("test", CHARSET).compile("test"));
+  }
+
+  @Test
+  public void testNotSharedWithOtherCache() throws Exception {
+    HandlebarsManager manager1 = new HandlebarsManager(templateDirs, handlebarsCache, newPluginContextOptions());
+    HandlebarsManager manager2 = new HandlebarsManager(templateDirs, new HandlebarsCache(), newPluginContextOptions());
+    assertNotSame(manager1.get("test", CHARSET), manager2.get("test", CHARSET));
+  }
+
+  @Test
+  public void testNotSharedWithoutCache() throws Exception {
+    HandlebarsManager manager1 = new HandlebarsManager(templateDirs, newPluginContextOptions());
+    HandlebarsManager manager2 = new HandlebarsManager(templateDirs, newPluginContextOptions());
+    assertNotSame(manager1.get("test", CHARSET), manager2.get("test", CHARSET));
+  }
+
+  @Test
+  public void testSharedTemplateUsesPluginContextOfBoundManager() throws Exception {
+    PluginContextOptions pluginContextOptions1 = newPluginContextOptions();
+    PluginContextOptions pluginContextOptions2 = newPluginContextOptions();
+    HandlebarsManager manager1 = new HandlebarsManager(templateDirs, handlebarsCache, pluginContextOptions1);
+    HandlebarsManager manager2 = new HandlebarsManager(templateDirs, handlebarsCache, pluginContextOptions2);
+    Template template = manager1.get("test", CHARSET).compile("test");
+
+    assertEquals("value: 1", manager2.call(() -> template.apply(ImmutableMap.of("value", "1"))));
+    assertEquals("value: 2", manager1.call(() -> template.apply(ImmutableMap.of("value", "2"))));
+
+    // without bound manager the plugin context of the manager that created the handlebars instance is used
+    assertEquals("value: 3", template.apply(ImmutableMap.of("value", "3")));
+
+    assertEquals(ImmutableList.of(pluginContextOptions2.getLogger(), pluginContextOptions1.getLogger(),
+        pluginContextOptions1.getLogger()), escapingLoggers);
+  }
+
+  private PluginContextOptions newPluginContextOptions() {
+    return new PluginContextOptions()
+        .pluginManager(pluginManager)
+        .logger(mock(Logger.class));
+  }
+
+}
@@ -0,0 +1,211 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator.plugins.urlfile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class HttpUrlFileCacheTest {
+
+  private HttpServer server;
+  private String baseUrl;
+  private File cacheDir;
+  private final Map<String, String> contents = new ConcurrentHashMap<>();
+  private final AtomicInteger requestCount = new AtomicInteger();
+  private final AtomicInteger notModifiedCount = new AtomicInteger();
+
+  @Before
+  public void setUp() throws IOException {
+    cacheDir = new File("target/test-" + getClass().getSimpleName());
+    FileUtils.deleteQuietly(cacheDir);
+
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", this::handle);
+    server.start();
+    baseUrl = "http://localhost:" + server.getAddress().getPort();
+  }
+
+  @After
+  public void tearDown() {
+    server.stop(0);
+    FileUtils.deleteQuietly(cacheDir);
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    requestCount.incrementAndGet();
+    String content = contents.get(exchange.getRequestURI().getPath());
+    if (content == null) {
+      exchange.sendResponseHeaders(404, -1);
+      exchange.close();
+      return;
+    }
+    String etag = "\"" + Integer.toHexString(content.hashCode()) + "\"";
+    if (StringUtils.equals(etag, exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+      notModifiedCount.incrementAndGet();
+      exchange.sendResponseHeaders(304, -1);
+      exchange.close();
+      return;
+    }
+    byte[] body = content.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("ETag", etag);
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream os = exchange.getResponseBody()) {
+      os.write(body);
+    }
+  }
+
+  @Test
+  public void testDownloadOnlyOnce() throws Exception {
+    contents.put("/file1.txt", "content1");
+    HttpUrlFileCache underTest = newCache(1024);
+
+    assertEquals("content1", read(underTest, baseUrl + "/file1.txt"));
+    assertEquals("content1", read(underTest, baseUrl + "/file1.txt"));
+    assertEquals(1, requestCount.get());
+  }
+
+  @Test
+  public void testRevalidate() throws Exception {
+    contents.put("/file1.txt", "content1");
+    assertEquals("content1", read(newCache(1024), baseUrl + "/file1.txt"));
+
+    // unchanged content is revalidated by new cache instance
+    assertEquals("content1", read(newCache(1024), baseUrl + "/file1.txt"));
+    assertEquals(2, requestCount.get());
+    assertEquals(1, notModifiedCount.get());
+
+    // changed content is downloaded again
+    contents.put("/file1.txt", "content1-changed");
+    assertEquals("content1-changed", read(newCache(1024), baseUrl + "/file1.txt"));
+    assertEquals(3, requestCount.get());
+    assertEquals(1, notModifiedCount.get());
+  }
+
+  @Test
+  public void testSameContentStoredOnce() throws Exception {
+    contents.put("/file1.txt", "content");
+    contents.put("/file2.txt", "content");
+    HttpUrlFileCache underTest = newCache(1024);
+
+    File file1 = underTest.getCachedFile(baseUrl + "/file1.txt");
+    File file2 = underTest.getCachedFile(baseUrl + "/file2.txt");
+    assertEquals(file1, file2);
+  }
+
+  @Test
+  public void testEvictLeastRecentlyUsed() throws Exception {
+    contents.put("/file1.txt", "content1");
+    contents.put("/file2.txt", "content2");
+
+    File file1 = newCache(10).getCachedFile(baseUrl + "/file1.txt");
+    File file2 = newCache(10).getCachedFile(baseUrl + "/file2.txt");
+    assertFalse(file1.exists());
+    assertTrue(file2.exists());
+
+    // evicted file is downloaded again
+    assertEquals("content1", read(newCache(10), baseUrl + "/file1.txt"));
+    assertEquals(3, requestCount.get());
+  }
+
+  @Test
+  public void testEvictKeepsContentsInUse() throws Exception {
+    contents.put("/file1.txt", "content1");
+    contents.put("/file2.txt", "content2");
+    HttpUrlFileCache underTest = newCache(10);
+
+    // content handed out by the same cache instance may still be read and is not evicted
+    File file1 = underTest.getCachedFile(baseUrl + "/file1.txt");
+    File file2 = underTest.getCachedFile(baseUrl + "/file2.txt");
+    assertTrue(file1.exists());
+    assertTrue(file2.exists());
+  }
+
+  @Test
+  public void testCorruptContentDownloadedAgain() throws Exception {
+    contents.put("/file1.txt", "content1");
+    File file1 = newCache(1024).getCachedFile(baseUrl + "/file1.txt");
+    FileUtils.write(file1, "tampered", StandardCharsets.UTF_8);
+
+    assertEquals("content1", read(newCache(1024), baseUrl + "/file1.txt"));
+    assertEquals(2, requestCount.get());
+    assertEquals(0, notModifiedCount.get());
+  }
+
+  @Test(expected = SocketTimeoutException.class)
+  public void testReadTimeout() throws Exception {
+    server.createContext("/slow", exchange -> {
+      try {
+        Thread.sleep(2000);
+      }
+      catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      exchange.close();
+    });
+    new HttpUrlFileCache(cacheDir, 1024, 1000, 100).getFile(baseUrl + "/slow/file1.txt");
+  }
+
+  @Test
+  public void testOpenStreamWithoutCache() throws Exception {
+    contents.put("/file1.txt", "content1");
+    try (InputStream is = HttpUrlFileCache.openStream(baseUrl + "/file1.txt", 1000, 1000)) {
+      assertEquals("content1", IOUtils.toString(is, StandardCharsets.UTF_8));
+    }
+    assertFalse(cacheDir.exists());
+  }
+
+  @Test(expected = IOException.class)
+  public void testNotFound() throws Exception {
+    newCache(1024).getFile(baseUrl + "/unknown.txt");
+  }
+
+  private HttpUrlFileCache newCache(long maxSize) {
+    return new HttpUrlFileCache(cacheDir, maxSize, 1000, 1000);
+  }
+
+  private static String read(HttpUrlFileCache cache, String url) throws IOException {
+    try (InputStream is = cache.getFile(url)) {
+      return IOUtils.toString(is, StandardCharsets.UTF_8);
+    }
+  }
+
+}
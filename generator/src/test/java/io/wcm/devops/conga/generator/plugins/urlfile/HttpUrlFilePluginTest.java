@@ -21,27 +21,35 @@ package io.wcm.devops.conga.generator.plugins.urlfile;
 
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.InputStream;
 import java.net.URL;
+import java.util.Map;
 
 import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableMap;
+
 import io.wcm.devops.conga.generator.spi.UrlFilePlugin;
+import io.wcm.devops.conga.generator.spi.context.PluginContextOptions;
 import io.wcm.devops.conga.generator.spi.context.UrlFilePluginContext;
 
 public class HttpUrlFilePluginTest {
 
   private UrlFilePlugin underTest;
+  private PluginContextOptions pluginContextOptions;
   private UrlFilePluginContext context;
 
   @Before
   public void setUp() {
     underTest = new HttpUrlFilePlugin();
-    context = new UrlFilePluginContext();
+    pluginContextOptions = new PluginContextOptions();
+    context = new UrlFilePluginContext()
+        .pluginContextOptions(pluginContextOptions);
   }
 
   @Test
@@ -60,6 +68,17 @@ public class HttpUrlFilePluginTest {
     }
   }
 
+  @Test
+  public void testGetFileCacheDisabled() throws Exception {
+    pluginContextOptions.genericPluginConfig(ImmutableMap.<String, Map<String, Object>>of(HttpUrlFilePlugin.NAME,
+        ImmutableMap.<String, Object>of(HttpUrlFilePlugin.PARAM_CACHE, false)));
+    try (InputStream is = underTest.getFile("http://wcm.io/", context)) {
+      assertNotNull(is);
+      assertTrue(IOUtils.toByteArray(is).length > 0);
+    }
+    assertNull(underTest.getLocalFile("http://wcm.io/", context));
+  }
+
   @Test
   public void testGetFileUrl() throws Exception {
     URL url = underTest.getFileUrl("http://wcm.io/", context);
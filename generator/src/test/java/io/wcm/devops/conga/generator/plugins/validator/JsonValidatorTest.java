@@ -57,6 +57,48 @@ public class JsonValidatorTest {
     underTest.apply(fileContext, null);
   }
 
+  @Test
+  public void testValidInMemory() throws Exception {
+    FileContext fileContext = new FileContext().file(new File("target/test.json")).charset("UTF-8")
+        .contentInMemory("/* comment */ {\"values\": [1, 2.5, true, null, {\"nested\": \"value\"}]}");
+    underTest.apply(fileContext, null);
+  }
+
+  @Test(expected = ValidationException.class)
+  public void testInvalidTrailingContentInMemory() throws Exception {
+    FileContext fileContext = new FileContext().file(new File("target/test.json")).charset("UTF-8")
+        .contentInMemory("{\"info\": \"value\"} }");
+    underTest.apply(fileContext, null);
+  }
+
+  @Test
+  public void testEmptyInMemory() throws Exception {
+    FileContext fileContext = new FileContext().file(new File("target/test.json")).charset("UTF-8")
+        .contentInMemory("");
+    underTest.apply(fileContext, null);
+  }
+
+  @Test
+  public void testWhitespaceOnlyInMemory() throws Exception {
+    FileContext fileContext = new FileContext().file(new File("target/test.json")).charset("UTF-8")
+        .contentInMemory("  \n\t\n ");
+    underTest.apply(fileContext, null);
+  }
+
+  @Test
+  public void testCommentOnlyInMemory() throws Exception {
+    FileContext fileContext = new FileContext().file(new File("target/test.json")).charset("UTF-8")
+        .contentInMemory("/* comment */\n// another comment\n");
+    underTest.apply(fileContext, null);
+  }
+
+  @Test(expected = ValidationException.class)
+  public void testInvalidUnterminatedInMemory() throws Exception {
+    FileContext fileContext = new FileContext().file(new File("target/test.json")).charset("UTF-8")
+        .contentInMemory("{\"info\": ");
+    underTest.apply(fileContext, null);
+  }
+
   @Test
   public void testInvalidFileExtension() throws Exception {
     File file = new File(getClass().getResource("/validators/json/noJson.txt").toURI());
@@ -58,6 +58,13 @@ public class XmlValidatorTest {
     underTest.apply(fileContext, null);
   }
 
+  @Test(expected = ValidationException.class)
+  public void testInvalidInMemory() throws Exception {
+    FileContext fileContext = new FileContext().file(new File("target/test.xml")).charset("UTF-8")
+        .contentInMemory("<root><unclosed></root>");
+    underTest.apply(fileContext, null);
+  }
+
   @Test
   public void testInvalidFileExtension() throws Exception {
     File file = new File(getClass().getResource("/validators/xml/noXml.txt").toURI());
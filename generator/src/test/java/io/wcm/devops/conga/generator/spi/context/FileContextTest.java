@@ -0,0 +1,98 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator.spi.context;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileContextTest {
+
+  private File file;
+  private FileContext underTest;
+
+  @Before
+  public void setUp() {
+    file = new File("target/generation-test/fileContext.txt");
+    file.delete();
+    underTest = new FileContext().file(file).charset(StandardCharsets.UTF_8);
+  }
+
+  @After
+  public void tearDown() {
+    file.delete();
+  }
+
+  @Test
+  public void testContentInMemory() throws Exception {
+    underTest.contentInMemory("äöü");
+
+    assertFalse(file.exists());
+    assertEquals("äöü", underTest.getContentAsString());
+
+    underTest.flush();
+
+    assertTrue(file.exists());
+    assertEquals("äöü", FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testGetFileDoesNotWriteContent() throws Exception {
+    underTest.contentInMemory("content1");
+
+    assertFalse(underTest.getFile().exists());
+    assertTrue(underTest.isContentInMemory());
+    assertTrue(underTest.exists());
+  }
+
+  @Test
+  public void testReplaceContentInMemory() throws Exception {
+    underTest.contentInMemory("content1");
+    underTest.content("content2");
+
+    assertFalse(file.exists());
+    assertEquals("content2", underTest.getContentAsString());
+  }
+
+  @Test
+  public void testReplaceContentInFile() throws Exception {
+    FileUtils.write(file, "content1", StandardCharsets.UTF_8);
+    underTest.content("content2");
+
+    assertFalse(underTest.isContentInMemory());
+    assertEquals("content2", FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testContentFromFile() throws Exception {
+    FileUtils.write(file, "content2", StandardCharsets.UTF_8);
+
+    assertEquals("content2", underTest.getContentAsString());
+  }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator.spi.context;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+public class ValidatorContextTest {
+
+  @Test
+  public void testOptions() {
+    ValidatorContext underTest = new ValidatorContext();
+    assertNull(underTest.getOptions());
+
+    underTest.options(ImmutableMap.<String, Object>of("key1", "value1"));
+    assertEquals(ImmutableMap.of("key1", "value1"), underTest.getOptions());
+
+    underTest.options(null);
+    assertNull(underTest.getOptions());
+  }
+
+  @Test
+  public void testLazyOptions() {
+    AtomicInteger count = new AtomicInteger();
+    ValidatorContext underTest = new ValidatorContext()
+        .optionsSupplier(() -> {
+          count.incrementAndGet();
+          return ImmutableMap.<String, Object>of("key1", "value1");
+        });
+    assertEquals(0, count.get());
+
+    Map<String, Object> options = underTest.getOptions();
+    assertEquals(ImmutableMap.of("key1", "value1"), options);
+    assertEquals(options, underTest.getOptions());
+    assertEquals(1, count.get());
+  }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class ClassLoaderRegistryTest {
+
+  private File dir1;
+  private File dir2;
+  private ClassLoaderRegistry underTest;
+
+  @Before
+  public void setUp() throws IOException {
+    dir1 = Files.createTempDirectory("conga-classloader-1").toFile();
+    dir2 = Files.createTempDirectory("conga-classloader-2").toFile();
+    FileUtils.write(new File(dir1, "test.txt"), "test", "UTF-8");
+    underTest = new ClassLoaderRegistry();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(dir1);
+    FileUtils.deleteDirectory(dir2);
+  }
+
+  @Test
+  public void testShareClassLoader() throws IOException {
+    URLClassLoader classLoader1 = underTest.acquire(urls(dir1, dir2));
+    URLClassLoader classLoader2 = underTest.acquire(urls(dir1, dir2));
+    URLClassLoader classLoader3 = underTest.acquire(urls(dir2, dir1));
+
+    assertSame(classLoader1, classLoader2);
+    assertNotSame(classLoader1, classLoader3);
+    assertEquals(2, underTest.size());
+
+    underTest.release(classLoader1);
+    underTest.release(classLoader2);
+    underTest.release(classLoader3);
+
+    // unreferenced class loaders are kept for reuse until the registry is closed
+    assertEquals(2, underTest.size());
+    assertSame(classLoader1, underTest.acquire(urls(dir1, dir2)));
+    underTest.release(classLoader1);
+  }
+
+  @Test
+  public void testClose() throws IOException {
+    URLClassLoader classLoader = underTest.acquire(urls(dir1));
+    assertNotNull(classLoader.getResource("test.txt"));
+    underTest.release(classLoader);
+
+    underTest.close();
+    assertEquals(0, underTest.size());
+    assertNull(classLoader.getResource("test.txt"));
+  }
+
+  @Test
+  public void testCloseWhileReferenced() throws IOException {
+    URLClassLoader classLoader = underTest.acquire(urls(dir1));
+
+    underTest.close();
+    assertEquals(1, underTest.size());
+    assertNotNull(classLoader.getResource("test.txt"));
+
+    underTest.release(classLoader);
+    assertEquals(0, underTest.size());
+    assertNull(classLoader.getResource("test.txt"));
+  }
+
+  @Test
+  public void testShared() throws IOException {
+    URLClassLoader classLoader1 = underTest.acquire(urls(dir1));
+    URLClassLoader classLoader2 = underTest.acquire(urls(dir2));
+
+    StringBuilder shared1 = underTest.getShared(classLoader1, StringBuilder.class, StringBuilder::new);
+    assertSame(shared1, underTest.getShared(classLoader1, StringBuilder.class, StringBuilder::new));
+    assertNotSame(shared1, underTest.getShared(classLoader2, StringBuilder.class, StringBuilder::new));
+
+    // shared object is kept with the unreferenced class loader for reuse
+    underTest.release(classLoader1);
+    assertSame(classLoader1, underTest.acquire(urls(dir1)));
+    assertSame(shared1, underTest.getShared(classLoader1, StringBuilder.class, StringBuilder::new));
+
+    underTest.release(classLoader1);
+    underTest.release(classLoader2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSharedReleased() throws IOException {
+    URLClassLoader classLoader = underTest.acquire(urls(dir1));
+    underTest.release(classLoader);
+    underTest.getShared(classLoader, StringBuilder.class, StringBuilder::new);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testAcquireAfterClose() throws IOException {
+    underTest.close();
+    underTest.acquire(urls(dir1));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testReleaseTwice() throws IOException {
+    URLClassLoader classLoader = underTest.acquire(urls(dir1));
+    underTest.release(classLoader);
+    underTest.release(classLoader);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testReleaseUnknown() {
+    underTest.release(getClass().getClassLoader());
+  }
+
+  private static List<URL> urls(File... dirs) throws IOException {
+    ImmutableList.Builder<URL> urls = ImmutableList.builder();
+    for (File dir : dirs) {
+      urls.add(dir.toURI().toURL());
+    }
+    return urls.build();
+  }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import io.wcm.devops.conga.generator.util.CompiledVariableString.Escaped;
+import io.wcm.devops.conga.generator.util.CompiledVariableString.JexlExpression;
+import io.wcm.devops.conga.generator.util.CompiledVariableString.Literal;
+import io.wcm.devops.conga.generator.util.CompiledVariableString.ProviderVariable;
+import io.wcm.devops.conga.generator.util.CompiledVariableString.Token;
+import io.wcm.devops.conga.generator.util.CompiledVariableString.Variable;
+
+public class CompiledVariableStringTest {
+
+  @Test
+  public void testLiteral() {
+    CompiledVariableString underTest = CompiledVariableString.compile("abc");
+    assertFalse(underTest.hasExpressions());
+    assertFalse(underTest.isSingleExpression());
+    assertEquals(1, underTest.getTokens().size());
+    assertTrue(underTest.getTokens().get(0) instanceof Literal);
+  }
+
+  @Test
+  public void testSingleVariable() {
+    CompiledVariableString underTest = CompiledVariableString.compile("${var1:def}");
+    assertTrue(underTest.isSingleExpression());
+    Variable variable = (Variable)underTest.getTokens().get(0);
+    assertNull(variable.getValueProviderName());
+    assertEquals("var1", variable.getVariable());
+    assertEquals("def", variable.getDefaultValueString());
+    assertEquals("${var1:def}", variable.getSource());
+  }
+
+  @Test
+  public void testMixed() {
+    CompiledVariableString underTest = CompiledVariableString.compile("a${var1}b\\${var2}${provider::var3}${var1 + 1}");
+    assertTrue(underTest.hasExpressions());
+    assertFalse(underTest.isSingleExpression());
+    assertTrue(underTest.hasValueProviderReference());
+
+    List<Token> tokens = underTest.getTokens();
+    assertEquals(6, tokens.size());
+    assertEquals("a", ((Literal)tokens.get(0)).getSource());
+    assertEquals("var1", ((Variable)tokens.get(1)).getVariable());
+    assertEquals("b", ((Literal)tokens.get(2)).getSource());
+    assertEquals("var2", ((Escaped)tokens.get(3)).getExpression());
+    assertEquals("provider", ((ProviderVariable)tokens.get(4)).getValueProviderName());
+    assertEquals("var1 + 1", ((JexlExpression)tokens.get(5)).getExpression());
+
+    assertEquals("a${var1}b${var2}${provider::var3}${var1 + 1}", underTest.deescape());
+  }
+
+  @Test
+  public void testCached() {
+    assertSame(CompiledVariableString.compile("${var1}"), CompiledVariableString.compile("${var1}"));
+  }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.ExecutorService;
+
+import org.junit.Test;
+
+public class ExecutorUtilTest {
+
+  @Test
+  public void testNewFixedThreadPool() throws Exception {
+    ClassLoader previousClassLoader = Thread.currentThread().getContextClassLoader();
+    try (URLClassLoader classLoader = new URLClassLoader(new URL[0], previousClassLoader)) {
+      Thread.currentThread().setContextClassLoader(classLoader);
+      ExecutorService executor = ExecutorUtil.newFixedThreadPool(2, "test-%d");
+      try {
+        Thread thread = executor.submit(() -> Thread.currentThread()).get();
+        assertSame(classLoader, thread.getContextClassLoader());
+        assertTrue(thread.isDaemon());
+        assertTrue(thread.getName().startsWith("test-"));
+        assertEquals("value", executor.submit(() -> "value").get());
+      }
+      finally {
+        executor.shutdownNow();
+      }
+    }
+    finally {
+      Thread.currentThread().setContextClassLoader(previousClassLoader);
+    }
+  }
+
+  @Test
+  public void testNewWorkStealingPool() throws Exception {
+    ClassLoader previousClassLoader = Thread.currentThread().getContextClassLoader();
+    try (URLClassLoader classLoader = new URLClassLoader(new URL[0], previousClassLoader)) {
+      Thread.currentThread().setContextClassLoader(classLoader);
+      ExecutorService executor = ExecutorUtil.newWorkStealingPool(2, "test-%d");
+      try {
+        Thread thread = executor.submit(() -> Thread.currentThread()).get();
+        assertSame(classLoader, thread.getContextClassLoader());
+        assertTrue(thread.isDaemon());
+        assertTrue(thread.getName().startsWith("test-"));
+        assertEquals("value", executor.submit(() -> "value").get());
+      }
+      finally {
+        executor.shutdownNow();
+      }
+    }
+    finally {
+      Thread.currentThread().setContextClassLoader(previousClassLoader);
+    }
+  }
+
+}
@@ -0,0 +1,162 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator.util;
+
+import static io.wcm.devops.conga.generator.util.VariableMapResolver.ITEM_VARIABLE;
+import static io.wcm.devops.conga.generator.util.VariableMapResolver.LIST_VARIABLE_ITERATE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import io.wcm.devops.conga.generator.spi.context.PluginContextOptions;
+import io.wcm.devops.conga.generator.spi.context.ValueProviderGlobalContext;
+
+public class LazyVariableMapTest {
+
+  private VariableMapResolver variableMapResolver;
+
+  @Before
+  public void setUp() {
+    PluginContextOptions pluginContextOptions = new PluginContextOptions()
+        .pluginManager(new PluginManagerImpl());
+    ValueProviderGlobalContext context = new ValueProviderGlobalContext()
+        .pluginContextOptions(pluginContextOptions);
+    variableMapResolver = new VariableMapResolver(context);
+  }
+
+  @Test
+  public void testResolveOnAccess() {
+    Map<String, Object> underTest = variableMapResolver.resolveLazy(ImmutableMap.of("var1", "v1", "var2", "${var1}v2",
+        "key1", "The ${var2}", "key2", "${unknown:default}"));
+
+    assertEquals("The v1v2", underTest.get("key1"));
+    assertEquals("v1v2", underTest.get("var2"));
+    assertTrue(underTest.containsKey("key2"));
+    assertFalse(underTest.containsKey("unknown"));
+    assertEquals(4, underTest.size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownVariableInUnusedValue() {
+    // unknown variable is reported even if the value is never accessed
+    variableMapResolver.resolveLazy(ImmutableMap.of("var1", "v1", "invalid", "${unknown}"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownNestedVariableInUnusedValue() {
+    variableMapResolver.resolveLazy(ImmutableMap.of("var1", ImmutableMap.of("var11", "v11"),
+        "key1", ImmutableMap.of("invalid", "${var1.unknown}")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownVariableInIterate() {
+    variableMapResolver.resolveLazy(ImmutableMap.of("var1", ImmutableList.of("a", "b"),
+        "key1", ImmutableMap.of(LIST_VARIABLE_ITERATE, "${var1}", "item", "${" + ITEM_VARIABLE + "}${unknown}")));
+  }
+
+  @Test
+  public void testNestedVariables() {
+    Map<String, Object> underTest = variableMapResolver.resolveLazy(ImmutableMap.of(
+        "var1", ImmutableMap.of("var11", "v11", "var12", "${var2}"),
+        "var2", ImmutableMap.of("var21", "v21"),
+        "key1", "${var1.var11}${var1.var12.var21}${var2.var21}"));
+
+    assertEquals("v11v21v21", underTest.get("key1"));
+  }
+
+  @Test
+  public void testKeySet() {
+    LazyVariableMap underTest = variableMapResolver.resolveLazy(ImmutableMap.of("var1", "v1", "key1", "${var1}"))
+        .with("key2", "v2");
+    assertEquals(ImmutableSet.of("var1", "key1", "key2"), underTest.keySet());
+  }
+
+  @Test
+  public void testNestedMap() {
+    Map<String, Object> underTest = variableMapResolver.resolveLazy(ImmutableMap.of("var1", "v1",
+        "key1", ImmutableMap.of("key11", "${var1}", "key12", ImmutableList.of("${var1}v2"))));
+
+    assertEquals(ImmutableMap.of("key11", "v1", "key12", ImmutableList.of("v1v2")), underTest.get("key1"));
+  }
+
+  @Test
+  public void testAllValues() {
+    Map<String, Object> config = ImmutableMap.of("var1", "v1", "var2", "${var1}v2", "key1", "\\${var1}");
+    Map<String, Object> underTest = variableMapResolver.resolveLazy(config);
+
+    assertEquals(variableMapResolver.resolve(config, false), underTest);
+    assertEquals(variableMapResolver.resolve(config), variableMapResolver.deescape(underTest));
+  }
+
+  @Test
+  public void testDeescape() {
+    Map<String, Object> underTest = variableMapResolver.deescape(variableMapResolver.resolveLazy(
+        ImmutableMap.of("var1", "v1", "key1", "\\${var1}${var1}")));
+
+    assertEquals("${var1}v1", underTest.get("key1"));
+  }
+
+  @Test
+  public void testWith() {
+    LazyVariableMap map = variableMapResolver.resolveLazy(ImmutableMap.of("var1", "v1", "key1", "${var1}"));
+    Map<String, Object> underTest = map.with("index", 5);
+
+    assertEquals(5, underTest.get("index"));
+    assertEquals("v1", underTest.get("key1"));
+    assertEquals(ImmutableMap.of("var1", "v1", "key1", "v1", "index", 5), underTest);
+    assertFalse(map.containsKey("index"));
+  }
+
+  @Test
+  public void testUnresolvedConfig() {
+    LazyVariableMap underTest = variableMapResolver.resolveLazy(ImmutableMap.of("var1", "v1", "key1", "${var1}"))
+        .with("index", 5);
+
+    assertEquals(ImmutableMap.of("var1", "v1", "key1", "${var1}", "index", 5), underTest.getUnresolvedConfig());
+    assertFalse(underTest.hasValueProviderReference());
+  }
+
+  @Test
+  public void testValueProviderReference() {
+    LazyVariableMap underTest = variableMapResolver.resolveLazy(ImmutableMap.of("var1", "v1",
+        "key1", ImmutableMap.of("key11", ImmutableList.of("${system::java.version}"))));
+
+    assertTrue(underTest.hasValueProviderReference());
+  }
+
+  @Test
+  public void testIterate() {
+    Map<String, Object> config = ImmutableMap.of("var1", ImmutableList.of("a", "b"),
+        "key1", ImmutableMap.of(LIST_VARIABLE_ITERATE, "${var1}", "item", "${" + ITEM_VARIABLE + "}"));
+    Map<String, Object> underTest = variableMapResolver.resolveLazy(config);
+
+    assertEquals(ImmutableList.of(ImmutableMap.of("item", "a"), ImmutableMap.of("item", "b")), underTest.get("key1"));
+  }
+
+}
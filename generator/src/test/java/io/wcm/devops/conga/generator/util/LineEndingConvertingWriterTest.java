@@ -0,0 +1,81 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import org.junit.Test;
+
+import io.wcm.devops.conga.model.shared.LineEndings;
+
+public class LineEndingConvertingWriterTest {
+
+  @Test
+  public void testUnix() throws IOException {
+    assertEquals("abc", convert(LineEndings.unix, "abc"));
+    assertEquals("abc\ndef\nghi\njkl\n", convert(LineEndings.unix, "abc\r\ndef\rghi\njkl\r\n"));
+  }
+
+  @Test
+  public void testWindows() throws IOException {
+    assertEquals("abc\r\ndef\r\nghi\r\njkl\r\n", convert(LineEndings.windows, "abc\r\ndef\rghi\njkl\r\n"));
+  }
+
+  @Test
+  public void testMacOS() throws IOException {
+    assertEquals("abc\rdef\rghi\rjkl\r", convert(LineEndings.macos, "abc\r\ndef\rghi\njkl\r\n"));
+  }
+
+  @Test
+  public void testNull() throws IOException {
+    assertEquals("abc\ndef\n", convert(null, "abc\r\ndef\r"));
+  }
+
+  @Test
+  public void testLineEndingSplitAcrossWrites() throws IOException {
+    assertEquals("abc\r\ndef\r\n\r\nghi\r\n", convert(LineEndings.windows, "abc\r", "\ndef\r", "\r", "\n", "ghi\r"));
+  }
+
+  @Test
+  public void testSingleCharacters() throws IOException {
+    StringWriter result = new StringWriter();
+    try (Writer writer = new LineEndingConvertingWriter(result, LineEndings.windows)) {
+      for (char c : "a\r\nb\rc\n".toCharArray()) {
+        writer.write(c);
+      }
+    }
+    assertEquals("a\r\nb\r\nc\r\n", result.toString());
+  }
+
+  private static String convert(LineEndings lineEndings, String... values) throws IOException {
+    StringWriter result = new StringWriter();
+    try (Writer writer = new LineEndingConvertingWriter(result, lineEndings)) {
+      for (String value : values) {
+        writer.write(value);
+      }
+    }
+    return result.toString();
+  }
+
+}
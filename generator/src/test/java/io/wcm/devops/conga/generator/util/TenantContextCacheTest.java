@@ -0,0 +1,101 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.generator.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import io.wcm.devops.conga.generator.ContextProperties;
+import io.wcm.devops.conga.generator.spi.context.PluginContextOptions;
+import io.wcm.devops.conga.generator.spi.context.ValueProviderGlobalContext;
+import io.wcm.devops.conga.model.environment.Tenant;
+
+public class TenantContextCacheTest {
+
+  private Tenant tenant1;
+  private Tenant tenant2;
+  private TenantContextCache underTest;
+
+  @Before
+  public void setUp() {
+    PluginContextOptions pluginContextOptions = new PluginContextOptions()
+        .pluginManager(new PluginManagerImpl());
+    ValueProviderGlobalContext context = new ValueProviderGlobalContext()
+        .pluginContextOptions(pluginContextOptions);
+
+    tenant1 = new Tenant();
+    tenant1.setTenant("tenant1");
+    tenant1.setRoles(ImmutableList.of("role1"));
+    tenant1.setConfig(ImmutableMap.of("var1", "t1"));
+
+    tenant2 = new Tenant();
+    tenant2.setTenant("${var1}-tenant2");
+
+    underTest = new TenantContextCache(ImmutableMap.of("var1", "v1", "key1", "The ${var1}"),
+        new VariableStringResolver(context), new VariableMapResolver(context));
+  }
+
+  @Test
+  public void testTenantConfig() {
+    Map<String, Object> config1 = underTest.getConfig(tenant1);
+    assertEquals("t1", config1.get("var1"));
+    assertEquals("tenant1", config1.get(ContextProperties.TENANT));
+    assertEquals(ImmutableList.of("role1"), config1.get(ContextProperties.TENANT_ROLES));
+    assertSame(config1, underTest.getConfig(tenant1));
+
+    Map<String, Object> config2 = underTest.getConfig(tenant2);
+    assertEquals("v1", config2.get("var1"));
+    assertEquals("v1-tenant2", config2.get(ContextProperties.TENANT));
+  }
+
+  @Test
+  public void testResolvedTenantConfig() {
+    Map<String, Object> resolvedConfig = underTest.getResolvedConfig(tenant1);
+    assertEquals("The t1", resolvedConfig.get("key1"));
+    assertSame(resolvedConfig, underTest.getResolvedConfig(tenant1));
+    assertSame(resolvedConfig, underTest.resolve(underTest.getConfig(tenant1)));
+    assertEquals("The v1", underTest.getResolvedConfig(tenant2).get("key1"));
+  }
+
+  @Test
+  public void testResolveNodeRoleConfig() {
+    Map<String, Object> resolvedConfig = underTest.resolve(underTest.getConfig());
+    assertEquals("The v1", resolvedConfig.get("key1"));
+    assertSame(resolvedConfig, underTest.resolve(underTest.getConfig()));
+  }
+
+  @Test
+  public void testResolveOtherConfig() {
+    Map<String, Object> config = ImmutableMap.of("var1", "v2", "key1", "The ${var1}");
+    Map<String, Object> resolvedConfig = underTest.resolve(config);
+    assertEquals("The v2", resolvedConfig.get("key1"));
+    assertNotSame(resolvedConfig, underTest.resolve(config));
+  }
+
+}
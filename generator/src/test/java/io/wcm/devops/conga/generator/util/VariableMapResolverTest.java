@@ -22,7 +22,10 @@ package io.wcm.devops.conga.generator.util;
 import static io.wcm.devops.conga.generator.util.VariableMapResolver.ITEM_VARIABLE;
 import static io.wcm.devops.conga.generator.util.VariableMapResolver.LIST_VARIABLE_ITERATE;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 
+import java.util.List;
 import java.util.Map;
 
 import org.junit.Before;
@@ -72,6 +75,55 @@ public class VariableMapResolverTest {
     underTest.resolve(map);
   }
 
+  @Test
+  public void testNestedCyclicReferenceChain() {
+    Map<String, Object> map = ImmutableMap.of("var1", "${var2}", "var2", "${var3}", "var3", "${var1}", "var4", "v4");
+
+    try {
+      underTest.resolve(map);
+      fail("IllegalArgumentException expected");
+    }
+    catch (IllegalArgumentException ex) {
+      assertEquals("Cyclic dependencies in config map detected: var1 -> var2 -> var3 -> var1", ex.getMessage());
+    }
+  }
+
+  @Test
+  public void testNestedMapUnchangedInstance() {
+    Map<String, Object> nestedMap = ImmutableMap.of("var21", "v21");
+    Map<String, Object> map = ImmutableMap.of("var1", "v1", "var2", nestedMap, "key1", "The ${var1}");
+
+    Map<String, Object> result = underTest.resolve(map, false);
+    assertEquals("The v1", result.get("key1"));
+    assertSame(nestedMap, result.get("var2"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testResolvedSubtreesUnmodifiable() {
+    Map<String, Object> map = ImmutableMap.of("var1", "v1",
+        "key1", ImmutableMap.of("key11", "The ${var1}"),
+        "key2", ImmutableList.of("The ${var1}"));
+
+    Map<String, Object> result = underTest.resolve(map);
+    assertEquals(ImmutableMap.of("key11", "The v1"), result.get("key1"));
+    assertEquals(ImmutableList.of("The v1"), result.get("key2"));
+    try {
+      ((Map<String, Object>)result.get("key1")).put("key12", "v2");
+      fail("Modification expected to fail.");
+    }
+    catch (UnsupportedOperationException ex) {
+      // expected
+    }
+    try {
+      ((List<Object>)result.get("key2")).add("v2");
+      fail("Modification expected to fail.");
+    }
+    catch (UnsupportedOperationException ex) {
+      // expected
+    }
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testUnknownVariables() {
     Map<String, Object> map = ImmutableMap.of("key1", "The ${var1} and ${var2}");
@@ -31,6 +31,7 @@ import io.wcm.devops.conga.model.shared.AbstractConfigurable;
  * The filename of the environment YAML file is the environment name, it's not included in the model.
  */
 public final class Environment extends AbstractConfigurable {
+  private static final long serialVersionUID = 1L;
 
   private List<Node> nodes = new ArrayList<>();
   private List<RoleConfig> roleConfig = new ArrayList<>();
@@ -25,6 +25,7 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import org.yaml.snakeyaml.Yaml;
 
@@ -41,12 +42,23 @@ public abstract class AbstractModelReader<T> implements ModelReader<T> {
   private static final Set<String> SUPPORTED_EXTENSIONS = ImmutableSet.of(YAML_EXTENSION);
 
   private final Yaml yaml;
+  private final ThreadLocal<Yaml> threadYaml;
 
   /**
-   * @param yaml YAML
+   * @param yaml YAML. As YAML instances are not thread-safe, reading with this instance is synchronized.
    */
   public AbstractModelReader(Yaml yaml) {
     this.yaml = yaml;
+    this.threadYaml = null;
+  }
+
+  /**
+   * @param yamlFactory Factory for YAML instances. One instance is created per thread, so models can be read
+   *          in parallel.
+   */
+  protected AbstractModelReader(Supplier<Yaml> yamlFactory) {
+    this.yaml = null;
+    this.threadYaml = ThreadLocal.withInitial(yamlFactory);
   }
 
   @Override
@@ -69,7 +81,12 @@ public abstract class AbstractModelReader<T> implements ModelReader<T> {
   @Override
   @SuppressWarnings("unchecked")
   public final T read(Reader reader) {
-    return (T)yaml.load(reader);
+    if (threadYaml != null) {
+      return (T)threadYaml.get().load(reader);
+    }
+    synchronized (yaml) {
+      return (T)yaml.load(reader);
+    }
   }
 
 }
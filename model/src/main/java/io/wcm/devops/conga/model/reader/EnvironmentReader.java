@@ -33,7 +33,7 @@ public final class EnvironmentReader extends AbstractModelReader<Environment> {
    * Constructor
    */
   public EnvironmentReader() {
-    super(getYaml());
+    super(EnvironmentReader::getYaml);
   }
 
   private static Yaml getYaml() {
@@ -33,7 +33,7 @@ public final class RoleReader extends AbstractModelReader<Role> {
    * Constructor
    */
   public RoleReader() {
-    super(getYaml());
+    super(RoleReader::getYaml);
   }
 
   private static Yaml getYaml() {
@@ -22,6 +22,7 @@ package io.wcm.devops.conga.model.role;
 import static io.wcm.devops.conga.model.util.DefaultUtil.defaultEmptyList;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import io.wcm.devops.conga.model.shared.AbstractConfigurable;
@@ -31,6 +32,7 @@ import io.wcm.devops.conga.model.shared.AbstractConfigurable;
  * The filename of the role YAML file is the role name, it's not included in the model.
  */
 public final class Role extends AbstractConfigurable {
+  private static final long serialVersionUID = 1L;
 
   private List<RoleInherit> inherits = new ArrayList<>();
   private List<RoleVariant> variants = new ArrayList<>();
@@ -46,6 +48,7 @@ public final class Role extends AbstractConfigurable {
   }
 
   public void setInherits(List<RoleInherit> inherits) {
+    checkModifiable();
     this.inherits = defaultEmptyList(inherits);
   }
 
@@ -59,6 +62,7 @@ public final class Role extends AbstractConfigurable {
   }
 
   public void setVariants(List<RoleVariant> variants) {
+    checkModifiable();
     this.variants = defaultEmptyList(variants);
   }
 
@@ -72,6 +76,7 @@ public final class Role extends AbstractConfigurable {
   }
 
   public void setTemplateDir(String templateDirectory) {
+    checkModifiable();
     this.templateDir = templateDirectory;
   }
 
@@ -84,7 +89,21 @@ public final class Role extends AbstractConfigurable {
   }
 
   public void setFiles(List<RoleFile> files) {
+    checkModifiable();
     this.files = defaultEmptyList(files);
   }
 
+  /**
+   * Makes this role and its variants read-only. The role files and inheritance relations are not made read-only,
+   * but the lists containing them are unmodifiable.
+   */
+  @Override
+  public void makeReadOnly() {
+    this.inherits = Collections.unmodifiableList(this.inherits);
+    this.variants.forEach(RoleVariant::makeReadOnly);
+    this.variants = Collections.unmodifiableList(this.variants);
+    this.files = Collections.unmodifiableList(this.files);
+    super.makeReadOnly();
+  }
+
 }
@@ -25,6 +25,7 @@ import io.wcm.devops.conga.model.shared.AbstractModel;
  * Defines an inheritance relation to another role.
  */
 public final class RoleInherit extends AbstractModel {
+  private static final long serialVersionUID = 1L;
 
   private String role;
 
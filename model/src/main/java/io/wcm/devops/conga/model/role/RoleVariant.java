@@ -25,6 +25,7 @@ import io.wcm.devops.conga.model.shared.AbstractConfigurable;
  * Defines a named variant of a role.
  */
 public final class RoleVariant extends AbstractConfigurable {
+  private static final long serialVersionUID = 1L;
 
   private String variant;
 
@@ -37,6 +38,7 @@ public final class RoleVariant extends AbstractConfigurable {
   }
 
   public void setVariant(String variant) {
+    checkModifiable();
     this.variant = variant;
   }
 
@@ -20,6 +20,7 @@
 package io.wcm.devops.conga.model.shared;
 
 import static io.wcm.devops.conga.model.util.DefaultUtil.defaultEmptyMap;
+import static io.wcm.devops.conga.model.util.UnmodifiableUtil.unmodifiable;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -30,6 +31,7 @@ import io.wcm.devops.conga.model.util.MapExpander;
  * Abstract {@link Configurable} implementation.
  */
 public abstract class AbstractConfigurable extends AbstractModel implements Configurable {
+  private static final long serialVersionUID = 1L;
 
   private Map<String, Object> config = new HashMap<>();
 
@@ -48,7 +50,15 @@ public abstract class AbstractConfigurable extends AbstractModel implements Conf
    */
   @Override
   public final void setConfig(Map<String, Object> config) {
+    checkModifiable();
     this.config = defaultEmptyMap(MapExpander.expand(config));
   }
 
+  @Override
+  @SuppressWarnings("unchecked")
+  public void makeReadOnly() {
+    this.config = (Map<String, Object>)unmodifiable(this.config);
+    super.makeReadOnly();
+  }
+
 }
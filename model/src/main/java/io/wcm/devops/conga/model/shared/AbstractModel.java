@@ -19,17 +19,63 @@
  */
 package io.wcm.devops.conga.model.shared;
 
+import java.io.Serializable;
+
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
 /**
  * Abstract model implementation.
+ * Model objects are serializable to allow caching snapshots of parsed models. All model classes declare a
+ * serialVersionUID, which has to be incremented on incompatible changes of their fields.
  */
-public abstract class AbstractModel implements Cloneable {
+public abstract class AbstractModel implements Cloneable, Serializable {
+  private static final long serialVersionUID = 1L;
+
+  private transient boolean readOnly;
+
+  /**
+   * Makes this model object read-only, e.g. to share it between threads. Setters throw an
+   * {@link UnsupportedOperationException} afterwards, and collections of this object are wrapped in unmodifiable views.
+   * Subclasses that have nested model objects make them read-only as well.
+   */
+  public void makeReadOnly() {
+    this.readOnly = true;
+  }
+
+  /**
+   * @throws UnsupportedOperationException if this model object is read-only
+   */
+  protected final void checkModifiable() {
+    if (readOnly) {
+      throw new UnsupportedOperationException(getClass().getSimpleName() + " is read-only.");
+    }
+  }
 
   @Override
   public String toString() {
     return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
   }
 
+  /**
+   * Creates a shallow copy of the given model object.
+   * Config maps, lists and nested model objects are shared with the original instance - so the copy should only
+   * be modified by setting new property values, never by modifying the shared maps, lists or objects in place.
+   * The copy of a read-only model object is modifiable again.
+   * @param <T> Model type
+   * @param model Model object
+   * @return Shallow copy
+   */
+  @SuppressWarnings("unchecked")
+  public static <T extends AbstractModel> T shallowCopy(T model) {
+    try {
+      AbstractModel copy = (AbstractModel)((AbstractModel)model).clone();
+      copy.readOnly = false;
+      return (T)copy;
+    }
+    catch (CloneNotSupportedException ex) {
+      throw new IllegalStateException("Unable to copy " + model.getClass().getName(), ex);
+    }
+  }
+
 }
@@ -19,6 +19,8 @@
  */
 package io.wcm.devops.conga.model.util;
 
+import static io.wcm.devops.conga.model.util.UnmodifiableUtil.unmodifiable;
+
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -62,33 +64,55 @@ public final class MapExpander {
   }
 
   /**
-   * Expands shortcut keys
+   * Expands shortcut keys.
+   * The given map is the boundary to config maps from outside the model: All maps and lists from it are copied into
+   * unmodifiable maps and lists, so later modifications of the given map do not affect the expanded map. Only nested
+   * maps and lists that are unmodifiable already (see {@link UnmodifiableUtil#isUnmodifiable(Object)}) and contain
+   * no shortcut keys are shared with the given map.
+   * If the given map itself is unmodifiable and no expansion is required at all it is returned as is.
    * @param map Unexpanded map
    * @return Expanded amp
    */
-  @SuppressWarnings("unchecked")
   public static Map<String, Object> expand(Map<String, Object> map) {
     if (map == null) {
       return null;
     }
+    Map<String, Object> expanded = expandEntries(map);
+    if (UnmodifiableUtil.isUnmodifiable(map) && isSameEntries(map, expanded)) {
+      return map;
+    }
+    return expanded;
+  }
 
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> expandEntries(Map<String, Object> map) {
     Map<String, Object> expanded = new HashMap<>();
-
     for (Map.Entry<String, Object> entry : map.entrySet()) {
       Map.Entry<String, Object> expandedEntry = expandEntry(entry);
       Object value = expandedEntry.getValue();
       if (value instanceof Map) {
         Object existingValue = expanded.get(expandedEntry.getKey());
         if (existingValue instanceof Map) {
-          value = MapMerger.merge((Map<String, Object>)existingValue, (Map<String, Object>)value);
+          value = unmodifiable(MapMerger.merge((Map<String, Object>)existingValue, (Map<String, Object>)value));
         }
       }
       expanded.put(expandedEntry.getKey(), value);
     }
-
     return expanded;
   }
 
+  private static boolean isSameEntries(Map<String, Object> map, Map<String, Object> expanded) {
+    if (map.size() != expanded.size()) {
+      return false;
+    }
+    for (Map.Entry<String, Object> entry : map.entrySet()) {
+      if (!expanded.containsKey(entry.getKey()) || expanded.get(entry.getKey()) != entry.getValue()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private static Map.Entry<String, Object> expandEntry(Map.Entry<String, Object> entry) {
     if (!StringUtils.contains(entry.getKey(), ".")) {
       return new MapEntry<String, Object>(entry.getKey(), expandDeep(entry.getValue()));
@@ -98,29 +122,36 @@ public final class MapExpander {
     String remaining = StringUtils.substringAfter(entry.getKey(), ".");
 
     Map<String, Object> map = new HashMap<>();
-    map.put(remaining, expandDeep(entry.getValue()));
-    Map<String, Object> expandedMap = expand(map);
+    map.put(remaining, entry.getValue());
 
-    return new MapEntry<String, Object>(key, expandedMap);
+    return new MapEntry<String, Object>(key, unmodifiable(expandEntries(map)));
   }
 
+  /**
+   * @param object Value
+   * @return Unmodifiable expanded map or list, or the given value if it is unmodifiable and needs no expansion
+   */
   @SuppressWarnings("unchecked")
   private static Object expandDeep(Object object) {
     if (object instanceof Map) {
-      return expand((Map<String, Object>)object);
+      return unmodifiable(expand((Map<String, Object>)object));
     }
     if (object instanceof List) {
-      List<Object> expandedList;
-      if (object instanceof MergingList) {
-        expandedList = new MergingList<>((MergingList)object);
+      List<Object> list = (List<Object>)object;
+      List<Object> expandedList = new ArrayList<>(list.size());
+      boolean changed = !UnmodifiableUtil.isUnmodifiable(list);
+      for (Object item : list) {
+        Object expandedItem = expandDeep(item);
+        changed = changed || expandedItem != item;
+        expandedList.add(expandedItem);
       }
-      else {
-        expandedList = new ArrayList<>();
+      if (!changed) {
+        return list;
       }
-      for (Object item : (List)object) {
-        expandedList.add(expandDeep(item));
+      if (object instanceof MergingList) {
+        return new MergingList<>((MergingList)object, expandedList);
       }
-      return expandedList;
+      return unmodifiable(expandedList);
     }
     return object;
   }
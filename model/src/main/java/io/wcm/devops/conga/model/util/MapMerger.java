@@ -19,6 +19,8 @@
  */
 package io.wcm.devops.conga.model.util;
 
+import static io.wcm.devops.conga.model.util.UnmodifiableUtil.unmodifiable;
+
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -28,6 +30,11 @@ import java.util.Set;
 
 /**
  * Deep merges two maps.
+ * The given maps are never modified. Nested maps and lists that need no merging are not copied but shared
+ * between the given maps and the merged map - all nested maps and lists of the merged map are unmodifiable.
+ * The unmodifiable views are not copies: the given maps and their nested maps and lists must not be modified after
+ * merging. This is the case for all config maps of the model, which are copied on expanding
+ * (see {@link MapExpander#expand(Map)}).
  */
 public final class MapMerger {
 
@@ -52,11 +59,9 @@ public final class MapMerger {
   public static <K> Map<K, Object> merge(Map<K, Object> map1, Map<K, Object> map2) {
     Map<K, Object> merged = new HashMap<>();
     if (map1 == null || map2 == null) {
-      if (map1 != null) {
-        merged.putAll(map1);
-      }
-      if (map2 != null) {
-        merged.putAll(map2);
+      Map<K, Object> map = map1 != null ? map1 : map2;
+      if (map != null) {
+        map.forEach((key, value) -> merged.put(key, unmodifiable(value)));
       }
       return merged;
     }
@@ -71,7 +76,13 @@ public final class MapMerger {
       if (v1 instanceof Map || v2 instanceof Map) {
         Map<K, Object> m1 = v1 instanceof Map ? (Map<K, Object>)v1 : null;
         Map<K, Object> m2 = v2 instanceof Map ? (Map<K, Object>)v2 : null;
-        merged.put(key, merge(m1, m2));
+        if (m1 == null || m2 == null) {
+          // share unchanged sub tree
+          merged.put(key, unmodifiable(m1 != null ? m1 : m2));
+        }
+        else {
+          merged.put(key, unmodifiable(merge(m1, m2)));
+        }
       }
       else if (v1 instanceof List && v2 instanceof List) {
         List<Object> l1 = (List<Object>)v1;
@@ -89,14 +100,14 @@ public final class MapMerger {
           merged.put(key, mergedList);
         }
         else {
-          merged.put(key, l1);
+          merged.put(key, unmodifiable(l1));
         }
       }
       else if (v1 != null) {
-        merged.put(key, cleanupIfList(v1));
+        merged.put(key, unmodifiable(cleanupIfList(v1)));
       }
       else {
-        merged.put(key, cleanupIfList(v2));
+        merged.put(key, unmodifiable(cleanupIfList(v2)));
       }
     }
 
@@ -104,6 +115,9 @@ public final class MapMerger {
   }
 
   private static boolean isMergeable(List<Object> list) {
+    if (list instanceof ResolvedModelList) {
+      return false;
+    }
     return (list instanceof MergingList && ((MergingList)list).hasMergePosition())
         || list.contains(LIST_MERGE_ENTRY);
   }
@@ -115,7 +129,15 @@ public final class MapMerger {
    */
   @SuppressWarnings("unchecked")
   private static Object cleanupIfList(Object value) {
-    if (value instanceof List) {
+    if (value instanceof MergingList && !((MergingList)value).hasMergePosition()) {
+      // list is already cleaned up
+      return value;
+    }
+    else if (value instanceof ResolvedModelList) {
+      // list of model objects contains no merge entries
+      return value;
+    }
+    else if (value instanceof List) {
       return mergeList(((List)value), Collections.emptyList());
     }
     else {
@@ -139,7 +161,7 @@ public final class MapMerger {
       mergedList = new MergingList<>();
       l1.forEach(item -> mergedList.addCheckMergeToken(item));
     }
-    l2.forEach(item -> mergedList.add(item));
+    l2.forEach(item -> mergedList.addMergeItem(item));
     return mergedList;
   }
 
@@ -19,26 +19,52 @@
  */
 package io.wcm.devops.conga.model.util;
 
-import java.util.LinkedList;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Special list that marks a list as "mergeable" in downstream and preservers the merge position.
+ * The list is filled only while merging, it is unmodifiable for all other code because it may be shared between
+ * merged config maps.
  * @param <T> List type
  */
-final class MergingList<T> extends LinkedList<T> {
-  private static final long serialVersionUID = 1L;
+final class MergingList<T> extends AbstractList<T> implements Serializable {
+  private static final long serialVersionUID = 2L;
 
+  private final List<T> items;
   private int mergePositionIndex;
 
   MergingList() {
+    this.items = new ArrayList<>();
     this.mergePositionIndex = -1;
   }
 
   MergingList(MergingList<T> mergingList) {
-    mergingList.forEach(item -> super.add(item));
+    this(mergingList, mergingList.items);
+  }
+
+  /**
+   * Creates a list with the same merge position as the given list, but with different items.
+   * @param mergingList Merging list to take merge position from
+   * @param items Items
+   */
+  MergingList(MergingList<?> mergingList, List<T> items) {
+    this.items = new ArrayList<>(items);
     this.mergePositionIndex = mergingList.mergePositionIndex;
   }
 
+  @Override
+  public T get(int index) {
+    return items.get(index);
+  }
+
+  @Override
+  public int size() {
+    return items.size();
+  }
+
   /**
    * Add item to list. If the item is a _merge_ token it is not added, but the merge position is recorded.
    * Duplicate items are ignored.
@@ -47,7 +73,7 @@ final class MergingList<T> extends LinkedList<T> {
   void addCheckMergeToken(T item) {
     if (MapMerger.LIST_MERGE_ENTRY.equals(item)) {
       if (mergePositionIndex < 0) {
-        mergePositionIndex = this.size();
+        mergePositionIndex = items.size();
       }
     }
     else {
@@ -60,37 +86,35 @@ final class MergingList<T> extends LinkedList<T> {
    * Duplicate items are ignored.
    * @param item item
    */
-  @Override
-  public boolean add(T item) {
+  void addMergeItem(T item) {
     if (MapMerger.LIST_MERGE_ENTRY.equals(item)) {
-      return false;
+      return;
     }
     if (mergePositionIndex >= 0) {
       if (this.addIgnoreDuplicates(mergePositionIndex, item)) {
         mergePositionIndex++;
       }
-      return false;
     }
     else {
-      return this.addIgnoreDuplicates(item);
+      this.addIgnoreDuplicates(item);
     }
   }
 
   private boolean addIgnoreDuplicates(T item) {
-    if (!this.contains(item)) {
-      super.add(item);
+    if (!items.contains(item)) {
+      items.add(item);
       return true;
     }
     return false;
   }
 
   private boolean addIgnoreDuplicates(int index, T item) {
-    if (!this.contains(item)) {
-      if (index > this.size() - 1) {
-        super.add(item);
+    if (!items.contains(item)) {
+      if (index > items.size() - 1) {
+        items.add(item);
       }
       else {
-        super.add(index, item);
+        items.add(index, item);
       }
       return true;
     }
@@ -0,0 +1,32 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.model.util;
+
+import java.util.List;
+
+/**
+ * Marks a list of model objects that are already resolved, and whose items may be created on first access.
+ * Merging config maps, resolving variables and de-escaping pass such lists through unchanged, without
+ * iterating over their items.
+ * @param <T> Item type
+ */
+public interface ResolvedModelList<T> extends List<T> {
+  // marker interface
+}
@@ -0,0 +1,84 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.model.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableCollection;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Wraps nested config maps and lists in unmodifiable views.
+ * Config sub trees are shared between merged and resolved config maps instead of copying them, so they must never
+ * be modified in place.
+ */
+public final class UnmodifiableUtil {
+
+  private static final Class<?> UNMODIFIABLE_MAP_CLASS = Collections.unmodifiableMap(Collections.emptyMap()).getClass();
+  private static final Class<?> UNMODIFIABLE_LIST_CLASS = Collections.unmodifiableList(new LinkedList<>()).getClass();
+  private static final Class<?> UNMODIFIABLE_RANDOM_ACCESS_LIST_CLASS = Collections.unmodifiableList(new ArrayList<>()).getClass();
+
+  private UnmodifiableUtil() {
+    // static methods only
+  }
+
+  /**
+   * Wraps the given value in an unmodifiable view if it is a map or list that is not unmodifiable already.
+   * The nested values are not wrapped. The view is only unmodifiable if the wrapped map or list is not modified
+   * afterwards - so only maps and lists owned by the caller and completely filled must be wrapped.
+   * @param value Value
+   * @return Unmodifiable value
+   */
+  @SuppressWarnings("unchecked")
+  public static Object unmodifiable(Object value) {
+    if (isUnmodifiable(value)) {
+      return value;
+    }
+    if (value instanceof Map) {
+      return Collections.unmodifiableMap((Map<Object, Object>)value);
+    }
+    if (value instanceof List) {
+      return Collections.unmodifiableList((List<Object>)value);
+    }
+    return value;
+  }
+
+  /**
+   * @param value Value
+   * @return true if the value is a map or list that is unmodifiable already: Guava immutable collections,
+   *         unmodifiable views created by {@link #unmodifiable(Object)} and the lists created by the model utilities.
+   *         Values that are no maps or lists are never treated as unmodifiable.
+   */
+  public static boolean isUnmodifiable(Object value) {
+    if (value instanceof Map) {
+      return value instanceof ImmutableMap || value.getClass() == UNMODIFIABLE_MAP_CLASS;
+    }
+    if (value instanceof List) {
+      return value instanceof ImmutableCollection || value instanceof MergingList || value instanceof ResolvedModelList
+          || value.getClass() == UNMODIFIABLE_LIST_CLASS || value.getClass() == UNMODIFIABLE_RANDOM_ACCESS_LIST_CLASS;
+    }
+    return false;
+  }
+
+}
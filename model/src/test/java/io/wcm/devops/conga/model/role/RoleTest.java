@@ -0,0 +1,86 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.model.role;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import io.wcm.devops.conga.model.shared.AbstractModel;
+
+public class RoleTest {
+
+  private Role underTest;
+
+  @Before
+  public void setUp() {
+    RoleVariant variant = new RoleVariant();
+    variant.setVariant("variant1");
+    variant.setConfig(ImmutableMap.of("param1", "value1"));
+
+    underTest = new Role();
+    underTest.setConfig(ImmutableMap.of("param2", "value2"));
+    underTest.setVariants(ImmutableList.of(variant));
+    underTest.setFiles(ImmutableList.of(new RoleFile()));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testReadOnly_Setter() {
+    underTest.makeReadOnly();
+    underTest.setTemplateDir("dir1");
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testReadOnly_Config() {
+    underTest.setConfig(new HashMap<>(underTest.getConfig()));
+    underTest.makeReadOnly();
+    underTest.getConfig().put("param3", "value3");
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testReadOnly_Files() {
+    underTest.setFiles(new ArrayList<>(underTest.getFiles()));
+    underTest.makeReadOnly();
+    underTest.getFiles().clear();
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testReadOnly_Variant() {
+    underTest.makeReadOnly();
+    underTest.getVariants().get(0).setConfig(ImmutableMap.of());
+  }
+
+  @Test
+  public void testShallowCopyModifiable() {
+    underTest.makeReadOnly();
+    Role copy = AbstractModel.shallowCopy(underTest);
+    copy.setTemplateDir("dir1");
+    assertEquals("dir1", copy.getTemplateDir());
+    assertEquals(ImmutableMap.of("param2", "value2"), copy.getConfig());
+  }
+
+}
@@ -22,7 +22,15 @@ package io.wcm.devops.conga.model.util;
 import static io.wcm.devops.conga.model.util.MapExpander.expand;
 import static io.wcm.devops.conga.model.util.MapExpander.getDeep;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.Test;
 
@@ -94,6 +102,66 @@ public class MapExpanderTest {
             ))));
   }
 
+  @Test
+  public void testUnchangedSubtreesShared() {
+    Map<String, Object> unchanged = ImmutableMap.of("a", ImmutableList.of("v1", "v2"));
+    Map<String, Object> map = ImmutableMap.of("key1", unchanged);
+    assertSame(map, expand(map));
+
+    Map<String, Object> expanded = expand(ImmutableMap.of("key1", unchanged, "key2.a", "v3"));
+    assertEquals(ImmutableMap.of("key1", unchanged, "key2", ImmutableMap.of("a", "v3")), expanded);
+    assertSame(unchanged, expanded.get("key1"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testSubtreesUnmodifiable() {
+    Map<String, Object> nested = new HashMap<>();
+    nested.put("a", new ArrayList<>(ImmutableList.of("v1")));
+    Map<String, Object> map = new HashMap<>();
+    map.put("key1", nested);
+    map.put("key2.a", "v2");
+
+    Map<String, Object> expanded = expand(map);
+    assertEquals(ImmutableMap.of("key1", ImmutableMap.of("a", ImmutableList.of("v1")), "key2", ImmutableMap.of("a", "v2")), expanded);
+    Map<String, Object> expandedNested = (Map<String, Object>)expanded.get("key1");
+    try {
+      expandedNested.put("b", "v3");
+      fail("Modification expected to fail.");
+    }
+    catch (UnsupportedOperationException ex) {
+      // expected
+    }
+    try {
+      ((List<Object>)expandedNested.get("a")).add("v3");
+      fail("Modification expected to fail.");
+    }
+    catch (UnsupportedOperationException ex) {
+      // expected
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testMutableSourceCopied() {
+    List<Object> list = new ArrayList<>(ImmutableList.of("v1"));
+    Map<String, Object> nested = new HashMap<>();
+    nested.put("a", list);
+    Map<String, Object> map = new HashMap<>();
+    map.put("key1", nested);
+
+    Map<String, Object> expanded = expand(map);
+    assertNotSame(map, expanded);
+    assertNotSame(nested, expanded.get("key1"));
+
+    // modifications of the given map do not affect the expanded map
+    map.put("key2", "v2");
+    nested.put("b", "v3");
+    list.add("v4");
+    assertEquals(ImmutableMap.of("key1", ImmutableMap.of("a", ImmutableList.of("v1"))), expanded);
+    assertEquals(ImmutableList.of("v1"), ((Map<String, Object>)expanded.get("key1")).get("a"));
+  }
+
   @Test
   public void testGetDeep() {
     assertNull(getDeep(ImmutableMap.of(), null));
@@ -22,6 +22,8 @@ package io.wcm.devops.conga.model.util;
 import static io.wcm.devops.conga.model.util.MapMerger.LIST_MERGE_ENTRY;
 import static io.wcm.devops.conga.model.util.MapMerger.merge;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 
 import java.util.Collections;
 import java.util.HashMap;
@@ -31,6 +33,7 @@ import java.util.Map;
 import org.junit.Test;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 public class MapMergerTest {
 
@@ -252,6 +255,46 @@ public class MapMergerTest {
             map("k1", list("v2", "v3"))));
   }
 
+  @Test
+  public void testUnchangedSubtreesShared() {
+    Map<String, Object> nested1 = ImmutableMap.of("p1", "v1");
+    Map<String, Object> nested2 = ImmutableMap.of("p2", "v2");
+    Map<String, Object> merged = merge(map("k1", nested1), map("k2", nested2));
+    assertEquals(map("k1", nested1, "k2", nested2), merged);
+    assertSame(nested1, merged.get("k1"));
+    assertSame(nested2, merged.get("k2"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testSubtreesUnmodifiable() {
+    Map<String, Object> merged = merge(map("k1", map("p1", "v1"), "k3", list("v3")),
+        map("k1", map("p2", "v2"), "k2", map("p3", "v3"), "k3", list("v4")));
+    assertEquals(map("k1", map("p1", "v1", "p2", "v2"), "k2", map("p3", "v3"), "k3", list("v3")), merged);
+    assertUnsupported(() -> ((Map<String, Object>)merged.get("k1")).put("p4", "v4"));
+    assertUnsupported(() -> ((Map<String, Object>)merged.get("k2")).put("p4", "v4"));
+    assertUnsupported(() -> ((List<Object>)merged.get("k3")).add("v5"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testMergedListUnmodifiable() {
+    Map<String, Object> merged = merge(map("k1", list("v1", LIST_MERGE_ENTRY)), map("k1", list("v2")));
+    assertEquals(map("k1", list("v1", "v2")), merged);
+    assertUnsupported(() -> ((List<Object>)merged.get("k1")).add("v3"));
+    assertUnsupported(() -> ((List<Object>)merged.get("k1")).remove(0));
+  }
+
+  private static void assertUnsupported(Runnable modification) {
+    try {
+      modification.run();
+      fail("Modification expected to fail.");
+    }
+    catch (UnsupportedOperationException ex) {
+      // expected
+    }
+  }
+
   @Test
   public void testMergeList_EliminateDuplicates_List() {
     assertEquals(map("k1", list(list(1, 1), list(3, 3), list(2, 2))),
@@ -21,7 +21,9 @@ package io.wcm.devops.conga.model.util;
 
 import static io.wcm.devops.conga.model.util.MapMerger.LIST_MERGE_ENTRY;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
+import org.apache.commons.lang3.SerializationUtils;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -42,9 +44,9 @@ public class MergingListTest {
     underTest.addCheckMergeToken("item2");
     underTest.addCheckMergeToken("item2");
 
-    underTest.add("item4");
-    underTest.add("item5");
-    underTest.add("item5");
+    underTest.addMergeItem("item4");
+    underTest.addMergeItem("item5");
+    underTest.addMergeItem("item5");
 
     assertEquals(ImmutableList.of("item1", "item2", "item4", "item5"), underTest);
   }
@@ -55,8 +57,8 @@ public class MergingListTest {
     underTest.addCheckMergeToken("item1");
     underTest.addCheckMergeToken("item2");
 
-    underTest.add("item4");
-    underTest.add("item5");
+    underTest.addMergeItem("item4");
+    underTest.addMergeItem("item5");
 
     assertEquals(ImmutableList.of("item4", "item5", "item1", "item2"), underTest);
   }
@@ -67,8 +69,8 @@ public class MergingListTest {
     underTest.addCheckMergeToken(LIST_MERGE_ENTRY);
     underTest.addCheckMergeToken("item2");
 
-    underTest.add("item4");
-    underTest.add("item5");
+    underTest.addMergeItem("item4");
+    underTest.addMergeItem("item5");
 
     assertEquals(ImmutableList.of("item1", "item4", "item5", "item2"), underTest);
   }
@@ -79,10 +81,10 @@ public class MergingListTest {
     underTest.addCheckMergeToken(LIST_MERGE_ENTRY);
     underTest.addCheckMergeToken("item2");
 
-    underTest.add("item2");
-    underTest.add("item4");
-    underTest.add("item1");
-    underTest.add("item5");
+    underTest.addMergeItem("item2");
+    underTest.addMergeItem("item4");
+    underTest.addMergeItem("item1");
+    underTest.addMergeItem("item5");
 
     assertEquals(ImmutableList.of("item1", "item4", "item5", "item2"), underTest);
   }
@@ -93,8 +95,8 @@ public class MergingListTest {
     underTest.addCheckMergeToken("item2");
     underTest.addCheckMergeToken(LIST_MERGE_ENTRY);
 
-    underTest.add("item4");
-    underTest.add("item5");
+    underTest.addMergeItem("item4");
+    underTest.addMergeItem("item5");
 
     assertEquals(ImmutableList.of("item1", "item2", "item4", "item5"), underTest);
   }
@@ -106,10 +108,26 @@ public class MergingListTest {
     underTest.addCheckMergeToken("item2");
     underTest.addCheckMergeToken(LIST_MERGE_ENTRY);
 
-    underTest.add("item4");
-    underTest.add("item5");
+    underTest.addMergeItem("item4");
+    underTest.addMergeItem("item5");
 
     assertEquals(ImmutableList.of("item1", "item4", "item5", "item2"), underTest);
   }
 
+  @Test(expected = UnsupportedOperationException.class)
+  public void testUnmodifiable() {
+    underTest.addCheckMergeToken("item1");
+    underTest.add("item2");
+  }
+
+  @Test
+  public void testSerializable() {
+    underTest.addCheckMergeToken("item1");
+    underTest.addCheckMergeToken(LIST_MERGE_ENTRY);
+
+    MergingList<String> copy = SerializationUtils.clone(underTest);
+    assertEquals(ImmutableList.of("item1"), copy);
+    assertTrue(copy.hasMergePosition());
+  }
+
 }
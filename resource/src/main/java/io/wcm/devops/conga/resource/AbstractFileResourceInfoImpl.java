@@ -25,6 +25,7 @@ import java.io.IOException;
 abstract class AbstractFileResourceInfoImpl implements ResourceInfo {
 
   protected final File file;
+  private volatile String canonicalPath;
 
   AbstractFileResourceInfoImpl(String path) {
     this(new File(path));
@@ -54,12 +55,16 @@ abstract class AbstractFileResourceInfoImpl implements ResourceInfo {
 
   @Override
   public final String getCanonicalPath() {
-    try {
-      return file.getCanonicalPath();
-    }
-    catch (IOException ex) {
-      throw new ResourceException("Unable to get canonical path from " + file.getPath(), ex);
+    // canonical path requires file system access, but does not change for a given resource
+    if (canonicalPath == null) {
+      try {
+        canonicalPath = file.getCanonicalPath();
+      }
+      catch (IOException ex) {
+        throw new ResourceException("Unable to get canonical path from " + file.getPath(), ex);
+      }
     }
+    return canonicalPath;
   }
 
   @Override
@@ -0,0 +1,426 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.resource;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Index of the classpath of a class loader. Each JAR file is opened only once via a zip file system, and the
+ * names of all its entries are indexed by parent folder. Classpath directories are listed on demand.
+ * Folder listings and resource lookups (including negative lookups) are cached.
+ * If the class loader hierarchy contains class loaders whose classpath cannot be detected, folder listings
+ * fall back to classpath scanning.
+ */
+final class ClasspathIndex {
+
+  /*
+   * JAR indexes are shared between all class loaders, they are only dropped on memory pressure.
+   * The key contains file size and modification date to detect changed JAR files.
+   */
+  private static final Cache<String, JarIndex> JAR_INDEXES = CacheBuilder.newBuilder()
+      .softValues()
+      .build();
+
+  private final ClassLoader classLoader;
+  private final Map<String, Listing> listings = new ConcurrentHashMap<>();
+  private final Map<String, Optional<URL>> resourceUrls = new ConcurrentHashMap<>();
+  private volatile List<Root> roots;
+  private volatile boolean rootsDetected;
+
+  ClasspathIndex(ClassLoader classLoader) {
+    this.classLoader = classLoader;
+  }
+
+  /**
+   * Get URL of classpath resource.
+   * @param path Path without leading slash
+   * @return URL or null if resource does not exist
+   */
+  URL getResourceUrl(String path) {
+    return resourceUrls.computeIfAbsent(path, key -> Optional.ofNullable(classLoader.getResource(key))).orElse(null);
+  }
+
+  /**
+   * Get files and folders contained in the given classpath folder, merged from all classpath roots.
+   * @param path Path without leading slash
+   * @return Folder listing
+   */
+  Listing getListing(String path) {
+    String folderPath = StringUtils.removeEnd(path, "/");
+    Listing listing = listings.get(folderPath);
+    if (listing == null) {
+      List<Root> classpathRoots = getRoots();
+      if (classpathRoots != null) {
+        listing = buildListing(classpathRoots, folderPath);
+      }
+      else {
+        listing = scanListing(folderPath);
+      }
+      listings.put(folderPath, listing);
+    }
+    return listing;
+  }
+
+  private static Listing buildListing(List<Root> classpathRoots, String path) {
+    Map<String, URL> files = new LinkedHashMap<>();
+    Set<String> folders = new LinkedHashSet<>();
+    for (Root root : classpathRoots) {
+      try {
+        root.list(path, files, folders);
+      }
+      catch (IOException ex) {
+        throw new ResourceException("Unable to enumerate classpath resources at " + path + " in " + root, ex);
+      }
+    }
+    return new Listing(ImmutableList.copyOf(files.values()), ImmutableList.copyOf(folders));
+  }
+
+  private Listing scanListing(String path) {
+    List<URL> fileUrls = new ArrayList<>();
+    List<String> folderNames = new ArrayList<>();
+    try {
+      PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(classLoader);
+      org.springframework.core.io.Resource[] classpathResources = resolver.getResources("classpath*:" + path + "/*");
+      for (org.springframework.core.io.Resource resource : classpathResources) {
+        if (StringUtils.endsWith(resource.getURL().toString(), "/")) {
+          folderNames.add(resource.getFilename());
+        }
+        else {
+          fileUrls.add(resource.getURL());
+        }
+      }
+    }
+    catch (FileNotFoundException ex) {
+      // empty folder
+    }
+    catch (IOException ex) {
+      throw new ResourceException("Unable to enumerate classpath resources at " + path, ex);
+    }
+    return new Listing(ImmutableList.copyOf(fileUrls), ImmutableList.copyOf(folderNames));
+  }
+
+  /**
+   * Detects the classpath roots of the class loader hierarchy in parent-first order.
+   * @return Classpath roots or null if the hierarchy contains a class loader with unknown classpath
+   */
+  private List<Root> getRoots() {
+    if (!rootsDetected) {
+      synchronized (this) {
+        if (!rootsDetected) {
+          roots = detectRoots();
+          rootsDetected = true;
+        }
+      }
+    }
+    return roots;
+  }
+
+  private List<Root> detectRoots() {
+    ClassLoader systemClassLoader = ClassLoader.getSystemClassLoader();
+    Deque<List<URL>> classLoaderUrls = new ArrayDeque<>();
+    for (ClassLoader loader = classLoader; loader != null; loader = loader.getParent()) {
+      if (loader instanceof URLClassLoader) {
+        URL[] urls = ((URLClassLoader)loader).getURLs();
+        classLoaderUrls.addFirst(urls != null ? ImmutableList.copyOf(urls) : ImmutableList.of());
+      }
+      else if (loader == systemClassLoader) {
+        classLoaderUrls.addFirst(getSystemClasspathUrls());
+      }
+      else {
+        return null;
+      }
+      if (loader == systemClassLoader) {
+        // parents of system class loader contain only JDK classes
+        break;
+      }
+    }
+
+    List<Root> result = new ArrayList<>();
+    Set<String> visited = new HashSet<>();
+    try {
+      for (List<URL> urls : classLoaderUrls) {
+        for (URL url : urls) {
+          if (!addRoot(url, result, visited)) {
+            return null;
+          }
+        }
+      }
+    }
+    catch (IOException | URISyntaxException ex) {
+      throw new ResourceException("Unable to index classpath of " + classLoader, ex);
+    }
+    return ImmutableList.copyOf(result);
+  }
+
+  private static List<URL> getSystemClasspathUrls() {
+    List<URL> urls = new ArrayList<>();
+    for (String path : StringUtils.split(StringUtils.defaultString(System.getProperty("java.class.path")), File.pathSeparator)) {
+      try {
+        urls.add(new File(path).toURI().toURL());
+      }
+      catch (MalformedURLException ex) {
+        throw new ResourceException("Invalid classpath entry: " + path, ex);
+      }
+    }
+    return urls;
+  }
+
+  /**
+   * Add classpath root for URL. JAR files may reference further JAR files via Class-Path manifest header.
+   * @return false if the URL type is not supported
+   */
+  private static boolean addRoot(URL url, List<Root> result, Set<String> visited) throws IOException, URISyntaxException {
+    if (!StringUtils.equals(url.getProtocol(), "file")) {
+      return false;
+    }
+    Path path = Paths.get(url.toURI());
+    if (!visited.add(path.toString())) {
+      return true;
+    }
+    if (Files.isDirectory(path)) {
+      result.add(new DirectoryRoot(path));
+    }
+    else if (Files.isRegularFile(path)) {
+      JarIndex jarIndex = getJarIndex(path);
+      result.add(new JarRoot(url, jarIndex));
+      for (String classPathEntry : jarIndex.manifestClassPath) {
+        URL classPathUrl;
+        try {
+          classPathUrl = new URL(url, classPathEntry);
+        }
+        catch (MalformedURLException ex) {
+          // ignore invalid entries like the class loader does
+          continue;
+        }
+        if (!addRoot(classPathUrl, result, visited)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static JarIndex getJarIndex(Path path) throws IOException {
+    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+    String key = path.toRealPath().toString() + ":" + attributes.size() + ":" + attributes.lastModifiedTime().toMillis();
+    try {
+      return JAR_INDEXES.get(key, () -> new JarIndex(path));
+    }
+    catch (ExecutionException ex) {
+      if (ex.getCause() instanceof IOException) {
+        throw (IOException)ex.getCause();
+      }
+      throw new ResourceException("Unable to index JAR file " + path, ex.getCause());
+    }
+  }
+
+  /**
+   * Files and folders of a classpath folder.
+   */
+  static final class Listing {
+
+    private final List<URL> fileUrls;
+    private final List<String> folderNames;
+
+    Listing(List<URL> fileUrls, List<String> folderNames) {
+      this.fileUrls = fileUrls;
+      this.folderNames = folderNames;
+    }
+
+    List<URL> getFileUrls() {
+      return fileUrls;
+    }
+
+    List<String> getFolderNames() {
+      return folderNames;
+    }
+
+  }
+
+  private interface Root {
+
+    void list(String path, Map<String, URL> files, Set<String> folders) throws IOException;
+
+  }
+
+  private static final class DirectoryRoot implements Root {
+
+    private final Path dir;
+
+    DirectoryRoot(Path dir) {
+      this.dir = dir;
+    }
+
+    @Override
+    public void list(String path, Map<String, URL> files, Set<String> folders) throws IOException {
+      Path folder = StringUtils.isEmpty(path) ? dir : dir.resolve(path);
+      if (!Files.isDirectory(folder)) {
+        return;
+      }
+      try (DirectoryStream<Path> children = Files.newDirectoryStream(folder)) {
+        for (Path child : children) {
+          String name = child.getFileName().toString();
+          if (Files.isDirectory(child)) {
+            folders.add(name);
+          }
+          else if (!files.containsKey(name)) {
+            files.put(name, child.toUri().toURL());
+          }
+        }
+      }
+    }
+
+    @Override
+    public String toString() {
+      return dir.toString();
+    }
+
+  }
+
+  private static final class JarRoot implements Root {
+
+    private final String jarUrl;
+    private final JarIndex jarIndex;
+
+    JarRoot(URL jarUrl, JarIndex jarIndex) {
+      this.jarUrl = jarUrl.toExternalForm();
+      this.jarIndex = jarIndex;
+    }
+
+    @Override
+    public void list(String path, Map<String, URL> files, Set<String> folders) throws IOException {
+      String prefix = StringUtils.isEmpty(path) ? "" : path + "/";
+      for (String name : jarIndex.getFiles(path)) {
+        if (!files.containsKey(name)) {
+          files.put(name, new URL("jar:" + jarUrl + "!/" + prefix + name));
+        }
+      }
+      folders.addAll(jarIndex.getFolders(path));
+    }
+
+    @Override
+    public String toString() {
+      return jarUrl;
+    }
+
+  }
+
+  /**
+   * Names of all entries of a JAR file by parent folder, read via zip file system.
+   */
+  private static final class JarIndex {
+
+    private final Map<String, List<String>> files;
+    private final Map<String, List<String>> folders;
+    private final List<String> manifestClassPath;
+
+    JarIndex(Path jarFile) throws IOException {
+      Map<String, List<String>> fileMap = new HashMap<>();
+      Map<String, List<String>> folderMap = new HashMap<>();
+      List<String> classPath = new ArrayList<>();
+      try (FileSystem fileSystem = FileSystems.newFileSystem(jarFile, (ClassLoader)null)) {
+        for (Path root : fileSystem.getRootDirectories()) {
+          Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+              if (dir.getParent() != null) {
+                add(folderMap, dir);
+              }
+              return FileVisitResult.CONTINUE;
+            }
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+              add(fileMap, file);
+              return FileVisitResult.CONTINUE;
+            }
+          });
+        }
+        Path manifestFile = fileSystem.getPath("/META-INF/MANIFEST.MF");
+        if (Files.isRegularFile(manifestFile)) {
+          try (InputStream is = Files.newInputStream(manifestFile)) {
+            String manifestClassPathValue = new Manifest(is).getMainAttributes().getValue(Attributes.Name.CLASS_PATH);
+            if (manifestClassPathValue != null) {
+              Collections.addAll(classPath, StringUtils.split(manifestClassPathValue, " "));
+            }
+          }
+        }
+      }
+      this.files = ImmutableMap.copyOf(fileMap);
+      this.folders = ImmutableMap.copyOf(folderMap);
+      this.manifestClassPath = ImmutableList.copyOf(classPath);
+    }
+
+    private static void add(Map<String, List<String>> map, Path entry) {
+      String parent = StringUtils.strip(entry.getParent().toString(), "/");
+      String name = StringUtils.strip(entry.getFileName().toString(), "/");
+      map.computeIfAbsent(parent, key -> new ArrayList<>()).add(name);
+    }
+
+    List<String> getFiles(String path) {
+      return files.getOrDefault(path, ImmutableList.of());
+    }
+
+    List<String> getFolders(String path) {
+      return folders.getOrDefault(path, ImmutableList.of());
+    }
+
+  }
+
+}
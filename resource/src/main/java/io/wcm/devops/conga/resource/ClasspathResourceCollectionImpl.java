@@ -19,22 +19,17 @@
  */
 package io.wcm.devops.conga.resource;
 
-import java.io.FileNotFoundException;
-import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.SortedSet;
 import java.util.stream.Collectors;
 
-import org.apache.commons.lang3.StringUtils;
-import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
-
 import com.google.common.collect.ImmutableSortedSet;
 
 class ClasspathResourceCollectionImpl extends AbstractClasspathResourceImpl implements ResourceCollection {
 
-  private final List<URL> fileUrls = new ArrayList<>();
+  private final List<URL> fileUrls;
   private final List<String> folderPaths = new ArrayList<>();
   private final ResourceLoader resourceLoader;
 
@@ -42,30 +37,13 @@ class ClasspathResourceCollectionImpl extends AbstractClasspathResourceImpl impl
     super(path, resourceLoader.getClassLoader());
     this.resourceLoader = resourceLoader;
 
-    try {
-      PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(this.classLoader);
-      org.springframework.core.io.Resource[] classpathResources = resolver.getResources("classpath*:" + convertPath(path) + "/*");
-      for (org.springframework.core.io.Resource resource : classpathResources) {
-        if (isFolder(resource)) {
-          folderPaths.add(path + "/" + resource.getFilename());
-        }
-        else {
-          fileUrls.add(resource.getURL());
-        }
-      }
-    }
-    catch (FileNotFoundException ex) {
-      // empty folder
-    }
-    catch (IOException ex) {
-      throw new ResourceException("Unable to enumerate classpath resources at " + path, ex);
+    ClasspathIndex.Listing listing = resourceLoader.getClasspathIndex().getListing(convertPath(path));
+    this.fileUrls = listing.getFileUrls();
+    for (String folderName : listing.getFolderNames()) {
+      folderPaths.add(path + "/" + folderName);
     }
   }
 
-  private static boolean isFolder(org.springframework.core.io.Resource classpathResource) throws IOException {
-    return StringUtils.endsWith(classpathResource.getURL().toString(), "/");
-  }
-
   @Override
   public boolean exists() {
     return !fileUrls.isEmpty();
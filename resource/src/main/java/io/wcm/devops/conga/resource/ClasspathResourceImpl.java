@@ -32,7 +32,7 @@ class ClasspathResourceImpl extends AbstractClasspathResourceImpl implements Res
 
   ClasspathResourceImpl(String path, ResourceLoader resourceLoader) {
     super(path, resourceLoader.getClassLoader());
-    this.url = this.classLoader.getResource(convertPath(path));
+    this.url = resourceLoader.getClasspathIndex().getResourceUrl(convertPath(path));
   }
 
   ClasspathResourceImpl(URL url, ResourceLoader resourceLoader) {
@@ -41,6 +41,7 @@ public final class ResourceLoader {
   public static final String CLASSPATH_PREFIX = "classpath:";
 
   private final ClassLoader classLoader;
+  private final ClasspathIndex classpathIndex;
 
   /**
    * Constructor.
@@ -54,6 +55,7 @@ public final class ResourceLoader {
    */
   public ResourceLoader(ClassLoader classLoader) {
     this.classLoader = classLoader;
+    this.classpathIndex = new ClasspathIndex(classLoader);
   }
 
   /**
@@ -137,6 +139,10 @@ public final class ResourceLoader {
     return classLoader;
   }
 
+  ClasspathIndex getClasspathIndex() {
+    return classpathIndex;
+  }
+
   /**
    * Removes resource type prefix if a prefix is given.
    * @param path Path
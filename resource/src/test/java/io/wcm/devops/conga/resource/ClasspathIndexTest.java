@@ -0,0 +1,139 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.resource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+public class ClasspathIndexTest {
+
+  private File tempDir;
+  private URLClassLoader classLoader;
+  private ClasspathIndex underTest;
+
+  @Before
+  public void setUp() throws IOException {
+    tempDir = Files.createTempDirectory("conga-classpath-index").toFile();
+
+    File dir = new File(tempDir, "classes");
+    FileUtils.write(new File(dir, "folder1/file1.txt"), "dir:folder1/file1.txt", StandardCharsets.UTF_8);
+    new File(dir, "folder1/folder3").mkdirs();
+
+    // second JAR file is referenced via Class-Path manifest header of first JAR file
+    writeJar(new File(tempDir, "jar2.jar"), null,
+        "folder1/file2.txt", "folder1/file3.txt");
+    writeJar(new File(tempDir, "jar1.jar"), "jar2.jar",
+        "folder1/", "folder1/file1.txt", "folder1/file2.txt", "folder1/folder2/", "folder1/folder2/file4.txt");
+
+    classLoader = new URLClassLoader(new URL[] {
+        dir.toURI().toURL(),
+        new File(tempDir, "jar1.jar").toURI().toURL()
+    }, null);
+    underTest = new ClasspathIndex(classLoader);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    classLoader.close();
+    FileUtils.deleteDirectory(tempDir);
+  }
+
+  @Test
+  public void testListing() throws IOException {
+    ClasspathIndex.Listing listing = underTest.getListing("folder1");
+
+    List<URL> fileUrls = listing.getFileUrls();
+    assertEquals(3, fileUrls.size());
+    assertEquals("dir:folder1/file1.txt", read(fileUrls.get(0)));
+    assertEquals("jar1.jar:folder1/file2.txt", read(fileUrls.get(1)));
+    assertEquals("jar2.jar:folder1/file3.txt", read(fileUrls.get(2)));
+
+    assertEquals(ImmutableSet.of("folder2", "folder3"), ImmutableSet.copyOf(listing.getFolderNames()));
+  }
+
+  @Test
+  public void testListingSubfolder() throws IOException {
+    List<URL> fileUrls = underTest.getListing("folder1/folder2/").getFileUrls();
+    assertEquals(1, fileUrls.size());
+    assertEquals("jar1.jar:folder1/folder2/file4.txt", read(fileUrls.get(0)));
+  }
+
+  @Test
+  public void testListingNonExisting() {
+    ClasspathIndex.Listing listing = underTest.getListing("invalidFolder");
+    assertEquals(ImmutableList.of(), listing.getFileUrls());
+    assertEquals(ImmutableList.of(), listing.getFolderNames());
+  }
+
+  @Test
+  public void testResourceUrl() throws IOException {
+    assertEquals("jar2.jar:folder1/file3.txt", read(underTest.getResourceUrl("folder1/file3.txt")));
+    assertNotNull(underTest.getResourceUrl("folder1/file1.txt"));
+    assertNull(underTest.getResourceUrl("folder1/invalid.txt"));
+  }
+
+  private static void writeJar(File file, String classPath, String... entries) throws IOException {
+    Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    if (classPath != null) {
+      manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, classPath);
+    }
+    try (JarOutputStream os = new JarOutputStream(new FileOutputStream(file), manifest)) {
+      for (String entry : entries) {
+        os.putNextEntry(new ZipEntry(entry));
+        if (!entry.endsWith("/")) {
+          os.write((file.getName() + ":" + entry).getBytes(StandardCharsets.UTF_8));
+        }
+        os.closeEntry();
+      }
+    }
+  }
+
+  private static String read(URL url) throws IOException {
+    try (InputStream is = url.openStream()) {
+      return IOUtils.toString(is, StandardCharsets.UTF_8);
+    }
+  }
+
+}
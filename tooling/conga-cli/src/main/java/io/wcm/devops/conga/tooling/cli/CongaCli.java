@@ -25,6 +25,7 @@ import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
 import org.apache.commons.lang3.StringUtils;
 
 import io.wcm.devops.conga.generator.Generator;
@@ -46,6 +47,15 @@ public final class CongaCli {
     CLI_OPTIONS.addOption("environmentDir", true, "Source path with environment definitions.");
     CLI_OPTIONS.addOption("target", true, "Target path for the generated configuration files.");
     CLI_OPTIONS.addOption("environments", true, "Selected environments to generate (separated by ',').");
+    CLI_OPTIONS.addOption("incrementalCacheDir", true, "Directory to store fingerprints for incremental generation. "
+        + "If set, only files with changed inputs are generated.");
+    CLI_OPTIONS.addOption("parallelism", true, "Maximum number of environments that are generated in parallel (default: 1).");
+    CLI_OPTIONS.addOption("nodeParallelism", true, "Maximum number of nodes of an environment that are generated in parallel (default: 1).");
+    CLI_OPTIONS.addOption("urlFileParallelism", true, "Maximum number of files referenced by URL that are fetched in parallel (default: 4).");
+    CLI_OPTIONS.addOption("urlFileHardLinks", false, "Create hard links to files referenced by URL instead of copying them.");
+    CLI_OPTIONS.addOption("modelCacheDir", true, "Directory to store binary snapshots of parsed role and environment definitions. "
+        + "If set, unchanged definitions are loaded from the snapshots.");
+    CLI_OPTIONS.addOption("modelParallelism", true, "Maximum number of definition files that are read in parallel (default: 4).");
     CLI_OPTIONS.addOption("?", false, "Print usage help.");
   }
 
@@ -76,6 +86,13 @@ public final class CongaCli {
     File environmentDir = new File(commandLine.getOptionValue("environmentDir", "environments"));
     File targetDir = new File(commandLine.getOptionValue("target", "target"));
     String[] environments = StringUtils.split(commandLine.getOptionValue("environments", null), ",");
+    String incrementalCacheDir = commandLine.getOptionValue("incrementalCacheDir", null);
+    int parallelism = getParallelism(commandLine, "parallelism", 1);
+    int nodeParallelism = getParallelism(commandLine, "nodeParallelism", 1);
+    int urlFileParallelism = getParallelism(commandLine, "urlFileParallelism", 4);
+    boolean urlFileHardLinks = commandLine.hasOption("urlFileHardLinks");
+    String modelCacheDir = commandLine.getOptionValue("modelCacheDir", null);
+    int modelParallelism = getParallelism(commandLine, "modelParallelism", 4);
 
     GeneratorOptions options = new GeneratorOptions()
         .baseDir(baseDir)
@@ -83,11 +100,45 @@ public final class CongaCli {
         .templateDir(templateDir)
         .environmentDir(environmentDir)
         .destDir(targetDir)
-        .deleteBeforeGenerate(true)
+        // in incremental mode only files that are no longer generated are removed
+        .deleteBeforeGenerate(incrementalCacheDir == null)
+        .incrementalCacheDir(incrementalCacheDir != null ? new File(incrementalCacheDir) : null)
+        .parallelism(parallelism)
+        .nodeParallelism(nodeParallelism)
+        .urlFileParallelism(urlFileParallelism)
+        .urlFileHardLinks(urlFileHardLinks)
+        .modelCacheDir(modelCacheDir != null ? new File(modelCacheDir) : null)
+        .modelParallelism(modelParallelism)
         .pluginManager(new PluginManagerImpl());
 
     Generator generator = new Generator(options);
     generator.generate(environments);
   }
 
+  /**
+   * Get parallelism from command line option.
+   * @param commandLine Command line
+   * @param option Option name
+   * @param defaultValue Default value if option is not set
+   * @return Parallelism
+   * @throws ParseException if the option value is not a number greater or equal 1
+   */
+  private static int getParallelism(CommandLine commandLine, String option, int defaultValue) throws ParseException {
+    String value = commandLine.getOptionValue(option);
+    if (value == null) {
+      return defaultValue;
+    }
+    int parallelism;
+    try {
+      parallelism = Integer.parseInt(StringUtils.trim(value));
+    }
+    catch (NumberFormatException ex) {
+      parallelism = 0;
+    }
+    if (parallelism < 1) {
+      throw new ParseException("Invalid value for option '" + option + "': '" + value + "' - expected a number >= 1.");
+    }
+    return parallelism;
+  }
+
 }
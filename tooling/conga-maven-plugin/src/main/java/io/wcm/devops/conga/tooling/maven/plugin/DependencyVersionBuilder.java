@@ -78,14 +78,14 @@ class DependencyVersionBuilder implements Function<Environment, Collection<Strin
   private List<Artifact> getCompileDependencyArtifacts(MavenArtifactHelper mavenArtifactHelper) throws IOException {
     List<Artifact> artifacts = new ArrayList<>();
     for (Dependency dependency : mavenContext.getProject().getCompileDependencies()) {
-      artifacts.add(mavenArtifactHelper.resolveArtifact(
+      artifacts.add(mavenArtifactHelper.createArtifact(
           dependency.getGroupId(),
           dependency.getArtifactId(),
           dependency.getType(),
           dependency.getClassifier(),
           dependency.getVersion()));
     }
-    return artifacts;
+    return mavenArtifactHelper.resolveArtifacts(artifacts);
   }
 
   private List<Artifact> getEnvironmentDependencyArtifacts(Environment environment, MavenArtifactHelper mavenArtifactHelper) throws IOException {
@@ -19,6 +19,7 @@
  */
 package io.wcm.devops.conga.tooling.maven.plugin;
 
+import java.io.File;
 import java.util.List;
 
 import org.apache.maven.plugin.MojoExecutionException;
@@ -56,10 +57,67 @@ public class GenerateMojo extends AbstractCongaMojo {
 
   /**
    * Delete folders of environments before generating the new files.
+   * Not applied for incremental generation - in this case only files that are no longer generated are removed.
    */
   @Parameter(defaultValue = "false")
   private boolean deleteBeforeGenerate;
 
+  /**
+   * Generate only files whose inputs have changed since the last run, and remove files that are no longer generated.
+   * The environment folders are not deleted before generation in this mode, even if deleteBeforeGenerate is set.
+   */
+  @Parameter(property = "conga.incremental", defaultValue = "false")
+  private boolean incremental;
+
+  /**
+   * Directory to store the input fingerprints of generated files for incremental generation.
+   */
+  @Parameter(defaultValue = "${project.build.directory}/conga-incremental")
+  private File incrementalCacheDir;
+
+  /**
+   * Maximum number of environments that are generated in parallel.
+   */
+  @Parameter(property = "conga.parallelism", defaultValue = "1")
+  private int parallelism;
+
+  /**
+   * Maximum number of nodes of an environment that are generated in parallel.
+   */
+  @Parameter(property = "conga.nodeParallelism", defaultValue = "1")
+  private int nodeParallelism;
+
+  /**
+   * Maximum number of files referenced by URL that are fetched in parallel before generating the nodes of an environment.
+   */
+  @Parameter(property = "conga.urlFileParallelism", defaultValue = "4")
+  private int urlFileParallelism;
+
+  /**
+   * Create hard links to files referenced by URL instead of copying them, if they are available in the local filesystem.
+   * Only use this if no post processor modifies these files in place.
+   */
+  @Parameter(property = "conga.urlFileHardLinks", defaultValue = "false")
+  private boolean urlFileHardLinks;
+
+  /**
+   * Store binary snapshots of parsed role and environment definitions, and load unchanged definitions from them.
+   */
+  @Parameter(property = "conga.modelCache", defaultValue = "false")
+  private boolean modelCache;
+
+  /**
+   * Directory to store the binary snapshots of parsed role and environment definitions.
+   */
+  @Parameter(defaultValue = "${project.build.directory}/conga-model-cache")
+  private File modelCacheDir;
+
+  /**
+   * Maximum number of role or environment definition files that are read in parallel.
+   */
+  @Parameter(property = "conga.modelParallelism", defaultValue = "4")
+  private int modelParallelism;
+
   @Parameter(property = "project", required = true, readonly = true)
   private MavenProject project;
 
@@ -96,6 +154,13 @@ public class GenerateMojo extends AbstractCongaMojo {
         .environmentDir(getEnvironmentDir())
         .destDir(getTargetDir())
         .deleteBeforeGenerate(deleteBeforeGenerate)
+        .incrementalCacheDir(incremental ? incrementalCacheDir : null)
+        .parallelism(parallelism)
+        .nodeParallelism(nodeParallelism)
+        .urlFileParallelism(urlFileParallelism)
+        .urlFileHardLinks(urlFileHardLinks)
+        .modelCacheDir(modelCache ? modelCacheDir : null)
+        .modelParallelism(modelParallelism)
         .version(project.getVersion())
         .modelExport(getModelExport())
         .valueProviderConfig(getValueProviderConfig())
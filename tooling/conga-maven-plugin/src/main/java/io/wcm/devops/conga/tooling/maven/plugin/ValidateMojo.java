@@ -52,6 +52,7 @@ import io.wcm.devops.conga.generator.UrlFileManager;
 import io.wcm.devops.conga.generator.handlebars.HandlebarsManager;
 import io.wcm.devops.conga.generator.spi.context.PluginContextOptions;
 import io.wcm.devops.conga.generator.spi.context.UrlFilePluginContext;
+import io.wcm.devops.conga.generator.util.ClassLoaderRegistry;
 import io.wcm.devops.conga.generator.util.PluginManager;
 import io.wcm.devops.conga.generator.util.PluginManagerImpl;
 import io.wcm.devops.conga.model.environment.Environment;
@@ -93,67 +94,76 @@ public class ValidateMojo extends AbstractCongaMojo {
   @Override
   public void execute() throws MojoExecutionException, MojoFailureException {
     List<URL> mavenProjectClasspathUrls = ClassLoaderUtil.getMavenProjectClasspathUrls(project);
-    ClassLoader mavenProjectClassLoader = ClassLoaderUtil.buildClassLoader(mavenProjectClasspathUrls);
-    ResourceLoader mavenProjectResourceLoader = new ResourceLoader(mavenProjectClassLoader);
-
-    ResourceCollection roleDir = mavenProjectResourceLoader.getResourceCollection(ResourceLoader.FILE_PREFIX + getRoleDir());
-    ResourceCollection templateDir = mavenProjectResourceLoader.getResourceCollection(ResourceLoader.FILE_PREFIX + getTemplateDir());
-    ResourceCollection environmentDir = mavenProjectResourceLoader.getResourceCollection(ResourceLoader.FILE_PREFIX + getEnvironmentDir());
-
-    // validate role definition syntax
-    validateFiles(roleDir, roleDir, new ModelValidator<Role>("Role", new RoleReader()));
-
-    PluginManager pluginManager = new PluginManagerImpl();
-
-    MavenContext mavenContext = new MavenContext()
-        .project(project)
-        .repoSystem(repoSystem)
-        .repoSession(repoSession)
-        .remoteRepos(remoteRepos)
-        .artifactTypeMappings(getArtifactTypeMappings());
-
-    UrlFilePluginContext urlFilePluginContext = new UrlFilePluginContext()
-        .baseDir(project.getBasedir())
-        .resourceClassLoader(mavenProjectClassLoader)
-        .pluginContextOptions(new PluginContextOptions()
-          .containerContext(mavenContext));
-    UrlFileManager urlFileManager = new UrlFileManager(pluginManager, urlFilePluginContext);
-
-    PluginContextOptions pluginContextOptions = new PluginContextOptions()
-        .pluginManager(pluginManager)
-        .urlFileManager(urlFileManager)
-        .valueProviderConfig(getValueProviderConfig())
-        .genericPluginConfig(getPluginConfig())
-        .containerContext(mavenContext)
-        .logger(new MavenSlf4jLogFacade(getLog()));
-
-    // validate that all templates can be compiled
-    HandlebarsManager handlebarsManager = new HandlebarsManager(ImmutableList.of(templateDir), pluginContextOptions);
-    validateFiles(templateDir, templateDir, new TemplateValidator(templateDir, handlebarsManager));
-
-    // validate that roles reference existing templates
-    validateFiles(roleDir, roleDir, new RoleTemplateFileValidator(handlebarsManager));
-
-    // validate that no value providers are used in role files - they should be only used in environment
-    validateFiles(roleDir, roleDir, new NoValueProviderInRoleValidator());
-
-    // validate environment definition syntax
-    List<Environment> environments = validateFiles(environmentDir, environmentDir, new ModelValidator<Environment>("Environment", new EnvironmentReader()));
-
-    // validate version information - for each environment separately
-    for (Environment environment : environments) {
-      UrlFilePluginContext environmentUrlFilePluginContext = new UrlFilePluginContext()
-          .baseDir(project.getBasedir())
-          .resourceClassLoader(mavenProjectClassLoader)
-          .environment(environment)
-          .pluginContextOptions(new PluginContextOptions()
-              .containerContext(mavenContext));
-      UrlFileManager environmentUrlFileManager = new UrlFileManager(pluginManager, environmentUrlFilePluginContext);
 
-      PluginContextOptions environmentPluginContextOptions = new PluginContextOptions()
-          .pluginContextOptions(pluginContextOptions)
-          .urlFileManager(environmentUrlFileManager);
-      validateVersionInfo(environment, mavenProjectClasspathUrls, environmentPluginContextOptions);
+    // class loaders are shared between environments with identical dependencies and closed after validation
+    try (ClassLoaderRegistry classLoaderRegistry = new ClassLoaderRegistry()) {
+      ClassLoader mavenProjectClassLoader = classLoaderRegistry.acquire(mavenProjectClasspathUrls);
+      try {
+        ResourceLoader mavenProjectResourceLoader = new ResourceLoader(mavenProjectClassLoader);
+
+        ResourceCollection roleDir = mavenProjectResourceLoader.getResourceCollection(ResourceLoader.FILE_PREFIX + getRoleDir());
+        ResourceCollection templateDir = mavenProjectResourceLoader.getResourceCollection(ResourceLoader.FILE_PREFIX + getTemplateDir());
+        ResourceCollection environmentDir = mavenProjectResourceLoader.getResourceCollection(ResourceLoader.FILE_PREFIX + getEnvironmentDir());
+
+        // validate role definition syntax
+        validateFiles(roleDir, roleDir, new ModelValidator<Role>("Role", new RoleReader()));
+
+        PluginManager pluginManager = new PluginManagerImpl();
+
+        MavenContext mavenContext = new MavenContext()
+            .project(project)
+            .repoSystem(repoSystem)
+            .repoSession(repoSession)
+            .remoteRepos(remoteRepos)
+            .artifactTypeMappings(getArtifactTypeMappings());
+
+        UrlFilePluginContext urlFilePluginContext = new UrlFilePluginContext()
+            .baseDir(project.getBasedir())
+            .resourceClassLoader(mavenProjectClassLoader)
+            .pluginContextOptions(new PluginContextOptions()
+              .containerContext(mavenContext));
+        UrlFileManager urlFileManager = new UrlFileManager(pluginManager, urlFilePluginContext);
+
+        PluginContextOptions pluginContextOptions = new PluginContextOptions()
+            .pluginManager(pluginManager)
+            .urlFileManager(urlFileManager)
+            .valueProviderConfig(getValueProviderConfig())
+            .genericPluginConfig(getPluginConfig())
+            .containerContext(mavenContext)
+            .logger(new MavenSlf4jLogFacade(getLog()));
+
+        // validate that all templates can be compiled
+        HandlebarsManager handlebarsManager = new HandlebarsManager(ImmutableList.of(templateDir), pluginContextOptions);
+        validateFiles(templateDir, templateDir, new TemplateValidator(templateDir, handlebarsManager));
+
+        // validate that roles reference existing templates
+        validateFiles(roleDir, roleDir, new RoleTemplateFileValidator(handlebarsManager));
+
+        // validate that no value providers are used in role files - they should be only used in environment
+        validateFiles(roleDir, roleDir, new NoValueProviderInRoleValidator());
+
+        // validate environment definition syntax
+        List<Environment> environments = validateFiles(environmentDir, environmentDir, new ModelValidator<Environment>("Environment", new EnvironmentReader()));
+
+        // validate version information - for each environment separately
+        for (Environment environment : environments) {
+          UrlFilePluginContext environmentUrlFilePluginContext = new UrlFilePluginContext()
+              .baseDir(project.getBasedir())
+              .resourceClassLoader(mavenProjectClassLoader)
+              .environment(environment)
+              .pluginContextOptions(new PluginContextOptions()
+                  .containerContext(mavenContext));
+          UrlFileManager environmentUrlFileManager = new UrlFileManager(pluginManager, environmentUrlFilePluginContext);
+
+          PluginContextOptions environmentPluginContextOptions = new PluginContextOptions()
+              .pluginContextOptions(pluginContextOptions)
+              .urlFileManager(environmentUrlFileManager);
+          validateVersionInfo(environment, mavenProjectClasspathUrls, environmentPluginContextOptions, classLoaderRegistry);
+        }
+      }
+      finally {
+        classLoaderRegistry.release(mavenProjectClassLoader);
+      }
     }
   }
 
@@ -194,23 +204,28 @@ public class ValidateMojo extends AbstractCongaMojo {
    * @param environment Environment
    * @param mavenProjectClasspathUrls Classpath URLs of maven project
    * @param pluginContextOptions Plugin context options
+   * @param classLoaderRegistry Class loader registry
    * @throws MojoExecutionException
    */
-  private void validateVersionInfo(Environment environment, List<URL> mavenProjectClasspathUrls, PluginContextOptions pluginContextOptions)
-      throws MojoExecutionException {
+  private void validateVersionInfo(Environment environment, List<URL> mavenProjectClasspathUrls, PluginContextOptions pluginContextOptions,
+      ClassLoaderRegistry classLoaderRegistry) throws MojoExecutionException {
 
     // build combined classpath for dependencies defined in environment and maven project
     List<URL> classpathUrls = new ArrayList<>();
     classpathUrls.addAll(getEnvironmentClasspathUrls(environment.getDependencies(), pluginContextOptions));
     classpathUrls.addAll(mavenProjectClasspathUrls);
-    ClassLoader environmentDependenciesClassLoader = ClassLoaderUtil.buildClassLoader(classpathUrls);
-
-    // get version info from this project
-    Properties currentVersionInfo = VersionInfoUtil.getVersionInfoProperties(project);
+    ClassLoader environmentDependenciesClassLoader = classLoaderRegistry.acquire(classpathUrls);
+    try {
+      // get version info from this project
+      Properties currentVersionInfo = VersionInfoUtil.getVersionInfoProperties(project);
 
-    // validate current version info against dependency version infos
-    for (Properties dependencyVersionInfo : getDependencyVersionInfos(environmentDependenciesClassLoader)) {
-      validateVersionInfo(currentVersionInfo, dependencyVersionInfo);
+      // validate current version info against dependency version infos
+      for (Properties dependencyVersionInfo : getDependencyVersionInfos(environmentDependenciesClassLoader)) {
+        validateVersionInfo(currentVersionInfo, dependencyVersionInfo);
+      }
+    }
+    finally {
+      classLoaderRegistry.release(environmentDependenciesClassLoader);
     }
 
   }
@@ -25,6 +25,7 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -81,6 +82,13 @@ public class MavenUrlFilePlugin implements UrlFilePlugin {
     return file.toURI().toURL();
   }
 
+  @Override
+  public Path getLocalFile(String url, UrlFilePluginContext context) throws IOException {
+    MavenArtifactHelper mavenArtifactHelper = new MavenArtifactHelper(context.getEnvironment(), context.getPluginContextOptions());
+    File file = mavenArtifactHelper.resolveArtifact(getMavenCoords(url)).getFile();
+    return file.toPath();
+  }
+
   @Override
   public List<URL> getFileUrlsWithDependencies(String url, UrlFilePluginContext context) throws IOException {
     MavenArtifactHelper mavenArtifactHelper = new MavenArtifactHelper(context.getEnvironment(), context.getPluginContextOptions());
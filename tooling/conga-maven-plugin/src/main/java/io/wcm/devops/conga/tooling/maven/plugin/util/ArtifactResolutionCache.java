@@ -0,0 +1,92 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2018 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.devops.conga.tooling.maven.plugin.util;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.aether.artifact.Artifact;
+
+/**
+ * Memoizes artifact resolution results for the lifetime of a {@link MavenContext}, which is created once per
+ * Maven plugin execution. All environments and URL file lookups of one execution share the same repository session
+ * and remote repositories, so results can be reused safely.
+ */
+final class ArtifactResolutionCache {
+
+  private final Map<String, Artifact> resolvedArtifacts = new ConcurrentHashMap<>();
+  private final Map<String, List<Artifact>> transitiveDependencies = new ConcurrentHashMap<>();
+  private final Map<List<String>, List<Artifact>> dependencyUrlArtifacts = new ConcurrentHashMap<>();
+
+  /**
+   * @param artifact Unresolved artifact
+   * @return Resolved artifact or null if not resolved yet
+   */
+  Artifact getResolvedArtifact(Artifact artifact) {
+    return resolvedArtifacts.get(toKey(artifact));
+  }
+
+  /**
+   * @param artifact Unresolved artifact
+   * @param resolvedArtifact Resolved artifact
+   */
+  void putResolvedArtifact(Artifact artifact, Artifact resolvedArtifact) {
+    resolvedArtifacts.put(toKey(artifact), resolvedArtifact);
+  }
+
+  /**
+   * @param artifact Artifact
+   * @return Resolved compile dependencies or null if not resolved yet
+   */
+  List<Artifact> getTransitiveDependencies(Artifact artifact) {
+    return transitiveDependencies.get(toKey(artifact));
+  }
+
+  /**
+   * @param artifact Artifact
+   * @param dependencies Resolved compile dependencies
+   */
+  void putTransitiveDependencies(Artifact artifact, List<Artifact> dependencies) {
+    transitiveDependencies.put(toKey(artifact), dependencies);
+  }
+
+  /**
+   * @param mavenCoords List of Maven coordinates of environment dependencies
+   * @return Resolved artifacts including their dependencies or null if not resolved yet
+   */
+  List<Artifact> getDependencyUrlArtifacts(List<String> mavenCoords) {
+    return dependencyUrlArtifacts.get(mavenCoords);
+  }
+
+  /**
+   * @param mavenCoords List of Maven coordinates of environment dependencies
+   * @param artifacts Resolved artifacts including their dependencies
+   */
+  void putDependencyUrlArtifacts(List<String> mavenCoords, List<Artifact> artifacts) {
+    dependencyUrlArtifacts.put(mavenCoords, artifacts);
+  }
+
+  private static String toKey(Artifact artifact) {
+    return artifact.getGroupId() + ":" + artifact.getArtifactId() + ":" + artifact.getExtension()
+        + ":" + artifact.getClassifier() + ":" + artifact.getVersion();
+  }
+
+}
@@ -62,6 +62,7 @@ public class MavenArtifactHelper {
   private final Map<String, String> artifactTypeMappings;
   private final List<String> environmentDependencyUrls;
   private final PluginContextOptions pluginContextOptions;
+  private final ArtifactResolutionCache artifactResolutionCache;
 
   /**
    * @param environment CONGA environment
@@ -76,6 +77,7 @@ public class MavenArtifactHelper {
     this.artifactTypeMappings = mavenContext.getArtifactTypeMappings();
     this.environmentDependencyUrls = environment != null ? environment.getDependencies() : ImmutableList.of();
     this.pluginContextOptions = pluginContextOptions;
+    this.artifactResolutionCache = mavenContext.getArtifactResolutionCache();
   }
 
   /**
@@ -85,14 +87,7 @@ public class MavenArtifactHelper {
    * @throws IOException If artifact resolution was not successful
    */
   public Artifact resolveArtifact(String artifactCoords) throws IOException {
-    Artifact artifact;
-    if (StringUtils.contains(artifactCoords, "/")) {
-      artifact = getArtifactFromMavenCoordinatesPaxUrlStyle(artifactCoords);
-    }
-    else {
-      artifact = getArtifactFromMavenCoordinates(artifactCoords);
-    }
-    return resolveArtifact(artifact);
+    return resolveArtifact(getArtifact(artifactCoords));
   }
 
   /**
@@ -110,6 +105,42 @@ public class MavenArtifactHelper {
     return resolveArtifact(artifact);
   }
 
+  /**
+   * Resolves a list of Maven artifacts with a single call to the repository system.
+   * Artifacts that were already resolved within the same Maven context are taken from the cache.
+   * @param artifacts Unresolved Maven artifacts
+   * @return Resolved artifacts in the same order
+   * @throws IOException If artifact resolution was not successful
+   */
+  public List<Artifact> resolveArtifacts(List<Artifact> artifacts) throws IOException {
+    List<ArtifactRequest> artifactRequests = new ArrayList<>();
+    for (Artifact artifact : artifacts) {
+      if (artifactResolutionCache.getResolvedArtifact(artifact) == null) {
+        ArtifactRequest artifactRequest = new ArtifactRequest();
+        artifactRequest.setArtifact(artifact);
+        artifactRequest.setRepositories(remoteRepos);
+        artifactRequests.add(artifactRequest);
+      }
+    }
+
+    if (!artifactRequests.isEmpty()) {
+      try {
+        for (ArtifactResult result : repoSystem.resolveArtifacts(repoSession, artifactRequests)) {
+          artifactResolutionCache.putResolvedArtifact(result.getRequest().getArtifact(), result.getArtifact());
+        }
+      }
+      catch (final ArtifactResolutionException ex) {
+        throw new IOException("Unable to get artifacts " + artifacts + ": " + ex.getMessage(), ex);
+      }
+    }
+
+    List<Artifact> resolvedArtifacts = new ArrayList<>();
+    for (Artifact artifact : artifacts) {
+      resolvedArtifacts.add(resolveArtifact(artifact));
+    }
+    return resolvedArtifacts;
+  }
+
   /**
    * Get transitive compile dependencies of given artifact.
    * @param artifact Maven artifact
@@ -117,23 +148,27 @@ public class MavenArtifactHelper {
    * @throws IOException If artifact resolution was not successful
    */
   public List<Artifact> getTransitiveDependencies(Artifact artifact) throws IOException {
-    List<Artifact> dependencies = new ArrayList<>();
-    ArtifactDescriptorRequest descriptorRequest = new ArtifactDescriptorRequest();
-    descriptorRequest.setArtifact(artifact);
-    descriptorRequest.setRepositories(remoteRepos);
-    try {
-      ArtifactDescriptorResult result = repoSystem.readArtifactDescriptor(repoSession, descriptorRequest);
-      for (Dependency dependency : result.getDependencies()) {
-        if (StringUtils.equals(dependency.getScope(), SCOPE_COMPILE)) {
-          Artifact resolvedArtifact = resolveArtifact(dependency.getArtifact());
-          dependencies.add(resolvedArtifact);
+    List<Artifact> dependencies = artifactResolutionCache.getTransitiveDependencies(artifact);
+    if (dependencies == null) {
+      List<Artifact> dependencyArtifacts = new ArrayList<>();
+      ArtifactDescriptorRequest descriptorRequest = new ArtifactDescriptorRequest();
+      descriptorRequest.setArtifact(artifact);
+      descriptorRequest.setRepositories(remoteRepos);
+      try {
+        ArtifactDescriptorResult result = repoSystem.readArtifactDescriptor(repoSession, descriptorRequest);
+        for (Dependency dependency : result.getDependencies()) {
+          if (StringUtils.equals(dependency.getScope(), SCOPE_COMPILE)) {
+            dependencyArtifacts.add(dependency.getArtifact());
+          }
         }
       }
+      catch (ArtifactDescriptorException ex) {
+        throw new IOException("Unable to get artifact descriptor for: '" + artifact + "': " + ex.getMessage(), ex);
+      }
+      dependencies = ImmutableList.copyOf(resolveArtifacts(dependencyArtifacts));
+      artifactResolutionCache.putTransitiveDependencies(artifact, dependencies);
     }
-    catch (ArtifactDescriptorException ex) {
-      throw new IOException("Unable to get artifact descriptor for: '" + artifact + "': " + ex.getMessage(), ex);
-    }
-    return dependencies;
+    return new ArrayList<>(dependencies);
   }
 
   /**
@@ -144,19 +179,45 @@ public class MavenArtifactHelper {
    * @throws IOException If dependency resolution fails
    */
   public List<Artifact> dependencyUrlsToArtifactsWithTransitiveDependencies(Collection<String> dependencyUrls) throws IOException {
-    List<Artifact> artifacts = new ArrayList<>();
-    for (String dependencyUrl : environmentDependencyUrls) {
+    List<String> mavenCoordsList = new ArrayList<>();
+    for (String dependencyUrl : dependencyUrls) {
       String resolvedDependencyUrl = ClassLoaderUtil.resolveDependencyUrl(dependencyUrl, pluginContextOptions);
-      if (!StringUtils.startsWith(resolvedDependencyUrl, MavenUrlFilePlugin.PREFIX)) {
-        continue;
+      if (StringUtils.startsWith(resolvedDependencyUrl, MavenUrlFilePlugin.PREFIX)) {
+        mavenCoordsList.add(MavenUrlFilePlugin.getMavenCoords(resolvedDependencyUrl));
       }
+    }
 
-      String mavenCoords = MavenUrlFilePlugin.getMavenCoords(resolvedDependencyUrl);
-      Artifact artifact = resolveArtifact(mavenCoords);
-      artifacts.add(artifact);
-      artifacts.addAll(getTransitiveDependencies(artifact));
+    // environments sharing the same dependency set are resolved only once
+    List<Artifact> artifacts = artifactResolutionCache.getDependencyUrlArtifacts(mavenCoordsList);
+    if (artifacts == null) {
+      List<Artifact> unresolvedArtifacts = new ArrayList<>();
+      for (String mavenCoords : mavenCoordsList) {
+        unresolvedArtifacts.add(getArtifact(mavenCoords));
+      }
+
+      List<Artifact> result = new ArrayList<>();
+      for (Artifact artifact : resolveArtifacts(unresolvedArtifacts)) {
+        result.add(artifact);
+        result.addAll(getTransitiveDependencies(artifact));
+      }
+      artifacts = ImmutableList.copyOf(result);
+      artifactResolutionCache.putDependencyUrlArtifacts(mavenCoordsList, artifacts);
+    }
+    return new ArrayList<>(artifacts);
+  }
+
+  /**
+   * Get (unresolved) Maven artifact for given artifact coordinates.
+   * @param artifactCoords Artifact coordinates in either Maven-style or Pax URL-style.
+   * @return Artifact object
+   */
+  private Artifact getArtifact(String artifactCoords) throws IOException {
+    if (StringUtils.contains(artifactCoords, "/")) {
+      return getArtifactFromMavenCoordinatesPaxUrlStyle(artifactCoords);
+    }
+    else {
+      return getArtifactFromMavenCoordinates(artifactCoords);
     }
-    return artifacts;
   }
 
   /**
@@ -219,7 +280,18 @@ public class MavenArtifactHelper {
     return createArtifact(groupId, artifactId, packaging, classifier, version);
   }
 
-  private Artifact createArtifact(String groupId, String artifactId, String type, String classifier, String version) throws IOException {
+  /**
+   * Create (unresolved) Maven artifact. If no version is given it is looked up in the Maven project
+   * and environment dependencies.
+   * @param groupId Group Id
+   * @param artifactId Artifact Id
+   * @param type Type
+   * @param classifier Classifier
+   * @param version Version
+   * @return Artifact
+   * @throws IOException If the artifact reference is invalid or version lookup fails
+   */
+  public Artifact createArtifact(String groupId, String artifactId, String type, String classifier, String version) throws IOException {
 
     String artifactVersion = version;
     if (artifactVersion == null) {
@@ -254,12 +326,18 @@ public class MavenArtifactHelper {
   }
 
   private Artifact resolveArtifact(Artifact artifact) throws IOException {
+    Artifact resolvedArtifact = artifactResolutionCache.getResolvedArtifact(artifact);
+    if (resolvedArtifact != null) {
+      return resolvedArtifact;
+    }
     ArtifactRequest artifactRequest = new ArtifactRequest();
     artifactRequest.setArtifact(artifact);
     artifactRequest.setRepositories(remoteRepos);
     try {
       ArtifactResult result = repoSystem.resolveArtifact(repoSession, artifactRequest);
-      return result.getArtifact();
+      resolvedArtifact = result.getArtifact();
+      artifactResolutionCache.putResolvedArtifact(artifact, resolvedArtifact);
+      return resolvedArtifact;
     }
     catch (final ArtifactResolutionException ex) {
       throw new IOException("Unable to get artifact for '" + artifact + "': " + ex.getMessage(), ex);
@@ -37,6 +37,7 @@ public final class MavenContext {
   private RepositorySystemSession repoSession;
   private List<RemoteRepository> remoteRepos;
   private Map<String, String> artifactTypeMappings;
+  private final ArtifactResolutionCache artifactResolutionCache = new ArtifactResolutionCache();
 
   /**
    * @return Maven project
@@ -118,4 +119,11 @@ public final class MavenContext {
     return this;
   }
 
+  /**
+   * @return Cache for artifact resolution results shared by all helpers using this context
+   */
+  ArtifactResolutionCache getArtifactResolutionCache() {
+    return this.artifactResolutionCache;
+  }
+
 }